@@ -0,0 +1,110 @@
+package com.gabs.minhasfinancias.benchmark;
+
+import com.gabs.minhasfinancias.MinhasfinanciasApplication;
+import com.gabs.minhasfinancias.config.ExecucaoConfiguration;
+import com.gabs.minhasfinancias.services.SaldoService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+ TESTE DE CARGA DOS MODOS DE EXECUCAO: SOBE A APLICACAO NUMA PORTA ALEATORIA COM O modo INFORMADO E DISPARA
+ REQUISICOES HTTP DE 64 THREADS CONTRA O RELATORIO MENSAL (AGREGACAO SOBRE volume LANCAMENTOS) E O SALDO
+ O TOMCAT, O POOL ASSINCRONO E O HIKARI FICAM PEQUENOS DE PROPOSITO PARA A FILA APARECER NOS PERCENTIS
+ O MODO VIRTUAL EXIGE JAVA 21: -Djmh.args="CargaExecucao -p modo=VIRTUAL"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(64)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class CargaExecucaoBenchmark {
+
+    private static final int LOTE = 5000;
+
+    @Param({"BLOQUEANTE", "ASSINCRONO"})
+    public ExecucaoConfiguration.Modo modo;
+
+    @Param({"50000"})
+    public int volume;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient cliente;
+    private HttpRequest relatorioMensal;
+    private HttpRequest saldo;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(MinhasfinanciasApplication.class)
+                .profiles("test")
+                .properties("server.port=0", "minhasfinancas.saldo.reconciliacao.habilitada=false",
+                        "spring.jpa.show-sql=false",
+                        ExecucaoConfiguration.PROPRIEDADE_MODO + "=" + modo,
+                        "server.tomcat.threads.max=16",
+                        "minhasfinancas.execucao.threads=16",
+                        "spring.datasource.hikari.maximum-pool-size=16")
+                .run();
+
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        jdbc.update("insert into financas.usuario (nome, email, senha) values ('carga', 'carga@email.com', 'senha')");
+        Long idUsuario = jdbc.queryForObject("select id from financas.usuario where email = 'carga@email.com'", Long.class);
+        popular(jdbc, idUsuario, volume);
+        context.getBean(SaldoService.class).reconciliar(idUsuario);
+
+        int porta = ((WebServerApplicationContext) context).getWebServer().getPort();
+        String base = "http://localhost:" + porta + "/api/usuarios/" + idUsuario;
+        cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        relatorioMensal = HttpRequest.newBuilder(URI.create(base + "/relatorio/mensal")).GET().build();
+        saldo = HttpRequest.newBuilder(URI.create(base + "/saldo")).GET().build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private static void popular(JdbcTemplate jdbc, Long idUsuario, int quantidade) {
+        Random random = new Random(42);
+        List<Object[]> lote = new ArrayList<>(LOTE);
+        for(int i = 0; i < quantidade; i++) {
+            lote.add(new Object[]{"carga " + i, 1 + random.nextInt(12), 2013 + random.nextInt(10),
+                    BigDecimal.valueOf(1 + random.nextInt(100000), 2), random.nextBoolean() ? "RECEITA" : "DESPESA",
+                    random.nextBoolean() ? "EFETIVADO" : "PENDENTE", idUsuario});
+            if(lote.size() == LOTE || i == quantidade - 1) {
+                jdbc.batchUpdate("insert into financas.lancamento (id, descricao, mes, ano, valor, tipo, status, id_usuario, versao) " +
+                        "values (next value for financas.lancamento_id_seq, ?, ?, ?, ?, ?, ?, ?, 0)", lote);
+                lote.clear();
+            }
+        }
+    }
+
+    private int enviar(HttpRequest request) throws Exception {
+        HttpResponse<Void> resposta = cliente.send(request, HttpResponse.BodyHandlers.discarding());
+        if(resposta.statusCode() != 200) {
+            throw new IllegalStateException("Resposta inesperada: " + resposta.statusCode());
+        }
+        return resposta.statusCode();
+    }
+
+    @Benchmark
+    public int obterRelatorioMensal() throws Exception {
+        return enviar(relatorioMensal);
+    }
+
+    @Benchmark
+    public int obterSaldo() throws Exception {
+        return enviar(saldo);
+    }
+}
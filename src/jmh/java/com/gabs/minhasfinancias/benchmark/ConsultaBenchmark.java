@@ -0,0 +1,127 @@
+package com.gabs.minhasfinancias.benchmark;
+
+import com.gabs.minhasfinancias.MinhasfinanciasApplication;
+import com.gabs.minhasfinancias.dto.LancamentoDTO;
+import com.gabs.minhasfinancias.dto.LancamentoFiltro;
+import com.gabs.minhasfinancias.model.enums.StatusLancamento;
+import com.gabs.minhasfinancias.model.enums.TipoLancamento;
+import com.gabs.minhasfinancias.repositories.LancamentoRepository;
+import com.gabs.minhasfinancias.services.LancamentoService;
+import com.gabs.minhasfinancias.services.SaldoService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+ MEDE buscar E obterSaldoPorUsuario SOBRE O H2 DO PERFIL test, POPULADO COM volume LANCAMENTOS DO USUARIO 1
+ (DISTRIBUIDOS EM 10 ANOS) E 1000 LANCAMENTOS DE OUTRO USUARIO
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ConsultaBenchmark {
+
+    private static final int LOTE = 5000;
+
+    @Param({"1000", "100000", "1000000"})
+    public int volume;
+
+    private ConfigurableApplicationContext context;
+    private LancamentoService lancamentoService;
+    private LancamentoRepository lancamentoRepository;
+    private Long idUsuario;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(MinhasfinanciasApplication.class)
+                .profiles("test")
+                .properties("server.port=0", "minhasfinancas.saldo.reconciliacao.habilitada=false",
+                        "spring.jpa.show-sql=false")
+                .run();
+        lancamentoService = context.getBean(LancamentoService.class);
+        lancamentoRepository = context.getBean(LancamentoRepository.class);
+
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        idUsuario = criarUsuario(jdbc, "benchmark@email.com");
+        Long outroUsuario = criarUsuario(jdbc, "outro@email.com");
+        popular(jdbc, idUsuario, volume);
+        popular(jdbc, outroUsuario, 1000);
+
+        // a carga via JDBC não passa pelo serviço, então a projeção de saldo é reconstruída
+        context.getBean(SaldoService.class).reconciliar(idUsuario);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private static Long criarUsuario(JdbcTemplate jdbc, String email) {
+        jdbc.update("insert into financas.usuario (nome, email, senha) values ('benchmark', ?, 'senha')", email);
+        return jdbc.queryForObject("select id from financas.usuario where email = ?", Long.class, email);
+    }
+
+    private static void popular(JdbcTemplate jdbc, Long idUsuario, int quantidade) {
+        Random random = new Random(42);
+        String[] descricoes = {"Aluguel", "Mercado", "Salario", "Farmacia", "Combustivel", "Restaurante"};
+        TipoLancamento[] tipos = TipoLancamento.values();
+        StatusLancamento[] status = StatusLancamento.values();
+
+        List<Object[]> lote = new ArrayList<>(LOTE);
+        for(int i = 0; i < quantidade; i++) {
+            lote.add(new Object[]{
+                    descricoes[random.nextInt(descricoes.length)] + " " + i,
+                    1 + random.nextInt(12),
+                    2013 + random.nextInt(10),
+                    BigDecimal.valueOf(1 + random.nextInt(100000), 2),
+                    tipos[random.nextInt(tipos.length)].name(),
+                    status[random.nextInt(status.length)].name(),
+                    idUsuario});
+            if(lote.size() == LOTE || i == quantidade - 1) {
+                jdbc.batchUpdate("insert into financas.lancamento (id, descricao, mes, ano, valor, tipo, status, id_usuario, versao) " +
+                        "values (next value for financas.lancamento_id_seq, ?, ?, ?, ?, ?, ?, ?, 0)", lote);
+                lote.clear();
+            }
+        }
+    }
+
+    @Benchmark
+    public List<LancamentoDTO> buscarPorUsuario() {
+        return lancamentoService.buscar(LancamentoFiltro.builder().usuario(idUsuario).build(), null, null, null);
+    }
+
+    @Benchmark
+    public List<LancamentoDTO> buscarPorUsuarioAnoMes() {
+        return lancamentoService.buscar(LancamentoFiltro.builder().usuario(idUsuario).ano(2020).mes(6).build(), null, null, null);
+    }
+
+    @Benchmark
+    public List<LancamentoDTO> buscarPorUsuarioAnoMesTipo() {
+        return lancamentoService.buscar(LancamentoFiltro.builder().usuario(idUsuario).ano(2020).mes(6)
+                .tipo(TipoLancamento.DESPESA).build(), null, null, null);
+    }
+
+    @Benchmark
+    public List<LancamentoDTO> buscarPorDescricao() {
+        return lancamentoService.buscar(LancamentoFiltro.builder().usuario(idUsuario).descricao("mercado").build(), null, null, null);
+    }
+
+    @Benchmark
+    public BigDecimal obterSaldoPorUsuario() {
+        return lancamentoService.obterSaldoPorUsuario(idUsuario);
+    }
+
+    @Benchmark
+    public BigDecimal somarLancamentosEfetivados() {
+        // referência: a soma direta que o saldo fazia antes da projeção
+        return lancamentoRepository.obterSaldoPorTipoLancamentoEUsuarioEStatus(idUsuario, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO);
+    }
+}
@@ -0,0 +1,80 @@
+package com.gabs.minhasfinancias.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gabs.minhasfinancias.dto.LancamentoDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/*
+ SERIALIZACAO DE UMA RESPOSTA DE volume LancamentoDTO EM JSON E CBOR, COM E SEM GZIP (NIVEL PADRAO, COMO O TOMCAT)
+ O TEMPO SAI NO RELATORIO DO JMH; OS BYTES NA REDE DE CADA COMBINACAO SAO IMPRESSOS NO FIM DE CADA TRIAL
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+public class FormatoRespostaBenchmark {
+
+    public enum Formato {JSON, CBOR}
+
+    @Param({"JSON", "CBOR"})
+    public Formato formato;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    @Param({"10000"})
+    public int volume;
+
+    private ObjectMapper mapper;
+    private List<LancamentoDTO> lancamentos;
+    private int bytes;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        // mesmos builders que o Spring Boot usa para os conversores de application/json e application/cbor
+        mapper = formato == Formato.JSON
+                ? Jackson2ObjectMapperBuilder.json().build()
+                : Jackson2ObjectMapperBuilder.cbor().build();
+
+        Random random = new Random(42);
+        lancamentos = new ArrayList<>(volume);
+        for(int i = 0; i < volume; i++) {
+            lancamentos.add(LancamentoDTO.builder()
+                    .id(i + 1)
+                    .descricao("lancamento " + random.nextInt(1000))
+                    .mes(1 + random.nextInt(12))
+                    .ano(2013 + random.nextInt(10))
+                    .valor(BigDecimal.valueOf(1 + random.nextInt(100000), 2))
+                    .usuario(1L)
+                    .tipo(random.nextBoolean() ? "RECEITA" : "DESPESA")
+                    .status(random.nextBoolean() ? "EFETIVADO" : "PENDENTE")
+                    .build());
+        }
+        bytes = serializar().length;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%n%s%s, %d lancamentos: %d bytes%n", formato, gzip ? "+gzip" : "", volume, bytes);
+    }
+
+    @Benchmark
+    public byte[] serializar() throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(1 << 20);
+        try (OutputStream destino = gzip ? new GZIPOutputStream(saida, 8192) : saida) {
+            mapper.writeValue(destino, lancamentos);
+        }
+        return saida.toByteArray();
+    }
+}
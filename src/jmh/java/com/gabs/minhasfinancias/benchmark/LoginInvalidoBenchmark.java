@@ -0,0 +1,56 @@
+package com.gabs.minhasfinancias.benchmark;
+
+import com.gabs.minhasfinancias.exception.ErroAutenticacaoException;
+import com.gabs.minhasfinancias.model.entity.Usuario;
+import com.gabs.minhasfinancias.repositories.UsuarioRepository;
+import com.gabs.minhasfinancias.services.SenhaService;
+import com.gabs.minhasfinancias.services.impl.UsuarioServiceImpl;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/*
+ LOGINS RECUSADOS POR SEGUNDO: UsuarioServiceImpl.autenticar COM EMAIL DESCONHECIDO E COM SENHA ERRADA,
+ ATE A MENSAGEM DE ERRO QUE VAI PARA A RESPOSTA. O HASH DA SENHA FICA DE FORA (VER SenhaBenchmark):
+ O REPOSITORIO E A CONFERENCIA DA SENHA SAO FIXOS PARA ISOLAR O CUSTO DO ERRO
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+public class LoginInvalidoBenchmark {
+
+    private UsuarioServiceImpl service;
+
+    @Setup
+    public void setup() {
+        Usuario usuario = Usuario.builder().id(1L).nome("usuario").email("usuario@email.com").senha("hash").build();
+        // stubOnly: os mocks não guardam as chamadas, que seriam milhões durante a medição
+        UsuarioRepository repository = Mockito.mock(UsuarioRepository.class, Mockito.withSettings().stubOnly());
+        Mockito.when(repository.findByEmail(usuario.getEmail())).thenReturn(Optional.of(usuario));
+        // qualquer senha é recusada, sem calcular hash
+        SenhaService senhaService = Mockito.mock(SenhaService.class, Mockito.withSettings().stubOnly());
+        Mockito.when(senhaService.hashFicticio()).thenReturn("hash");
+        service = new UsuarioServiceImpl(repository, senhaService);
+    }
+
+    @Benchmark
+    public String loginEmailDesconhecido() {
+        return autenticar("desconhecido@email.com", "senha");
+    }
+
+    @Benchmark
+    public String loginSenhaIncorreta() {
+        return autenticar("usuario@email.com", "errada");
+    }
+
+    private String autenticar(String email, String senha) {
+        try {
+            return service.autenticar(email, senha).getEmail();
+        } catch (ErroAutenticacaoException erroAutenticacaoException) {
+            return erroAutenticacaoException.getMessage();
+        }
+    }
+}
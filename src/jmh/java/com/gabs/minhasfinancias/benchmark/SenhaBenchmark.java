@@ -0,0 +1,50 @@
+package com.gabs.minhasfinancias.benchmark;
+
+import com.gabs.minhasfinancias.config.SenhaConfiguration;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ LOGINS POR SEGUNDO POR NUCLEO: UMA THREAD CONFERINDO A SENHA CONTRA O HASH GRAVADO
+ O RESULTADO DE custo AJUDA A ESCOLHER minhasfinancas.senha.custo PARA O HARDWARE DE PRODUCAO
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+public class SenhaBenchmark {
+
+    @Param({"8", "10", "12"})
+    public int custo;
+
+    private PasswordEncoder bcrypt;
+    private PasswordEncoder pbkdf2;
+    private String hashBcrypt;
+    private String hashPbkdf2;
+
+    @Setup
+    public void setup() {
+        SenhaConfiguration configuracao = new SenhaConfiguration();
+        bcrypt = configuracao.passwordEncoder("bcrypt", custo, 310000);
+        pbkdf2 = configuracao.passwordEncoder("pbkdf2", custo, 310000);
+        hashBcrypt = bcrypt.encode("senha-do-usuario");
+        hashPbkdf2 = pbkdf2.encode("senha-do-usuario");
+    }
+
+    @Benchmark
+    public boolean loginBcrypt() {
+        return bcrypt.matches("senha-do-usuario", hashBcrypt);
+    }
+
+    @Benchmark
+    public boolean loginPbkdf2() {
+        return pbkdf2.matches("senha-do-usuario", hashPbkdf2);
+    }
+
+    @Benchmark
+    public boolean loginSenhaLegada() {
+        return bcrypt.matches("senha-do-usuario", "senha-do-usuario");
+    }
+}
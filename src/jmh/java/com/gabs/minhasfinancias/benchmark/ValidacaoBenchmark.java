@@ -0,0 +1,84 @@
+package com.gabs.minhasfinancias.benchmark;
+
+import com.gabs.minhasfinancias.exception.RegraNegocioException;
+import com.gabs.minhasfinancias.model.entity.Lancamento;
+import com.gabs.minhasfinancias.model.entity.Usuario;
+import com.gabs.minhasfinancias.model.enums.TipoLancamento;
+import com.gabs.minhasfinancias.services.impl.LancamentoServiceImpl;
+import com.gabs.minhasfinancias.services.validacao.ValidadorLancamento;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/*
+ MEDE LancamentoServiceImpl.validar PARA UM LANCAMENTO VALIDO E PARA O ULTIMO ERRO DA SEQUENCIA DE REGRAS,
+ A VERIFICACAO DE TODAS AS REGRAS SEM EXCECAO E O RECONHECIMENTO DE UM TIPO DESCONHECIDO (porNome x valueOf)
+ RODAR COM -prof gc PARA VER A ALOCACAO POR OPERACAO (gc.alloc.rate.norm)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValidacaoBenchmark {
+
+    private LancamentoServiceImpl service;
+    private Lancamento valido;
+    private Lancamento semTipo;
+    private Lancamento vazio;
+    private String tipoDesconhecido;
+
+    @Setup
+    public void setup() {
+        service = new LancamentoServiceImpl(null, null, null, null, null);
+        valido = criarLancamento(TipoLancamento.DESPESA);
+        semTipo = criarLancamento(null);
+        vazio = new Lancamento();
+        tipoDesconhecido = "TRANSFERENCIA";
+    }
+
+    private static Lancamento criarLancamento(TipoLancamento tipo) {
+        return Lancamento.builder()
+                .descricao("Aluguel")
+                .mes(10)
+                .ano(2022)
+                .valor(BigDecimal.valueOf(1200))
+                .tipo(tipo)
+                .usuario(Usuario.builder().id(1L).build())
+                .build();
+    }
+
+    @Benchmark
+    public Lancamento validarLancamentoValido() {
+        service.validar(valido);
+        return valido;
+    }
+
+    @Benchmark
+    public void validarLancamentoInvalido(Blackhole blackhole) {
+        try {
+            service.validar(semTipo);
+        } catch (RegraNegocioException regraNegocioException) {
+            blackhole.consume(regraNegocioException);
+        }
+    }
+
+    @Benchmark
+    public int verificarLancamentoComTodasAsViolacoes() {
+        return ValidadorLancamento.verificar(vazio);
+    }
+
+    @Benchmark
+    public TipoLancamento reconhecerTipoDesconhecido() {
+        return TipoLancamento.porNome(tipoDesconhecido);
+    }
+
+    @Benchmark
+    public TipoLancamento reconhecerTipoDesconhecidoComValueOf() {
+        try {
+            return TipoLancamento.valueOf(tipoDesconhecido);
+        } catch (IllegalArgumentException illegalArgumentException) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.gabs.minhasfinancias.controllers;
+
+import com.gabs.minhasfinancias.dto.LancamentoDTO;
+import com.gabs.minhasfinancias.model.entity.Lancamento;
+import com.gabs.minhasfinancias.model.entity.Usuario;
+import com.gabs.minhasfinancias.model.enums.StatusLancamento;
+import com.gabs.minhasfinancias.model.enums.TipoLancamento;
+import com.gabs.minhasfinancias.services.UsuarioService;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/*
+ MEDE OS DOIS LancamentoController.converter; FICA NO PACOTE DO CONTROLLER PARA ACESSA-LOS
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConversaoBenchmark {
+
+    private LancamentoController controller;
+    private LancamentoDTO dto;
+    private Lancamento lancamento;
+
+    @Setup
+    public void setup() {
+        Usuario usuario = Usuario.builder().id(1L).build();
+        // stubOnly: o mock não guarda as chamadas, que seriam milhões durante a medição
+        UsuarioService usuarioService = Mockito.mock(UsuarioService.class, Mockito.withSettings().stubOnly());
+        Mockito.when(usuarioService.obterPorId(1L)).thenReturn(Optional.of(usuario));
+        Mockito.when(usuarioService.obterReferencia(1L)).thenReturn(usuario);
+        controller = new LancamentoController(null, usuarioService, null, null, null, null, null, null, null);
+        dto = LancamentoDTO.builder()
+                .id(1L)
+                .descricao("Aluguel")
+                .mes(10)
+                .ano(2022)
+                .valor(BigDecimal.valueOf(1200))
+                .usuario(1L)
+                .tipo("DESPESA")
+                .status("PENDENTE")
+                .build();
+        lancamento = Lancamento.builder()
+                .id(1L)
+                .descricao("Aluguel")
+                .mes(10)
+                .ano(2022)
+                .valor(BigDecimal.valueOf(1200))
+                .usuario(usuario)
+                .tipo(TipoLancamento.DESPESA)
+                .status(StatusLancamento.PENDENTE)
+                .build();
+    }
+
+    @Benchmark
+    public Lancamento converterDtoParaEntidade() {
+        return controller.converter(dto, 1L);
+    }
+
+    @Benchmark
+    public LancamentoDTO converterEntidadeParaDto() {
+        return controller.converter(lancamento);
+    }
+}
@@ -0,0 +1,14 @@
+package com.gabs.minhasfinancias.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/*
+ REPETE A TRANSACAO INTEIRA DO METODO ANOTADO APOS UM CONFLITO DE CONCORRENCIA (VER NovasTentativasAspect)
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface NovasTentativas {
+}
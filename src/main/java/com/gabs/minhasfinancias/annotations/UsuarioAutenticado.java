@@ -0,0 +1,14 @@
+package com.gabs.minhasfinancias.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/*
+ INJECTS THE ID OF THE USER AUTHENTICATED BY THE ACCESS TOKEN
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface UsuarioAutenticado {
+}
@@ -0,0 +1,73 @@
+package com.gabs.minhasfinancias.config;
+
+import com.gabs.minhasfinancias.exception.CodigoErro;
+import com.gabs.minhasfinancias.services.TokenService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/*
+ CONFERE O TOKEN "Authorization: Bearer ..." DAS ROTAS PROTEGIDAS E DEIXA O ID DO USUARIO
+ NA REQUISICAO PARA O @UsuarioAutenticado; NENHUMA CONSULTA AO BANCO E FEITA AQUI
+ */
+@Component
+@RequiredArgsConstructor
+public class AutenticacaoFilter extends OncePerRequestFilter {
+
+    public static final String ATRIBUTO_USUARIO = AutenticacaoFilter.class.getName() + ".USUARIO";
+    private static final String PREFIXO = "Bearer ";
+    private static final String ROTAS_LANCAMENTOS = "/api/lancamentos";
+    // os dados de cada usuário; o cadastro (POST /api/usuarios) e o /autenticar que emite o token ficam abertos
+    private static final String ROTAS_USUARIO = "/api/usuarios/";
+    private static final String ROTA_AUTENTICAR = "/api/usuarios/autenticar";
+    // mesmo formato do ErroDTO do TratamentoErros, montado uma vez: a recusa não passa pelo DispatcherServlet
+    private static final byte[] CORPO_RECUSA = ("{\"codigo\":\"" + CodigoErro.TOKEN_INVALIDO.name()
+            + "\",\"mensagem\":\"Token de acesso ausente, inválido ou expirado\"}").getBytes(StandardCharsets.UTF_8);
+
+    private final TokenService tokenService;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // o preflight de CORS não carrega o cabeçalho Authorization
+        return HttpMethod.OPTIONS.matches(request.getMethod())
+                || !protegida(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    private static boolean protegida(String rota) {
+        return rota.startsWith(ROTAS_LANCAMENTOS)
+                || (rota.startsWith(ROTAS_USUARIO) && !rota.equals(ROTA_AUTENTICAR));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String cabecalho = request.getHeader(HttpHeaders.AUTHORIZATION);
+        Optional<Long> idUsuario = cabecalho != null && cabecalho.startsWith(PREFIXO)
+                ? tokenService.verificar(cabecalho.substring(PREFIXO.length()).trim())
+                : Optional.empty();
+
+        if(!idUsuario.isPresent()) {
+            response.setStatus(HttpStatus.UNAUTHORIZED.value());
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(CORPO_RECUSA.length);
+            response.getOutputStream().write(CORPO_RECUSA);
+            return;
+        }
+
+        request.setAttribute(ATRIBUTO_USUARIO, idUsuario.get());
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,21 @@
+package com.gabs.minhasfinancias.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/*
+ CACHES DECLARADOS EM spring.cache.cache-names, LIMITADOS POR TAMANHO E TTL (spring.cache.caffeine.spec)
+ O INTERCEPTADOR DE CACHE FICA POR FORA DO DE TRANSACAO: UM ACERTO NAO ABRE TRANSACAO NEM PEDE CONEXAO
+ E OS @CachePut SO GRAVAM DEPOIS DO COMMIT
+ */
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+@Configuration
+public class CacheConfiguration {
+    public static final String USUARIOS = "usuarios";
+    public static final String USUARIOS_POR_EMAIL = "usuariosPorEmail";
+    public static final String EMAILS_CADASTRADOS = "emailsCadastrados";
+    public static final String SALDOS = "saldos";
+    public static final String SALDOS_MENSAIS = "saldosMensais";
+    public static final String VERSOES_USUARIO = "versoesUsuario";
+}
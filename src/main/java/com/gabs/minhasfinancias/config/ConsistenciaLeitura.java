@@ -0,0 +1,110 @@
+package com.gabs.minhasfinancias.config;
+
+import com.gabs.minhasfinancias.annotations.Description;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/*
+ LEITURA DAS PROPRIAS ESCRITAS COM REPLICA: O USUARIO QUE ESCREVEU HA MENOS DE (ATRASO MEDIDO + MARGEM)
+ LE DO PRIMARIO; COM A REPLICA INDISPONIVEL OU ATRASADA ALEM DO MAXIMO, TODAS AS LEITURAS VAO PARA O PRIMARIO
+ SEM REPLICA CONFIGURADA NADA E REGISTRADO E AS LEITURAS SEGUEM DIRETO
+ */
+@Component
+public class ConsistenciaLeitura {
+
+    private static final ThreadLocal<Boolean> LER_DO_PRIMARIO = new ThreadLocal<>();
+
+    private final boolean replicaConfigurada;
+    private final long atrasoMaximoMs;
+    private final long margemMs;
+    private final Cache<Long, Long> escritasPorUsuario;
+
+    // -1 indica replica indisponivel (consulta de atraso falhou)
+    private volatile long atrasoMs = 0;
+
+    public ConsistenciaLeitura(@Value("${minhasfinancas.datasource.replica.jdbc-url:}") String urlReplica,
+                               @Value("${minhasfinancas.datasource.atraso.maximo-ms:10000}") long atrasoMaximoMs,
+                               @Value("${minhasfinancas.datasource.atraso.margem-ms:1000}") long margemMs) {
+        this.replicaConfigurada = !urlReplica.isEmpty();
+        this.atrasoMaximoMs = atrasoMaximoMs;
+        this.margemMs = margemMs;
+        // depois de atrasoMaximo + margem a escrita já está na réplica ou a réplica deixou de ser usada
+        this.escritasPorUsuario = Caffeine.newBuilder()
+                .expireAfterWrite(atrasoMaximoMs + margemMs, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @Description(value = "Registra a escrita do usuário quando a transação atual for confirmada")
+    public void registrarEscrita(Long idUsuario) {
+        if(!replicaConfigurada || idUsuario == null) {
+            return;
+        }
+        if(TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    escritasPorUsuario.put(idUsuario, System.currentTimeMillis());
+                }
+            });
+        } else {
+            escritasPorUsuario.put(idUsuario, System.currentTimeMillis());
+        }
+    }
+
+    @Description(value = "Executa a leitura do usuário no primário se a réplica ainda pode não ter a última escrita dele")
+    public <T> T ler(Long idUsuario, Supplier<T> leitura) {
+        if(!this.escreveuRecentemente(idUsuario) || Boolean.TRUE.equals(LER_DO_PRIMARIO.get())) {
+            return leitura.get();
+        }
+        LER_DO_PRIMARIO.set(Boolean.TRUE);
+        try {
+            return leitura.get();
+        } finally {
+            LER_DO_PRIMARIO.remove();
+        }
+    }
+
+    public void ler(Long idUsuario, Runnable leitura) {
+        this.ler(idUsuario, () -> {
+            leitura.run();
+            return null;
+        });
+    }
+
+    public boolean deveLerDoPrimario() {
+        return Boolean.TRUE.equals(LER_DO_PRIMARIO.get()) || !this.replicaUtilizavel();
+    }
+
+    public boolean replicaUtilizavel() {
+        long atraso = atrasoMs;
+        return atraso >= 0 && atraso <= atrasoMaximoMs;
+    }
+
+    public void atualizarAtraso(long atrasoMs) {
+        this.atrasoMs = atrasoMs;
+    }
+
+    public void marcarReplicaIndisponivel() {
+        this.atrasoMs = -1;
+    }
+
+    public long getAtrasoMs() {
+        return atrasoMs;
+    }
+
+    private boolean escreveuRecentemente(Long idUsuario) {
+        if(!replicaConfigurada || idUsuario == null) {
+            return false;
+        }
+        Long momentoEscrita = escritasPorUsuario.getIfPresent(idUsuario);
+        return momentoEscrita != null
+                && System.currentTimeMillis() - momentoEscrita <= Math.max(atrasoMs, 0) + margemMs;
+    }
+}
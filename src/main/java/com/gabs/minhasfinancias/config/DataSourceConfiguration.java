@@ -0,0 +1,64 @@
+package com.gabs.minhasfinancias.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/*
+ ATIVA COM minhasfinancas.datasource.replica.jdbc-url: DOIS POOLS HIKARI (spring.datasource.hikari.* PARA O PRIMARIO,
+ minhasfinancas.datasource.replica.* PARA A REPLICA), CADA UM COM TAMANHO PROPRIO E METRICAS hikaricp.* PELA TAG pool
+ SEM A PROPRIEDADE O SPRING BOOT CONFIGURA O DATASOURCE UNICO COMO ANTES
+ */
+@Configuration
+@ConditionalOnProperty(name = "minhasfinancas.datasource.replica.jdbc-url")
+public class DataSourceConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourcePrimario(DataSourceProperties properties) {
+        HikariDataSource primario = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primario.setPoolName(RoteamentoDataSource.PRIMARIO);
+        return primario;
+    }
+
+    @Bean
+    @ConfigurationProperties("minhasfinancas.datasource.replica")
+    public HikariDataSource dataSourceReplica() {
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName(RoteamentoDataSource.REPLICA);
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("dataSourcePrimario") DataSource primario,
+                                 @Qualifier("dataSourceReplica") DataSource replica,
+                                 ConsistenciaLeitura consistencia) {
+        return new LazyConnectionDataSourceProxy(new RoteamentoDataSource(primario, replica, consistencia));
+    }
+
+    @Bean
+    public MonitorReplica monitorReplica(@Qualifier("dataSourceReplica") DataSource replica,
+                                         @Value("${minhasfinancas.datasource.atraso.consulta:}") String consultaAtraso,
+                                         ConsistenciaLeitura consistencia,
+                                         ObjectProvider<MeterRegistry> registry) {
+        registry.ifAvailable(meterRegistry -> Gauge.builder("minhasfinancas.replica.atraso", consistencia, ConsistenciaLeitura::getAtrasoMs)
+                .description("Atraso medido da réplica em milissegundos; -1 quando indisponível")
+                .baseUnit("milliseconds")
+                .register(meterRegistry));
+        return new MonitorReplica(replica, consultaAtraso, consistencia);
+    }
+}
@@ -0,0 +1,44 @@
+package com.gabs.minhasfinancias.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+ MODO DE EXECUCAO DAS REQUISICOES (minhasfinancas.execucao.modo):
+ BLOQUEANTE - HANDLERS NAS THREADS DO TOMCAT (server.tomcat.threads.max)
+ ASSINCRONO - AS LEITURAS QUE CONSULTAM O BANCO DEVOLVEM CompletableFuture EXECUTADO NO POOL LIMITADO DE ExecucaoRequisicoes
+ VIRTUAL    - O TOMCAT ATENDE CADA REQUISICAO NUMA THREAD VIRTUAL (JAVA 21+); O LIMITE PASSA A SER O POOL JDBC
+ */
+@Configuration
+public class ExecucaoConfiguration {
+    public static final String PROPRIEDADE_MODO = "minhasfinancas.execucao.modo";
+
+    public enum Modo {
+        BLOQUEANTE,
+        ASSINCRONO,
+        VIRTUAL
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = PROPRIEDADE_MODO, havingValue = "VIRTUAL")
+    public TomcatProtocolHandlerCustomizer<?> tomcatComThreadsVirtuais() {
+        ExecutorService executor = criarExecutorVirtual();
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    // o Spring Boot 2.7 não conhece threads virtuais; a API é obtida por reflexão para compilar em Java 17
+    static ExecutorService criarExecutorVirtual() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException noSuchMethodException) {
+            throw new IllegalStateException("O modo VIRTUAL exige Java 21 ou superior; use BLOQUEANTE ou ASSINCRONO", noSuchMethodException);
+        } catch (ReflectiveOperationException reflectiveOperationException) {
+            throw new IllegalStateException("Não foi possível criar o executor de threads virtuais", reflectiveOperationException);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.gabs.minhasfinancias.config;
+
+import com.gabs.minhasfinancias.annotations.Description;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/*
+ NO MODO ASSINCRONO A THREAD DO TOMCAT E LIBERADA ENQUANTO A CONSULTA RODA NO POOL LIMITADO;
+ NOS DEMAIS MODOS A TAREFA RODA NA PROPRIA THREAD DA REQUISICAO E O FUTURE JA VOLTA COMPLETO
+ O POOL NAO E REGISTRADO COMO BEAN PARA NAO SUBSTITUIR O applicationTaskExecutor DO SPRING BOOT
+ */
+@Component
+public class ExecucaoRequisicoes {
+
+    private final ExecucaoConfiguration.Modo modo;
+    private final ThreadPoolTaskExecutor executor;
+
+    public ExecucaoRequisicoes(@Value("${" + ExecucaoConfiguration.PROPRIEDADE_MODO + ":BLOQUEANTE}") ExecucaoConfiguration.Modo modo,
+                               @Value("${minhasfinancas.execucao.threads:32}") int threads,
+                               @Value("${minhasfinancas.execucao.fila:1000}") int fila) {
+        this.modo = modo;
+        if(modo == ExecucaoConfiguration.Modo.ASSINCRONO) {
+            this.executor = new ThreadPoolTaskExecutor();
+            this.executor.setCorePoolSize(threads);
+            this.executor.setMaxPoolSize(threads);
+            this.executor.setQueueCapacity(fila);
+            this.executor.setThreadNamePrefix("requisicao-");
+            this.executor.initialize();
+        } else {
+            this.executor = null;
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        if(executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    public ExecucaoConfiguration.Modo getModo() {
+        return modo;
+    }
+
+    @Description(value = "Executa a tarefa conforme o modo configurado; com o pool cheio a requisição recebe 503")
+    public <T> CompletableFuture<T> executar(Supplier<T> tarefa) {
+        if(executor == null) {
+            // o erro segue no future, como no modo assíncrono, e chega ao TratamentoErros pelo mesmo caminho
+            try {
+                return CompletableFuture.completedFuture(tarefa.get());
+            } catch (RuntimeException erro) {
+                return CompletableFuture.failedFuture(erro);
+            }
+        }
+        try {
+            return CompletableFuture.supplyAsync(tarefa, executor);
+        } catch (TaskRejectedException taskRejectedException) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Servidor ocupado, tente novamente");
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.gabs.minhasfinancias.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/*
+ TEMPOS DOS SERVICOS ANOTADOS COM @Timed (TAGS class E method), DAS REQUISICOES (http.server.requests),
+ DOS REPOSITORIOS (spring.data.repository.invocations) E DO POOL JDBC (hikaricp.*), EXPOSTOS EM /actuator/prometheus
+ */
+@Configuration
+public class MetricasConfiguration {
+    public static final String TEMPO_SERVICO = "minhasfinancas.servico";
+    public static final String ERROS = "minhasfinancas.erros";
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+}
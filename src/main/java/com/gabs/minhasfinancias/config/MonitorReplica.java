@@ -0,0 +1,42 @@
+package com.gabs.minhasfinancias.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/*
+ MEDE PERIODICAMENTE O ATRASO DA REPLICA (EM MILISSEGUNDOS) COM A CONSULTA CONFIGURADA
+ FALHA NA CONSULTA TIRA A REPLICA DE USO ATE A PROXIMA MEDICAO BEM SUCEDIDA
+ */
+@Slf4j
+class MonitorReplica {
+
+    private final JdbcTemplate replica;
+    private final String consultaAtraso;
+    private final ConsistenciaLeitura consistencia;
+
+    MonitorReplica(DataSource replica, String consultaAtraso, ConsistenciaLeitura consistencia) {
+        this.replica = new JdbcTemplate(replica);
+        this.consultaAtraso = consultaAtraso;
+        this.consistencia = consistencia;
+    }
+
+    @Scheduled(fixedDelayString = "${minhasfinancas.datasource.atraso.intervalo-ms:5000}")
+    public void medir() {
+        if(consultaAtraso == null || consultaAtraso.isEmpty()) {
+            return;
+        }
+        try {
+            Number atraso = replica.queryForObject(consultaAtraso, Number.class);
+            consistencia.atualizarAtraso(atraso == null ? 0 : Math.max(atraso.longValue(), 0));
+        } catch (DataAccessException dataAccessException) {
+            if(consistencia.replicaUtilizavel()) {
+                log.warn("Réplica indisponível, leituras redirecionadas ao primário: {}", dataAccessException.getMessage());
+            }
+            consistencia.marcarReplicaIndisponivel();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.gabs.minhasfinancias.config;
+
+import com.gabs.minhasfinancias.exception.CodigoErro;
+import com.gabs.minhasfinancias.exception.RegraNegocioException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ REPETE OS METODOS ANOTADOS COM @NovasTentativas QUANDO OUTRA TRANSACAO GRAVOU A MESMA LINHA ANTES (@Version, CHAVE UNICA)
+ OU SEGUROU O LOCK:
+ NO MAXIMO tentativas VEZES, ESPERANDO UM TEMPO ALEATORIO ENTRE ZERO E O DOBRO DA ESPERA ANTERIOR (LIMITADO A espera-maxima-ms)
+ PARA QUE AS ESCRITAS QUE COLIDIRAM NAO VOLTEM A COLIDIR JUNTAS. RODA ANTES DO @Transactional, ENTAO CADA TENTATIVA
+ E UMA TRANSACAO NOVA; DENTRO DE UMA TRANSACAO JA ABERTA NAO HA O QUE REPETIR E O ERRO SEGUE PARA QUEM A ABRIU
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class NovasTentativasAspect {
+
+    // SQLSTATE padrão de unique_violation, o mesmo no PostgreSQL e no H2
+    private static final String VIOLACAO_CHAVE_UNICA = "23505";
+
+    private final int tentativas;
+    private final long esperaInicialMs;
+    private final long esperaMaximaMs;
+    private final Counter repeticoes;
+    private final Counter conflitos;
+
+    public NovasTentativasAspect(@Value("${minhasfinancas.concorrencia.tentativas:5}") int tentativas,
+                                 @Value("${minhasfinancas.concorrencia.espera-inicial-ms:5}") long esperaInicialMs,
+                                 @Value("${minhasfinancas.concorrencia.espera-maxima-ms:100}") long esperaMaximaMs,
+                                 MeterRegistry registry) {
+        this.tentativas = Math.max(tentativas, 1);
+        this.esperaInicialMs = esperaInicialMs;
+        this.esperaMaximaMs = esperaMaximaMs;
+        this.repeticoes = Counter.builder("minhasfinancas.concorrencia.novas.tentativas")
+                .description("Escritas repetidas após conflito de concorrência")
+                .register(registry);
+        this.conflitos = Counter.builder("minhasfinancas.concorrencia.conflitos")
+                .description("Escritas recusadas depois de esgotar as tentativas")
+                .register(registry);
+    }
+
+    @Around("@annotation(com.gabs.minhasfinancias.annotations.NovasTentativas)")
+    public Object executar(ProceedingJoinPoint chamada) throws Throwable {
+        if(TransactionSynchronizationManager.isActualTransactionActive()) {
+            return chamada.proceed();
+        }
+
+        long espera = esperaInicialMs;
+        for(int tentativa = 1; ; tentativa++) {
+            try {
+                return chamada.proceed();
+            } catch (ConcurrencyFailureException | DataIntegrityViolationException conflito) {
+                if(!transitorio(conflito)) {
+                    throw conflito;
+                }
+                if(tentativa >= tentativas) {
+                    conflitos.increment();
+                    log.warn("Conflito de concorrência em {} após {} tentativas", chamada.getSignature().toShortString(), tentativa);
+                    throw new RegraNegocioException(CodigoErro.CONFLITO_CONCORRENCIA,
+                            "O lançamento foi alterado por outra operação ao mesmo tempo, tente novamente");
+                }
+                repeticoes.increment();
+                esperar(ThreadLocalRandom.current().nextLong(espera + 1));
+                espera = Math.min(espera * 2, esperaMaximaMs);
+            }
+        }
+    }
+
+    // além de versão e lock, a chave única violada por quem inseriu a mesma linha primeiro (a linha de saldo do mês,
+    // por exemplo): na nova tentativa a linha já existe e é atualizada
+    private static boolean transitorio(RuntimeException erro) {
+        if(erro instanceof ConcurrencyFailureException) {
+            return true;
+        }
+        for(Throwable causa = erro; causa != null; causa = causa.getCause()) {
+            if(causa instanceof SQLException && VIOLACAO_CHAVE_UNICA.equals(((SQLException) causa).getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void esperar(long milissegundos) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(milissegundos);
+        } catch (InterruptedException interrupcao) {
+            Thread.currentThread().interrupt();
+            throw new RegraNegocioException(CodigoErro.CONFLITO_CONCORRENCIA, "Escrita interrompida antes de uma nova tentativa");
+        }
+    }
+}
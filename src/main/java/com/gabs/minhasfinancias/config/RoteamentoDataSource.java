@@ -0,0 +1,41 @@
+package com.gabs.minhasfinancias.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ TRANSACOES readOnly VAO PARA A REPLICA; ESCRITAS, CODIGO FORA DE TRANSACAO E LEITURAS QUE PRECISAM
+ ENXERGAR A PROPRIA ESCRITA (ConsistenciaLeitura) VAO PARA O PRIMARIO
+ O DESTINO E DECIDIDO NA OBTENCAO DA CONEXAO, POR ISSO O BEAN FICA ATRAS DE UM LazyConnectionDataSourceProxy:
+ ASSIM A CONEXAO SO E PEDIDA NO PRIMEIRO COMANDO, DEPOIS QUE A TRANSACAO JA FOI MARCADA COMO readOnly
+ */
+class RoteamentoDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARIO = "primario";
+    static final String REPLICA = "replica";
+
+    private final ConsistenciaLeitura consistencia;
+
+    RoteamentoDataSource(DataSource primario, DataSource replica, ConsistenciaLeitura consistencia) {
+        this.consistencia = consistencia;
+        Map<Object, Object> destinos = new HashMap<>();
+        destinos.put(PRIMARIO, primario);
+        destinos.put(REPLICA, replica);
+        this.setTargetDataSources(destinos);
+        this.setDefaultTargetDataSource(primario);
+        this.setLenientFallback(false);
+        this.afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if(!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || consistencia.deveLerDoPrimario()) {
+            return PRIMARIO;
+        }
+        return REPLICA;
+    }
+}
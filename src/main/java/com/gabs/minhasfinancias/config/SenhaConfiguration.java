@@ -0,0 +1,53 @@
+package com.gabs.minhasfinancias.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ HASHES GRAVADOS COM PREFIXO DO ALGORITMO ({bcrypt}, {pbkdf2}); VALORES SEM PREFIXO SAO AS SENHAS
+ LEGADAS EM TEXTO PURO, CONFERIDAS EM TEMPO CONSTANTE E RECODIFICADAS NO PROXIMO LOGIN
+ */
+@Configuration
+public class SenhaConfiguration {
+
+    @Bean
+    public PasswordEncoder passwordEncoder(@Value("${minhasfinancas.senha.algoritmo:bcrypt}") String algoritmo,
+                                           @Value("${minhasfinancas.senha.custo:10}") int custo,
+                                           @Value("${minhasfinancas.senha.pbkdf2-iteracoes:310000}") int iteracoes) {
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", new BCryptPasswordEncoder(custo));
+        encoders.put("pbkdf2", new Pbkdf2PasswordEncoder("", 16, iteracoes, 256));
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(algoritmo, encoders);
+        encoder.setDefaultPasswordEncoderForMatches(new SenhaLegadaEncoder());
+        return encoder;
+    }
+
+    static class SenhaLegadaEncoder implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence senha) {
+            throw new UnsupportedOperationException("Senhas legadas não devem ser gravadas");
+        }
+
+        @Override
+        public boolean matches(CharSequence senha, String senhaGravada) {
+            return MessageDigest.isEqual(senha.toString().getBytes(StandardCharsets.UTF_8),
+                    senhaGravada.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public boolean upgradeEncoding(String senhaGravada) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.gabs.minhasfinancias.config;
+
+import com.gabs.minhasfinancias.annotations.UsuarioAutenticado;
+import com.gabs.minhasfinancias.exception.CodigoErro;
+import com.gabs.minhasfinancias.exception.ErroAutenticacaoException;
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+public class UsuarioAutenticadoArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(UsuarioAutenticado.class)
+                && Long.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Object idUsuario = webRequest.getAttribute(AutenticacaoFilter.ATRIBUTO_USUARIO, RequestAttributes.SCOPE_REQUEST);
+        if(idUsuario == null) {
+            throw new ErroAutenticacaoException(CodigoErro.TOKEN_INVALIDO, "Rota sem token de acesso verificado");
+        }
+        return idUsuario;
+    }
+}
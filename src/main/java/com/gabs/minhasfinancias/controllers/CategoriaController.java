@@ -0,0 +1,74 @@
+package com.gabs.minhasfinancias.controllers;
+
+import com.gabs.minhasfinancias.annotations.UsuarioAutenticado;
+import com.gabs.minhasfinancias.dto.CategoriaDTO;
+import com.gabs.minhasfinancias.exception.CodigoErro;
+import com.gabs.minhasfinancias.exception.RegraNegocioException;
+import com.gabs.minhasfinancias.model.entity.Categoria;
+import com.gabs.minhasfinancias.services.CategoriaService;
+import com.gabs.minhasfinancias.services.UsuarioService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Year;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// sob /api/lancamentos, protegido pelo mesmo token; o lançamento aponta a categoria pelo campo "categoria"
+@RestController
+@RequestMapping("/api/lancamentos/categorias")
+@RequiredArgsConstructor
+@SuppressWarnings({"unused", "rawtypes"})
+public class CategoriaController {
+
+    private final CategoriaService categoriaService;
+    private final UsuarioService usuarioService;
+
+    CategoriaDTO converter(Categoria categoria) {
+        return CategoriaDTO.builder()
+                .id(categoria.getId())
+                .nome(categoria.getNome())
+                .build();
+    }
+
+    @PostMapping
+    public ResponseEntity salvar(@UsuarioAutenticado Long idUsuario, @RequestBody CategoriaDTO dto) {
+        Categoria categoria = categoriaService.salvar(Categoria.builder()
+                .nome(dto.getNome())
+                .usuario(usuarioService.obterReferencia(idUsuario))
+                .build());
+        return new ResponseEntity(converter(categoria), HttpStatus.CREATED);
+    }
+
+    @GetMapping
+    public ResponseEntity buscar(@UsuarioAutenticado Long idUsuario) {
+        List<CategoriaDTO> categorias = categoriaService.buscar(idUsuario).stream()
+                .map(this::converter)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(categorias);
+    }
+
+    // lidos da projeção mantida a cada escrita; sem ano informado, o ano corrente
+    @GetMapping("/totais")
+    public ResponseEntity obterTotais(@UsuarioAutenticado Long idUsuario,
+                                      @RequestParam(value = "categoria", required = false) Long categoria,
+                                      @RequestParam(value = "anoInicial", required = false) Integer anoInicial,
+                                      @RequestParam(value = "anoFinal", required = false) Integer anoFinal) {
+        int anoCorrente = Year.now().getValue();
+        return ResponseEntity.ok(categoriaService.obterTotais(idUsuario, categoria,
+                anoInicial != null ? anoInicial : anoCorrente,
+                anoFinal != null ? anoFinal : anoCorrente));
+    }
+
+    // categorias de outro usuário são tratadas como inexistentes
+    @DeleteMapping("/{id}")
+    public ResponseEntity deletar(@UsuarioAutenticado Long idUsuario, @PathVariable("id") Long id) {
+        Categoria categoria = categoriaService.buscarPorId(id)
+                .filter(encontrada -> encontrada.getUsuario() != null && idUsuario.equals(encontrada.getUsuario().getId()))
+                .orElseThrow(() -> new RegraNegocioException(CodigoErro.CATEGORIA_NAO_ENCONTRADA, "Categoria não encontrada na base de dados"));
+        categoriaService.deletar(categoria);
+        return new ResponseEntity(HttpStatus.NO_CONTENT);
+    }
+}
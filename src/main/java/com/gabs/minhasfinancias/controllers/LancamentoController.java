@@ -1,152 +1,322 @@
 package com.gabs.minhasfinancias.controllers;
 
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gabs.minhasfinancias.annotations.UsuarioAutenticado;
+import com.gabs.minhasfinancias.config.ExecucaoRequisicoes;
 import com.gabs.minhasfinancias.dto.AtualizaStatusDTO;
+import com.gabs.minhasfinancias.dto.AtualizaStatusLoteDTO;
+import com.gabs.minhasfinancias.dto.CursorLancamento;
 import com.gabs.minhasfinancias.dto.LancamentoDTO;
+import com.gabs.minhasfinancias.dto.LancamentoFiltro;
+import com.gabs.minhasfinancias.dto.RelatorioImportacaoDTO;
+import com.gabs.minhasfinancias.dto.ResultadoStatusDTO;
+import com.gabs.minhasfinancias.dto.SituacaoIngestaoDTO;
+import com.gabs.minhasfinancias.exception.CodigoErro;
 import com.gabs.minhasfinancias.exception.RegraNegocioException;
 import com.gabs.minhasfinancias.model.entity.Lancamento;
-import com.gabs.minhasfinancias.model.entity.Usuario;
+import com.gabs.minhasfinancias.model.enums.FormatoExportacao;
+import com.gabs.minhasfinancias.model.enums.FormatoImportacao;
+import com.gabs.minhasfinancias.model.enums.OrdemLancamento;
 import com.gabs.minhasfinancias.model.enums.StatusLancamento;
 import com.gabs.minhasfinancias.model.enums.TipoLancamento;
+import com.gabs.minhasfinancias.services.CategoriaService;
+import com.gabs.minhasfinancias.services.ExportacaoService;
+import com.gabs.minhasfinancias.services.ImportacaoService;
+import com.gabs.minhasfinancias.services.IngestaoService;
 import com.gabs.minhasfinancias.services.LancamentoService;
 import com.gabs.minhasfinancias.services.UsuarioService;
+import com.gabs.minhasfinancias.services.VersaoUsuarioService;
+import com.gabs.minhasfinancias.services.validacao.ValidadorLancamento;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/lancamentos")
 @RequiredArgsConstructor
 @SuppressWarnings({"unused", "unchecked", "rawtypes"})
 public class LancamentoController {
+    static final String HEADER_PROXIMO_CURSOR = "X-Proximo-Cursor";
+    static final String HEADER_PREFER = "Prefer";
+    static final String HEADER_PREFERENCIA_APLICADA = "Preference-Applied";
+    static final String RESPOSTA_ASSINCRONA = "respond-async";
+
     private final LancamentoService lancamentoService;
     private final UsuarioService usuarioService;
+    private final ImportacaoService importacaoService;
+    private final ObjectMapper objectMapper;
+    private final ExecucaoRequisicoes execucao;
+    private final VersaoUsuarioService versaoUsuarioService;
+    private final IngestaoService ingestaoService;
+    private final ExportacaoService exportacaoService;
+    private final CategoriaService categoriaService;
+
+    // valida o DTO inteiro antes de converter; tipo e status vêm das tabelas dos enums, sem exceção para nomes inválidos
+    Lancamento converter(LancamentoDTO dto, Long idUsuario){
+        ValidadorLancamento.exigirValido(ValidadorLancamento.verificar(dto));
 
-    private Lancamento converter(LancamentoDTO dto){
         Lancamento lancamento = new Lancamento();
         lancamento.setId(dto.getId());
         lancamento.setDescricao(dto.getDescricao());
         lancamento.setAno(dto.getAno());
         lancamento.setMes(dto.getMes());
         lancamento.setValor(dto.getValor());
+        lancamento.setTipo(TipoLancamento.porNome(dto.getTipo()));
+        lancamento.setStatus(StatusLancamento.porNome(dto.getStatus()));
+        lancamento.setIdCategoria(dto.getCategoria());
 
-        Usuario usuario = usuarioService.obterPorId(dto.getUsuario()).orElseThrow(
-                () -> new RegraNegocioException("Usuario não encontrado para o id informado"));
-
-        lancamento.setUsuario(usuario);
+        // o dono é sempre o usuário do token, que já foi verificado; a entidade recebe apenas a referência
+        lancamento.setUsuario(usuarioService.obterReferencia(idUsuario));
+        return lancamento;
+    }
 
-        if(dto.getTipo() != null){
-            lancamento.setTipo(TipoLancamento.valueOf(dto.getTipo()));
+    LancamentoDTO converter(Lancamento lancamento){
+        return new LancamentoDTO(lancamento.getId(), lancamento.getDescricao(), lancamento.getMes(), lancamento.getAno(),
+                lancamento.getValor(), lancamento.getUsuario().getId(), lancamento.getTipo(), lancamento.getStatus(),
+                lancamento.getIdCategoria());
+    }
 
+    @PostMapping
+    public ResponseEntity salvar(@UsuarioAutenticado Long idUsuario, @RequestBody LancamentoDTO dto,
+                                 @RequestHeader(value = HEADER_PREFER, required = false) String preferencia)  {
+        exigirCategoriaDoUsuario(dto.getCategoria(), idUsuario);
+        if(ingestaoService.isHabilitada() && preferencia != null && preferencia.toLowerCase().contains(RESPOSTA_ASSINCRONA)) {
+            return enfileirar(idUsuario, dto);
         }
+        Lancamento lancamentoEntity = converter(dto, idUsuario);
+        lancamentoEntity = lancamentoService.salvar(lancamentoEntity);
+        return new ResponseEntity(converter(lancamentoEntity), HttpStatus.CREATED);
+    }
+
+    // 202 com o protocolo; o lançamento é gravado em lote logo depois e acompanhado por /ingestao/{protocolo}
+    // com a fila cheia o TratamentoErros responde 429 com Retry-After
+    private ResponseEntity enfileirar(Long idUsuario, LancamentoDTO dto) {
+        SituacaoIngestaoDTO situacao = ingestaoService.enfileirar(idUsuario, dto);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/lancamentos/ingestao/" + situacao.getProtocolo()))
+                .header(HEADER_PREFERENCIA_APLICADA, RESPOSTA_ASSINCRONA)
+                .body(situacao);
+    }
 
-        if(dto.getStatus() != null){
-            lancamento.setStatus(StatusLancamento.valueOf(dto.getStatus()));
+    @GetMapping("/ingestao")
+    public ResponseEntity buscarIngestoesPendentes(@UsuarioAutenticado Long idUsuario) {
+        if(!ingestaoService.isHabilitada()) {
+            return new ResponseEntity(HttpStatus.NOT_FOUND);
         }
-        return lancamento;
+        return ResponseEntity.ok(ingestaoService.obterPendentes(idUsuario));
     }
 
-    private LancamentoDTO converter(Lancamento lancamento){
-        return LancamentoDTO.builder()
-                .id(lancamento.getId())
-                .descricao(lancamento.getDescricao())
-                .ano(lancamento.getAno())
-                .mes(lancamento.getMes())
-                .valor(lancamento.getValor())
-                .tipo(lancamento.getTipo().name())
-                .status(lancamento.getStatus().name())
-                .usuario(lancamento.getUsuario().getId())
-                .build();
+    // pedidos de outro usuário são tratados como inexistentes
+    @GetMapping("/ingestao/{protocolo}")
+    public ResponseEntity buscarIngestao(@UsuarioAutenticado Long idUsuario, @PathVariable("protocolo") Long protocolo) {
+        if(!ingestaoService.isHabilitada()) {
+            return new ResponseEntity(HttpStatus.NOT_FOUND);
+        }
+        return ingestaoService.obterSituacao(idUsuario, protocolo)
+                .map(situacao -> (ResponseEntity) ResponseEntity.ok(situacao))
+                .orElseGet(() -> new ResponseEntity(HttpStatus.NOT_FOUND));
     }
 
-    @PostMapping
-    public ResponseEntity salvar(@RequestBody LancamentoDTO dto)  {
-        Lancamento lancamentoEntity = converter(dto);
-        lancamentoEntity = lancamentoService.salvar(lancamentoEntity);
-        try {
-            return new ResponseEntity(lancamentoEntity, HttpStatus.CREATED);
-        } catch (RegraNegocioException regraNegocioException) {
-            return ResponseEntity.badRequest().body(regraNegocioException.getMessage());
+    @PostMapping("/importacao")
+    public ResponseEntity importar(@RequestParam("arquivo") MultipartFile arquivo,
+                                   @UsuarioAutenticado Long idUsuario,
+                                   @RequestParam(value = "formato", required = false) FormatoImportacao formato) {
+        if(formato == null) {
+            String nome = arquivo.getOriginalFilename();
+            formato = nome != null && nome.toLowerCase().endsWith(".ofx") ? FormatoImportacao.OFX : FormatoImportacao.CSV;
         }
 
+        try (InputStream conteudo = arquivo.getInputStream()) {
+            RelatorioImportacaoDTO relatorio = importacaoService.importar(usuarioService.obterReferencia(idUsuario), formato, conteudo);
+            return ResponseEntity.ok(relatorio);
+        } catch (IOException ioException) {
+            throw new RegraNegocioException(CodigoErro.ARQUIVO_ILEGIVEL, "Não foi possível ler o arquivo enviado");
+        }
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity atualizar(@PathVariable("id") Long id, @RequestBody LancamentoDTO dto) {
-        return lancamentoService.buscarPorId(id).map( entity -> {
-            try {
-                Lancamento lancamento = converter(dto);
-                lancamento.setId(entity.getId());
-                lancamentoService.atualizar(lancamento);
-                return ResponseEntity.ok(lancamento);
-            } catch (RegraNegocioException regraNegocioException) {
-                return ResponseEntity.badRequest().body(regraNegocioException.getMessage());
-            }
-        }).orElseGet(() -> new ResponseEntity("Lancamento não encontrado na base de dados", HttpStatus.BAD_REQUEST));
+    public ResponseEntity atualizar(@UsuarioAutenticado Long idUsuario, @PathVariable("id") Long id, @RequestBody LancamentoDTO dto) {
+        Lancamento entity = buscarDoUsuario(id, idUsuario).orElseThrow(LancamentoController::naoEncontrado);
+        exigirCategoriaDoUsuario(dto.getCategoria(), idUsuario);
+        Lancamento lancamento = converter(dto, idUsuario);
+        lancamento.setId(entity.getId());
+        lancamento.setVersao(entity.getVersao());
+        lancamentoService.atualizar(lancamento);
+        return ResponseEntity.ok(converter(lancamento));
     }
 
     @PutMapping("/{id}/atualiza-status")
-    public ResponseEntity atualizarStatus(@PathVariable("id") Long id, @RequestBody AtualizaStatusDTO dto) {
-        return lancamentoService.buscarPorId(id).map( entity -> {
-            StatusLancamento statusSelecionado = StatusLancamento.valueOf(dto.getStatus());
-            if(statusSelecionado == null) {
-                return ResponseEntity.badRequest().body("Não foi possível atualizar o status do lançamento, envie um status válido!");
-            }
-            try{
-                entity.setStatus(statusSelecionado);
-                lancamentoService.atualizar(entity);
-                return ResponseEntity.ok(entity);
-            } catch (RegraNegocioException regraNegocioException) {
-                return ResponseEntity.badRequest().body("Não foi possível atualizar o lançamento!");
-            }
-        }).orElseGet(() -> new ResponseEntity("Lançamento não encontrado na base de dados", HttpStatus.BAD_REQUEST));
+    public ResponseEntity atualizarStatus(@UsuarioAutenticado Long idUsuario, @PathVariable("id") Long id, @RequestBody AtualizaStatusDTO dto) {
+        // a resposta devolve a entidade com o usuário, carregado no mesmo select pelo grafo
+        Lancamento entity = lancamentoService.buscarPorIdComUsuario(id)
+                .filter(lancamento -> pertenceAo(lancamento, idUsuario))
+                .orElseThrow(LancamentoController::naoEncontrado);
+        StatusLancamento statusSelecionado = StatusLancamento.porNome(dto.getStatus());
+        if(statusSelecionado == null) {
+            throw new RegraNegocioException(CodigoErro.STATUS_INVALIDO, "Não foi possível atualizar o status do lançamento, envie um status válido!");
+        }
+        // o DTO lê só a chave do usuário: depois de uma nova tentativa o usuário relido é um proxy não inicializado
+        return ResponseEntity.ok(converter(lancamentoService.atualizarStatus(entity, statusSelecionado)));
     }
 
+    @PutMapping("/atualiza-status")
+    public ResponseEntity atualizarStatusEmLote(@UsuarioAutenticado Long idUsuario, @RequestBody AtualizaStatusLoteDTO dto) {
+        StatusLancamento status = StatusLancamento.porNome(dto.getStatus());
+        if(status == null) {
+            throw new RegraNegocioException(CodigoErro.STATUS_INVALIDO, "Não foi possível atualizar o status dos lançamentos, envie um status válido!");
+        }
+
+        List<ResultadoStatusDTO> resultados = dto.getIds() != null && !dto.getIds().isEmpty()
+                ? lancamentoService.atualizarStatus(idUsuario, dto.getIds(), dto.getVersoes(), status)
+                : lancamentoService.atualizarStatus(idUsuario, dto.getAno(), dto.getMes(), status);
+        return ResponseEntity.ok(resultados);
+    }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity deletar(@PathVariable("id") Long id) {
-        return lancamentoService.buscarPorId(id).map( entity -> {
-            try {
-                lancamentoService.deletar(entity);
-                return new ResponseEntity( HttpStatus.NO_CONTENT );
-            } catch (RegraNegocioException regraNegocioException) {
-                return ResponseEntity.badRequest().body(regraNegocioException.getMessage());
+    public ResponseEntity deletar(@UsuarioAutenticado Long idUsuario, @PathVariable("id") Long id) {
+        Lancamento entity = buscarDoUsuario(id, idUsuario).orElseThrow(LancamentoController::naoEncontrado);
+        lancamentoService.deletar(entity);
+        return new ResponseEntity( HttpStatus.NO_CONTENT );
+    }
+
+    @GetMapping
+    public CompletableFuture<ResponseEntity> buscar(@RequestParam(value = "descricao", required = false) String descricao,
+                                                    @RequestParam(value = "mes", required = false) Integer mes,
+                                                    @RequestParam(value = "ano", required = false) Integer ano,
+                                                    @RequestParam(value = "tipo", required = false) TipoLancamento tipo,
+                                                    @RequestParam(value = "categoria", required = false) Long categoria,
+                                                    @UsuarioAutenticado Long idUsuario,
+                                                    @RequestParam(value = "cursor", required = false) String cursor,
+                                                    @RequestParam(value = "limite", required = false) Integer limite,
+                                                    @RequestParam(value = "ordem", defaultValue = "ID") OrdemLancamento ordem,
+                                                    WebRequest request){
+
+        String etag = VersaoUsuarioService.etag(idUsuario, versaoUsuarioService.obterVersao(idUsuario));
+        if(request.checkNotModified(etag)) {
+            return CompletableFuture.completedFuture(RespostaCondicional.naoModificado(etag));
+        }
+
+        LancamentoFiltro filtro = criarFiltro(descricao, mes, ano, tipo, categoria, idUsuario);
+        return execucao.executar(() -> {
+            List<LancamentoDTO> pagina = lancamentoService.buscar(filtro,
+                    CursorLancamento.decodificar(cursor, ordem), ordem, limite);
+
+            // o cliente deve repetir a busca com o cursor recebido até obter uma página vazia
+            ResponseEntity.BodyBuilder resposta = RespostaCondicional.ok(etag);
+            if(!pagina.isEmpty()) {
+                resposta.header(HEADER_PROXIMO_CURSOR, CursorLancamento.codificar(pagina.get(pagina.size() - 1), ordem));
             }
-        }).orElseGet(() -> new ResponseEntity("Lancamento não encontrado na base de dados", HttpStatus.BAD_REQUEST));
+            return resposta.body(pagina);
+        });
+    }
 
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> buscarStream(@RequestParam(value = "descricao", required = false) String descricao,
+                                       @RequestParam(value = "mes", required = false) Integer mes,
+                                       @RequestParam(value = "ano", required = false) Integer ano,
+                                       @RequestParam(value = "tipo", required = false) TipoLancamento tipo,
+                                       @RequestParam(value = "categoria", required = false) Long categoria,
+                                       @UsuarioAutenticado Long idUsuario,
+                                       @RequestParam(value = "ordem", defaultValue = "ID") OrdemLancamento ordem){
+
+        LancamentoFiltro filtro = criarFiltro(descricao, mes, ano, tipo, categoria, idUsuario);
+        StreamingResponseBody corpo = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                lancamentoService.percorrer(filtro, ordem, lancamento -> {
+                    try {
+                        objectMapper.writeValue(generator, lancamento);
+                    } catch (IOException ioException) {
+                        throw new UncheckedIOException(ioException);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(corpo);
     }
 
-    @GetMapping
-    public ResponseEntity buscar(@RequestParam(value = "descricao", required = false) String descricao,
-                                 @RequestParam(value = "mes", required = false) Integer mes,
-                                 @RequestParam(value = "ano", required = false) Integer ano,
-                                 @RequestParam(value = "tipo", required = false) TipoLancamento tipo,
-                                 @RequestParam("usuario") Long idUsuario ){
-
-        Lancamento lancamentoFiltro =  new Lancamento();
-        lancamentoFiltro.setDescricao(descricao);
-        lancamentoFiltro.setMes(mes);
-        lancamentoFiltro.setAno(ano);
-        lancamentoFiltro.setTipo(tipo);
-        Optional<Usuario> usuario = usuarioService.obterPorId(idUsuario);
-        if(usuario.isPresent()) {
-            lancamentoFiltro.setUsuario(usuario.get());
-        } else {
-            return ResponseEntity.badRequest().body("Usuario não encontrado para o id informado!");
+    // o arquivo é escrito enquanto a consulta avança, com fetch size limitado: memória constante para qualquer período
+    @GetMapping("/exportacao")
+    public ResponseEntity<StreamingResponseBody> exportar(@RequestParam(value = "descricao", required = false) String descricao,
+                                                          @RequestParam(value = "mes", required = false) Integer mes,
+                                                          @RequestParam(value = "ano", required = false) Integer ano,
+                                                          @RequestParam(value = "tipo", required = false) TipoLancamento tipo,
+                                                          @RequestParam(value = "categoria", required = false) Long categoria,
+                                                          @UsuarioAutenticado Long idUsuario,
+                                                          @RequestParam(value = "formato", defaultValue = "CSV") FormatoExportacao formato){
+
+        LancamentoFiltro filtro = criarFiltro(descricao, mes, ano, tipo, categoria, idUsuario);
+        StreamingResponseBody corpo = outputStream -> exportacaoService.exportar(filtro, formato, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(formato.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("lancamentos." + formato.getExtensao()).build().toString())
+                .body(corpo);
+    }
+
+    private LancamentoFiltro criarFiltro(String descricao, Integer mes, Integer ano, TipoLancamento tipo, Long categoria,
+                                         Long idUsuario) {
+        return LancamentoFiltro.builder()
+                .usuario(idUsuario)
+                .descricao(descricao)
+                .mes(mes)
+                .ano(ano)
+                .tipo(tipo)
+                .categoria(categoria)
+                .build();
+    }
+
+    // a categoria informada no lançamento precisa ser do próprio usuário
+    private void exigirCategoriaDoUsuario(Long idCategoria, Long idUsuario) {
+        if(idCategoria != null && !categoriaService.pertenceAo(idCategoria, idUsuario)) {
+            throw new RegraNegocioException(CodigoErro.CATEGORIA_NAO_ENCONTRADA, "Categoria não encontrada para o usuário");
         }
-        List<Lancamento> lancamentos = lancamentoService.buscar(lancamentoFiltro);
-        return ResponseEntity.ok().body(lancamentos);
     }
 
+    // lançamentos de outro usuário são tratados como inexistentes, sem revelar que o id existe
+    private Optional<Lancamento> buscarDoUsuario(Long id, Long idUsuario) {
+        return lancamentoService.buscarPorId(id).filter(lancamento -> pertenceAo(lancamento, idUsuario));
+    }
+
+    private static RegraNegocioException naoEncontrado() {
+        return new RegraNegocioException(CodigoErro.LANCAMENTO_NAO_ENCONTRADO, "Lançamento não encontrado na base de dados");
+    }
+
+    // o id vem do proxy do usuário, sem carregá-lo
+    private static boolean pertenceAo(Lancamento lancamento, Long idUsuario) {
+        return lancamento.getUsuario() != null && idUsuario.equals(lancamento.getUsuario().getId());
+    }
+
+
     @GetMapping("{id}")
-    public ResponseEntity buscarPorId(@PathVariable("id") Long id){
-        return lancamentoService.buscarPorId(id)
-                .map( lancamento -> new ResponseEntity(this.converter(lancamento), HttpStatus.OK))
-                .orElseGet(() -> new ResponseEntity(HttpStatus.NOT_FOUND));
+    public CompletableFuture<ResponseEntity> buscarPorId(@UsuarioAutenticado Long idUsuario, @PathVariable("id") Long id,
+                                                         WebRequest request){
+        String etag = VersaoUsuarioService.etag(idUsuario, versaoUsuarioService.obterVersao(idUsuario));
+        if(request.checkNotModified(etag)) {
+            return CompletableFuture.completedFuture(RespostaCondicional.naoModificado(etag));
+        }
+
+        return execucao.executar(() -> buscarDoUsuario(id, idUsuario)
+                .map( lancamento -> (ResponseEntity) RespostaCondicional.ok(etag).body(this.converter(lancamento)))
+                .orElseGet(() -> new ResponseEntity(HttpStatus.NOT_FOUND)));
     }
 
 }
@@ -0,0 +1,83 @@
+package com.gabs.minhasfinancias.controllers;
+
+import com.gabs.minhasfinancias.annotations.UsuarioAutenticado;
+import com.gabs.minhasfinancias.dto.RecorrenciaDTO;
+import com.gabs.minhasfinancias.exception.CodigoErro;
+import com.gabs.minhasfinancias.exception.RegraNegocioException;
+import com.gabs.minhasfinancias.model.entity.Recorrencia;
+import com.gabs.minhasfinancias.model.enums.Periodicidade;
+import com.gabs.minhasfinancias.model.enums.TipoLancamento;
+import com.gabs.minhasfinancias.services.RecorrenciaService;
+import com.gabs.minhasfinancias.services.UsuarioService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+// sob /api/lancamentos, protegido pelo mesmo token; os lançamentos gerados são lidos pelas rotas de lançamentos
+@RestController
+@RequestMapping("/api/lancamentos/recorrencias")
+@RequiredArgsConstructor
+@SuppressWarnings({"unused", "rawtypes"})
+public class RecorrenciaController {
+
+    private final RecorrenciaService recorrenciaService;
+    private final UsuarioService usuarioService;
+
+    Recorrencia converter(RecorrenciaDTO dto, Long idUsuario) {
+        return Recorrencia.builder()
+                .descricao(dto.getDescricao())
+                .valor(dto.getValor())
+                .tipo(TipoLancamento.porNome(dto.getTipo()))
+                .periodicidade(Periodicidade.porNome(dto.getPeriodicidade()))
+                .anoInicial(dto.getAnoInicial())
+                .mesInicial(dto.getMesInicial())
+                .anoFinal(dto.getAnoFinal())
+                .mesFinal(dto.getMesFinal())
+                .usuario(usuarioService.obterReferencia(idUsuario))
+                .build();
+    }
+
+    RecorrenciaDTO converter(Recorrencia recorrencia) {
+        return RecorrenciaDTO.builder()
+                .id(recorrencia.getId())
+                .descricao(recorrencia.getDescricao())
+                .valor(recorrencia.getValor())
+                .tipo(recorrencia.getTipo() != null ? recorrencia.getTipo().name() : null)
+                .periodicidade(recorrencia.getPeriodicidade() != null ? recorrencia.getPeriodicidade().name() : null)
+                .anoInicial(recorrencia.getAnoInicial())
+                .mesInicial(recorrencia.getMesInicial())
+                .anoFinal(recorrencia.getAnoFinal())
+                .mesFinal(recorrencia.getMesFinal())
+                .proximoAno(recorrencia.getProximoAno())
+                .proximoMes(recorrencia.getProximoMes())
+                .build();
+    }
+
+    @PostMapping
+    public ResponseEntity salvar(@UsuarioAutenticado Long idUsuario, @RequestBody RecorrenciaDTO dto) {
+        Recorrencia recorrencia = recorrenciaService.salvar(converter(dto, idUsuario));
+        return new ResponseEntity(converter(recorrencia), HttpStatus.CREATED);
+    }
+
+    @GetMapping
+    public ResponseEntity buscar(@UsuarioAutenticado Long idUsuario) {
+        List<RecorrenciaDTO> recorrencias = recorrenciaService.buscar(idUsuario).stream()
+                .map(this::converter)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(recorrencias);
+    }
+
+    // recorrências de outro usuário são tratadas como inexistentes
+    @DeleteMapping("/{id}")
+    public ResponseEntity deletar(@UsuarioAutenticado Long idUsuario, @PathVariable("id") Long id) {
+        Recorrencia recorrencia = recorrenciaService.buscarPorId(id)
+                .filter(encontrada -> encontrada.getUsuario() != null && idUsuario.equals(encontrada.getUsuario().getId()))
+                .orElseThrow(() -> new RegraNegocioException(CodigoErro.RECORRENCIA_NAO_ENCONTRADA, "Recorrência não encontrada na base de dados"));
+        recorrenciaService.deletar(recorrencia);
+        return new ResponseEntity(HttpStatus.NO_CONTENT);
+    }
+}
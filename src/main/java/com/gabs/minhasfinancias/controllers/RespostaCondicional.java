@@ -0,0 +1,28 @@
+package com.gabs.minhasfinancias.controllers;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/*
+ GET CONDICIONAL DAS CONSULTAS POR USUARIO: A ETag VEM DA VERSAO DOS DADOS DO USUARIO (VersaoUsuarioService),
+ ENTAO UM If-None-Match IGUAL E RESPONDIDO COM 304 SEM EXECUTAR A CONSULTA
+ no-cache + private: O CLIENTE PODE GUARDAR A RESPOSTA, MAS REVALIDA A CADA USO E PROXIES NAO COMPARTILHAM
+ Vary: Accept SEPARA NOS CACHES AS REPRESENTACOES JSON E CBOR DA MESMA URL
+ */
+final class RespostaCondicional {
+
+    private static final CacheControl REVALIDAR = CacheControl.noCache().cachePrivate();
+
+    private RespostaCondicional() {
+    }
+
+    static ResponseEntity.BodyBuilder ok(String etag) {
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDAR).varyBy(HttpHeaders.ACCEPT);
+    }
+
+    static ResponseEntity<?> naoModificado(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDAR).varyBy(HttpHeaders.ACCEPT).build();
+    }
+}
@@ -0,0 +1,30 @@
+package com.gabs.minhasfinancias.controllers;
+
+import com.gabs.minhasfinancias.dto.ErroDTO;
+import com.gabs.minhasfinancias.exception.CodigoErro;
+import com.gabs.minhasfinancias.exception.ErroDominioException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/*
+ RESPOSTA UNICA PARA OS ERROS ESPERADOS DA API: STATUS DO CodigoErro E CORPO { codigo, mensagem, detalhes }
+ VALE TAMBEM PARA AS LEITURAS ASSINCRONAS, CUJO FUTURE FALHO E DESPACHADO DE VOLTA AO SPRING MVC
+ */
+@RestControllerAdvice
+public class TratamentoErros {
+
+    static final String SEGUNDOS_NOVA_TENTATIVA = "1";
+
+    @ExceptionHandler(ErroDominioException.class)
+    public ResponseEntity<ErroDTO> tratar(ErroDominioException erro) {
+        CodigoErro codigo = erro.getCodigo();
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.status(codigo.getStatus());
+        if(codigo.getStatus() == HttpStatus.TOO_MANY_REQUESTS || codigo.getStatus() == HttpStatus.SERVICE_UNAVAILABLE) {
+            resposta.header(HttpHeaders.RETRY_AFTER, SEGUNDOS_NOVA_TENTATIVA);
+        }
+        return resposta.body(new ErroDTO(codigo, erro.getMessage(), erro.getDetalhes()));
+    }
+}
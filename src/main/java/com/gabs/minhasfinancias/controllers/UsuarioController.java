@@ -1,18 +1,27 @@
 package com.gabs.minhasfinancias.controllers;
 
+import com.gabs.minhasfinancias.annotations.UsuarioAutenticado;
+import com.gabs.minhasfinancias.config.ExecucaoRequisicoes;
+import com.gabs.minhasfinancias.dto.TotalPeriodoDTO;
+import com.gabs.minhasfinancias.dto.UsuarioAutenticadoDTO;
 import com.gabs.minhasfinancias.dto.UsuarioDTO;
-import com.gabs.minhasfinancias.exception.ErroAutenticacaoException;
+import com.gabs.minhasfinancias.exception.CodigoErro;
 import com.gabs.minhasfinancias.exception.RegraNegocioException;
 import com.gabs.minhasfinancias.model.entity.Usuario;
 import com.gabs.minhasfinancias.services.LancamentoService;
+import com.gabs.minhasfinancias.services.TokenService;
 import com.gabs.minhasfinancias.services.UsuarioService;
+import com.gabs.minhasfinancias.services.VersaoUsuarioService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequiredArgsConstructor
@@ -22,15 +31,22 @@ public class UsuarioController {
 
     private final UsuarioService usuarioService;
     private final LancamentoService lancamentoService;
+    private final TokenService tokenService;
+    private final ExecucaoRequisicoes execucao;
+    private final VersaoUsuarioService versaoUsuarioService;
 
     @PostMapping("/autenticar")
     public ResponseEntity autenticar(@RequestBody UsuarioDTO dto) {
-        try{
-            Usuario usuarioAutenticado = usuarioService.autenticar(dto.getEmail(), dto.getSenha());
-            return ResponseEntity.ok(usuarioAutenticado);
-        } catch (ErroAutenticacaoException erroAutenticacaoException) {
-            return ResponseEntity.badRequest().body(erroAutenticacaoException.getMessage());
-        }
+        // credenciais recusadas viram ErroAutenticacaoException, respondida pelo TratamentoErros
+        Usuario usuarioAutenticado = usuarioService.autenticar(dto.getEmail(), dto.getSenha());
+        // as próximas chamadas enviam "Authorization: Bearer <token>" no lugar das credenciais
+        return ResponseEntity.ok(UsuarioAutenticadoDTO.builder()
+                .id(usuarioAutenticado.getId())
+                .nome(usuarioAutenticado.getNome())
+                .email(usuarioAutenticado.getEmail())
+                .token(tokenService.emitir(usuarioAutenticado.getId()))
+                .validadeSegundos(tokenService.getValidadeSegundos())
+                .build());
     }
 
 
@@ -42,23 +58,76 @@ public class UsuarioController {
                 .senha(dto.getSenha())
                 .build();
 
-        try {
-            Usuario usuarioSalvo = usuarioService.salvarUsuario(usuario);
-            return new ResponseEntity(usuarioSalvo, HttpStatus.CREATED); // 200
-        } catch (RegraNegocioException regraNegocioException) {
-            return ResponseEntity.badRequest().body(regraNegocioException.getMessage());
-        }
+        Usuario usuarioSalvo = usuarioService.salvarUsuario(usuario);
+        return new ResponseEntity(usuarioSalvo, HttpStatus.CREATED);
     }
 
     @GetMapping("/{id}/saldo")
-    public ResponseEntity obterSaldo(@PathVariable("id") Long id) {
-        Optional<Usuario> usuario = usuarioService.obterPorId(id);
+    public CompletableFuture<ResponseEntity> obterSaldo(@UsuarioAutenticado Long idUsuario,
+                                                        @PathVariable("id") Long id,
+                                                        @RequestParam(value = "ano", required = false) Integer ano,
+                                                        @RequestParam(value = "mes", required = false) Integer mes,
+                                                        WebRequest request) {
+        exigirProprioUsuario(id, idUsuario);
+        String etag = VersaoUsuarioService.etag(id, versaoUsuarioService.obterVersao(id));
+        if(request.checkNotModified(etag)) {
+            return CompletableFuture.completedFuture(RespostaCondicional.naoModificado(etag));
+        }
+
+        return execucao.executar(() -> {
+            Optional<Usuario> usuario = usuarioService.obterPorId(id);
+
+            if(!usuario.isPresent()){
+                throw usuarioNaoEncontrado();
+            }
+
+            BigDecimal saldo = (ano != null && mes != null)
+                    ? lancamentoService.obterSaldoPorUsuario(id, ano, mes)
+                    : lancamentoService.obterSaldoPorUsuario(id);
+            return RespostaCondicional.ok(etag).body(saldo);
+        });
+    }
 
-        if(!usuario.isPresent()){
-            return new ResponseEntity("Usuário não encontrado para este id", HttpStatus.NOT_FOUND);
+    @GetMapping("/{id}/relatorio/mensal")
+    public CompletableFuture<ResponseEntity> obterTotaisMensais(@UsuarioAutenticado Long idUsuario,
+                                                                @PathVariable("id") Long id,
+                                                                @RequestParam(value = "anoInicial", defaultValue = "0") Integer anoInicial,
+                                                                @RequestParam(value = "anoFinal", defaultValue = "9999") Integer anoFinal) {
+        exigirProprioUsuario(id, idUsuario);
+        return execucao.executar(() -> {
+            if(!usuarioService.obterPorId(id).isPresent()){
+                throw usuarioNaoEncontrado();
+            }
+
+            List<TotalPeriodoDTO> totais = lancamentoService.obterTotaisMensais(id, anoInicial, anoFinal);
+            return ResponseEntity.ok(totais);
+        });
+    }
+
+    @GetMapping("/{id}/relatorio/anual")
+    public CompletableFuture<ResponseEntity> obterTotaisAnuais(@UsuarioAutenticado Long idUsuario,
+                                                               @PathVariable("id") Long id,
+                                                               @RequestParam(value = "anoInicial", defaultValue = "0") Integer anoInicial,
+                                                               @RequestParam(value = "anoFinal", defaultValue = "9999") Integer anoFinal) {
+        exigirProprioUsuario(id, idUsuario);
+        return execucao.executar(() -> {
+            if(!usuarioService.obterPorId(id).isPresent()){
+                throw usuarioNaoEncontrado();
+            }
+
+            List<TotalPeriodoDTO> totais = lancamentoService.obterTotaisAnuais(id, anoInicial, anoFinal);
+            return ResponseEntity.ok(totais);
+        });
+    }
+
+    // o id do caminho precisa ser o do token; o de outro usuário é tratado como inexistente
+    private static void exigirProprioUsuario(Long id, Long idUsuario) {
+        if(!id.equals(idUsuario)) {
+            throw usuarioNaoEncontrado();
         }
+    }
 
-        BigDecimal saldo = lancamentoService.obterSaldoPorUsuario(id);
-        return ResponseEntity.ok(saldo);
+    private static RegraNegocioException usuarioNaoEncontrado() {
+        return new RegraNegocioException(CodigoErro.USUARIO_NAO_ENCONTRADO, "Usuário não encontrado para este id");
     }
 }
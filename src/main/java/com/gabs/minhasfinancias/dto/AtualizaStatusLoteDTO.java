@@ -0,0 +1,22 @@
+package com.gabs.minhasfinancias.dto;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.Map;
+
+/*
+ INFORME "ids" (E OPCIONALMENTE A VERSAO ESPERADA DE CADA UM EM "versoes")
+ OU O PERIODO "ano"/"mes" DO USUARIO AUTENTICADO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AtualizaStatusLoteDTO {
+    private String status;
+    private List<Long> ids;
+    private Map<Long, Long> versoes;
+    private Integer ano;
+    private Integer mes;
+}
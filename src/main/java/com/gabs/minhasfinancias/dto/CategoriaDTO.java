@@ -0,0 +1,12 @@
+package com.gabs.minhasfinancias.dto;
+
+import lombok.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoriaDTO {
+    private Long id;
+    private String nome;
+}
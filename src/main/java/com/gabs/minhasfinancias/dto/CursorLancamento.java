@@ -0,0 +1,44 @@
+package com.gabs.minhasfinancias.dto;
+
+import com.gabs.minhasfinancias.exception.CodigoErro;
+import com.gabs.minhasfinancias.exception.RegraNegocioException;
+import com.gabs.minhasfinancias.model.enums.OrdemLancamento;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/*
+ POSICAO DO ULTIMO REGISTRO LIDO, USADA NA PAGINACAO POR CHAVE (KEYSET)
+ FORMATO: "id" PARA ORDEM ID E "ano-mes-id" PARA ORDEM PERIODO
+ */
+@Getter
+@AllArgsConstructor
+public class CursorLancamento {
+    private final Integer ano;
+    private final Integer mes;
+    private final Long id;
+
+    public static CursorLancamento decodificar(String cursor, OrdemLancamento ordem) {
+        if(cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            if(ordem == OrdemLancamento.PERIODO) {
+                String[] partes = cursor.split("-");
+                if(partes.length != 3) {
+                    throw new RegraNegocioException(CodigoErro.CURSOR_INVALIDO, "Cursor de paginação inválido");
+                }
+                return new CursorLancamento(Integer.valueOf(partes[0]), Integer.valueOf(partes[1]), Long.valueOf(partes[2]));
+            }
+            return new CursorLancamento(null, null, Long.valueOf(cursor));
+        } catch (NumberFormatException numberFormatException) {
+            throw new RegraNegocioException(CodigoErro.CURSOR_INVALIDO, "Cursor de paginação inválido");
+        }
+    }
+
+    public static String codificar(LancamentoDTO ultimo, OrdemLancamento ordem) {
+        if(ordem == OrdemLancamento.PERIODO) {
+            return ultimo.getAno() + "-" + ultimo.getMes() + "-" + ultimo.getId();
+        }
+        return String.valueOf(ultimo.getId());
+    }
+}
@@ -0,0 +1,18 @@
+package com.gabs.minhasfinancias.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.gabs.minhasfinancias.exception.CodigoErro;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class ErroDTO {
+    private CodigoErro codigo;
+    private String mensagem;
+    private List<String> detalhes;
+}
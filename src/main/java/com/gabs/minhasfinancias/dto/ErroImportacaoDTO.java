@@ -0,0 +1,12 @@
+package com.gabs.minhasfinancias.dto;
+
+import lombok.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErroImportacaoDTO {
+    private long linha;
+    private String mensagem;
+}
@@ -1,5 +1,7 @@
 package com.gabs.minhasfinancias.dto;
 
+import com.gabs.minhasfinancias.model.enums.StatusLancamento;
+import com.gabs.minhasfinancias.model.enums.TipoLancamento;
 import lombok.*;
 
 import java.math.BigDecimal;
@@ -17,4 +19,14 @@ public class LancamentoDTO {
     private Long usuario;
     private String tipo;
     private String status;
+    private Long categoria;
+
+    // usado pela expressão "select new" das consultas de leitura, que lê apenas a chave do usuário
+    public LancamentoDTO(Long id, String descricao, Integer mes, Integer ano, BigDecimal valor,
+                         Long usuario, TipoLancamento tipo, StatusLancamento status, Long categoria) {
+        this(id, descricao, mes, ano, valor, usuario,
+                tipo != null ? tipo.name() : null,
+                status != null ? status.name() : null,
+                categoria);
+    }
 }
@@ -0,0 +1,19 @@
+package com.gabs.minhasfinancias.dto;
+
+import com.gabs.minhasfinancias.model.enums.StatusLancamento;
+import com.gabs.minhasfinancias.model.enums.TipoLancamento;
+import lombok.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LancamentoFiltro {
+    private Long usuario;
+    private String descricao;
+    private Integer ano;
+    private Integer mes;
+    private TipoLancamento tipo;
+    private StatusLancamento status;
+    private Long categoria;
+}
@@ -0,0 +1,24 @@
+package com.gabs.minhasfinancias.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecorrenciaDTO {
+    private Long id;
+    private String descricao;
+    private BigDecimal valor;
+    private String tipo;
+    private String periodicidade;
+    private Integer anoInicial;
+    private Integer mesInicial;
+    private Integer anoFinal;
+    private Integer mesFinal;
+    // próxima ocorrência ainda não lançada; nula quando a recorrência terminou
+    private Integer proximoAno;
+    private Integer proximoMes;
+}
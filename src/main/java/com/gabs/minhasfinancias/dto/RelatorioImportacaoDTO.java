@@ -0,0 +1,17 @@
+package com.gabs.minhasfinancias.dto;
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RelatorioImportacaoDTO {
+    private long importados;
+    private long rejeitados;
+    @Builder.Default
+    private List<ErroImportacaoDTO> erros = new ArrayList<>();
+}
@@ -0,0 +1,14 @@
+package com.gabs.minhasfinancias.dto;
+
+import com.gabs.minhasfinancias.model.enums.ResultadoAtualizacao;
+import lombok.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoStatusDTO {
+    private Long id;
+    private ResultadoAtualizacao resultado;
+    private Long versao;
+}
@@ -0,0 +1,15 @@
+package com.gabs.minhasfinancias.dto;
+
+import com.gabs.minhasfinancias.model.enums.SituacaoIngestao;
+import lombok.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SituacaoIngestaoDTO {
+    private Long protocolo;
+    private SituacaoIngestao situacao;
+    private Long idLancamento;
+    private String mensagem;
+}
@@ -0,0 +1,20 @@
+package com.gabs.minhasfinancias.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/*
+ RECEITAS E DESPESAS EFETIVADAS DE UMA CATEGORIA NUM MES, LIDAS DA TABELA total_categoria
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TotalCategoriaDTO {
+    private Long categoria;
+    private Integer ano;
+    private Integer mes;
+    private BigDecimal receitas;
+    private BigDecimal despesas;
+}
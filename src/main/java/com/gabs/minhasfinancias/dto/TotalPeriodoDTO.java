@@ -0,0 +1,33 @@
+package com.gabs.minhasfinancias.dto;
+
+import com.gabs.minhasfinancias.model.enums.StatusLancamento;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/*
+ TOTAIS DE RECEITAS E DESPESAS DE UM PERIODO (MES OU ANO) E STATUS, CALCULADOS NO BANCO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+public class TotalPeriodoDTO {
+    private Integer ano;
+    private Integer mes;
+    private StatusLancamento status;
+    private BigDecimal receitas;
+    private BigDecimal despesas;
+
+    // usados pelas consultas agregadas de LancamentoRepository; sum sem linhas do tipo retorna null
+    public TotalPeriodoDTO(Integer ano, Integer mes, StatusLancamento status, BigDecimal receitas, BigDecimal despesas) {
+        this.ano = ano;
+        this.mes = mes;
+        this.status = status;
+        this.receitas = receitas == null ? BigDecimal.ZERO : receitas;
+        this.despesas = despesas == null ? BigDecimal.ZERO : despesas;
+    }
+
+    public TotalPeriodoDTO(Integer ano, StatusLancamento status, BigDecimal receitas, BigDecimal despesas) {
+        this(ano, null, status, receitas, despesas);
+    }
+}
@@ -0,0 +1,16 @@
+package com.gabs.minhasfinancias.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsuarioAutenticadoDTO {
+    private Long id;
+    private String nome;
+    private String email;
+    private String token;
+    private Long validadeSegundos;
+}
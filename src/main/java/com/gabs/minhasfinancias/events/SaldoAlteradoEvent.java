@@ -0,0 +1,17 @@
+package com.gabs.minhasfinancias.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/*
+ PUBLICADO A CADA VARIACAO DA PROJECAO DE SALDO; ano E mes NULOS INDICAM QUE SO O SALDO TOTAL MUDOU
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class SaldoAlteradoEvent {
+    private final Long idUsuario;
+    private final Integer ano;
+    private final Integer mes;
+}
@@ -0,0 +1,34 @@
+package com.gabs.minhasfinancias.events;
+
+import com.gabs.minhasfinancias.config.CacheConfiguration;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/*
+ REMOVE DO CACHE SOMENTE O SALDO TOTAL E O MES AFETADOS, DEPOIS DO COMMIT DA ESCRITA
+ COMO AS LEITURAS USAM @Cacheable(sync = true), UMA CARGA EM ANDAMENTO TERMINA ANTES DA REMOCAO,
+ ENTAO UM VALOR LIDO ANTES DO COMMIT NUNCA SOBREVIVE A ELA
+ */
+@Component
+public class SaldoCacheListener {
+
+    private final Cache saldos;
+    private final Cache saldosMensais;
+
+    public SaldoCacheListener(CacheManager cacheManager) {
+        this.saldos = cacheManager.getCache(CacheConfiguration.SALDOS);
+        this.saldosMensais = cacheManager.getCache(CacheConfiguration.SALDOS_MENSAIS);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void invalidar(SaldoAlteradoEvent evento) {
+        saldos.evict(evento.getIdUsuario());
+        if(evento.getAno() != null && evento.getMes() != null) {
+            saldosMensais.evict(new SimpleKey(evento.getIdUsuario(), evento.getAno(), evento.getMes()));
+        }
+    }
+}
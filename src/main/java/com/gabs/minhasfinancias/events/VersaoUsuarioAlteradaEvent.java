@@ -0,0 +1,15 @@
+package com.gabs.minhasfinancias.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/*
+ PUBLICADO A CADA ESCRITA NOS LANCAMENTOS DO USUARIO
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class VersaoUsuarioAlteradaEvent {
+    private final Long idUsuario;
+}
@@ -0,0 +1,26 @@
+package com.gabs.minhasfinancias.events;
+
+import com.gabs.minhasfinancias.config.CacheConfiguration;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/*
+ REMOVE A VERSAO DO USUARIO DO CACHE DEPOIS DO COMMIT; A PROXIMA CONSULTA RELE A VERSAO NOVA E A ETag MUDA
+ */
+@Component
+public class VersaoUsuarioCacheListener {
+
+    private final Cache versoes;
+
+    public VersaoUsuarioCacheListener(CacheManager cacheManager) {
+        this.versoes = cacheManager.getCache(CacheConfiguration.VERSOES_USUARIO);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void invalidar(VersaoUsuarioAlteradaEvent evento) {
+        versoes.evict(evento.getIdUsuario());
+    }
+}
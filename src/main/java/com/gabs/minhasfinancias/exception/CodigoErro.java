@@ -0,0 +1,33 @@
+package com.gabs.minhasfinancias.exception;
+
+import org.springframework.http.HttpStatus;
+
+// código estável de cada erro esperado da API, enviado no corpo da resposta junto com o status HTTP
+public enum CodigoErro {
+    REGRA_NEGOCIO(HttpStatus.BAD_REQUEST),
+    LANCAMENTO_INVALIDO(HttpStatus.BAD_REQUEST),
+    LANCAMENTO_NAO_ENCONTRADO(HttpStatus.BAD_REQUEST),
+    STATUS_INVALIDO(HttpStatus.BAD_REQUEST),
+    CURSOR_INVALIDO(HttpStatus.BAD_REQUEST),
+    ARQUIVO_ILEGIVEL(HttpStatus.BAD_REQUEST),
+    LIMITE_EXCEDIDO(HttpStatus.BAD_REQUEST),
+    EMAIL_CADASTRADO(HttpStatus.BAD_REQUEST),
+    USUARIO_NAO_ENCONTRADO(HttpStatus.NOT_FOUND),
+    RECORRENCIA_NAO_ENCONTRADA(HttpStatus.NOT_FOUND),
+    CATEGORIA_NAO_ENCONTRADA(HttpStatus.NOT_FOUND),
+    CONFLITO_CONCORRENCIA(HttpStatus.CONFLICT),
+    CREDENCIAIS_INVALIDAS(HttpStatus.BAD_REQUEST),
+    TOKEN_INVALIDO(HttpStatus.UNAUTHORIZED),
+    AUTENTICACAO_OCUPADA(HttpStatus.SERVICE_UNAVAILABLE),
+    FILA_CHEIA(HttpStatus.TOO_MANY_REQUESTS);
+
+    private final HttpStatus status;
+
+    CodigoErro(HttpStatus status) {
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,46 @@
+package com.gabs.minhasfinancias.exception;
+
+import com.gabs.minhasfinancias.config.MetricasConfiguration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/*
+ CONTA AS EXCECOES DE NEGOCIO E DE AUTENTICACAO NO REGISTRO GLOBAL DO MICROMETER, QUE O SPRING BOOT
+ LIGA AO REGISTRO DO PROMETHEUS; A CATEGORIA E A MENSAGEM SEM NUMEROS, PARA NAO MULTIPLICAR AS SERIES
+ O CONTADOR DE CADA (EXCECAO, MENSAGEM) FICA GUARDADO: ERROS REPETIDOS NAO REFAZEM A CATEGORIA NEM AS TAGS
+ */
+final class ContadorErros {
+    private static final int TAMANHO_MAXIMO_CATEGORIA = 80;
+    private static final int MAXIMO_MENSAGENS_POR_EXCECAO = 1000;
+    private static final Pattern NUMEROS = Pattern.compile("[0-9]+");
+    private static final Map<Class<?>, Map<String, Counter>> CONTADORES = new ConcurrentHashMap<>();
+
+    private ContadorErros() {
+    }
+
+    static void contar(Class<? extends RuntimeException> excecao, String mensagem) {
+        Map<String, Counter> porMensagem = CONTADORES.computeIfAbsent(excecao, classe -> new ConcurrentHashMap<>());
+        String chave = mensagem == null ? "" : mensagem;
+        Counter contador = porMensagem.get(chave);
+        if(contador == null) {
+            contador = Metrics.counter(MetricasConfiguration.ERROS, "excecao", excecao.getSimpleName(), "categoria", categoria(mensagem));
+            // mensagens com dados variáveis não crescem o mapa sem limite; acima dele o contador é buscado a cada erro
+            if(porMensagem.size() < MAXIMO_MENSAGENS_POR_EXCECAO) {
+                porMensagem.putIfAbsent(chave, contador);
+            }
+        }
+        contador.increment();
+    }
+
+    static String categoria(String mensagem) {
+        if(mensagem == null || mensagem.isEmpty()) {
+            return "sem_mensagem";
+        }
+        String categoria = NUMEROS.matcher(mensagem).replaceAll("#");
+        return categoria.length() > TAMANHO_MAXIMO_CATEGORIA ? categoria.substring(0, TAMANHO_MAXIMO_CATEGORIA) : categoria;
+    }
+}
@@ -1,7 +1,11 @@
 package com.gabs.minhasfinancias.exception;
 
-public class ErroAutenticacaoException extends RuntimeException{
+public class ErroAutenticacaoException extends ErroDominioException {
     public ErroAutenticacaoException(String msg) {
-        super(msg);
+        this(CodigoErro.CREDENCIAIS_INVALIDAS, msg);
+    }
+
+    public ErroAutenticacaoException(CodigoErro codigo, String msg) {
+        super(codigo, msg);
     }
 }
@@ -0,0 +1,28 @@
+package com.gabs.minhasfinancias.exception;
+
+import java.util.Collections;
+import java.util.List;
+
+/*
+ ERROS ESPERADOS (REGRA DE NEGOCIO, LOGIN RECUSADO, FILA CHEIA) SAO RESPOSTAS DA API, NAO FALHAS:
+ SEM STACK TRACE E SEM SUPRESSAO, O throw CUSTA SO O OBJETO. O CODIGO DEFINE O STATUS HTTP E VAI NO CORPO
+ DA RESPOSTA MONTADA POR TratamentoErros; OS CONTROLLERS NAO PRECISAM CAPTURAR ESSAS EXCECOES
+ */
+public abstract class ErroDominioException extends RuntimeException {
+    private final CodigoErro codigo;
+
+    protected ErroDominioException(CodigoErro codigo, String mensagem) {
+        super(mensagem, null, false, false);
+        this.codigo = codigo;
+        ContadorErros.contar(getClass(), mensagem);
+    }
+
+    public CodigoErro getCodigo() {
+        return codigo != null ? codigo : CodigoErro.REGRA_NEGOCIO;
+    }
+
+    // detalhes estruturados do erro, como as regras violadas de um lançamento
+    public List<String> getDetalhes() {
+        return Collections.emptyList();
+    }
+}
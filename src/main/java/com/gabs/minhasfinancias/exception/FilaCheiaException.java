@@ -0,0 +1,7 @@
+package com.gabs.minhasfinancias.exception;
+
+public class FilaCheiaException extends ErroDominioException {
+    public FilaCheiaException(String s) {
+        super(CodigoErro.FILA_CHEIA, s);
+    }
+}
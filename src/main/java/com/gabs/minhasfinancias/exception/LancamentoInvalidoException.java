@@ -0,0 +1,25 @@
+package com.gabs.minhasfinancias.exception;
+
+import com.gabs.minhasfinancias.model.enums.ViolacaoLancamento;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+// todas as regras violadas de uma vez; a mensagem junta as mensagens de cada uma
+public class LancamentoInvalidoException extends RegraNegocioException {
+    private final int violacoes;
+
+    public LancamentoInvalidoException(int violacoes) {
+        super(CodigoErro.LANCAMENTO_INVALIDO, ViolacaoLancamento.mensagem(violacoes));
+        this.violacoes = violacoes;
+    }
+
+    public List<ViolacaoLancamento> getViolacoes() {
+        return ViolacaoLancamento.de(violacoes);
+    }
+
+    @Override
+    public List<String> getDetalhes() {
+        return this.getViolacoes().stream().map(Enum::name).collect(Collectors.toList());
+    }
+}
@@ -1,7 +1,11 @@
 package com.gabs.minhasfinancias.exception;
 
-public class RegraNegocioException extends RuntimeException {
+public class RegraNegocioException extends ErroDominioException {
     public RegraNegocioException(String s) {
-        super(s);
+        this(CodigoErro.REGRA_NEGOCIO, s);
+    }
+
+    public RegraNegocioException(CodigoErro codigo, String s) {
+        super(codigo, s);
     }
 }
@@ -0,0 +1,56 @@
+package com.gabs.minhasfinancias.jobs;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Year;
+
+/*
+ GARANTE AS PARTICOES ANUAIS DE financas.lancamento DO ANO CORRENTE ATE anos-adiante ANOS A FRENTE,
+ NA SUBIDA DA APLICACAO E TODO MES (FUNCAO financas.garantir_particoes_lancamento DE scriptsSQL/Lancamento.sql)
+ LANCAMENTOS DE ANOS SEM PARTICAO CAEM NA PARTICAO PADRAO E SAO MOVIDOS QUANDO A PARTICAO DO ANO E CRIADA
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "minhasfinancas.particoes.habilitada")
+public class ParticaoLancamentoJob {
+
+    static final String GARANTIR_PARTICOES = "select financas.garantir_particoes_lancamento(?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int anosAdiante;
+    private final Clock relogio;
+
+    public ParticaoLancamentoJob(JdbcTemplate jdbcTemplate,
+                                 @Value("${minhasfinancas.particoes.anos-adiante:1}") int anosAdiante) {
+        this(jdbcTemplate, anosAdiante, Clock.systemDefaultZone());
+    }
+
+    ParticaoLancamentoJob(JdbcTemplate jdbcTemplate, int anosAdiante, Clock relogio) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.anosAdiante = anosAdiante;
+        this.relogio = relogio;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        this.garantir();
+    }
+
+    @Scheduled(cron = "${minhasfinancas.particoes.cron:0 0 2 1 * *}")
+    public int garantir() {
+        int anoAtual = Year.now(relogio).getValue();
+        Integer criadas = jdbcTemplate.queryForObject(GARANTIR_PARTICOES, Integer.class, anoAtual, anoAtual + anosAdiante);
+        if(criadas != null && criadas > 0) {
+            log.info("{} partições de lançamentos criadas até o ano {}", criadas, anoAtual + anosAdiante);
+        }
+        return criadas == null ? 0 : criadas;
+    }
+}
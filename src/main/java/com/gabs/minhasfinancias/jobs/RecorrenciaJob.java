@@ -0,0 +1,64 @@
+package com.gabs.minhasfinancias.jobs;
+
+import com.gabs.minhasfinancias.services.RecorrenciaService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+ MATERIALIZA AS OCORRENCIAS DAS RECORRENCIAS ATE O HORIZONTE TODO DIA, PARA QUE AS DO MES SEGUINTE JA EXISTAM NA VIRADA
+ OS USUARIOS SAO DIVIDIDOS ENTRE AS THREADS POR mod(id_usuario, threads): CADA THREAD GRAVA OS SEUS EM LOTES E DUAS
+ THREADS NUNCA DISPUTAM A VERSAO DO MESMO USUARIO. UMA EXECUCAO INTERROMPIDA E RETOMADA NA SEGUINTE SEM DUPLICAR
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "minhasfinancas.recorrencia.habilitada", matchIfMissing = true)
+public class RecorrenciaJob {
+
+    private final RecorrenciaService recorrenciaService;
+    private final int threads;
+
+    public RecorrenciaJob(RecorrenciaService recorrenciaService,
+                          @Value("${minhasfinancas.recorrencia.threads:4}") int threads) {
+        this.recorrenciaService = recorrenciaService;
+        this.threads = Math.max(threads, 1);
+    }
+
+    @Scheduled(cron = "${minhasfinancas.recorrencia.cron:0 0 1 * * *}")
+    public int materializar() {
+        YearMonth ate = recorrenciaService.horizonte();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("recorrencia-"));
+        try {
+            List<Future<Integer>> particoes = new ArrayList<>(threads);
+            for(int particao = 0; particao < threads; particao++) {
+                int atual = particao;
+                particoes.add(executor.submit(() -> recorrenciaService.materializar(threads, atual, ate)));
+            }
+
+            int gravados = 0;
+            for(Future<Integer> particao : particoes) {
+                gravados += particao.get();
+            }
+            log.info("Recorrências materializadas até {}: {} lançamentos gravados", ate, gravados);
+            return gravados;
+        } catch (InterruptedException interrupcao) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Materialização de recorrências interrompida", interrupcao);
+        } catch (ExecutionException falha) {
+            throw new IllegalStateException("Falha ao materializar recorrências", falha.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
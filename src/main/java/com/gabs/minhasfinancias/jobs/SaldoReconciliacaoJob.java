@@ -0,0 +1,47 @@
+package com.gabs.minhasfinancias.jobs;
+
+import com.gabs.minhasfinancias.repositories.LancamentoRepository;
+import com.gabs.minhasfinancias.repositories.SaldoUsuarioRepository;
+import com.gabs.minhasfinancias.services.CategoriaService;
+import com.gabs.minhasfinancias.services.SaldoService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/*
+ CONFERE PERIODICAMENTE AS PROJECOES DE SALDO E DE TOTAIS POR CATEGORIA CONTRA A SOMA DOS LANCAMENTOS
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "minhasfinancas.saldo.reconciliacao.habilitada", matchIfMissing = true)
+public class SaldoReconciliacaoJob {
+    private final SaldoService saldoService;
+    private final CategoriaService categoriaService;
+    private final LancamentoRepository lancamentoRepository;
+    private final SaldoUsuarioRepository saldoUsuarioRepository;
+
+    @Scheduled(cron = "${minhasfinancas.saldo.reconciliacao.cron:0 0 3 * * *}")
+    public int reconciliar() {
+        Set<Long> usuarios = new LinkedHashSet<>(lancamentoRepository.obterIdsDeUsuariosComLancamentos());
+        usuarios.addAll(saldoUsuarioRepository.obterIdsDeUsuarios());
+
+        int divergentes = 0;
+        for(Long idUsuario : usuarios) {
+            // as duas conferências rodam sempre; o usuário conta uma vez se qualquer uma corrigir algo
+            boolean saldoConsistente = saldoService.reconciliar(idUsuario);
+            boolean categoriasConsistentes = categoriaService.reconciliar(idUsuario);
+            if(!saldoConsistente || !categoriasConsistentes) {
+                divergentes++;
+            }
+        }
+
+        log.info("Reconciliação de saldos concluída: {} usuários verificados, {} corrigidos", usuarios.size(), divergentes);
+        return divergentes;
+    }
+}
@@ -0,0 +1,28 @@
+package com.gabs.minhasfinancias.model.entity;
+
+import lombok.*;
+
+import javax.persistence.*;
+
+@Entity
+@Table( name = "categoria", schema = "financas",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"id_usuario", "nome"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Categoria {
+    @Id
+    @GeneratedValue( strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "nome")
+    private String nome;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_usuario")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Usuario usuario;
+}
@@ -10,14 +10,20 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
-@Table( name = "lancamento", schema = "financas")
+@Table( name = "lancamento", schema = "financas",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"id_recorrencia", "ano", "mes"}))
+@NamedEntityGraph(name = Lancamento.GRAFO_USUARIO, attributeNodes = @NamedAttributeNode("usuario"))
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Lancamento {
+    public static final String GRAFO_USUARIO = "Lancamento.usuario";
+
+    // sequence com incremento 50 permite que o hibernate agrupe os inserts em lotes JDBC
     @Id
-    @GeneratedValue( strategy = GenerationType.IDENTITY)
+    @GeneratedValue( strategy = GenerationType.SEQUENCE, generator = "lancamento_id_seq")
+    @SequenceGenerator( name = "lancamento_id_seq", schema = "financas", sequenceName = "lancamento_id_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
@@ -30,8 +36,11 @@ public class Lancamento {
     @Column(name = "ano")
     private Integer ano;
 
-    @ManyToOne
+    // só o id do usuário é usado nas leituras; quem precisa da entidade completa pede o GRAFO_USUARIO
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_usuario")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Usuario usuario;
 
     @Column(name = "valor")
@@ -48,4 +57,21 @@ public class Lancamento {
     @Column(name = "status")
     @Enumerated(value = EnumType.STRING)
     private StatusLancamento status;
+
+    // incrementada a cada escrita; as atualizações em lote conferem a versão lida antes de gravar
+    @Version
+    @Column(name = "versao", nullable = false)
+    private long versao;
+
+    // protocolo da ingestão assíncrona; o índice único impede que a reaplicação do log grave o mesmo pedido duas vezes
+    @Column(name = "protocolo_ingestao", unique = true)
+    private Long protocoloIngestao;
+
+    // recorrência que gerou o lançamento; o índice único (id_recorrencia, ano, mes) garante uma ocorrência por período
+    @Column(name = "id_recorrencia")
+    private Long idRecorrencia;
+
+    // categoria do usuário; os lançamentos efetivados de cada categoria somam em total_categoria por mês
+    @Column(name = "id_categoria")
+    private Long idCategoria;
 }
@@ -0,0 +1,72 @@
+package com.gabs.minhasfinancias.model.entity;
+
+import com.gabs.minhasfinancias.model.enums.Periodicidade;
+import com.gabs.minhasfinancias.model.enums.TipoLancamento;
+import lombok.*;
+import org.springframework.data.jpa.convert.threeten.Jsr310JpaConverters;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Entity
+@Table( name = "recorrencia", schema = "financas")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Recorrencia {
+    @Id
+    @GeneratedValue( strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "descricao")
+    private String descricao;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_usuario")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Usuario usuario;
+
+    @Column(name = "valor")
+    private BigDecimal valor;
+
+    @Column(name = "tipo")
+    @Enumerated(value = EnumType.STRING)
+    private TipoLancamento tipo;
+
+    @Column(name = "periodicidade")
+    @Enumerated(value = EnumType.STRING)
+    private Periodicidade periodicidade;
+
+    @Column(name = "ano_inicial")
+    private Integer anoInicial;
+
+    @Column(name = "mes_inicial")
+    private Integer mesInicial;
+
+    // último período com ocorrência, inclusive
+    @Column(name = "ano_final")
+    private Integer anoFinal;
+
+    @Column(name = "mes_final")
+    private Integer mesFinal;
+
+    // próxima ocorrência ainda não gravada; avança na mesma transação que grava os lançamentos,
+    // então uma execução interrompida recomeça exatamente de onde parou. nula quando a recorrência terminou
+    @Column(name = "proximo_ano")
+    private Integer proximoAno;
+
+    @Column(name = "proximo_mes")
+    private Integer proximoMes;
+
+    @Column(name = "data_cadastro")
+    @Convert(converter = Jsr310JpaConverters.LocalDateConverter.class)
+    private LocalDate dataCadastro;
+
+    @Version
+    @Column(name = "versao", nullable = false)
+    private long versao;
+}
@@ -0,0 +1,32 @@
+package com.gabs.minhasfinancias.model.entity;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+
+@Entity
+@Table( name = "saldo_mensal", schema = "financas",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"id_usuario", "ano", "mes"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoMensal {
+    @Id
+    @GeneratedValue( strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "id_usuario")
+    private Long idUsuario;
+
+    @Column(name = "ano")
+    private Integer ano;
+
+    @Column(name = "mes")
+    private Integer mes;
+
+    @Column(name = "saldo")
+    private BigDecimal saldo;
+}
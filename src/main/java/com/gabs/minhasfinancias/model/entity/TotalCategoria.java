@@ -0,0 +1,39 @@
+package com.gabs.minhasfinancias.model.entity;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+
+// receitas e despesas efetivadas de uma categoria num mês, mantidas pelas escritas de lançamento
+@Entity
+@Table( name = "total_categoria", schema = "financas",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"id_usuario", "id_categoria", "ano", "mes"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TotalCategoria {
+    @Id
+    @GeneratedValue( strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "id_usuario")
+    private Long idUsuario;
+
+    @Column(name = "id_categoria")
+    private Long idCategoria;
+
+    @Column(name = "ano")
+    private Integer ano;
+
+    @Column(name = "mes")
+    private Integer mes;
+
+    @Column(name = "receitas")
+    private BigDecimal receitas;
+
+    @Column(name = "despesas")
+    private BigDecimal despesas;
+}
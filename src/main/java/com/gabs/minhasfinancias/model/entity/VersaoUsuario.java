@@ -0,0 +1,20 @@
+package com.gabs.minhasfinancias.model.entity;
+
+import lombok.*;
+
+import javax.persistence.*;
+
+@Entity
+@Table( name = "versao_usuario", schema = "financas")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VersaoUsuario {
+    @Id
+    @Column(name = "id_usuario")
+    private Long idUsuario;
+
+    @Column(name = "versao")
+    private Long versao;
+}
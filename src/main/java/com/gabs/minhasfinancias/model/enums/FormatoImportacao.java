@@ -0,0 +1,6 @@
+package com.gabs.minhasfinancias.model.enums;
+
+public enum FormatoImportacao {
+    CSV,
+    OFX
+}
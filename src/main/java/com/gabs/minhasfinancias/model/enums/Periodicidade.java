@@ -0,0 +1,30 @@
+package com.gabs.minhasfinancias.model.enums;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// intervalo entre as ocorrências de uma recorrência, em meses
+public enum Periodicidade {
+    MENSAL(1),
+    ANUAL(12);
+
+    private static final Map<String, Periodicidade> POR_NOME = Arrays.stream(values())
+            .collect(Collectors.toMap(Enum::name, Function.identity()));
+
+    private final int meses;
+
+    Periodicidade(int meses) {
+        this.meses = meses;
+    }
+
+    public int getMeses() {
+        return meses;
+    }
+
+    // devolve null para nomes desconhecidos em vez da exceção de valueOf
+    public static Periodicidade porNome(String nome) {
+        return nome == null ? null : POR_NOME.get(nome);
+    }
+}
@@ -0,0 +1,8 @@
+package com.gabs.minhasfinancias.model.enums;
+
+public enum ResultadoAtualizacao {
+    ATUALIZADO,
+    INALTERADO,
+    CONFLITO_VERSAO,
+    NAO_ENCONTRADO
+}
@@ -0,0 +1,7 @@
+package com.gabs.minhasfinancias.model.enums;
+
+public enum SituacaoIngestao {
+    PENDENTE,
+    GRAVADO,
+    REJEITADO
+}
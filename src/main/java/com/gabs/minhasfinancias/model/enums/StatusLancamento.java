@@ -1,7 +1,20 @@
 package com.gabs.minhasfinancias.model.enums;
 
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 public enum StatusLancamento {
     PENDENTE,
     CANCELADO,
     EFETIVADO;
+
+    private static final Map<String, StatusLancamento> POR_NOME = Arrays.stream(values())
+            .collect(Collectors.toMap(Enum::name, Function.identity()));
+
+    // devolve null para nomes desconhecidos em vez da exceção de valueOf
+    public static StatusLancamento porNome(String nome) {
+        return nome == null ? null : POR_NOME.get(nome);
+    }
 }
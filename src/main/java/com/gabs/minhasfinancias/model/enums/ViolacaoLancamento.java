@@ -0,0 +1,46 @@
+package com.gabs.minhasfinancias.model.enums;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// regras de validação de um lançamento; um conjunto de violações é um int com o bit de cada uma
+public enum ViolacaoLancamento {
+    DESCRICAO("Informe uma Descrição válida"),
+    MES("Informe um Mês válido"),
+    ANO("Informe um Ano válido"),
+    USUARIO("Informe um usuário"),
+    VALOR("Informe um valor válido"),
+    TIPO("Informe um tipo de lançamento"),
+    STATUS("Informe um status válido");
+
+    private static final ViolacaoLancamento[] TODAS = values();
+
+    private final String mensagem;
+
+    ViolacaoLancamento(String mensagem) {
+        this.mensagem = mensagem;
+    }
+
+    public String getMensagem() {
+        return mensagem;
+    }
+
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    public static List<ViolacaoLancamento> de(int violacoes) {
+        List<ViolacaoLancamento> lista = new ArrayList<>(Integer.bitCount(violacoes));
+        for(ViolacaoLancamento violacao : TODAS) {
+            if((violacoes & violacao.bit()) != 0) {
+                lista.add(violacao);
+            }
+        }
+        return lista;
+    }
+
+    public static String mensagem(int violacoes) {
+        return de(violacoes).stream().map(ViolacaoLancamento::getMensagem).collect(Collectors.joining("; "));
+    }
+}
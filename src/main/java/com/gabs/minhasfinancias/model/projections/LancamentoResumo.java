@@ -0,0 +1,28 @@
+package com.gabs.minhasfinancias.model.projections;
+
+import com.gabs.minhasfinancias.model.enums.StatusLancamento;
+import com.gabs.minhasfinancias.model.enums.TipoLancamento;
+
+import java.math.BigDecimal;
+
+/*
+ ESTADO PERSISTIDO DE UM LANCAMENTO, USADO PARA CALCULAR A VARIACAO DO SALDO
+ A VERSAO LIDA JUNTO GARANTE QUE A VARIACAO SO SEJA APLICADA SE NINGUEM GRAVOU O LANCAMENTO NO MEIO DO CAMINHO
+ */
+public interface LancamentoResumo {
+    Long getIdUsuario();
+
+    Integer getAno();
+
+    Integer getMes();
+
+    BigDecimal getValor();
+
+    TipoLancamento getTipo();
+
+    StatusLancamento getStatus();
+
+    Long getIdCategoria();
+
+    Long getVersao();
+}
@@ -0,0 +1,8 @@
+package com.gabs.minhasfinancias.model.projections;
+
+/*
+ ESTADO PERSISTIDO COM ID, USADO NAS ATUALIZACOES DE STATUS EM LOTE
+ */
+public interface LancamentoVersao extends LancamentoResumo {
+    Long getId();
+}
@@ -0,0 +1,5 @@
+package com.gabs.minhasfinancias.model.projections;
+
+public interface TotalCategoriaMensal extends TotalMensal {
+    Long getIdCategoria();
+}
@@ -0,0 +1,15 @@
+package com.gabs.minhasfinancias.model.projections;
+
+import com.gabs.minhasfinancias.model.enums.TipoLancamento;
+
+import java.math.BigDecimal;
+
+public interface TotalMensal {
+    Integer getAno();
+
+    Integer getMes();
+
+    TipoLancamento getTipo();
+
+    BigDecimal getTotal();
+}
@@ -0,0 +1,17 @@
+package com.gabs.minhasfinancias.repositories;
+
+import com.gabs.minhasfinancias.model.entity.Categoria;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface CategoriaRepository extends JpaRepository<Categoria, Long> {
+    List<Categoria> findByUsuarioIdOrderByNome(Long idUsuario);
+
+    boolean existsByUsuarioIdAndNome(Long idUsuario, String nome);
+
+    @Query(value = " select count(c) > 0 from Categoria c where c.id = :id and c.usuario.id = :idUsuario")
+    boolean pertenceAo(@Param("id") Long id, @Param("idUsuario") Long idUsuario);
+}
@@ -1,19 +1,131 @@
 package com.gabs.minhasfinancias.repositories;
 
+import com.gabs.minhasfinancias.dto.TotalPeriodoDTO;
 import com.gabs.minhasfinancias.model.entity.Lancamento;
 import com.gabs.minhasfinancias.model.enums.StatusLancamento;
 import com.gabs.minhasfinancias.model.enums.TipoLancamento;
+import com.gabs.minhasfinancias.model.projections.LancamentoResumo;
+import com.gabs.minhasfinancias.model.projections.LancamentoVersao;
+import com.gabs.minhasfinancias.model.projections.TotalCategoriaMensal;
+import com.gabs.minhasfinancias.model.projections.TotalMensal;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
-public interface LancamentoRepository extends JpaRepository<Lancamento, Long> {
+public interface LancamentoRepository extends JpaRepository<Lancamento, Long>, LancamentoRepositoryCustom {
     @Query(value = " select sum(l.valor) from Lancamento l join l.usuario u " +
             " where u.id = :idUsuario and l.tipo =:tipo and l.status = :status group by u")
     BigDecimal obterSaldoPorTipoLancamentoEUsuarioEStatus(@Param("idUsuario") Long idUsuario,
                                                           @Param("tipo") TipoLancamento tipo,
                                                           @Param("status")StatusLancamento status);
 
+    @EntityGraph(value = Lancamento.GRAFO_USUARIO)
+    Optional<Lancamento> findComUsuarioById(Long id);
+
+    // lê o estado gravado no banco sem descarregar alterações pendentes da sessão
+    @Query(value = " select u.id as idUsuario, l.ano as ano, l.mes as mes, l.valor as valor, " +
+            " l.tipo as tipo, l.status as status, l.versao as versao, l.idCategoria as idCategoria " +
+            " from Lancamento l join l.usuario u where l.id = :id")
+    @QueryHints(@QueryHint(name = "org.hibernate.flushMode", value = "COMMIT"))
+    Optional<LancamentoResumo> obterResumo(@Param("id") Long id);
+
+    @Query(value = " select l.idCategoria as idCategoria, l.ano as ano, l.mes as mes, l.tipo as tipo, sum(l.valor) as total " +
+            " from Lancamento l where l.usuario.id = :idUsuario and l.status = :status and l.idCategoria is not null " +
+            " group by l.idCategoria, l.ano, l.mes, l.tipo")
+    List<TotalCategoriaMensal> obterTotaisPorCategoriaEStatus(@Param("idUsuario") Long idUsuario,
+                                                              @Param("status") StatusLancamento status);
+
+    // lançamentos de uma categoria apagada ficam sem categoria; a versão muda para que escritas com a leitura anterior falhem.
+    // o usuário no filtro limita a escrita às partições dele
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = " update Lancamento l set l.idCategoria = null, l.versao = l.versao + 1 " +
+            " where l.usuario.id = :idUsuario and l.idCategoria = :idCategoria")
+    int removerCategoria(@Param("idUsuario") Long idUsuario, @Param("idCategoria") Long idCategoria);
+
+    @Query(value = " select l.ano as ano, l.mes as mes, l.tipo as tipo, sum(l.valor) as total " +
+            " from Lancamento l join l.usuario u where u.id = :idUsuario and l.status = :status " +
+            " group by l.ano, l.mes, l.tipo")
+    List<TotalMensal> obterTotaisMensaisPorUsuarioEStatus(@Param("idUsuario") Long idUsuario,
+                                                          @Param("status") StatusLancamento status);
+
+    @Query(value = " select distinct u.id from Lancamento l join l.usuario u")
+    List<Long> obterIdsDeUsuariosComLancamentos();
+
+    @Query(value = " select new com.gabs.minhasfinancias.dto.TotalPeriodoDTO(l.ano, l.mes, l.status, " +
+            " sum(case when l.tipo = com.gabs.minhasfinancias.model.enums.TipoLancamento.RECEITA then l.valor end), " +
+            " sum(case when l.tipo = com.gabs.minhasfinancias.model.enums.TipoLancamento.DESPESA then l.valor end)) " +
+            " from Lancamento l where l.usuario.id = :idUsuario and l.ano between :anoInicial and :anoFinal " +
+            " group by l.ano, l.mes, l.status order by l.ano, l.mes, l.status")
+    List<TotalPeriodoDTO> obterTotaisMensais(@Param("idUsuario") Long idUsuario,
+                                             @Param("anoInicial") Integer anoInicial,
+                                             @Param("anoFinal") Integer anoFinal);
+
+    @Query(value = " select new com.gabs.minhasfinancias.dto.TotalPeriodoDTO(l.ano, l.status, " +
+            " sum(case when l.tipo = com.gabs.minhasfinancias.model.enums.TipoLancamento.RECEITA then l.valor end), " +
+            " sum(case when l.tipo = com.gabs.minhasfinancias.model.enums.TipoLancamento.DESPESA then l.valor end)) " +
+            " from Lancamento l where l.usuario.id = :idUsuario and l.ano between :anoInicial and :anoFinal " +
+            " group by l.ano, l.status order by l.ano, l.status")
+    List<TotalPeriodoDTO> obterTotaisAnuais(@Param("idUsuario") Long idUsuario,
+                                            @Param("anoInicial") Integer anoInicial,
+                                            @Param("anoFinal") Integer anoFinal);
+
+    @Query(value = " select l.id as id, l.versao as versao, u.id as idUsuario, l.ano as ano, l.mes as mes, " +
+            " l.valor as valor, l.tipo as tipo, l.status as status, l.idCategoria as idCategoria " +
+            " from Lancamento l join l.usuario u where u.id = :idUsuario and l.id in :ids")
+    List<LancamentoVersao> obterVersoes(@Param("idUsuario") Long idUsuario,
+                                        @Param("ids") Collection<Long> ids);
+
+    @Query(value = " select l.id as id, l.versao as versao, u.id as idUsuario, l.ano as ano, l.mes as mes, " +
+            " l.valor as valor, l.tipo as tipo, l.status as status, l.idCategoria as idCategoria " +
+            " from Lancamento l join l.usuario u where u.id = :idUsuario and l.ano = :ano order by l.id")
+    List<LancamentoVersao> obterVersoesPorAno(@Param("idUsuario") Long idUsuario,
+                                              @Param("ano") Integer ano);
+
+    @Query(value = " select l.id as id, l.versao as versao, u.id as idUsuario, l.ano as ano, l.mes as mes, " +
+            " l.valor as valor, l.tipo as tipo, l.status as status, l.idCategoria as idCategoria " +
+            " from Lancamento l join l.usuario u where u.id = :idUsuario and l.ano = :ano and l.mes = :mes order by l.id")
+    List<LancamentoVersao> obterVersoesPorPeriodo(@Param("idUsuario") Long idUsuario,
+                                                  @Param("ano") Integer ano,
+                                                  @Param("mes") Integer mes);
+
+    // select ... for update dos ids que ainda estão na versão lida: travados, só quem os devolveu pode alterá-los, então o
+    // UPDATE seguinte confirma exatamente estas linhas. outra troca de status concluída antes deixa a linha de fora
+    @Query(value = " select l.id from financas.lancamento l where l.id_usuario = :idUsuario " +
+            " and l.ano between :anoInicial and :anoFinal and l.id in (:ids) and l.versao = :versao for update", nativeQuery = true)
+    List<Long> travarVersao(@Param("idUsuario") Long idUsuario,
+                            @Param("ids") Collection<Long> ids,
+                            @Param("anoInicial") Integer anoInicial,
+                            @Param("anoFinal") Integer anoFinal,
+                            @Param("versao") Long versao);
+
+    // um único UPDATE para todos os ids lidos com a mesma versão; linhas alteradas no meio do caminho ficam de fora.
+    // a faixa de anos lida limita o UPDATE às partições desses anos em vez de procurar os ids em todas
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = " update Lancamento l set l.status = :status, l.versao = l.versao + 1 " +
+            " where l.ano between :anoInicial and :anoFinal and l.id in :ids and l.versao = :versao and l.status <> :status")
+    int atualizarStatus(@Param("ids") Collection<Long> ids,
+                        @Param("anoInicial") Integer anoInicial,
+                        @Param("anoFinal") Integer anoFinal,
+                        @Param("versao") Long versao,
+                        @Param("status") StatusLancamento status);
+
+    // protocolos da ingestão assíncrona que já chegaram ao banco; usado ao reaplicar o log
+    @Query(value = " select l.protocoloIngestao from Lancamento l where l.protocoloIngestao in :protocolos")
+    List<Long> obterProtocolosGravados(@Param("protocolos") Collection<Long> protocolos);
+
+    @Query(value = " select max(l.protocoloIngestao) from Lancamento l")
+    Long obterMaiorProtocoloIngestao();
+
+    @Query(value = " select l.id from Lancamento l where l.protocoloIngestao = :protocolo and l.usuario.id = :idUsuario")
+    Optional<Long> obterIdPorProtocoloIngestao(@Param("protocolo") Long protocolo,
+                                               @Param("idUsuario") Long idUsuario);
 }
@@ -0,0 +1,18 @@
+package com.gabs.minhasfinancias.repositories;
+
+import com.gabs.minhasfinancias.dto.CursorLancamento;
+import com.gabs.minhasfinancias.dto.LancamentoDTO;
+import com.gabs.minhasfinancias.dto.LancamentoFiltro;
+import com.gabs.minhasfinancias.model.entity.Lancamento;
+import com.gabs.minhasfinancias.model.enums.OrdemLancamento;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface LancamentoRepositoryCustom {
+    List<Lancamento> buscar(LancamentoFiltro filtro);
+
+    List<LancamentoDTO> buscarPagina(LancamentoFiltro filtro, CursorLancamento cursor, OrdemLancamento ordem, int limite);
+
+    void percorrer(LancamentoFiltro filtro, OrdemLancamento ordem, int tamanhoLote, Consumer<LancamentoDTO> consumidor);
+}
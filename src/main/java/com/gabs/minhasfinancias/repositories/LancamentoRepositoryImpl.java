@@ -0,0 +1,179 @@
+package com.gabs.minhasfinancias.repositories;
+
+import com.gabs.minhasfinancias.annotations.Description;
+import com.gabs.minhasfinancias.dto.CursorLancamento;
+import com.gabs.minhasfinancias.dto.LancamentoDTO;
+import com.gabs.minhasfinancias.dto.LancamentoFiltro;
+import com.gabs.minhasfinancias.model.entity.Lancamento;
+import com.gabs.minhasfinancias.model.enums.OrdemLancamento;
+import org.hibernate.jpa.QueryHints;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/*
+ CONSULTA DE LANCAMENTOS POR FILTRO TIPADO
+ CADA COMBINACAO DE CAMPOS INFORMADOS GERA SEMPRE O MESMO JPQL, QUE E MONTADO UMA UNICA VEZ
+ E REAPROVEITADO PELO CACHE DE PLANOS DO HIBERNATE. OS PREDICADOS SEGUEM A ORDEM DOS INDICES
+ COMPOSTOS DE scriptsSQL/Lancamento.sql (id_usuario, ano, mes, id). ano E mes SAO A CHAVE DE PARTICAO DA TABELA,
+ ENTAO OS FILTROS E O CURSOR POR PERIODO COMPARAM ESSAS COLUNAS DIRETO COM PARAMETROS PARA O POSTGRES DESCARTAR AS
+ PARTICOES DOS OUTROS ANOS
+ AS LEITURAS PAGINADAS E EM STREAM DEVOLVEM LancamentoDTO DIRETO DO SELECT, SEM ENTIDADES NO CONTEXTO
+ E SEM JOIN COM USUARIO (A CHAVE ESTRANGEIRA id_usuario JA ESTA NA LINHA)
+ */
+public class LancamentoRepositoryImpl implements LancamentoRepositoryCustom {
+
+    private static final int USUARIO = 1;
+    private static final int ANO = 1 << 1;
+    private static final int MES = 1 << 2;
+    private static final int TIPO = 1 << 3;
+    private static final int STATUS = 1 << 4;
+    private static final int DESCRICAO = 1 << 5;
+    private static final int CURSOR = 1 << 6;
+    private static final int PERIODO = 1 << 7;
+    private static final int PROJECAO = 1 << 8;
+    private static final int CATEGORIA = 1 << 9;
+
+    private static final String SELECT_ENTIDADE = "select l from Lancamento l";
+    private static final String SELECT_PROJECAO = "select new com.gabs.minhasfinancias.dto.LancamentoDTO(" +
+            "l.id, l.descricao, l.mes, l.ano, l.valor, l.usuario.id, l.tipo, l.status, l.idCategoria) from Lancamento l";
+
+    private static final Map<Integer, String> CONSULTAS = new ConcurrentHashMap<>();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Lancamento> buscar(LancamentoFiltro filtro) {
+        return this.criarQuery(filtro, null, OrdemLancamento.ID, Lancamento.class).getResultList();
+    }
+
+    @Override
+    public List<LancamentoDTO> buscarPagina(LancamentoFiltro filtro, CursorLancamento cursor, OrdemLancamento ordem, int limite) {
+        TypedQuery<LancamentoDTO> query = this.criarQuery(filtro, cursor, ordem, LancamentoDTO.class);
+        query.setMaxResults(limite);
+        return query.getResultList();
+    }
+
+    @Override
+    public void percorrer(LancamentoFiltro filtro, OrdemLancamento ordem, int tamanhoLote, Consumer<LancamentoDTO> consumidor) {
+        TypedQuery<LancamentoDTO> query = this.criarQuery(filtro, null, ordem, LancamentoDTO.class);
+        query.setHint(QueryHints.HINT_FETCH_SIZE, tamanhoLote);
+
+        // projeções não entram no contexto de persistência, então a memória fica constante sem detach
+        try (Stream<LancamentoDTO> lancamentos = query.getResultStream()) {
+            lancamentos.forEach(consumidor);
+        }
+    }
+
+    private <T> TypedQuery<T> criarQuery(LancamentoFiltro filtro, CursorLancamento cursor, OrdemLancamento ordem, Class<T> tipo) {
+        int forma = forma(filtro, cursor, ordem) | (tipo == LancamentoDTO.class ? PROJECAO : 0);
+        String jpql = CONSULTAS.computeIfAbsent(forma, LancamentoRepositoryImpl::montarJpql);
+
+        TypedQuery<T> query = entityManager.createQuery(jpql, tipo);
+        if(possui(forma, USUARIO)) {
+            query.setParameter("usuario", filtro.getUsuario());
+        }
+        if(possui(forma, ANO)) {
+            query.setParameter("ano", filtro.getAno());
+        }
+        if(possui(forma, MES)) {
+            query.setParameter("mes", filtro.getMes());
+        }
+        if(possui(forma, TIPO)) {
+            query.setParameter("tipo", filtro.getTipo());
+        }
+        if(possui(forma, STATUS)) {
+            query.setParameter("status", filtro.getStatus());
+        }
+        if(possui(forma, CATEGORIA)) {
+            query.setParameter("categoria", filtro.getCategoria());
+        }
+        if(possui(forma, DESCRICAO)) {
+            query.setParameter("descricao", padraoContendo(filtro.getDescricao()));
+        }
+        if(possui(forma, CURSOR)) {
+            query.setParameter("cursorId", cursor.getId());
+            if(possui(forma, PERIODO)) {
+                query.setParameter("cursorAno", cursor.getAno());
+                query.setParameter("cursorMes", cursor.getMes());
+            }
+        }
+        return query;
+    }
+
+    private static int forma(LancamentoFiltro filtro, CursorLancamento cursor, OrdemLancamento ordem) {
+        int forma = 0;
+        forma |= filtro.getUsuario() != null ? USUARIO : 0;
+        forma |= filtro.getAno() != null ? ANO : 0;
+        forma |= filtro.getMes() != null ? MES : 0;
+        forma |= filtro.getTipo() != null ? TIPO : 0;
+        forma |= filtro.getStatus() != null ? STATUS : 0;
+        forma |= filtro.getCategoria() != null ? CATEGORIA : 0;
+        forma |= filtro.getDescricao() != null && !filtro.getDescricao().isEmpty() ? DESCRICAO : 0;
+        forma |= cursor != null ? CURSOR : 0;
+        forma |= ordem == OrdemLancamento.PERIODO ? PERIODO : 0;
+        return forma;
+    }
+
+    private static boolean possui(int forma, int campo) {
+        return (forma & campo) != 0;
+    }
+
+    @Description(value = "Monta o JPQL de uma forma de filtro; executado uma vez por forma")
+    private static String montarJpql(int forma) {
+        StringBuilder jpql = new StringBuilder(possui(forma, PROJECAO) ? SELECT_PROJECAO : SELECT_ENTIDADE).append(" where 1 = 1");
+        if(possui(forma, USUARIO)) {
+            jpql.append(" and l.usuario.id = :usuario");
+        }
+        if(possui(forma, ANO)) {
+            jpql.append(" and l.ano = :ano");
+        }
+        if(possui(forma, MES)) {
+            jpql.append(" and l.mes = :mes");
+        }
+        if(possui(forma, TIPO)) {
+            jpql.append(" and l.tipo = :tipo");
+        }
+        if(possui(forma, STATUS)) {
+            jpql.append(" and l.status = :status");
+        }
+        if(possui(forma, CATEGORIA)) {
+            // atendido pelo índice idx_lancamento_usuario_categoria (id_usuario, id_categoria, ano, mes, id)
+            jpql.append(" and l.idCategoria = :categoria");
+        }
+        if(possui(forma, DESCRICAO)) {
+            // lower(descricao) like '%x%' é atendido pelo índice trigram idx_lancamento_descricao_trgm
+            jpql.append(" and lower(l.descricao) like :descricao escape '\\'");
+        }
+
+        if(possui(forma, PERIODO)) {
+            if(possui(forma, CURSOR)) {
+                // o l.ano >= redundante deixa as partições anteriores ao cursor de fora
+                jpql.append(" and l.ano >= :cursorAno and (l.ano > :cursorAno or (l.ano = :cursorAno and l.mes > :cursorMes)" +
+                        " or (l.ano = :cursorAno and l.mes = :cursorMes and l.id > :cursorId))");
+            }
+            jpql.append(" order by l.ano, l.mes, l.id");
+        } else {
+            if(possui(forma, CURSOR)) {
+                jpql.append(" and l.id > :cursorId");
+            }
+            jpql.append(" order by l.id");
+        }
+        return jpql.toString();
+    }
+
+    private static String padraoContendo(String descricao) {
+        String escapado = descricao.toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escapado + "%";
+    }
+}
@@ -0,0 +1,24 @@
+package com.gabs.minhasfinancias.repositories;
+
+import com.gabs.minhasfinancias.model.entity.Recorrencia;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface RecorrenciaRepository extends JpaRepository<Recorrencia, Long> {
+    List<Recorrencia> findByUsuarioIdOrderById(Long idUsuario);
+
+    // recorrências com ocorrência até (ano, mes) na fatia mod(id_usuario, particoes) = particao, em ordem de id a partir
+    // do cursor: cada thread do job percorre a sua fatia, e nenhum usuário aparece em duas
+    @Query(value = " select r.id from Recorrencia r where mod(r.usuario.id, :particoes) = :particao and r.id > :cursor " +
+            " and (r.proximoAno < :ano or (r.proximoAno = :ano and r.proximoMes <= :mes)) order by r.id")
+    List<Long> obterIdsPendentes(@Param("particoes") int particoes,
+                                 @Param("particao") int particao,
+                                 @Param("cursor") long cursor,
+                                 @Param("ano") Integer ano,
+                                 @Param("mes") Integer mes,
+                                 Pageable pagina);
+}
@@ -0,0 +1,29 @@
+package com.gabs.minhasfinancias.repositories;
+
+import com.gabs.minhasfinancias.model.entity.SaldoMensal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+public interface SaldoMensalRepository extends JpaRepository<SaldoMensal, Long> {
+    @Query(value = " select s.saldo from SaldoMensal s " +
+            " where s.idUsuario = :idUsuario and s.ano = :ano and s.mes = :mes")
+    Optional<BigDecimal> obterSaldo(@Param("idUsuario") Long idUsuario,
+                                    @Param("ano") Integer ano,
+                                    @Param("mes") Integer mes);
+
+    @Modifying
+    @Query(value = " update SaldoMensal s set s.saldo = s.saldo + :valor " +
+            " where s.idUsuario = :idUsuario and s.ano = :ano and s.mes = :mes")
+    int somar(@Param("idUsuario") Long idUsuario,
+              @Param("ano") Integer ano,
+              @Param("mes") Integer mes,
+              @Param("valor") BigDecimal valor);
+
+    List<SaldoMensal> findByIdUsuario(Long idUsuario);
+}
@@ -0,0 +1,37 @@
+package com.gabs.minhasfinancias.repositories;
+
+import com.gabs.minhasfinancias.model.entity.SaldoUsuario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.LockModeType;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+public interface SaldoUsuarioRepository extends JpaRepository<SaldoUsuario, Long> {
+    @Query(value = " select s.saldo from SaldoUsuario s where s.idUsuario = :idUsuario")
+    Optional<BigDecimal> obterSaldo(@Param("idUsuario") Long idUsuario);
+
+    @Modifying
+    @Query(value = " update SaldoUsuario s set s.saldo = s.saldo + :valor where s.idUsuario = :idUsuario")
+    int somar(@Param("idUsuario") Long idUsuario, @Param("valor") BigDecimal valor);
+
+    // insert puro: o save de uma chave atribuída vira merge e sobrescreveria a linha criada por outra transação
+    // entre o somar e o insert; assim a corrida vira violação de chave única e a escrita é repetida
+    @Modifying
+    @Query(value = " insert into financas.saldo_usuario (id_usuario, saldo) values (:idUsuario, :valor)", nativeQuery = true)
+    int inserir(@Param("idUsuario") Long idUsuario, @Param("valor") BigDecimal valor);
+
+    // select ... for update: toda escrita de lançamento atualiza esta linha antes das demais projeções, então quem
+    // a trava enxerga só escritas já confirmadas e as seguintes esperam a transação terminar
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(value = " select s from SaldoUsuario s where s.idUsuario = :idUsuario")
+    Optional<SaldoUsuario> bloquear(@Param("idUsuario") Long idUsuario);
+
+    @Query(value = " select s.idUsuario from SaldoUsuario s")
+    List<Long> obterIdsDeUsuarios();
+}
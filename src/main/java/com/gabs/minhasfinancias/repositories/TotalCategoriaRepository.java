@@ -0,0 +1,42 @@
+package com.gabs.minhasfinancias.repositories;
+
+import com.gabs.minhasfinancias.model.entity.TotalCategoria;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface TotalCategoriaRepository extends JpaRepository<TotalCategoria, Long> {
+    @Modifying
+    @Query(value = " update TotalCategoria t set t.receitas = t.receitas + :receitas, t.despesas = t.despesas + :despesas " +
+            " where t.idUsuario = :idUsuario and t.idCategoria = :idCategoria and t.ano = :ano and t.mes = :mes")
+    int somar(@Param("idUsuario") Long idUsuario,
+              @Param("idCategoria") Long idCategoria,
+              @Param("ano") Integer ano,
+              @Param("mes") Integer mes,
+              @Param("receitas") BigDecimal receitas,
+              @Param("despesas") BigDecimal despesas);
+
+    // as duas leituras percorrem o índice único (id_usuario, id_categoria, ano, mes)
+    @Query(value = " select t from TotalCategoria t where t.idUsuario = :idUsuario and t.idCategoria = :idCategoria " +
+            " and t.ano between :anoInicial and :anoFinal order by t.ano, t.mes")
+    List<TotalCategoria> obterTotais(@Param("idUsuario") Long idUsuario,
+                                     @Param("idCategoria") Long idCategoria,
+                                     @Param("anoInicial") Integer anoInicial,
+                                     @Param("anoFinal") Integer anoFinal);
+
+    @Query(value = " select t from TotalCategoria t where t.idUsuario = :idUsuario " +
+            " and t.ano between :anoInicial and :anoFinal order by t.idCategoria, t.ano, t.mes")
+    List<TotalCategoria> obterTotais(@Param("idUsuario") Long idUsuario,
+                                     @Param("anoInicial") Integer anoInicial,
+                                     @Param("anoFinal") Integer anoFinal);
+
+    List<TotalCategoria> findByIdUsuario(Long idUsuario);
+
+    @Modifying
+    @Query(value = " delete from TotalCategoria t where t.idUsuario = :idUsuario and t.idCategoria = :idCategoria")
+    int removerCategoria(@Param("idUsuario") Long idUsuario, @Param("idCategoria") Long idCategoria);
+}
@@ -1,12 +1,31 @@
 package com.gabs.minhasfinancias.repositories;
 
+import com.gabs.minhasfinancias.config.CacheConfiguration;
 import com.gabs.minhasfinancias.model.entity.Usuario;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
+    @Cacheable(value = CacheConfiguration.EMAILS_CADASTRADOS)
     boolean existsByEmail(String email);
 
+    @Cacheable(value = CacheConfiguration.USUARIOS_POR_EMAIL, unless = "#result == null")
     Optional<Usuario> findByEmail(String email);
+
+    @Transactional
+    @Modifying
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfiguration.USUARIOS, key = "#p0"),
+            @CacheEvict(value = CacheConfiguration.USUARIOS_POR_EMAIL, key = "#p1")
+    })
+    @Query(value = " update Usuario u set u.senha = :senha where u.id = :id and u.email = :email")
+    int atualizarSenha(@Param("id") Long id, @Param("email") String email, @Param("senha") String senha);
 }
@@ -0,0 +1,24 @@
+package com.gabs.minhasfinancias.repositories;
+
+import com.gabs.minhasfinancias.model.entity.VersaoUsuario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface VersaoUsuarioRepository extends JpaRepository<VersaoUsuario, Long> {
+    @Query(value = " select v.versao from VersaoUsuario v where v.idUsuario = :idUsuario")
+    Optional<Long> obterVersao(@Param("idUsuario") Long idUsuario);
+
+    @Modifying
+    @Query(value = " update VersaoUsuario v set v.versao = v.versao + 1 where v.idUsuario = :idUsuario")
+    int incrementar(@Param("idUsuario") Long idUsuario);
+
+    // insert puro, como em SaldoUsuarioRepository.inserir: o save da chave atribuída viraria merge e voltaria a versão
+    // criada por outra transação entre o incrementar e o insert; assim a corrida vira violação de chave única
+    @Modifying
+    @Query(value = " insert into financas.versao_usuario (id_usuario, versao) values (:idUsuario, :versao)", nativeQuery = true)
+    int inserir(@Param("idUsuario") Long idUsuario, @Param("versao") Long versao);
+}
@@ -0,0 +1,27 @@
+package com.gabs.minhasfinancias.services;
+
+import com.gabs.minhasfinancias.dto.TotalCategoriaDTO;
+import com.gabs.minhasfinancias.model.entity.Categoria;
+import com.gabs.minhasfinancias.model.enums.TipoLancamento;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+public interface CategoriaService {
+    Categoria salvar(Categoria categoria);
+
+    void deletar(Categoria categoria);
+
+    List<Categoria> buscar(Long idUsuario);
+
+    Optional<Categoria> buscarPorId(long id);
+
+    boolean pertenceAo(Long idCategoria, Long idUsuario);
+
+    void registrarMovimento(Long idUsuario, Long idCategoria, Integer ano, Integer mes, TipoLancamento tipo, BigDecimal valor);
+
+    List<TotalCategoriaDTO> obterTotais(Long idUsuario, Long idCategoria, Integer anoInicial, Integer anoFinal);
+
+    boolean reconciliar(Long idUsuario);
+}
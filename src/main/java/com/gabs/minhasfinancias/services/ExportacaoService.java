@@ -0,0 +1,11 @@
+package com.gabs.minhasfinancias.services;
+
+import com.gabs.minhasfinancias.dto.LancamentoFiltro;
+import com.gabs.minhasfinancias.model.enums.FormatoExportacao;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface ExportacaoService {
+    long exportar(LancamentoFiltro filtro, FormatoExportacao formato, OutputStream saida) throws IOException;
+}
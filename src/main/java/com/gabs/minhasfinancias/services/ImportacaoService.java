@@ -0,0 +1,12 @@
+package com.gabs.minhasfinancias.services;
+
+import com.gabs.minhasfinancias.dto.RelatorioImportacaoDTO;
+import com.gabs.minhasfinancias.model.entity.Usuario;
+import com.gabs.minhasfinancias.model.enums.FormatoImportacao;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface ImportacaoService {
+    RelatorioImportacaoDTO importar(Usuario usuario, FormatoImportacao formato, InputStream conteudo) throws IOException;
+}
@@ -0,0 +1,17 @@
+package com.gabs.minhasfinancias.services;
+
+import com.gabs.minhasfinancias.dto.LancamentoDTO;
+import com.gabs.minhasfinancias.dto.SituacaoIngestaoDTO;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface IngestaoService {
+    boolean isHabilitada();
+
+    SituacaoIngestaoDTO enfileirar(Long idUsuario, LancamentoDTO lancamento);
+
+    Optional<SituacaoIngestaoDTO> obterSituacao(Long idUsuario, long protocolo);
+
+    List<SituacaoIngestaoDTO> obterPendentes(Long idUsuario);
+}
@@ -1,26 +1,52 @@
 package com.gabs.minhasfinancias.services;
 
+import com.gabs.minhasfinancias.dto.CursorLancamento;
+import com.gabs.minhasfinancias.dto.LancamentoDTO;
+import com.gabs.minhasfinancias.dto.LancamentoFiltro;
+import com.gabs.minhasfinancias.dto.ResultadoStatusDTO;
+import com.gabs.minhasfinancias.dto.TotalPeriodoDTO;
 import com.gabs.minhasfinancias.model.entity.Lancamento;
+import com.gabs.minhasfinancias.model.enums.OrdemLancamento;
 import com.gabs.minhasfinancias.model.enums.StatusLancamento;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface LancamentoService {
     Lancamento salvar(Lancamento lancamento);
 
+    List<Lancamento> salvarLote(List<Lancamento> lancamentos);
+
     Lancamento atualizar(Lancamento lancamento);
 
     void deletar(Lancamento lancamento);
 
-    List<Lancamento> buscar(Lancamento lancamentoFiltro);
+    List<Lancamento> buscar(LancamentoFiltro filtro);
+
+    List<LancamentoDTO> buscar(LancamentoFiltro filtro, CursorLancamento cursor, OrdemLancamento ordem, Integer limite);
+
+    void percorrer(LancamentoFiltro filtro, OrdemLancamento ordem, Consumer<LancamentoDTO> consumidor);
+
+    Lancamento atualizarStatus(Lancamento lancamento, StatusLancamento status);
+
+    List<ResultadoStatusDTO> atualizarStatus(Long idUsuario, List<Long> ids, Map<Long, Long> versoes, StatusLancamento status);
 
-    void atualizarStatus(Lancamento lancamento, StatusLancamento status);
+    List<ResultadoStatusDTO> atualizarStatus(Long idUsuario, Integer ano, Integer mes, StatusLancamento status);
 
     void validar(Lancamento lancamento);
 
     Optional<Lancamento> buscarPorId(long id);
 
+    Optional<Lancamento> buscarPorIdComUsuario(long id);
+
     BigDecimal obterSaldoPorUsuario(Long id);
+
+    BigDecimal obterSaldoPorUsuario(Long id, Integer ano, Integer mes);
+
+    List<TotalPeriodoDTO> obterTotaisMensais(Long idUsuario, Integer anoInicial, Integer anoFinal);
+
+    List<TotalPeriodoDTO> obterTotaisAnuais(Long idUsuario, Integer anoInicial, Integer anoFinal);
 }
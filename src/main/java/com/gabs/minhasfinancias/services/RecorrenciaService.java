@@ -0,0 +1,21 @@
+package com.gabs.minhasfinancias.services;
+
+import com.gabs.minhasfinancias.model.entity.Recorrencia;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+public interface RecorrenciaService {
+    Recorrencia salvar(Recorrencia recorrencia);
+
+    void deletar(Recorrencia recorrencia);
+
+    List<Recorrencia> buscar(Long idUsuario);
+
+    Optional<Recorrencia> buscarPorId(long id);
+
+    YearMonth horizonte();
+
+    int materializar(int particoes, int particao, YearMonth ate);
+}
@@ -0,0 +1,25 @@
+package com.gabs.minhasfinancias.services;
+
+import com.gabs.minhasfinancias.model.enums.StatusLancamento;
+import com.gabs.minhasfinancias.model.enums.TipoLancamento;
+
+import java.math.BigDecimal;
+
+public interface SaldoService {
+    BigDecimal obterSaldo(Long idUsuario);
+
+    BigDecimal obterSaldo(Long idUsuario, Integer ano, Integer mes);
+
+    void registrarMovimento(Long idUsuario, Integer ano, Integer mes, BigDecimal valor);
+
+    boolean reconciliar(Long idUsuario);
+
+    void bloquear(Long idUsuario);
+
+    static BigDecimal contribuicao(TipoLancamento tipo, StatusLancamento status, BigDecimal valor) {
+        if(status != StatusLancamento.EFETIVADO || tipo == null || valor == null) {
+            return BigDecimal.ZERO;
+        }
+        return tipo == TipoLancamento.RECEITA ? valor : valor.negate();
+    }
+}
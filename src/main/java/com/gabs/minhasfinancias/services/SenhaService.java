@@ -0,0 +1,11 @@
+package com.gabs.minhasfinancias.services;
+
+public interface SenhaService {
+    String codificar(String senha);
+
+    boolean confere(String senha, String senhaGravada);
+
+    boolean precisaAtualizar(String senhaGravada);
+
+    String hashFicticio();
+}
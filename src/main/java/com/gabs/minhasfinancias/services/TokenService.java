@@ -0,0 +1,11 @@
+package com.gabs.minhasfinancias.services;
+
+import java.util.Optional;
+
+public interface TokenService {
+    String emitir(Long idUsuario);
+
+    Optional<Long> verificar(String token);
+
+    long getValidadeSegundos();
+}
@@ -0,0 +1,14 @@
+package com.gabs.minhasfinancias.services;
+
+public interface VersaoUsuarioService {
+    long obterVersao(Long idUsuario);
+
+    void registrarAlteracao(Long idUsuario);
+
+    void inicializar(Long idUsuario);
+
+    // ETag fraca: a mesma versão vale para o JSON e o CBOR, com ou sem gzip (o Tomcat não comprime respostas com ETag forte)
+    static String etag(Long idUsuario, long versao) {
+        return "W/\"" + idUsuario + "-" + versao + "\"";
+    }
+}
@@ -0,0 +1,91 @@
+package com.gabs.minhasfinancias.services.exportacao;
+
+import com.gabs.minhasfinancias.dto.LancamentoDTO;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/*
+ CSV EM UTF-8 SEPARADO POR ',' COM O VALOR EM PONTO DECIMAL, NO FORMATO LIDO PELO LeitorCsv (AS COLUNAS A MAIS SAO IGNORADAS)
+ CAMPOS COM SEPARADOR, ASPAS OU QUEBRA DE LINHA VAO ENTRE ASPAS; O BUFFER E ESVAZIADO NA SAIDA A CADA 8 KB
+ TEXTO QUE COMECA COMO FORMULA (=, +, -, @, TAB OU CR) GANHA UM ' NA FRENTE PARA A PLANILHA NAO EXECUTA-LO
+ */
+public class EscritorCsv implements EscritorLancamentos {
+
+    private static final char SEPARADOR = ',';
+
+    private final Writer writer;
+
+    public EscritorCsv(OutputStream saida) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8), 8192);
+        writer.write(String.join(String.valueOf(SEPARADOR), COLUNAS));
+        writer.write('\n');
+    }
+
+    @Override
+    public void escrever(LancamentoDTO lancamento) throws IOException {
+        writer.write(Long.toString(lancamento.getId()));
+        writer.write(SEPARADOR);
+        this.escreverTexto(lancamento.getDescricao());
+        writer.write(SEPARADOR);
+        writer.write(lancamento.getMes() == null ? "" : lancamento.getMes().toString());
+        writer.write(SEPARADOR);
+        writer.write(lancamento.getAno() == null ? "" : lancamento.getAno().toString());
+        writer.write(SEPARADOR);
+        writer.write(lancamento.getValor() == null ? "" : lancamento.getValor().toPlainString());
+        writer.write(SEPARADOR);
+        this.escreverTexto(lancamento.getTipo());
+        writer.write(SEPARADOR);
+        this.escreverTexto(lancamento.getStatus());
+        writer.write(SEPARADOR);
+        writer.write(lancamento.getCategoria() == null ? "" : lancamento.getCategoria().toString());
+        writer.write('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.flush();
+    }
+
+    private void escreverTexto(String valor) throws IOException {
+        if(valor == null) {
+            return;
+        }
+        String texto = pareceFormula(valor) ? "'" + valor : valor;
+        if(!precisaDeAspas(texto)) {
+            writer.write(texto);
+            return;
+        }
+        writer.write('"');
+        for(int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if(c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    private static boolean pareceFormula(String texto) {
+        if(texto.isEmpty()) {
+            return false;
+        }
+        char primeiro = texto.charAt(0);
+        return primeiro == '=' || primeiro == '+' || primeiro == '-' || primeiro == '@' || primeiro == '\t' || primeiro == '\r';
+    }
+
+    private static boolean precisaDeAspas(String texto) {
+        for(int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if(c == SEPARADOR || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,16 @@
+package com.gabs.minhasfinancias.services.exportacao;
+
+import com.gabs.minhasfinancias.dto.LancamentoDTO;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/*
+ ESCREVE OS LANCAMENTOS NA SAIDA UM A UM, CONFORME CHEGAM DA CONSULTA, SEM GUARDAR A LISTA EM MEMORIA
+ O close CONCLUI O ARQUIVO MAS NAO FECHA A SAIDA, QUE PERTENCE A QUEM A ABRIU
+ */
+public interface EscritorLancamentos extends Closeable {
+    String[] COLUNAS = {"id", "descricao", "mes", "ano", "valor", "tipo", "status", "categoria"};
+
+    void escrever(LancamentoDTO lancamento) throws IOException;
+}
@@ -0,0 +1,67 @@
+package com.gabs.minhasfinancias.services.exportacao;
+
+import com.gabs.minhasfinancias.dto.LancamentoDTO;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/*
+ PLANILHA XLSX PELO SXSSF DO POI: SO AS ULTIMAS LINHAS_EM_MEMORIA FICAM NO HEAP, AS DEMAIS VAO PARA UM ARQUIVO
+ TEMPORARIO COMPACTADO. O XLSX E UM ZIP MONTADO NO FIM, ENTAO OS BYTES SO SAEM NO close
+ */
+public class EscritorXlsx implements EscritorLancamentos {
+
+    static final int LINHAS_EM_MEMORIA = 100;
+
+    private final OutputStream saida;
+    private final SXSSFWorkbook workbook;
+    private final Sheet planilha;
+    private int proximaLinha;
+
+    public EscritorXlsx(OutputStream saida) {
+        this.saida = saida;
+        this.workbook = new SXSSFWorkbook(LINHAS_EM_MEMORIA);
+        this.workbook.setCompressTempFiles(true);
+        this.planilha = workbook.createSheet("lancamentos");
+        Row cabecalho = planilha.createRow(proximaLinha++);
+        for(int i = 0; i < COLUNAS.length; i++) {
+            cabecalho.createCell(i).setCellValue(COLUNAS[i]);
+        }
+    }
+
+    @Override
+    public void escrever(LancamentoDTO lancamento) {
+        Row linha = planilha.createRow(proximaLinha++);
+        linha.createCell(0).setCellValue(lancamento.getId());
+        linha.createCell(1).setCellValue(lancamento.getDescricao());
+        if(lancamento.getMes() != null) {
+            linha.createCell(2).setCellValue(lancamento.getMes());
+        }
+        if(lancamento.getAno() != null) {
+            linha.createCell(3).setCellValue(lancamento.getAno());
+        }
+        if(lancamento.getValor() != null) {
+            linha.createCell(4).setCellValue(lancamento.getValor().doubleValue());
+        }
+        linha.createCell(5).setCellValue(lancamento.getTipo());
+        linha.createCell(6).setCellValue(lancamento.getStatus());
+        if(lancamento.getCategoria() != null) {
+            linha.createCell(7).setCellValue(lancamento.getCategoria());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            workbook.write(saida);
+            saida.flush();
+        } finally {
+            // apaga os arquivos temporários mesmo se a escrita falhar
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+}
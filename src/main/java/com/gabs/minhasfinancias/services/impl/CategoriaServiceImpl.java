@@ -0,0 +1,198 @@
+package com.gabs.minhasfinancias.services.impl;
+
+import com.gabs.minhasfinancias.annotations.Description;
+import com.gabs.minhasfinancias.annotations.NovasTentativas;
+import com.gabs.minhasfinancias.config.ConsistenciaLeitura;
+import com.gabs.minhasfinancias.dto.TotalCategoriaDTO;
+import com.gabs.minhasfinancias.exception.RegraNegocioException;
+import com.gabs.minhasfinancias.model.entity.Categoria;
+import com.gabs.minhasfinancias.model.entity.TotalCategoria;
+import com.gabs.minhasfinancias.model.enums.StatusLancamento;
+import com.gabs.minhasfinancias.model.enums.TipoLancamento;
+import com.gabs.minhasfinancias.model.projections.TotalCategoriaMensal;
+import com.gabs.minhasfinancias.repositories.CategoriaRepository;
+import com.gabs.minhasfinancias.repositories.LancamentoRepository;
+import com.gabs.minhasfinancias.repositories.TotalCategoriaRepository;
+import com.gabs.minhasfinancias.services.CategoriaService;
+import com.gabs.minhasfinancias.services.SaldoService;
+import com.gabs.minhasfinancias.services.VersaoUsuarioService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/*
+ CATEGORIAS DE LANCAMENTO DE CADA USUARIO E A PROJECAO total_categoria: RECEITAS E DESPESAS EFETIVADAS POR
+ (USUARIO, CATEGORIA, ANO, MES), ATUALIZADA NA MESMA TRANSACAO DE CADA ESCRITA DE LANCAMENTO, COMO O SALDO MENSAL.
+ "QUANTO GASTEI COM MERCADO POR MES" E UMA LEITURA PELO INDICE UNICO DA PROJECAO, SEM SOMAR LANCAMENTOS
+ */
+@Slf4j
+@Service
+public class CategoriaServiceImpl implements CategoriaService {
+
+    public static final int TAMANHO_MAXIMO_NOME = 100;
+
+    private final CategoriaRepository repository;
+    private final TotalCategoriaRepository totalRepository;
+    private final LancamentoRepository lancamentoRepository;
+    private final SaldoService saldoService;
+    private final VersaoUsuarioService versaoUsuarioService;
+    private final ConsistenciaLeitura consistencia;
+
+    public CategoriaServiceImpl(CategoriaRepository repository,
+                                TotalCategoriaRepository totalRepository,
+                                LancamentoRepository lancamentoRepository,
+                                SaldoService saldoService,
+                                VersaoUsuarioService versaoUsuarioService,
+                                ConsistenciaLeitura consistencia) {
+        this.repository = repository;
+        this.totalRepository = totalRepository;
+        this.lancamentoRepository = lancamentoRepository;
+        this.saldoService = saldoService;
+        this.versaoUsuarioService = versaoUsuarioService;
+        this.consistencia = consistencia;
+    }
+
+    @Override
+    @Transactional
+    public Categoria salvar(Categoria categoria) {
+        String nome = categoria.getNome() == null ? "" : categoria.getNome().trim();
+        if(nome.isEmpty() || nome.length() > TAMANHO_MAXIMO_NOME) {
+            throw new RegraNegocioException("Informe um nome de categoria com até " + TAMANHO_MAXIMO_NOME + " caracteres");
+        }
+        if(repository.existsByUsuarioIdAndNome(categoria.getUsuario().getId(), nome)) {
+            throw new RegraNegocioException("Já existe uma categoria com esse nome");
+        }
+        categoria.setId(null);
+        categoria.setNome(nome);
+        return repository.save(categoria);
+    }
+
+    @Override
+    @Transactional
+    @NovasTentativas
+    @Description(value = "Apaga a categoria, deixando os seus lançamentos sem categoria, e os totais dela")
+    public void deletar(Categoria categoria) {
+        Objects.requireNonNull(categoria.getId());
+        Long idUsuario = categoria.getUsuario().getId();
+        if(lancamentoRepository.removerCategoria(idUsuario, categoria.getId()) > 0) {
+            versaoUsuarioService.registrarAlteracao(idUsuario);
+        }
+        totalRepository.removerCategoria(idUsuario, categoria.getId());
+        repository.deleteById(categoria.getId());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Categoria> buscar(Long idUsuario) {
+        return consistencia.ler(idUsuario, () -> repository.findByUsuarioIdOrderByNome(idUsuario));
+    }
+
+    @Override
+    public Optional<Categoria> buscarPorId(long id) {
+        return repository.findById(id);
+    }
+
+    @Override
+    public boolean pertenceAo(Long idCategoria, Long idUsuario) {
+        return repository.pertenceAo(idCategoria, idUsuario);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Description(value = "Aplica ao total da categoria no mês a mesma variação registrada no saldo, na transação da escrita")
+    public void registrarMovimento(Long idUsuario, Long idCategoria, Integer ano, Integer mes, TipoLancamento tipo, BigDecimal valor) {
+        if(idCategoria == null || valor == null || valor.signum() == 0) {
+            return;
+        }
+        // a variação do saldo é negativa ao efetivar uma despesa, e a despesa da categoria aumenta
+        BigDecimal receitas = tipo == TipoLancamento.RECEITA ? valor : BigDecimal.ZERO;
+        BigDecimal despesas = tipo == TipoLancamento.DESPESA ? valor.negate() : BigDecimal.ZERO;
+
+        // como no saldo mensal: quem inserir a mesma linha antes faz esta escrita falhar pela chave única e ser repetida
+        if(totalRepository.somar(idUsuario, idCategoria, ano, mes, receitas, despesas) == 0) {
+            totalRepository.save(TotalCategoria.builder()
+                    .idUsuario(idUsuario)
+                    .idCategoria(idCategoria)
+                    .ano(ano)
+                    .mes(mes)
+                    .receitas(receitas)
+                    .despesas(despesas)
+                    .build());
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TotalCategoriaDTO> obterTotais(Long idUsuario, Long idCategoria, Integer anoInicial, Integer anoFinal) {
+        return consistencia.ler(idUsuario, () -> (idCategoria == null
+                    ? totalRepository.obterTotais(idUsuario, anoInicial, anoFinal)
+                    : totalRepository.obterTotais(idUsuario, idCategoria, anoInicial, anoFinal))
+                .stream()
+                .map(total -> new TotalCategoriaDTO(total.getIdCategoria(), total.getAno(), total.getMes(),
+                        total.getReceitas(), total.getDespesas()))
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    @Transactional
+    @NovasTentativas
+    @Description(value = "Confere os totais por categoria contra a soma dos lançamentos efetivados e corrige divergências")
+    public boolean reconciliar(Long idUsuario) {
+        // toda escrita de lançamento passa antes pela linha de saldo do usuário: com ela travada nenhum movimento
+        // confirmado entre a soma e a correção é apagado pelos totais calculados sem ele
+        saldoService.bloquear(idUsuario);
+
+        Map<String, TotalCategoria> esperados = new HashMap<>();
+        for(TotalCategoriaMensal total : lancamentoRepository.obterTotaisPorCategoriaEStatus(idUsuario, StatusLancamento.EFETIVADO)) {
+            TotalCategoria esperado = esperados.computeIfAbsent(chave(total.getIdCategoria(), total.getAno(), total.getMes()),
+                    chave -> TotalCategoria.builder()
+                            .idUsuario(idUsuario)
+                            .idCategoria(total.getIdCategoria())
+                            .ano(total.getAno())
+                            .mes(total.getMes())
+                            .receitas(BigDecimal.ZERO)
+                            .despesas(BigDecimal.ZERO)
+                            .build());
+            if(total.getTipo() == TipoLancamento.RECEITA) {
+                esperado.setReceitas(esperado.getReceitas().add(total.getTotal()));
+            } else {
+                esperado.setDespesas(esperado.getDespesas().add(total.getTotal()));
+            }
+        }
+
+        boolean consistente = true;
+        for(TotalCategoria projetado : totalRepository.findByIdUsuario(idUsuario)) {
+            TotalCategoria esperado = esperados.remove(chave(projetado.getIdCategoria(), projetado.getAno(), projetado.getMes()));
+            BigDecimal receitas = esperado == null ? BigDecimal.ZERO : esperado.getReceitas();
+            BigDecimal despesas = esperado == null ? BigDecimal.ZERO : esperado.getDespesas();
+            if(projetado.getReceitas().compareTo(receitas) != 0 || projetado.getDespesas().compareTo(despesas) != 0) {
+                log.warn("Total da categoria {} em {}/{} divergente para o usuario {}", projetado.getIdCategoria(),
+                        projetado.getMes(), projetado.getAno(), idUsuario);
+                projetado.setReceitas(receitas);
+                projetado.setDespesas(despesas);
+                totalRepository.save(projetado);
+                consistente = false;
+            }
+        }
+
+        // meses de categorias que possuem lançamentos efetivados mas ainda não foram projetados
+        if(!esperados.isEmpty()) {
+            totalRepository.saveAll(esperados.values());
+            consistente = false;
+        }
+        return consistente;
+    }
+
+    private static String chave(Long idCategoria, Integer ano, Integer mes) {
+        return idCategoria + "/" + ano + "/" + mes;
+    }
+}
@@ -0,0 +1,46 @@
+package com.gabs.minhasfinancias.services.impl;
+
+import com.gabs.minhasfinancias.annotations.Description;
+import com.gabs.minhasfinancias.dto.LancamentoFiltro;
+import com.gabs.minhasfinancias.model.enums.FormatoExportacao;
+import com.gabs.minhasfinancias.model.enums.OrdemLancamento;
+import com.gabs.minhasfinancias.services.ExportacaoService;
+import com.gabs.minhasfinancias.services.LancamentoService;
+import com.gabs.minhasfinancias.services.exportacao.EscritorCsv;
+import com.gabs.minhasfinancias.services.exportacao.EscritorLancamentos;
+import com.gabs.minhasfinancias.services.exportacao.EscritorXlsx;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+@Service
+public class ExportacaoServiceImpl implements ExportacaoService {
+
+    private final LancamentoService lancamentoService;
+
+    public ExportacaoServiceImpl(LancamentoService lancamentoService) {
+        this.lancamentoService = lancamentoService;
+    }
+
+    @Override
+    @Description(value = "Escreve os lançamentos do filtro na saída conforme o cursor da consulta avança, em ordem de período")
+    public long exportar(LancamentoFiltro filtro, FormatoExportacao formato, OutputStream saida) throws IOException {
+        long[] exportados = {0};
+        try (EscritorLancamentos escritor = formato == FormatoExportacao.XLSX ? new EscritorXlsx(saida) : new EscritorCsv(saida)) {
+            lancamentoService.percorrer(filtro, OrdemLancamento.PERIODO, lancamento -> {
+                try {
+                    escritor.escrever(lancamento);
+                    exportados[0]++;
+                } catch (IOException ioException) {
+                    throw new UncheckedIOException(ioException);
+                }
+            });
+        } catch (UncheckedIOException uncheckedIOException) {
+            // falha na saída (o cliente que desistiu do download, por exemplo) interrompe a consulta e fecha o cursor
+            throw uncheckedIOException.getCause();
+        }
+        return exportados[0];
+    }
+}
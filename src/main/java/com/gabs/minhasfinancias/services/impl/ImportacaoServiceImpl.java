@@ -0,0 +1,130 @@
+package com.gabs.minhasfinancias.services.impl;
+
+import com.gabs.minhasfinancias.annotations.Description;
+import com.gabs.minhasfinancias.dto.ErroImportacaoDTO;
+import com.gabs.minhasfinancias.dto.RelatorioImportacaoDTO;
+import com.gabs.minhasfinancias.exception.RegraNegocioException;
+import com.gabs.minhasfinancias.model.entity.Lancamento;
+import com.gabs.minhasfinancias.model.entity.Usuario;
+import com.gabs.minhasfinancias.model.enums.FormatoImportacao;
+import com.gabs.minhasfinancias.model.enums.StatusLancamento;
+import com.gabs.minhasfinancias.repositories.LancamentoRepository;
+import com.gabs.minhasfinancias.services.ImportacaoService;
+import com.gabs.minhasfinancias.services.LancamentoService;
+import com.gabs.minhasfinancias.services.VersaoUsuarioService;
+import com.gabs.minhasfinancias.services.importacao.LeitorCsv;
+import com.gabs.minhasfinancias.services.importacao.LeitorLancamentos;
+import com.gabs.minhasfinancias.services.importacao.LeitorOfx;
+import com.gabs.minhasfinancias.services.importacao.LinhaImportada;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@Service
+public class ImportacaoServiceImpl implements ImportacaoService {
+
+    public static final int MAXIMO_ERROS_RELATADOS = 1000;
+
+    private final LancamentoRepository repository;
+    private final LancamentoService lancamentoService;
+    private final VersaoUsuarioService versaoUsuarioService;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanhoLote;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ImportacaoServiceImpl(LancamentoRepository repository,
+                                 LancamentoService lancamentoService,
+                                 VersaoUsuarioService versaoUsuarioService,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${minhasfinancas.importacao.tamanho-lote:500}") int tamanhoLote) {
+        this.repository = repository;
+        this.lancamentoService = lancamentoService;
+        this.versaoUsuarioService = versaoUsuarioService;
+        this.transactionTemplate = transactionTemplate;
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    @Override
+    @Description(value = "Importa um extrato em lotes; cada lote é gravado em uma transação própria")
+    public RelatorioImportacaoDTO importar(Usuario usuario, FormatoImportacao formato, InputStream conteudo) throws IOException {
+        LeitorLancamentos leitor = formato == FormatoImportacao.OFX ? new LeitorOfx() : new LeitorCsv();
+        RelatorioImportacaoDTO relatorio = new RelatorioImportacaoDTO();
+        List<Lancamento> lote = new ArrayList<>(tamanhoLote);
+        List<Long> linhasDoLote = new ArrayList<>(tamanhoLote);
+        LocalDate hoje = LocalDate.now();
+        // cada lote é uma transação sem novas tentativas: com a linha de versão já criada, ele só a incrementa
+        versaoUsuarioService.inicializar(usuario.getId());
+
+        try (Reader reader = new InputStreamReader(conteudo, leitor.charset())) {
+            leitor.ler(reader, linha -> {
+                if(linha.getErro() != null) {
+                    rejeitar(relatorio, linha.getLinha(), linha.getErro());
+                    return;
+                }
+
+                Lancamento lancamento = linha.getLancamento();
+                lancamento.setUsuario(usuario);
+                lancamento.setStatus(StatusLancamento.PENDENTE);
+                lancamento.setDataCadastro(hoje);
+                try {
+                    lancamentoService.validar(lancamento);
+                } catch (RegraNegocioException regraNegocioException) {
+                    rejeitar(relatorio, linha.getLinha(), regraNegocioException.getMessage());
+                    return;
+                }
+
+                lote.add(lancamento);
+                linhasDoLote.add(linha.getLinha());
+                if(lote.size() >= tamanhoLote) {
+                    this.gravar(lote, linhasDoLote, relatorio);
+                }
+            });
+        }
+        this.gravar(lote, linhasDoLote, relatorio);
+        return relatorio;
+    }
+
+    private void gravar(List<Lancamento> lote, List<Long> linhasDoLote, RelatorioImportacaoDTO relatorio) {
+        if(lote.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                repository.saveAll(lote);
+                versaoUsuarioService.registrarAlteracao(lote.get(0).getUsuario().getId());
+                // envia os inserts em lote (hibernate.jdbc.batch_size) e libera as entidades do contexto
+                entityManager.flush();
+                entityManager.clear();
+            });
+            relatorio.setImportados(relatorio.getImportados() + lote.size());
+        } catch (RuntimeException exception) {
+            log.warn("Falha ao gravar lote de importação com {} lançamentos", lote.size(), exception);
+            for(Long linha : linhasDoLote) {
+                rejeitar(relatorio, linha, "Falha ao gravar o lote do lançamento");
+            }
+        }
+        lote.clear();
+        linhasDoLote.clear();
+    }
+
+    private static void rejeitar(RelatorioImportacaoDTO relatorio, long linha, String mensagem) {
+        relatorio.setRejeitados(relatorio.getRejeitados() + 1);
+        if(relatorio.getErros().size() < MAXIMO_ERROS_RELATADOS) {
+            relatorio.getErros().add(ErroImportacaoDTO.builder().linha(linha).mensagem(mensagem).build());
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package com.gabs.minhasfinancias.services.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gabs.minhasfinancias.annotations.Description;
+import com.gabs.minhasfinancias.dto.LancamentoDTO;
+import com.gabs.minhasfinancias.dto.SituacaoIngestaoDTO;
+import com.gabs.minhasfinancias.exception.FilaCheiaException;
+import com.gabs.minhasfinancias.exception.RegraNegocioException;
+import com.gabs.minhasfinancias.model.entity.Lancamento;
+import com.gabs.minhasfinancias.model.entity.Usuario;
+import com.gabs.minhasfinancias.model.enums.SituacaoIngestao;
+import com.gabs.minhasfinancias.model.enums.StatusLancamento;
+import com.gabs.minhasfinancias.model.enums.TipoLancamento;
+import com.gabs.minhasfinancias.repositories.LancamentoRepository;
+import com.gabs.minhasfinancias.services.IngestaoService;
+import com.gabs.minhasfinancias.services.LancamentoService;
+import com.gabs.minhasfinancias.services.UsuarioService;
+import com.gabs.minhasfinancias.services.ingestao.LogIngestao;
+import com.gabs.minhasfinancias.services.ingestao.PedidoIngestao;
+import com.gabs.minhasfinancias.services.validacao.ValidadorLancamento;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/*
+ INGESTAO ASSINCRONA DE LANCAMENTOS: O PEDIDO E VALIDADO, GRAVADO NO LOG LOCAL (SINCRONIZADO EM DISCO) E COLOCADO
+ NA FILA; A RESPOSTA 202 LEVA O PROTOCOLO. AS THREADS DE GRAVACAO ESVAZIAM A FILA EM LOTES, UMA TRANSACAO POR LOTE;
+ SE O LOTE FALHAR, CADA PEDIDO E GRAVADO SOZINHO PARA ISOLAR O QUE FOR REJEITADO
+ A CAPACIDADE CONTA OS PEDIDOS AINDA NAO CONCLUIDOS (NA FILA OU EM GRAVACAO); SEM VAGA O PEDIDO E RECUSADO
+ AO INICIAR, OS PEDIDOS DO LOG SEM CONCLUSAO VOLTAM PARA A FILA, EXCETO OS QUE JA ESTAO NO BANCO (protocolo_ingestao)
+ */
+@Slf4j
+@Service
+public class IngestaoServiceImpl implements IngestaoService {
+
+    private static final long ESPERA_FILA_MS = 500;
+    private static final long ESPERA_ENCERRAMENTO_MS = 10000;
+
+    private final boolean habilitada;
+    private final LancamentoService lancamentoService;
+    private final UsuarioService usuarioService;
+    private final LancamentoRepository repository;
+    private final int threads;
+    private final int tamanhoLote;
+    private final LogIngestao logIngestao;
+
+    private final Semaphore vagas;
+    private final BlockingQueue<PedidoIngestao> fila = new LinkedBlockingQueue<>();
+    private final Map<Long, PedidoIngestao> pendentes = new ConcurrentHashMap<>();
+    private final Cache<Long, Conclusao> concluidos;
+    private final AtomicLong proximoProtocolo = new AtomicLong();
+    private final List<Thread> gravadores = new ArrayList<>();
+
+    private volatile boolean ativa;
+
+    public IngestaoServiceImpl(LancamentoService lancamentoService,
+                               UsuarioService usuarioService,
+                               LancamentoRepository repository,
+                               ObjectMapper objectMapper,
+                               ObjectProvider<MeterRegistry> registry,
+                               @Value("${minhasfinancas.ingestao.habilitada:false}") boolean habilitada,
+                               @Value("${minhasfinancas.ingestao.diretorio:./dados/ingestao}") String diretorio,
+                               @Value("${minhasfinancas.ingestao.capacidade:10000}") int capacidade,
+                               @Value("${minhasfinancas.ingestao.threads:2}") int threads,
+                               @Value("${minhasfinancas.ingestao.tamanho-lote:200}") int tamanhoLote,
+                               @Value("${minhasfinancas.ingestao.tamanho-segmento-mb:64}") int tamanhoSegmentoMb,
+                               @Value("${minhasfinancas.ingestao.sincronizar-disco:true}") boolean sincronizarDisco) {
+        this.habilitada = habilitada;
+        this.lancamentoService = lancamentoService;
+        this.usuarioService = usuarioService;
+        this.repository = repository;
+        this.threads = threads;
+        this.tamanhoLote = tamanhoLote;
+        this.vagas = new Semaphore(capacidade);
+        // o resultado fica disponível para consulta por um tempo; depois disso só os gravados, pelo banco
+        this.concluidos = Caffeine.newBuilder()
+                .maximumSize(Math.max(capacidade, 1000))
+                .expireAfterWrite(1, TimeUnit.HOURS)
+                .build();
+        this.logIngestao = habilitada
+                ? new LogIngestao(Paths.get(diretorio), tamanhoSegmentoMb * 1024L * 1024L, sincronizarDisco, objectMapper)
+                : null;
+        if(habilitada) {
+            registry.ifAvailable(meterRegistry -> Gauge.builder("minhasfinancas.ingestao.pendentes", pendentes, Map::size)
+                    .description("Pedidos de ingestão aceitos e ainda não gravados")
+                    .register(meterRegistry));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Description(value = "Reaplica os pedidos pendentes do log e inicia as threads de gravação")
+    public void iniciar() throws IOException {
+        if(!habilitada || ativa) {
+            return;
+        }
+        List<PedidoIngestao> recuperados = logIngestao.abrir();
+        Set<Long> jaGravados = new HashSet<>();
+        for(List<PedidoIngestao> lote : particionar(recuperados)) {
+            jaGravados.addAll(repository.obterProtocolosGravados(
+                    lote.stream().map(PedidoIngestao::getProtocolo).collect(Collectors.toList())));
+        }
+
+        // protocolos crescentes entre reinícios, sem depender de sequence no banco
+        Long maiorGravado = repository.obterMaiorProtocoloIngestao();
+        long maiorConhecido = Math.max(logIngestao.getMaiorProtocolo(), maiorGravado == null ? 0 : maiorGravado);
+        proximoProtocolo.set(Math.max(maiorConhecido + 1, System.currentTimeMillis() * 1000));
+
+        ativa = true;
+        for(int i = 0; i < threads; i++) {
+            Thread gravador = new Thread(this::esvaziarFila, "ingestao-" + i);
+            gravador.setDaemon(true);
+            gravador.start();
+            gravadores.add(gravador);
+        }
+
+        for(PedidoIngestao pedido : recuperados) {
+            if(jaGravados.contains(pedido.getProtocolo())) {
+                logIngestao.concluir(pedido.getProtocolo());
+                continue;
+            }
+            vagas.acquireUninterruptibly();
+            pendentes.put(pedido.getProtocolo(), pedido);
+            fila.add(pedido);
+        }
+        if(!recuperados.isEmpty()) {
+            log.info("Ingestão: {} pedidos recuperados do log, {} já estavam gravados", recuperados.size(), jaGravados.size());
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() throws IOException, InterruptedException {
+        if(!ativa) {
+            return;
+        }
+        // os pedidos que ficarem na fila continuam no log e são reaplicados no próximo início
+        ativa = false;
+        for(Thread gravador : gravadores) {
+            gravador.join(ESPERA_ENCERRAMENTO_MS);
+        }
+        logIngestao.close();
+    }
+
+    @Override
+    public boolean isHabilitada() {
+        return habilitada;
+    }
+
+    @Override
+    @Description(value = "Valida e registra o lançamento no log; a gravação no banco acontece depois, em lote")
+    public SituacaoIngestaoDTO enfileirar(Long idUsuario, LancamentoDTO dto) {
+        if(!ativa) {
+            throw new IllegalStateException("Ingestão assíncrona não está ativa");
+        }
+        ValidadorLancamento.exigirValido(ValidadorLancamento.verificar(dto));
+        dto.setUsuario(idUsuario);
+
+        if(!vagas.tryAcquire()) {
+            throw new FilaCheiaException("Fila de ingestão cheia, tente novamente");
+        }
+        PedidoIngestao pedido = new PedidoIngestao(proximoProtocolo.getAndIncrement(), dto);
+        try {
+            logIngestao.registrar(pedido);
+        } catch (IOException ioException) {
+            vagas.release();
+            throw new UncheckedIOException(ioException);
+        }
+        pendentes.put(pedido.getProtocolo(), pedido);
+        fila.add(pedido);
+        return situacao(pedido.getProtocolo(), SituacaoIngestao.PENDENTE, null, null);
+    }
+
+    @Override
+    public Optional<SituacaoIngestaoDTO> obterSituacao(Long idUsuario, long protocolo) {
+        PedidoIngestao pendente = pendentes.get(protocolo);
+        if(pendente != null) {
+            return Optional.of(pendente)
+                    .filter(pedido -> idUsuario.equals(pedido.getLancamento().getUsuario()))
+                    .map(pedido -> situacao(protocolo, SituacaoIngestao.PENDENTE, null, null));
+        }
+        Conclusao conclusao = concluidos.getIfPresent(protocolo);
+        if(conclusao != null) {
+            return Optional.of(conclusao).filter(c -> idUsuario.equals(c.getIdUsuario())).map(Conclusao::getSituacao);
+        }
+        return repository.obterIdPorProtocoloIngestao(protocolo, idUsuario)
+                .map(id -> situacao(protocolo, SituacaoIngestao.GRAVADO, id, null));
+    }
+
+    @Override
+    public List<SituacaoIngestaoDTO> obterPendentes(Long idUsuario) {
+        return pendentes.values().stream()
+                .filter(pedido -> idUsuario.equals(pedido.getLancamento().getUsuario()))
+                .map(pedido -> situacao(pedido.getProtocolo(), SituacaoIngestao.PENDENTE, null, null))
+                .sorted(Comparator.comparing(SituacaoIngestaoDTO::getProtocolo))
+                .collect(Collectors.toList());
+    }
+
+    private void esvaziarFila() {
+        List<PedidoIngestao> lote = new ArrayList<>(tamanhoLote);
+        while(ativa) {
+            try {
+                PedidoIngestao primeiro = fila.poll(ESPERA_FILA_MS, TimeUnit.MILLISECONDS);
+                if(primeiro == null) {
+                    continue;
+                }
+                lote.add(primeiro);
+                fila.drainTo(lote, tamanhoLote - 1);
+                this.gravar(lote);
+            } catch (InterruptedException interrompida) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException erro) {
+                log.error("Falha inesperada na gravação de um lote da ingestão", erro);
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private void gravar(List<PedidoIngestao> pedidos) {
+        // um pedido reaplicado que já está no banco conclui sem gravar: o índice único do protocolo seria tratado como
+        // conflito de concorrência e o lote inteiro repetido antes de chegar às gravações individuais
+        Set<Long> jaGravados = new HashSet<>(repository.obterProtocolosGravados(
+                pedidos.stream().map(PedidoIngestao::getProtocolo).collect(Collectors.toList())));
+        List<PedidoIngestao> lote = new ArrayList<>(pedidos.size());
+        for(PedidoIngestao pedido : pedidos) {
+            if(!jaGravados.contains(pedido.getProtocolo()) || !this.concluirSeGravado(pedido)) {
+                lote.add(pedido);
+            }
+        }
+        if(lote.isEmpty()) {
+            return;
+        }
+
+        List<Lancamento> salvos;
+        try {
+            salvos = lancamentoService.salvarLote(lote.stream()
+                    .map(pedido -> converter(pedido, usuarioService.obterReferencia(pedido.getLancamento().getUsuario())))
+                    .collect(Collectors.toList()));
+        } catch (RuntimeException falha) {
+            if(lote.size() > 1) {
+                lote.forEach(pedido -> this.gravar(List.of(pedido)));
+            } else {
+                this.rejeitar(lote.get(0), falha);
+            }
+            return;
+        }
+        for(int i = 0; i < lote.size(); i++) {
+            PedidoIngestao pedido = lote.get(i);
+            this.concluir(pedido, situacao(pedido.getProtocolo(), SituacaoIngestao.GRAVADO, salvos.get(i).getId(), null));
+        }
+    }
+
+    private void rejeitar(PedidoIngestao pedido, RuntimeException falha) {
+        // uma violação do índice único indica que o pedido já foi gravado (log reaplicado sem a conclusão)
+        if(this.concluirSeGravado(pedido)) {
+            return;
+        }
+        String mensagem = falha instanceof RegraNegocioException ? falha.getMessage() : "Não foi possível gravar o lançamento";
+        if(!(falha instanceof RegraNegocioException)) {
+            log.warn("Pedido de ingestão {} rejeitado", pedido.getProtocolo(), falha);
+        }
+        this.concluir(pedido, situacao(pedido.getProtocolo(), SituacaoIngestao.REJEITADO, null, mensagem));
+    }
+
+    private boolean concluirSeGravado(PedidoIngestao pedido) {
+        Optional<Long> gravado = repository.obterIdPorProtocoloIngestao(pedido.getProtocolo(), pedido.getLancamento().getUsuario());
+        gravado.ifPresent(id -> this.concluir(pedido, situacao(pedido.getProtocolo(), SituacaoIngestao.GRAVADO, id, null)));
+        return gravado.isPresent();
+    }
+
+    private void concluir(PedidoIngestao pedido, SituacaoIngestaoDTO situacao) {
+        concluidos.put(pedido.getProtocolo(), new Conclusao(pedido.getLancamento().getUsuario(), situacao));
+        pendentes.remove(pedido.getProtocolo());
+        vagas.release();
+        try {
+            logIngestao.concluir(pedido.getProtocolo());
+        } catch (IOException ioException) {
+            // o pedido será reaplicado no próximo início e descartado pelo protocolo já gravado
+            log.error("Não foi possível registrar a conclusão do pedido {} no log de ingestão", pedido.getProtocolo(), ioException);
+        }
+    }
+
+    private static Lancamento converter(PedidoIngestao pedido, Usuario usuario) {
+        Lancamento lancamento = converter(pedido.getLancamento(), usuario);
+        lancamento.setProtocoloIngestao(pedido.getProtocolo());
+        return lancamento;
+    }
+
+    private static Lancamento converter(LancamentoDTO dto, Usuario usuario) {
+        return Lancamento.builder()
+                .descricao(dto.getDescricao())
+                .ano(dto.getAno())
+                .mes(dto.getMes())
+                .valor(dto.getValor())
+                .tipo(TipoLancamento.porNome(dto.getTipo()))
+                .status(StatusLancamento.PENDENTE)
+                .idCategoria(dto.getCategoria())
+                .usuario(usuario)
+                .dataCadastro(LocalDate.now())
+                .build();
+    }
+
+    private static SituacaoIngestaoDTO situacao(long protocolo, SituacaoIngestao situacao, Long idLancamento, String mensagem) {
+        return SituacaoIngestaoDTO.builder()
+                .protocolo(protocolo)
+                .situacao(situacao)
+                .idLancamento(idLancamento)
+                .mensagem(mensagem)
+                .build();
+    }
+
+    private List<List<PedidoIngestao>> particionar(List<PedidoIngestao> pedidos) {
+        List<List<PedidoIngestao>> lotes = new ArrayList<>();
+        for(int inicio = 0; inicio < pedidos.size(); inicio += tamanhoLote) {
+            lotes.add(pedidos.subList(inicio, Math.min(inicio + tamanhoLote, pedidos.size())));
+        }
+        return lotes;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Conclusao {
+        private final Long idUsuario;
+        private final SituacaoIngestaoDTO situacao;
+    }
+}
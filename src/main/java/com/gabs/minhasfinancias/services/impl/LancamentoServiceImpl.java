@@ -1,102 +1,290 @@
 package com.gabs.minhasfinancias.services.impl;
 
 import com.gabs.minhasfinancias.annotations.Description;
+import com.gabs.minhasfinancias.annotations.NovasTentativas;
+import com.gabs.minhasfinancias.config.CacheConfiguration;
+import com.gabs.minhasfinancias.config.ConsistenciaLeitura;
+import com.gabs.minhasfinancias.config.MetricasConfiguration;
+import com.gabs.minhasfinancias.dto.CursorLancamento;
+import com.gabs.minhasfinancias.dto.LancamentoDTO;
+import com.gabs.minhasfinancias.dto.LancamentoFiltro;
+import com.gabs.minhasfinancias.dto.ResultadoStatusDTO;
+import com.gabs.minhasfinancias.dto.TotalPeriodoDTO;
+import com.gabs.minhasfinancias.exception.CodigoErro;
 import com.gabs.minhasfinancias.exception.RegraNegocioException;
 import com.gabs.minhasfinancias.model.entity.Lancamento;
+import com.gabs.minhasfinancias.model.enums.OrdemLancamento;
+import com.gabs.minhasfinancias.model.enums.ResultadoAtualizacao;
 import com.gabs.minhasfinancias.model.enums.StatusLancamento;
 import com.gabs.minhasfinancias.model.enums.TipoLancamento;
+import com.gabs.minhasfinancias.model.projections.LancamentoResumo;
+import com.gabs.minhasfinancias.model.projections.LancamentoVersao;
 import com.gabs.minhasfinancias.repositories.LancamentoRepository;
+import com.gabs.minhasfinancias.services.CategoriaService;
 import com.gabs.minhasfinancias.services.LancamentoService;
-import org.springframework.data.domain.Example;
-import org.springframework.data.domain.ExampleMatcher;
+import com.gabs.minhasfinancias.services.SaldoService;
+import com.gabs.minhasfinancias.services.VersaoUsuarioService;
+import com.gabs.minhasfinancias.services.validacao.ValidadorLancamento;
+import io.micrometer.core.annotation.Timed;
+import lombok.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
+@Timed(value = MetricasConfiguration.TEMPO_SERVICO, histogram = true)
 public class LancamentoServiceImpl implements LancamentoService {
 
+    public static final int LIMITE_PADRAO = 100;
+    public static final int LIMITE_MAXIMO = 500;
+    public static final int TAMANHO_LOTE_LEITURA = 500;
+    public static final int TAMANHO_LOTE_STATUS = 1000;
+    public static final int LIMITE_IDS_STATUS = 10000;
+
     private final LancamentoRepository repository;
+    private final SaldoService saldoService;
+    private final ConsistenciaLeitura consistencia;
+    private final VersaoUsuarioService versaoUsuarioService;
+    private final CategoriaService categoriaService;
 
-    public LancamentoServiceImpl(LancamentoRepository lancamentoRepository) {
+    public LancamentoServiceImpl(LancamentoRepository lancamentoRepository, SaldoService saldoService,
+                                 ConsistenciaLeitura consistencia, VersaoUsuarioService versaoUsuarioService,
+                                 CategoriaService categoriaService) {
         this.repository = lancamentoRepository;
+        this.saldoService = saldoService;
+        this.consistencia = consistencia;
+        this.versaoUsuarioService = versaoUsuarioService;
+        this.categoriaService = categoriaService;
     }
 
     @Override
     @Transactional
+    @NovasTentativas
     public Lancamento salvar(Lancamento lancamento) {
         this.validar(lancamento);
+        // sempre um lançamento novo: o id gerado numa tentativa desfeita não pode ser reaproveitado
+        lancamento.setId(null);
         lancamento.setStatus(StatusLancamento.PENDENTE); // setar status de lançamento como pendente
-        return repository.save(lancamento);
+        Lancamento lancamentoSalvo = repository.save(lancamento);
+        this.somarAoSaldo(lancamentoSalvo);
+        versaoUsuarioService.registrarAlteracao(idUsuario(lancamentoSalvo));
+        return lancamentoSalvo;
+    }
+
+    @Override
+    @Transactional
+    @NovasTentativas
+    @Description(value = "Grava os lançamentos em uma única transação, registrando uma alteração por usuário do lote")
+    public List<Lancamento> salvarLote(List<Lancamento> lancamentos) {
+        lancamentos.forEach(this::validar);
+        lancamentos.forEach(lancamento -> lancamento.setId(null));
+        lancamentos.forEach(lancamento -> lancamento.setStatus(StatusLancamento.PENDENTE));
+        List<Lancamento> salvos = repository.saveAll(lancamentos);
+        salvos.forEach(this::somarAoSaldo);
+        salvos.stream().map(LancamentoServiceImpl::idUsuario).distinct().forEach(versaoUsuarioService::registrarAlteracao);
+        return salvos;
     }
 
     @Override
     @Transactional
+    @NovasTentativas
+    @Description(value = "Substitui o lançamento inteiro sobre a versão gravada; um conflito de versão repete a transação")
     public Lancamento atualizar(Lancamento lancamento) {
         Objects.requireNonNull(lancamento.getId());
         this.validar(lancamento);
-        return repository.save(lancamento);
+        Optional<LancamentoResumo> anterior = repository.obterResumo(lancamento.getId());
+        // a variação do saldo é calculada sobre este estado: o UPDATE só passa se a versão ainda for a mesma
+        anterior.map(LancamentoResumo::getVersao).ifPresent(lancamento::setVersao);
+        Lancamento lancamentoAtualizado = repository.save(lancamento);
+        anterior.ifPresent(this::subtrairDoSaldo);
+        this.somarAoSaldo(lancamentoAtualizado);
+        versaoUsuarioService.registrarAlteracao(idUsuario(lancamentoAtualizado));
+        return lancamentoAtualizado;
     }
 
     @Override
     @Transactional
+    @NovasTentativas
     public void deletar(Lancamento lancamento) {
         Objects.requireNonNull(lancamento.getId());
+        Optional<LancamentoResumo> anterior = repository.obterResumo(lancamento.getId());
+        anterior.map(LancamentoResumo::getVersao).ifPresent(lancamento::setVersao);
         repository.delete(lancamento);
+        anterior.ifPresent(this::subtrairDoSaldo);
+        anterior.ifPresent(resumo -> versaoUsuarioService.registrarAlteracao(resumo.getIdUsuario()));
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<Lancamento> buscar(Lancamento lancamentoFiltro) {
-        Example<Lancamento> example = Example.of(lancamentoFiltro, ExampleMatcher.matching()
-                .withIgnoreCase()
-                .withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING));
+    public List<Lancamento> buscar(LancamentoFiltro filtro) {
+        return consistencia.ler(filtro.getUsuario(), () -> repository.buscar(filtro));
+    }
 
-        return repository.findAll(example);
+    @Override
+    @Transactional(readOnly = true)
+    public List<LancamentoDTO> buscar(LancamentoFiltro filtro, CursorLancamento cursor, OrdemLancamento ordem, Integer limite) {
+        int tamanhoPagina = limite == null || limite < 1 ? LIMITE_PADRAO : Math.min(limite, LIMITE_MAXIMO);
+        return consistencia.ler(filtro.getUsuario(), () -> repository.buscarPagina(filtro, cursor, ordem, tamanhoPagina));
     }
 
     @Override
-    public void atualizarStatus(Lancamento lancamento, StatusLancamento status) {
+    @Transactional(readOnly = true)
+    @Description(value = "Percorre os lançamentos do filtro sem carregar o resultado inteiro em memória")
+    public void percorrer(LancamentoFiltro filtro, OrdemLancamento ordem, Consumer<LancamentoDTO> consumidor) {
+        consistencia.ler(filtro.getUsuario(), () -> repository.percorrer(filtro, ordem, TAMANHO_LOTE_LEITURA, consumidor));
+    }
+
+    @Override
+    @Transactional
+    @NovasTentativas
+    @Description(value = "Troca só o status, sobre o lançamento relido do banco a cada tentativa")
+    public Lancamento atualizarStatus(Lancamento lancamento, StatusLancamento status) {
         lancamento.setStatus(status);
-        this.atualizar(lancamento);
+        // depois de um conflito o contexto foi limpo e a leitura traz os campos gravados pela outra escrita
+        Lancamento atual = repository.findById(lancamento.getId())
+                .orElseThrow(() -> new RegraNegocioException(CodigoErro.LANCAMENTO_NAO_ENCONTRADO, "Lançamento não encontrado na base de dados"));
+        atual.setStatus(status);
+        return this.atualizar(atual);
     }
 
     @Override
-    @Description(value = "Esse método serve para validar um lançamento")
-    public void validar(Lancamento lancamento) {
-        // verificar se a descrição do lançamento é válida
-        if(lancamento.getDescricao() == null || lancamento.getDescricao().trim().equals("")){
-            throw new RegraNegocioException("Informe uma Descrição válida");
+    @Transactional
+    @NovasTentativas
+    public List<ResultadoStatusDTO> atualizarStatus(Long idUsuario, List<Long> ids, Map<Long, Long> versoes, StatusLancamento status) {
+        Objects.requireNonNull(status);
+        if(ids == null || ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if(ids.size() > LIMITE_IDS_STATUS) {
+            throw new RegraNegocioException(CodigoErro.LIMITE_EXCEDIDO, "Informe no máximo " + LIMITE_IDS_STATUS + " lançamentos por atualização");
+        }
+
+        List<Long> distintos = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<LancamentoVersao> atuais = new ArrayList<>(distintos.size());
+        for(List<Long> lote : particionar(distintos)) {
+            atuais.addAll(repository.obterVersoes(idUsuario, lote));
         }
 
-        // verificar se o mês do lançamento é válido
-        if(lancamento.getMes() == null || lancamento.getMes() < 1 || lancamento.getMes() > 12) {
-            throw new RegraNegocioException("Informe um Mês válido");
+        // ids inexistentes ou de outro usuário não aparecem na leitura
+        Map<Long, ResultadoStatusDTO> resultados = this.aplicarStatus(idUsuario, atuais, versoes, status);
+        return distintos.stream()
+                .map(id -> resultados.getOrDefault(id, resultado(id, ResultadoAtualizacao.NAO_ENCONTRADO, null)))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
+    @NovasTentativas
+    public List<ResultadoStatusDTO> atualizarStatus(Long idUsuario, Integer ano, Integer mes, StatusLancamento status) {
+        Objects.requireNonNull(status);
+        if(ano == null) {
+            throw new RegraNegocioException("Informe o ano dos lançamentos");
         }
 
-        // verificar se o ano do lançamento é válido
-        if(lancamento.getAno() == null || lancamento.getAno().toString().length() != 4){
-            throw new RegraNegocioException("Informe um Ano válido");
+        List<LancamentoVersao> atuais = mes == null
+                ? repository.obterVersoesPorAno(idUsuario, ano)
+                : repository.obterVersoesPorPeriodo(idUsuario, ano, mes);
+        return new ArrayList<>(this.aplicarStatus(idUsuario, atuais, Collections.emptyMap(), status).values());
+    }
+
+    @Description(value = "Troca o status com um UPDATE por versão lida e aplica a variação do saldo uma vez por mês e categoria")
+    private Map<Long, ResultadoStatusDTO> aplicarStatus(Long idUsuario, List<LancamentoVersao> atuais,
+                                                        Map<Long, Long> versoesEsperadas, StatusLancamento status) {
+        Map<Long, ResultadoStatusDTO> resultados = new LinkedHashMap<>();
+        Map<Long, List<LancamentoVersao>> candidatosPorVersao = new HashMap<>();
+        for(LancamentoVersao atual : atuais) {
+            Long esperada = versoesEsperadas == null ? null : versoesEsperadas.get(atual.getId());
+            if(esperada != null && !esperada.equals(atual.getVersao())) {
+                resultados.put(atual.getId(), resultado(atual.getId(), ResultadoAtualizacao.CONFLITO_VERSAO, atual.getVersao()));
+            } else if(atual.getStatus() == status) {
+                resultados.put(atual.getId(), resultado(atual.getId(), ResultadoAtualizacao.INALTERADO, atual.getVersao()));
+            } else {
+                resultados.put(atual.getId(), resultado(atual.getId(), ResultadoAtualizacao.ATUALIZADO, atual.getVersao() + 1));
+                candidatosPorVersao.computeIfAbsent(atual.getVersao(), versao -> new ArrayList<>()).add(atual);
+            }
         }
 
-        // verificar se o lançamento possui um usuário válido
-        if(lancamento.getUsuario() == null || lancamento.getUsuario().getId() == null) {
-            throw new RegraNegocioException("Informe um usuário");
+        // chave ano * 100 + mes: um único movimento de saldo por mês afetado
+        Map<Integer, BigDecimal> variacoes = new HashMap<>();
+        Map<PeriodoCategoria, BigDecimal> variacoesCategoria = new HashMap<>();
+        for(Map.Entry<Long, List<LancamentoVersao>> grupo : candidatosPorVersao.entrySet()) {
+            for(List<LancamentoVersao> lote : particionar(grupo.getValue())) {
+                List<Long> idsLote = lote.stream().map(LancamentoVersao::getId).collect(Collectors.toList());
+                IntSummaryStatistics anos = lote.stream().mapToInt(LancamentoVersao::getAno).summaryStatistics();
+                Set<Long> travados = new HashSet<>(repository.travarVersao(idUsuario, idsLote, anos.getMin(), anos.getMax(), grupo.getKey()));
+                // com as linhas travadas o UPDATE não pode perder nenhuma; se perder, a transação inteira é repetida
+                if(!travados.isEmpty() && repository.atualizarStatus(travados, anos.getMin(), anos.getMax(), grupo.getKey(), status) != travados.size()) {
+                    throw new ConcurrencyFailureException("Lançamentos travados alterados durante a troca de status");
+                }
+
+                // as linhas que não estavam mais na versão lida foram alteradas por outra escrita, mesmo que para o mesmo status
+                Map<Long, LancamentoVersao> relidos = travados.size() == lote.size() ? Collections.emptyMap()
+                        : repository.obterVersoes(idUsuario, idsLote).stream()
+                            .collect(Collectors.toMap(LancamentoVersao::getId, relido -> relido));
+
+                for(LancamentoVersao anterior : lote) {
+                    LancamentoVersao relido = relidos.get(anterior.getId());
+                    boolean gravado = travados.contains(anterior.getId());
+                    if(gravado) {
+                        BigDecimal variacao = SaldoService.contribuicao(anterior.getTipo(), status, anterior.getValor())
+                                .subtract(SaldoService.contribuicao(anterior.getTipo(), anterior.getStatus(), anterior.getValor()));
+                        variacoes.merge(anterior.getAno() * 100 + anterior.getMes(), variacao, BigDecimal::add);
+                        if(anterior.getIdCategoria() != null) {
+                            variacoesCategoria.merge(new PeriodoCategoria(anterior.getIdCategoria(), anterior.getAno(),
+                                    anterior.getMes(), anterior.getTipo()), variacao, BigDecimal::add);
+                        }
+                    } else {
+                        resultados.put(anterior.getId(), resultado(anterior.getId(), ResultadoAtualizacao.CONFLITO_VERSAO,
+                                relido == null ? null : relido.getVersao()));
+                    }
+                }
+            }
         }
 
-        // verificar se o valor do lançamento é válido
-        if(lancamento.getValor() == null || lancamento.getValor().compareTo(BigDecimal.ZERO) < 1){
-            throw new RegraNegocioException("Informe um valor válido");
+        // um mês cuja variação de saldo se anula não passa pela linha de saldo; a trava garante a mesma ordem da
+        // conferência dos totais por categoria
+        if(!variacoesCategoria.isEmpty()) {
+            saldoService.bloquear(idUsuario);
         }
+        variacoes.forEach((periodo, valor) -> saldoService.registrarMovimento(idUsuario, periodo / 100, periodo % 100, valor));
+        variacoesCategoria.forEach((periodo, valor) -> categoriaService.registrarMovimento(idUsuario, periodo.getIdCategoria(),
+                periodo.getAno(), periodo.getMes(), periodo.getTipo(), valor));
+        if(!candidatosPorVersao.isEmpty()) {
+            versaoUsuarioService.registrarAlteracao(idUsuario);
+        }
+        return resultados;
+    }
+
+    @Value
+    private static class PeriodoCategoria {
+        Long idCategoria;
+        Integer ano;
+        Integer mes;
+        TipoLancamento tipo;
+    }
+
+    private static ResultadoStatusDTO resultado(Long id, ResultadoAtualizacao resultado, Long versao) {
+        return ResultadoStatusDTO.builder().id(id).resultado(resultado).versao(versao).build();
+    }
 
-        // verificar se o tipo do lançamento é válidp
-        if(lancamento.getTipo() == null){
-            throw new RegraNegocioException("Informe um tipo de lançamento");
+    private static <T> List<List<T>> particionar(List<T> itens) {
+        List<List<T>> lotes = new ArrayList<>();
+        for(int inicio = 0; inicio < itens.size(); inicio += TAMANHO_LOTE_STATUS) {
+            lotes.add(itens.subList(inicio, Math.min(inicio + TAMANHO_LOTE_STATUS, itens.size())));
         }
+        return lotes;
+    }
+
+    @Override
+    @Description(value = "Valida o lançamento informando todas as regras violadas de uma vez")
+    public void validar(Lancamento lancamento) {
+        ValidadorLancamento.exigirValido(ValidadorLancamento.verificar(lancamento));
     }
 
     @Override
@@ -104,18 +292,57 @@ public class LancamentoServiceImpl implements LancamentoService {
         return repository.findById(id);
     }
 
+    @Override
+    @Description(value = "Carrega o lançamento já com o usuário, numa única consulta")
+    public Optional<Lancamento> buscarPorIdComUsuario(long id) {
+        return repository.findComUsuarioById(id);
+    }
+
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(value = CacheConfiguration.SALDOS, key = "#id", sync = true)
     public BigDecimal obterSaldoPorUsuario(Long id) {
-        BigDecimal receitas = repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(id, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO);
-        BigDecimal despesas = repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(id, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO);
-        if(receitas == null ){
-            receitas = BigDecimal.ZERO;
-        }
-        if(despesas == null) {
-            despesas = BigDecimal.ZERO;
+        return consistencia.ler(id, () -> saldoService.obterSaldo(id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(value = CacheConfiguration.SALDOS_MENSAIS, sync = true)
+    public BigDecimal obterSaldoPorUsuario(Long id, Integer ano, Integer mes) {
+        return consistencia.ler(id, () -> saldoService.obterSaldo(id, ano, mes));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TotalPeriodoDTO> obterTotaisMensais(Long idUsuario, Integer anoInicial, Integer anoFinal) {
+        return consistencia.ler(idUsuario, () -> repository.obterTotaisMensais(idUsuario, anoInicial, anoFinal));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TotalPeriodoDTO> obterTotaisAnuais(Long idUsuario, Integer anoInicial, Integer anoFinal) {
+        return consistencia.ler(idUsuario, () -> repository.obterTotaisAnuais(idUsuario, anoInicial, anoFinal));
+    }
+
+    private static Long idUsuario(Lancamento lancamento) {
+        return lancamento.getUsuario() == null ? null : lancamento.getUsuario().getId();
+    }
+
+    private void somarAoSaldo(Lancamento lancamento) {
+        BigDecimal valor = SaldoService.contribuicao(lancamento.getTipo(), lancamento.getStatus(), lancamento.getValor());
+        if(valor.signum() != 0) {
+            saldoService.registrarMovimento(lancamento.getUsuario().getId(), lancamento.getAno(), lancamento.getMes(), valor);
+            categoriaService.registrarMovimento(lancamento.getUsuario().getId(), lancamento.getIdCategoria(),
+                    lancamento.getAno(), lancamento.getMes(), lancamento.getTipo(), valor);
         }
+    }
 
-        return receitas.subtract(despesas);
+    private void subtrairDoSaldo(LancamentoResumo resumo) {
+        BigDecimal valor = SaldoService.contribuicao(resumo.getTipo(), resumo.getStatus(), resumo.getValor());
+        if(valor.signum() != 0) {
+            saldoService.registrarMovimento(resumo.getIdUsuario(), resumo.getAno(), resumo.getMes(), valor.negate());
+            categoriaService.registrarMovimento(resumo.getIdUsuario(), resumo.getIdCategoria(),
+                    resumo.getAno(), resumo.getMes(), resumo.getTipo(), valor.negate());
+        }
     }
 }
@@ -0,0 +1,216 @@
+package com.gabs.minhasfinancias.services.impl;
+
+import com.gabs.minhasfinancias.annotations.Description;
+import com.gabs.minhasfinancias.annotations.NovasTentativas;
+import com.gabs.minhasfinancias.exception.RegraNegocioException;
+import com.gabs.minhasfinancias.model.entity.Lancamento;
+import com.gabs.minhasfinancias.model.entity.Recorrencia;
+import com.gabs.minhasfinancias.model.enums.StatusLancamento;
+import com.gabs.minhasfinancias.repositories.LancamentoRepository;
+import com.gabs.minhasfinancias.repositories.RecorrenciaRepository;
+import com.gabs.minhasfinancias.services.LancamentoService;
+import com.gabs.minhasfinancias.services.RecorrenciaService;
+import com.gabs.minhasfinancias.services.VersaoUsuarioService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/*
+ RECORRENCIAS MENSAIS E ANUAIS: AS OCORRENCIAS ATE O HORIZONTE (MES CORRENTE + meses-adiante) SAO GRAVADAS COMO
+ LANCAMENTOS PENDENTES, SEM PASSAR PELO LancamentoService.salvar: UM saveAll POR LOTE DE RECORRENCIAS, UMA TRANSACAO
+ POR LOTE, COM A PROXIMA OCORRENCIA DE CADA RECORRENCIA AVANCADA NA MESMA TRANSACAO. REEXECUTAR NAO DUPLICA NADA:
+ O QUE FOI GRAVADO JA NAO ESTA PENDENTE E O INDICE UNICO (id_recorrencia, ano, mes) SEGURA DUAS INSTANCIAS AO MESMO TEMPO
+ */
+@Slf4j
+@Service
+public class RecorrenciaServiceImpl implements RecorrenciaService {
+
+    private final RecorrenciaRepository repository;
+    private final LancamentoRepository lancamentoRepository;
+    private final LancamentoService lancamentoService;
+    private final VersaoUsuarioService versaoUsuarioService;
+    private final TransactionTemplate transactionTemplate;
+    private final int mesesAdiante;
+    private final int tamanhoLote;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public RecorrenciaServiceImpl(RecorrenciaRepository repository,
+                                  LancamentoRepository lancamentoRepository,
+                                  LancamentoService lancamentoService,
+                                  VersaoUsuarioService versaoUsuarioService,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${minhasfinancas.recorrencia.meses-adiante:1}") int mesesAdiante,
+                                  @Value("${minhasfinancas.recorrencia.tamanho-lote:500}") int tamanhoLote) {
+        this.repository = repository;
+        this.lancamentoRepository = lancamentoRepository;
+        this.lancamentoService = lancamentoService;
+        this.versaoUsuarioService = versaoUsuarioService;
+        this.transactionTemplate = transactionTemplate;
+        this.mesesAdiante = mesesAdiante;
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    @Override
+    @Transactional
+    @NovasTentativas
+    @Description(value = "Grava a recorrência e já materializa as ocorrências até o horizonte")
+    public Recorrencia salvar(Recorrencia recorrencia) {
+        this.validar(recorrencia);
+        recorrencia.setId(null);
+        recorrencia.setProximoAno(recorrencia.getAnoInicial());
+        recorrencia.setProximoMes(recorrencia.getMesInicial());
+        recorrencia.setDataCadastro(LocalDate.now());
+        Recorrencia salva = repository.save(recorrencia);
+
+        List<Lancamento> ocorrencias = this.gerarOcorrencias(salva, this.horizonte(), LocalDate.now());
+        if(!ocorrencias.isEmpty()) {
+            lancamentoRepository.saveAll(ocorrencias);
+            versaoUsuarioService.registrarAlteracao(salva.getUsuario().getId());
+        }
+        return salva;
+    }
+
+    // os lançamentos já gerados ficam; só as ocorrências futuras deixam de existir
+    @Override
+    @Transactional
+    public void deletar(Recorrencia recorrencia) {
+        Objects.requireNonNull(recorrencia.getId());
+        repository.delete(recorrencia);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Recorrencia> buscar(Long idUsuario) {
+        return repository.findByUsuarioIdOrderById(idUsuario);
+    }
+
+    @Override
+    public Optional<Recorrencia> buscarPorId(long id) {
+        return repository.findById(id);
+    }
+
+    @Override
+    public YearMonth horizonte() {
+        return YearMonth.now().plusMonths(mesesAdiante);
+    }
+
+    @Override
+    @Description(value = "Materializa as ocorrências pendentes até o período informado numa fatia de usuários, um lote por transação")
+    public int materializar(int particoes, int particao, YearMonth ate) {
+        LocalDate hoje = LocalDate.now();
+        int gravados = 0;
+        long cursor = 0;
+        while(true) {
+            List<Long> ids = repository.obterIdsPendentes(particoes, particao, cursor, ate.getYear(), ate.getMonthValue(),
+                    PageRequest.of(0, tamanhoLote));
+            if(ids.isEmpty()) {
+                return gravados;
+            }
+            cursor = ids.get(ids.size() - 1);
+
+            try {
+                gravados += this.gravarLote(ids, ate, hoje);
+            } catch (RuntimeException exception) {
+                // isola a recorrência com problema para que ela não impeça as demais do lote
+                log.warn("Falha ao materializar lote de {} recorrências, gravando uma a uma", ids.size(), exception);
+                for(Long id : ids) {
+                    try {
+                        gravados += this.gravarLote(List.of(id), ate, hoje);
+                    } catch (RuntimeException falha) {
+                        log.warn("Falha ao materializar a recorrência {}", id, falha);
+                    }
+                }
+            }
+        }
+    }
+
+    // relê as recorrências na transação: o que outra execução já gravou não está mais pendente e é ignorado
+    private int gravarLote(List<Long> ids, YearMonth ate, LocalDate hoje) {
+        Integer gravados = transactionTemplate.execute(status -> {
+            List<Lancamento> lancamentos = new ArrayList<>();
+            List<Long> usuarios = new ArrayList<>();
+            for(Recorrencia recorrencia : repository.findAllById(ids)) {
+                List<Lancamento> ocorrencias = this.gerarOcorrencias(recorrencia, ate, hoje);
+                if(!ocorrencias.isEmpty()) {
+                    lancamentos.addAll(ocorrencias);
+                    usuarios.add(recorrencia.getUsuario().getId());
+                }
+            }
+            lancamentoRepository.saveAll(lancamentos);
+            usuarios.stream().distinct().forEach(versaoUsuarioService::registrarAlteracao);
+            // envia os inserts em lote (hibernate.jdbc.batch_size) e libera as entidades do contexto
+            entityManager.flush();
+            entityManager.clear();
+            return lancamentos.size();
+        });
+        return gravados == null ? 0 : gravados;
+    }
+
+    @Description(value = "Gera as ocorrências da próxima pendente até o período informado e avança a recorrência")
+    private List<Lancamento> gerarOcorrencias(Recorrencia recorrencia, YearMonth ate, LocalDate hoje) {
+        if(recorrencia.getProximoAno() == null) {
+            return List.of();
+        }
+        YearMonth proxima = YearMonth.of(recorrencia.getProximoAno(), recorrencia.getProximoMes());
+        YearMonth fim = recorrencia.getAnoFinal() == null ? null : YearMonth.of(recorrencia.getAnoFinal(), recorrencia.getMesFinal());
+        YearMonth limite = fim != null && fim.isBefore(ate) ? fim : ate;
+
+        List<Lancamento> ocorrencias = new ArrayList<>();
+        while(!proxima.isAfter(limite)) {
+            ocorrencias.add(Lancamento.builder()
+                    .descricao(recorrencia.getDescricao())
+                    .valor(recorrencia.getValor())
+                    .tipo(recorrencia.getTipo())
+                    .usuario(recorrencia.getUsuario())
+                    .ano(proxima.getYear())
+                    .mes(proxima.getMonthValue())
+                    .status(StatusLancamento.PENDENTE)
+                    .dataCadastro(hoje)
+                    .idRecorrencia(recorrencia.getId())
+                    .build());
+            proxima = proxima.plusMonths(recorrencia.getPeriodicidade().getMeses());
+        }
+
+        boolean terminou = fim != null && proxima.isAfter(fim);
+        recorrencia.setProximoAno(terminou ? null : proxima.getYear());
+        recorrencia.setProximoMes(terminou ? null : proxima.getMonthValue());
+        return ocorrencias;
+    }
+
+    // as regras do lançamento valem para cada ocorrência; a primeira é validada como um lançamento comum
+    private void validar(Recorrencia recorrencia) {
+        lancamentoService.validar(Lancamento.builder()
+                .descricao(recorrencia.getDescricao())
+                .valor(recorrencia.getValor())
+                .tipo(recorrencia.getTipo())
+                .usuario(recorrencia.getUsuario())
+                .ano(recorrencia.getAnoInicial())
+                .mes(recorrencia.getMesInicial())
+                .build());
+        if(recorrencia.getPeriodicidade() == null) {
+            throw new RegraNegocioException("Informe a periodicidade da recorrência: MENSAL ou ANUAL");
+        }
+        if((recorrencia.getAnoFinal() == null) != (recorrencia.getMesFinal() == null)) {
+            throw new RegraNegocioException("Informe o ano e o mês finais da recorrência");
+        }
+        if(recorrencia.getAnoFinal() != null && (recorrencia.getMesFinal() < 1 || recorrencia.getMesFinal() > 12
+                || YearMonth.of(recorrencia.getAnoFinal(), recorrencia.getMesFinal())
+                    .isBefore(YearMonth.of(recorrencia.getAnoInicial(), recorrencia.getMesInicial())))) {
+            throw new RegraNegocioException("O período final da recorrência deve ser igual ou posterior ao inicial");
+        }
+    }
+}
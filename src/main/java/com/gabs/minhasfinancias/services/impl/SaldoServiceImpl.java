@@ -0,0 +1,165 @@
+package com.gabs.minhasfinancias.services.impl;
+
+import com.gabs.minhasfinancias.annotations.Description;
+import com.gabs.minhasfinancias.annotations.NovasTentativas;
+import com.gabs.minhasfinancias.events.SaldoAlteradoEvent;
+import com.gabs.minhasfinancias.model.entity.SaldoMensal;
+import com.gabs.minhasfinancias.model.entity.SaldoUsuario;
+import com.gabs.minhasfinancias.model.enums.StatusLancamento;
+import com.gabs.minhasfinancias.model.enums.TipoLancamento;
+import com.gabs.minhasfinancias.model.projections.TotalMensal;
+import com.gabs.minhasfinancias.repositories.LancamentoRepository;
+import com.gabs.minhasfinancias.repositories.SaldoMensalRepository;
+import com.gabs.minhasfinancias.repositories.SaldoUsuarioRepository;
+import com.gabs.minhasfinancias.services.SaldoService;
+import com.gabs.minhasfinancias.services.VersaoUsuarioService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Slf4j
+@Service
+public class SaldoServiceImpl implements SaldoService {
+
+    private final SaldoUsuarioRepository saldoUsuarioRepository;
+    private final SaldoMensalRepository saldoMensalRepository;
+    private final LancamentoRepository lancamentoRepository;
+    private final VersaoUsuarioService versaoUsuarioService;
+    private final ApplicationEventPublisher eventos;
+
+    public SaldoServiceImpl(SaldoUsuarioRepository saldoUsuarioRepository,
+                            SaldoMensalRepository saldoMensalRepository,
+                            LancamentoRepository lancamentoRepository,
+                            VersaoUsuarioService versaoUsuarioService,
+                            ApplicationEventPublisher eventos) {
+        this.saldoUsuarioRepository = saldoUsuarioRepository;
+        this.saldoMensalRepository = saldoMensalRepository;
+        this.lancamentoRepository = lancamentoRepository;
+        this.versaoUsuarioService = versaoUsuarioService;
+        this.eventos = eventos;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BigDecimal obterSaldo(Long idUsuario) {
+        return saldoUsuarioRepository.obterSaldo(idUsuario).orElse(BigDecimal.ZERO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BigDecimal obterSaldo(Long idUsuario, Integer ano, Integer mes) {
+        return saldoMensalRepository.obterSaldo(idUsuario, ano, mes).orElse(BigDecimal.ZERO);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Description(value = "Aplica a variação de saldo na mesma transação da escrita do lançamento")
+    public void registrarMovimento(Long idUsuario, Integer ano, Integer mes, BigDecimal valor) {
+        if(valor == null || valor.signum() == 0) {
+            return;
+        }
+
+        if(saldoUsuarioRepository.somar(idUsuario, valor) == 0) {
+            saldoUsuarioRepository.inserir(idUsuario, valor);
+        }
+
+        if(saldoMensalRepository.somar(idUsuario, ano, mes, valor) == 0) {
+            saldoMensalRepository.save(SaldoMensal.builder()
+                    .idUsuario(idUsuario)
+                    .ano(ano)
+                    .mes(mes)
+                    .saldo(valor)
+                    .build());
+        }
+        eventos.publishEvent(new SaldoAlteradoEvent(idUsuario, ano, mes));
+    }
+
+    @Override
+    @Transactional
+    @NovasTentativas
+    @Description(value = "Confere a projeção de saldo contra a soma dos lançamentos e corrige divergências")
+    public boolean reconciliar(Long idUsuario) {
+        // trava a linha do usuário antes das somas: uma escrita confirmada entre a soma e a correção teria a sua
+        // variação apagada pelo total calculado sem ela
+        Optional<SaldoUsuario> projetado = saldoUsuarioRepository.bloquear(idUsuario);
+
+        BigDecimal receitas = lancamentoRepository.obterSaldoPorTipoLancamentoEUsuarioEStatus(idUsuario, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO);
+        BigDecimal despesas = lancamentoRepository.obterSaldoPorTipoLancamentoEUsuarioEStatus(idUsuario, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO);
+        BigDecimal esperado = (receitas == null ? BigDecimal.ZERO : receitas)
+                .subtract(despesas == null ? BigDecimal.ZERO : despesas);
+
+        boolean consistente = true;
+
+        BigDecimal saldoProjetado = projetado.map(SaldoUsuario::getSaldo).orElse(BigDecimal.ZERO);
+        if(saldoProjetado.compareTo(esperado) != 0) {
+            log.warn("Saldo divergente para o usuario {}: projetado {}, calculado {}", idUsuario, saldoProjetado, esperado);
+            if(projetado.isPresent()) {
+                projetado.get().setSaldo(esperado);
+                saldoUsuarioRepository.save(projetado.get());
+            } else {
+                // sem linha não há o que travar: uma escrita que a crie ao mesmo tempo viola a chave e a conferência é repetida
+                saldoUsuarioRepository.inserir(idUsuario, esperado);
+            }
+            eventos.publishEvent(new SaldoAlteradoEvent(idUsuario, null, null));
+            consistente = false;
+        }
+
+        Map<String, BigDecimal> esperadosPorMes = new HashMap<>();
+        for(TotalMensal total : lancamentoRepository.obterTotaisMensaisPorUsuarioEStatus(idUsuario, StatusLancamento.EFETIVADO)) {
+            BigDecimal valor = SaldoService.contribuicao(total.getTipo(), StatusLancamento.EFETIVADO, total.getTotal());
+            esperadosPorMes.merge(chave(total.getAno(), total.getMes()), valor, BigDecimal::add);
+        }
+
+        List<SaldoMensal> saldosMensais = saldoMensalRepository.findByIdUsuario(idUsuario);
+        for(SaldoMensal saldoMensal : saldosMensais) {
+            BigDecimal valorEsperado = esperadosPorMes.remove(chave(saldoMensal.getAno(), saldoMensal.getMes()));
+            if(valorEsperado == null) {
+                valorEsperado = BigDecimal.ZERO;
+            }
+            if(saldoMensal.getSaldo().compareTo(valorEsperado) != 0) {
+                saldoMensal.setSaldo(valorEsperado);
+                saldoMensalRepository.save(saldoMensal);
+                eventos.publishEvent(new SaldoAlteradoEvent(idUsuario, saldoMensal.getAno(), saldoMensal.getMes()));
+                consistente = false;
+            }
+        }
+
+        // meses que possuem lançamentos mas ainda não foram projetados
+        for(Map.Entry<String, BigDecimal> faltante : esperadosPorMes.entrySet()) {
+            String[] anoMes = faltante.getKey().split("/");
+            saldoMensalRepository.save(SaldoMensal.builder()
+                    .idUsuario(idUsuario)
+                    .ano(Integer.valueOf(anoMes[0]))
+                    .mes(Integer.valueOf(anoMes[1]))
+                    .saldo(faltante.getValue())
+                    .build());
+            eventos.publishEvent(new SaldoAlteradoEvent(idUsuario, Integer.valueOf(anoMes[0]), Integer.valueOf(anoMes[1])));
+            consistente = false;
+        }
+
+        // a correção muda o saldo servido sem escrita de lançamento, então a ETag também precisa mudar
+        if(!consistente) {
+            versaoUsuarioService.registrarAlteracao(idUsuario);
+        }
+        return consistente;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Description(value = "Trava a linha de saldo do usuário até o fim da transação, na mesma ordem das escritas de lançamento")
+    public void bloquear(Long idUsuario) {
+        saldoUsuarioRepository.bloquear(idUsuario);
+    }
+
+    private static String chave(Integer ano, Integer mes) {
+        return ano + "/" + mes;
+    }
+}
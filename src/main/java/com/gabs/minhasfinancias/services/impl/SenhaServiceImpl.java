@@ -0,0 +1,82 @@
+package com.gabs.minhasfinancias.services.impl;
+
+import com.gabs.minhasfinancias.annotations.Description;
+import com.gabs.minhasfinancias.exception.CodigoErro;
+import com.gabs.minhasfinancias.exception.ErroAutenticacaoException;
+import com.gabs.minhasfinancias.services.SenhaService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+@Service
+public class SenhaServiceImpl implements SenhaService {
+
+    private final PasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final String hashFicticio;
+
+    public SenhaServiceImpl(PasswordEncoder encoder,
+                            @Value("${minhasfinancas.senha.threads:0}") int threads,
+                            @Value("${minhasfinancas.senha.fila:64}") int fila,
+                            @Value("${minhasfinancas.senha.timeout-ms:5000}") long timeoutMs) {
+        int tamanho = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.encoder = encoder;
+        this.timeoutMs = timeoutMs;
+        // o cálculo dos hashes é limitado a um núcleo por thread; o excesso espera na fila ou é recusado
+        this.executor = new ThreadPoolExecutor(tamanho, tamanho, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fila), new CustomizableThreadFactory("senha-"), new ThreadPoolExecutor.AbortPolicy());
+        // hash de uma senha aleatória na codificação atual, com o mesmo custo dos hashes gravados
+        this.hashFicticio = encoder.encode(UUID.randomUUID().toString());
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdown();
+    }
+
+    @Override
+    public String codificar(String senha) {
+        return this.executar(() -> encoder.encode(senha));
+    }
+
+    @Override
+    public boolean confere(String senha, String senhaGravada) {
+        if(senha == null || senhaGravada == null) {
+            return false;
+        }
+        return this.executar(() -> encoder.matches(senha, senhaGravada));
+    }
+
+    @Override
+    public boolean precisaAtualizar(String senhaGravada) {
+        return encoder.upgradeEncoding(senhaGravada);
+    }
+
+    @Override
+    @Description(value = "Hash conferido quando o email não existe, para que a resposta leve o mesmo tempo")
+    public String hashFicticio() {
+        return hashFicticio;
+    }
+
+    @Description(value = "Executa o cálculo do hash no pool limitado, sem ocupar a CPU das threads de requisição")
+    private <T> T executar(Supplier<T> tarefa) {
+        try {
+            return CompletableFuture.supplyAsync(tarefa, executor).get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException | TimeoutException exception) {
+            throw new ErroAutenticacaoException(CodigoErro.AUTENTICACAO_OCUPADA, "Serviço de autenticação ocupado, tente novamente");
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new ErroAutenticacaoException(CodigoErro.AUTENTICACAO_OCUPADA, "Serviço de autenticação ocupado, tente novamente");
+        } catch (ExecutionException executionException) {
+            Throwable causa = executionException.getCause();
+            throw causa instanceof RuntimeException ? (RuntimeException) causa : new IllegalStateException(causa);
+        }
+    }
+}
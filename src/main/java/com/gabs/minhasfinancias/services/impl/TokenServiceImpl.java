@@ -0,0 +1,114 @@
+package com.gabs.minhasfinancias.services.impl;
+
+import com.gabs.minhasfinancias.annotations.Description;
+import com.gabs.minhasfinancias.services.TokenService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Optional;
+
+/*
+ TOKEN DE ACESSO SEM ESTADO: base64url(idUsuario:expiraEm).base64url(HMAC-SHA256)
+ A VERIFICACAO USA APENAS A CHAVE EM MEMORIA, SEM CONSULTAR O BANCO
+ */
+@Slf4j
+@Service
+public class TokenServiceImpl implements TokenService {
+
+    private static final String ALGORITMO = "HmacSHA256";
+    private static final Base64.Encoder CODIFICADOR = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODIFICADOR = Base64.getUrlDecoder();
+
+    private final SecretKeySpec chave;
+    private final long validadeSegundos;
+    private final ThreadLocal<Mac> macs;
+
+    public TokenServiceImpl(@Value("${minhasfinancas.token.segredo:}") String segredo,
+                            @Value("${minhasfinancas.token.validade-minutos:60}") long validadeMinutos) {
+        this.chave = new SecretKeySpec(obterSegredo(segredo), ALGORITMO);
+        this.validadeSegundos = validadeMinutos * 60;
+        // Mac não é thread-safe; cada thread de requisição mantém a sua instância já inicializada
+        this.macs = ThreadLocal.withInitial(this::criarMac);
+    }
+
+    @Override
+    public String emitir(Long idUsuario) {
+        long expiraEm = agora() + validadeSegundos;
+        String conteudo = CODIFICADOR.encodeToString((idUsuario + ":" + expiraEm).getBytes(StandardCharsets.UTF_8));
+        return conteudo + "." + CODIFICADOR.encodeToString(assinar(conteudo));
+    }
+
+    @Override
+    public Optional<Long> verificar(String token) {
+        if(token == null) {
+            return Optional.empty();
+        }
+        int separador = token.indexOf('.');
+        if(separador <= 0 || separador == token.length() - 1) {
+            return Optional.empty();
+        }
+
+        String conteudo = token.substring(0, separador);
+        try {
+            byte[] assinatura = DECODIFICADOR.decode(token.substring(separador + 1));
+            if(!MessageDigest.isEqual(assinar(conteudo), assinatura)) {
+                return Optional.empty();
+            }
+
+            String dados = new String(DECODIFICADOR.decode(conteudo), StandardCharsets.UTF_8);
+            int divisao = dados.indexOf(':');
+            if(divisao <= 0) {
+                return Optional.empty();
+            }
+            long expiraEm = Long.parseLong(dados.substring(divisao + 1));
+            if(agora() >= expiraEm) {
+                return Optional.empty();
+            }
+            return Optional.of(Long.valueOf(dados.substring(0, divisao)));
+        } catch (IllegalArgumentException illegalArgumentException) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public long getValidadeSegundos() {
+        return validadeSegundos;
+    }
+
+    private static long agora() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    private byte[] assinar(String conteudo) {
+        return macs.get().doFinal(conteudo.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac criarMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITMO);
+            mac.init(chave);
+            return mac;
+        } catch (GeneralSecurityException generalSecurityException) {
+            throw new IllegalStateException("HmacSHA256 indisponível", generalSecurityException);
+        }
+    }
+
+    @Description(value = "Sem segredo configurado a chave é aleatória: os tokens perdem a validade ao reiniciar")
+    private static byte[] obterSegredo(String segredo) {
+        if(segredo != null && !segredo.isEmpty()) {
+            return segredo.getBytes(StandardCharsets.UTF_8);
+        }
+        log.warn("minhasfinancas.token.segredo não configurado; usando uma chave aleatória");
+        byte[] aleatorio = new byte[32];
+        new SecureRandom().nextBytes(aleatorio);
+        return aleatorio;
+    }
+}
@@ -1,54 +1,92 @@
 package com.gabs.minhasfinancias.services.impl;
 
+import com.gabs.minhasfinancias.config.CacheConfiguration;
+import com.gabs.minhasfinancias.config.MetricasConfiguration;
+import com.gabs.minhasfinancias.exception.CodigoErro;
 import com.gabs.minhasfinancias.exception.ErroAutenticacaoException;
 import com.gabs.minhasfinancias.exception.RegraNegocioException;
 import com.gabs.minhasfinancias.model.entity.Usuario;
 import com.gabs.minhasfinancias.repositories.UsuarioRepository;
+import com.gabs.minhasfinancias.services.SenhaService;
 import com.gabs.minhasfinancias.services.UsuarioService;
 import com.sun.istack.NotNull;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 @Service
+@Timed(value = MetricasConfiguration.TEMPO_SERVICO, histogram = true)
 public class UsuarioServiceImpl implements UsuarioService {
 
     private final UsuarioRepository repository;
+    private final SenhaService senhaService;
 
-    public UsuarioServiceImpl(UsuarioRepository repository) {
+    public UsuarioServiceImpl(UsuarioRepository repository, SenhaService senhaService) {
         this.repository = repository;
+        this.senhaService = senhaService;
     }
 
     @Override
     public Usuario autenticar(String email, String senha) {
         Optional<Usuario> usuario = repository.findByEmail(email);
         if(!usuario.isPresent()) {
+            // confere contra um hash fictício: sem isso o email inexistente responde antes e o tempo revela quem tem cadastro
+            senhaService.confere(senha, senhaService.hashFicticio());
             throw new ErroAutenticacaoException("Usuário não encontrado para o email informado");
         }
-        if(!usuario.get().getSenha().equals(senha)) {
+        if(!senhaService.confere(senha, usuario.get().getSenha())) {
             throw new ErroAutenticacaoException("Senha inválida");
         }
+
+        // senhas legadas ou com custo desatualizado são recodificadas com a senha recebida
+        if(senhaService.precisaAtualizar(usuario.get().getSenha())) {
+            repository.atualizarSenha(usuario.get().getId(), usuario.get().getEmail(), senhaService.codificar(senha));
+        }
         return usuario.get();
     }
 
     @Override
     @Transactional
+    @Caching(
+            put = @CachePut(value = CacheConfiguration.USUARIOS, key = "#result.id"),
+            evict = {
+                    @CacheEvict(value = CacheConfiguration.USUARIOS_POR_EMAIL, key = "#usuario.email"),
+                    @CacheEvict(value = CacheConfiguration.EMAILS_CADASTRADOS, key = "#usuario.email")
+            })
     public Usuario salvarUsuario(Usuario usuario) {
         this.validarEmail(usuario.getEmail());
-        return repository.save(usuario);
+        Usuario usuarioParaSalvar = Usuario.builder()
+                .id(usuario.getId())
+                .nome(usuario.getNome())
+                .email(usuario.getEmail())
+                .senha(senhaService.codificar(usuario.getSenha()))
+                .build();
+        return repository.save(usuarioParaSalvar);
     }
 
     @Override
 
     public void validarEmail(String email) throws RegraNegocioException {
         if(repository.existsByEmail(email)){
-            throw new RegraNegocioException("Já existe um usuário cadastrado com este email");
+            throw new RegraNegocioException(CodigoErro.EMAIL_CADASTRADO, "Já existe um usuário cadastrado com este email");
         }
     }
 
     @Override
+    @Cacheable(value = CacheConfiguration.USUARIOS, unless = "#result == null")
     public Optional<Usuario> obterPorId(long id) {
         return repository.findById(id);
     }
+
+    @Override
+    public Usuario obterReferencia(long id) {
+        // proxy sem consulta ao banco, suficiente para preencher a chave estrangeira
+        return repository.getReferenceById(id);
+    }
 }
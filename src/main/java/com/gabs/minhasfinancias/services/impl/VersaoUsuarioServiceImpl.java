@@ -0,0 +1,61 @@
+package com.gabs.minhasfinancias.services.impl;
+
+import com.gabs.minhasfinancias.annotations.Description;
+import com.gabs.minhasfinancias.annotations.NovasTentativas;
+import com.gabs.minhasfinancias.config.CacheConfiguration;
+import com.gabs.minhasfinancias.config.ConsistenciaLeitura;
+import com.gabs.minhasfinancias.events.VersaoUsuarioAlteradaEvent;
+import com.gabs.minhasfinancias.repositories.VersaoUsuarioRepository;
+import com.gabs.minhasfinancias.services.VersaoUsuarioService;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class VersaoUsuarioServiceImpl implements VersaoUsuarioService {
+
+    private final VersaoUsuarioRepository repository;
+    private final ConsistenciaLeitura consistencia;
+    private final ApplicationEventPublisher eventos;
+
+    public VersaoUsuarioServiceImpl(VersaoUsuarioRepository repository, ConsistenciaLeitura consistencia,
+                                    ApplicationEventPublisher eventos) {
+        this.repository = repository;
+        this.consistencia = consistencia;
+        this.eventos = eventos;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(value = CacheConfiguration.VERSOES_USUARIO, key = "#idUsuario", sync = true)
+    public long obterVersao(Long idUsuario) {
+        return consistencia.ler(idUsuario, () -> repository.obterVersao(idUsuario).orElse(0L));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Description(value = "Incrementa a versão na mesma transação da escrita; o cache é invalidado após o commit")
+    public void registrarAlteracao(Long idUsuario) {
+        if(idUsuario == null) {
+            return;
+        }
+        // quem inserir a linha antes faz este insert falhar pela chave única e a escrita ser repetida
+        if(repository.incrementar(idUsuario) == 0) {
+            repository.inserir(idUsuario, 1L);
+        }
+        consistencia.registrarEscrita(idUsuario);
+        eventos.publishEvent(new VersaoUsuarioAlteradaEvent(idUsuario));
+    }
+
+    @Override
+    @Transactional
+    @NovasTentativas
+    @Description(value = "Cria a linha de versão antes de escritas em lote que não repetem a transação; a versão segue em zero")
+    public void inicializar(Long idUsuario) {
+        if(repository.obterVersao(idUsuario).isEmpty()) {
+            repository.inserir(idUsuario, 0L);
+        }
+    }
+}
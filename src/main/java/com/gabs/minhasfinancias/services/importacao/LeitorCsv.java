@@ -0,0 +1,136 @@
+package com.gabs.minhasfinancias.services.importacao;
+
+import com.gabs.minhasfinancias.exception.RegraNegocioException;
+import com.gabs.minhasfinancias.model.entity.Lancamento;
+import com.gabs.minhasfinancias.model.enums.TipoLancamento;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/*
+ CSV COM CABECALHO: descricao, mes, ano, valor, tipo (EM QUALQUER ORDEM)
+ O SEPARADOR (';' OU ',') E DETECTADO PELO CABECALHO; COM ';' O VALOR PODE USAR VIRGULA DECIMAL
+ */
+public class LeitorCsv implements LeitorLancamentos {
+
+    private static final String[] COLUNAS = {"descricao", "mes", "ano", "valor", "tipo"};
+
+    @Override
+    public Charset charset() {
+        return StandardCharsets.UTF_8;
+    }
+
+    @Override
+    public void ler(Reader reader, Consumer<LinhaImportada> consumidor) throws IOException {
+        BufferedReader linhas = new BufferedReader(reader);
+        String cabecalho = linhas.readLine();
+        if(cabecalho == null) {
+            throw new RegraNegocioException("Arquivo CSV vazio");
+        }
+        if(cabecalho.startsWith("\uFEFF")) {
+            cabecalho = cabecalho.substring(1);
+        }
+
+        char separador = cabecalho.indexOf(';') >= 0 ? ';' : ',';
+        int[] posicoes = this.mapearColunas(separar(cabecalho, separador));
+
+        long numero = 1;
+        String linha;
+        while((linha = linhas.readLine()) != null) {
+            numero++;
+            if(linha.trim().isEmpty()) {
+                continue;
+            }
+            consumidor.accept(this.converter(numero, separar(linha, separador), posicoes, separador));
+        }
+    }
+
+    private int[] mapearColunas(List<String> cabecalho) {
+        int[] posicoes = new int[COLUNAS.length];
+        for(int i = 0; i < COLUNAS.length; i++) {
+            posicoes[i] = -1;
+            for(int j = 0; j < cabecalho.size(); j++) {
+                if(cabecalho.get(j).trim().equalsIgnoreCase(COLUNAS[i])) {
+                    posicoes[i] = j;
+                }
+            }
+            if(posicoes[i] < 0) {
+                throw new RegraNegocioException("Cabeçalho CSV inválido, informe as colunas: " + String.join(", ", COLUNAS));
+            }
+        }
+        return posicoes;
+    }
+
+    private LinhaImportada converter(long numero, List<String> campos, int[] posicoes, char separador) {
+        if(campos.size() <= max(posicoes)) {
+            return LinhaImportada.invalida(numero, "Quantidade de colunas inválida");
+        }
+
+        Lancamento lancamento = new Lancamento();
+        lancamento.setDescricao(campos.get(posicoes[0]).trim());
+        try {
+            lancamento.setMes(Integer.valueOf(campos.get(posicoes[1]).trim()));
+        } catch (NumberFormatException numberFormatException) {
+            return LinhaImportada.invalida(numero, "Informe um Mês válido");
+        }
+        try {
+            lancamento.setAno(Integer.valueOf(campos.get(posicoes[2]).trim()));
+        } catch (NumberFormatException numberFormatException) {
+            return LinhaImportada.invalida(numero, "Informe um Ano válido");
+        }
+        try {
+            String valor = campos.get(posicoes[3]).trim();
+            if(separador == ';') {
+                valor = valor.replace(".", "").replace(',', '.');
+            }
+            lancamento.setValor(new BigDecimal(valor));
+        } catch (NumberFormatException numberFormatException) {
+            return LinhaImportada.invalida(numero, "Informe um valor válido");
+        }
+        lancamento.setTipo(TipoLancamento.porNome(campos.get(posicoes[4]).trim().toUpperCase(Locale.ROOT)));
+        if(lancamento.getTipo() == null) {
+            return LinhaImportada.invalida(numero, "Informe um tipo de lançamento");
+        }
+        return LinhaImportada.valida(numero, lancamento);
+    }
+
+    private static int max(int[] valores) {
+        int max = 0;
+        for(int valor : valores) {
+            max = Math.max(max, valor);
+        }
+        return max;
+    }
+
+    static List<String> separar(String linha, char separador) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreAspas = false;
+        for(int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if(c == '"') {
+                if(entreAspas && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                    campo.append('"');
+                    i++;
+                } else {
+                    entreAspas = !entreAspas;
+                }
+            } else if(c == separador && !entreAspas) {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else {
+                campo.append(c);
+            }
+        }
+        campos.add(campo.toString());
+        return campos;
+    }
+}
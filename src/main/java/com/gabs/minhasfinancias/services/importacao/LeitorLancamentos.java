@@ -0,0 +1,15 @@
+package com.gabs.minhasfinancias.services.importacao;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.function.Consumer;
+
+/*
+ LE UM ARQUIVO DE EXTRATO LINHA A LINHA, ENTREGANDO CADA LANCAMENTO AO CONSUMIDOR SEM GUARDAR O ARQUIVO EM MEMORIA
+ */
+public interface LeitorLancamentos {
+    Charset charset();
+
+    void ler(Reader reader, Consumer<LinhaImportada> consumidor) throws IOException;
+}
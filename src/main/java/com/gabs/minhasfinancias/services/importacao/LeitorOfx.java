@@ -0,0 +1,105 @@
+package com.gabs.minhasfinancias.services.importacao;
+
+import com.gabs.minhasfinancias.model.entity.Lancamento;
+import com.gabs.minhasfinancias.model.enums.TipoLancamento;
+
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/*
+ OFX 1.x (SGML) E 2.x (XML): CADA BLOCO <STMTTRN> VIRA UM LANCAMENTO
+ TRNAMT NEGATIVO E DESPESA, POSITIVO E RECEITA; DTPOSTED DEFINE O ANO E O MES
+ */
+public class LeitorOfx implements LeitorLancamentos {
+
+    @Override
+    public Charset charset() {
+        // os extratos dos bancos brasileiros são emitidos em CHARSET:1252
+        return Charset.forName("windows-1252");
+    }
+
+    @Override
+    public void ler(Reader reader, Consumer<LinhaImportada> consumidor) throws IOException {
+        PushbackReader entrada = new PushbackReader(reader, 1);
+        StringBuilder texto = new StringBuilder();
+        Map<String, String> transacao = null;
+        long linha = 1;
+        long inicioTransacao = 0;
+
+        int c;
+        while((c = entrada.read()) != -1) {
+            if(c == '\n') {
+                linha++;
+            }
+            if(c != '<') {
+                continue;
+            }
+
+            texto.setLength(0);
+            while((c = entrada.read()) != -1 && c != '>') {
+                texto.append((char) c);
+            }
+            String tag = texto.toString().trim().toUpperCase();
+
+            texto.setLength(0);
+            while((c = entrada.read()) != -1 && c != '<') {
+                if(c == '\n') {
+                    linha++;
+                }
+                texto.append((char) c);
+            }
+            if(c == '<') {
+                entrada.unread(c);
+            }
+
+            if(tag.equals("STMTTRN")) {
+                transacao = new HashMap<>();
+                inicioTransacao = linha;
+            } else if(tag.equals("/STMTTRN")) {
+                if(transacao != null) {
+                    consumidor.accept(this.converter(inicioTransacao, transacao));
+                }
+                transacao = null;
+            } else if(transacao != null && !tag.startsWith("/")) {
+                transacao.put(tag, texto.toString().trim());
+            }
+        }
+    }
+
+    private LinhaImportada converter(long linha, Map<String, String> transacao) {
+        Lancamento lancamento = new Lancamento();
+
+        String descricao = transacao.getOrDefault("MEMO", transacao.get("NAME"));
+        lancamento.setDescricao(descricao);
+
+        String data = transacao.get("DTPOSTED");
+        if(data == null || data.length() < 8) {
+            return LinhaImportada.invalida(linha, "Data da transação inválida");
+        }
+        try {
+            lancamento.setAno(Integer.valueOf(data.substring(0, 4)));
+            lancamento.setMes(Integer.valueOf(data.substring(4, 6)));
+        } catch (NumberFormatException numberFormatException) {
+            return LinhaImportada.invalida(linha, "Data da transação inválida");
+        }
+
+        String valor = transacao.get("TRNAMT");
+        if(valor == null) {
+            return LinhaImportada.invalida(linha, "Informe um valor válido");
+        }
+        try {
+            BigDecimal montante = new BigDecimal(valor.replace(',', '.'));
+            lancamento.setTipo(montante.signum() < 0 ? TipoLancamento.DESPESA : TipoLancamento.RECEITA);
+            lancamento.setValor(montante.abs());
+        } catch (NumberFormatException numberFormatException) {
+            return LinhaImportada.invalida(linha, "Informe um valor válido");
+        }
+        return LinhaImportada.valida(linha, lancamento);
+    }
+}
@@ -0,0 +1,21 @@
+package com.gabs.minhasfinancias.services.importacao;
+
+import com.gabs.minhasfinancias.model.entity.Lancamento;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class LinhaImportada {
+    private final long linha;
+    private final Lancamento lancamento;
+    private final String erro;
+
+    public static LinhaImportada valida(long linha, Lancamento lancamento) {
+        return new LinhaImportada(linha, lancamento, null);
+    }
+
+    public static LinhaImportada invalida(long linha, String erro) {
+        return new LinhaImportada(linha, null, erro);
+    }
+}
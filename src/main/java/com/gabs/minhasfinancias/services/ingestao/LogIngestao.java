@@ -0,0 +1,221 @@
+package com.gabs.minhasfinancias.services.ingestao;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gabs.minhasfinancias.annotations.Description;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*
+ LOG LOCAL DE INGESTAO, EM SEGMENTOS ingestao-<n>.log COM UMA LINHA POR REGISTRO:
+   A<TAB><json do PedidoIngestao>   pedido aceito (gravado e sincronizado antes da resposta 202)
+   C<TAB><protocolo>                pedido concluido (gravado no banco ou rejeitado)
+ A SINCRONIZACAO E EM GRUPO: QUEM ENCONTRA O DISCO JA SINCRONIZADO ATE A SUA ESCRITA NAO CHAMA force DE NOVO,
+ ENTAO PEDIDOS SIMULTANEOS DIVIDEM O MESMO fsync. UM SEGMENTO FECHADO E APAGADO QUANDO TODOS OS SEUS PEDIDOS
+ FOREM CONCLUIDOS; AO ABRIR, OS PEDIDOS SEM CONCLUSAO SAO DEVOLVIDOS PARA SEREM REPROCESSADOS
+ */
+@Slf4j
+public class LogIngestao implements Closeable {
+
+    private static final String PREFIXO = "ingestao-";
+    private static final String SUFIXO = ".log";
+    private static final char ACEITO = 'A';
+    private static final char CONCLUIDO = 'C';
+
+    private final Path diretorio;
+    private final long tamanhoSegmento;
+    private final boolean sincronizarDisco;
+    private final ObjectMapper objectMapper;
+
+    private final Object escrita = new Object();
+    private final Object sincronizacao = new Object();
+
+    // protegidos por escrita
+    private FileChannel canal;
+    private long segmentoAtual;
+    private long escritas;
+    private final Map<Long, Long> segmentoPorProtocolo = new HashMap<>();
+    private final Map<Long, Integer> pendentesPorSegmento = new HashMap<>();
+
+    // protegido por sincronizacao
+    private long escritasSincronizadas;
+
+    private long maiorProtocolo;
+
+    public LogIngestao(Path diretorio, long tamanhoSegmento, boolean sincronizarDisco, ObjectMapper objectMapper) {
+        this.diretorio = diretorio;
+        this.tamanhoSegmento = tamanhoSegmento;
+        this.sincronizarDisco = sincronizarDisco;
+        this.objectMapper = objectMapper;
+    }
+
+    @Description(value = "Lê os segmentos existentes, devolve os pedidos sem conclusão e abre um novo segmento para escrita")
+    public List<PedidoIngestao> abrir() throws IOException {
+        Files.createDirectories(diretorio);
+        synchronized (escrita) {
+            Map<Long, PedidoIngestao> pendentes = new LinkedHashMap<>();
+            for(long segmento : this.segmentosExistentes()) {
+                this.ler(segmento, pendentes);
+                segmentoAtual = segmento;
+            }
+            for(long segmento : this.segmentosExistentes()) {
+                if(!pendentesPorSegmento.containsKey(segmento)) {
+                    Files.deleteIfExists(this.arquivo(segmento));
+                }
+            }
+            this.abrirSegmento(segmentoAtual + 1);
+            return new ArrayList<>(pendentes.values());
+        }
+    }
+
+    // maior protocolo encontrado nos segmentos lidos em abrir(), concluídos ou não
+    public long getMaiorProtocolo() {
+        return maiorProtocolo;
+    }
+
+    @Description(value = "Registra um pedido aceito; ao retornar, o registro já está no disco")
+    public void registrar(PedidoIngestao pedido) throws IOException {
+        String linha = ACEITO + "\t" + objectMapper.writeValueAsString(pedido) + "\n";
+        long numero;
+        synchronized (escrita) {
+            if(canal.size() >= tamanhoSegmento) {
+                this.abrirSegmento(segmentoAtual + 1);
+            }
+            this.escrever(linha);
+            segmentoPorProtocolo.put(pedido.getProtocolo(), segmentoAtual);
+            pendentesPorSegmento.merge(segmentoAtual, 1, Integer::sum);
+            numero = ++escritas;
+        }
+        if(sincronizarDisco) {
+            this.sincronizar(numero);
+        }
+    }
+
+    @Description(value = "Registra a conclusão do pedido e apaga o segmento que não tiver mais pedidos pendentes")
+    public void concluir(long protocolo) throws IOException {
+        // sem fsync: se o registro se perder, o pedido é reaplicado e descartado pelo protocolo já gravado no banco
+        synchronized (escrita) {
+            this.escrever(CONCLUIDO + "\t" + protocolo + "\n");
+            Long segmento = segmentoPorProtocolo.remove(protocolo);
+            if(segmento != null && pendentesPorSegmento.merge(segmento, -1, Integer::sum) == 0) {
+                pendentesPorSegmento.remove(segmento);
+                if(segmento != segmentoAtual) {
+                    Files.deleteIfExists(this.arquivo(segmento));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (escrita) {
+            if(canal != null && canal.isOpen()) {
+                canal.force(false);
+                canal.close();
+            }
+        }
+    }
+
+    private void sincronizar(long numero) throws IOException {
+        synchronized (sincronizacao) {
+            if(escritasSincronizadas >= numero) {
+                return;
+            }
+            FileChannel canalAtual;
+            long alvo;
+            synchronized (escrita) {
+                canalAtual = canal;
+                alvo = escritas;
+            }
+            try {
+                canalAtual.force(false);
+            } catch (ClosedChannelException segmentoFechado) {
+                // a troca de segmento já sincronizou o canal antes de fechá-lo
+            }
+            escritasSincronizadas = alvo;
+        }
+    }
+
+    private void escrever(String linha) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(linha.getBytes(StandardCharsets.UTF_8));
+        while(buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+    }
+
+    private void abrirSegmento(long segmento) throws IOException {
+        FileChannel anterior = canal;
+        canal = FileChannel.open(this.arquivo(segmento), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if(anterior != null) {
+            anterior.force(false);
+            anterior.close();
+            if(!pendentesPorSegmento.containsKey(segmentoAtual)) {
+                Files.deleteIfExists(this.arquivo(segmentoAtual));
+            }
+        }
+        segmentoAtual = segmento;
+    }
+
+    private void ler(long segmento, Map<Long, PedidoIngestao> pendentes) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(this.arquivo(segmento), StandardCharsets.UTF_8)) {
+            String linha;
+            while((linha = reader.readLine()) != null) {
+                try {
+                    this.aplicar(segmento, linha, pendentes);
+                } catch (IOException | RuntimeException registroInvalido) {
+                    // a última linha pode ter ficado pela metade numa queda; ela nunca foi confirmada ao cliente
+                    log.warn("Registro inválido ignorado no segmento {} do log de ingestão", segmento);
+                }
+            }
+        }
+    }
+
+    private void aplicar(long segmento, String linha, Map<Long, PedidoIngestao> pendentes) throws IOException {
+        if(linha.length() < 2 || linha.charAt(1) != '\t') {
+            throw new IOException("registro sem tipo");
+        }
+        String conteudo = linha.substring(2);
+        if(linha.charAt(0) == ACEITO) {
+            PedidoIngestao pedido = objectMapper.readValue(conteudo, PedidoIngestao.class);
+            pendentes.put(pedido.getProtocolo(), pedido);
+            segmentoPorProtocolo.put(pedido.getProtocolo(), segmento);
+            pendentesPorSegmento.merge(segmento, 1, Integer::sum);
+            maiorProtocolo = Math.max(maiorProtocolo, pedido.getProtocolo());
+        } else if(linha.charAt(0) == CONCLUIDO) {
+            long protocolo = Long.parseLong(conteudo);
+            pendentes.remove(protocolo);
+            Long segmentoDoPedido = segmentoPorProtocolo.remove(protocolo);
+            if(segmentoDoPedido != null && pendentesPorSegmento.merge(segmentoDoPedido, -1, Integer::sum) == 0) {
+                pendentesPorSegmento.remove(segmentoDoPedido);
+            }
+        } else {
+            throw new IOException("tipo de registro desconhecido");
+        }
+    }
+
+    private List<Long> segmentosExistentes() throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.map(arquivo -> arquivo.getFileName().toString())
+                    .filter(nome -> nome.startsWith(PREFIXO) && nome.endsWith(SUFIXO))
+                    .map(nome -> Long.parseLong(nome.substring(PREFIXO.length(), nome.length() - SUFIXO.length())))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private Path arquivo(long segmento) {
+        return diretorio.resolve(PREFIXO + segmento + SUFIXO);
+    }
+}
@@ -0,0 +1,15 @@
+package com.gabs.minhasfinancias.services.ingestao;
+
+import com.gabs.minhasfinancias.dto.LancamentoDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// o que vai para o log de ingestão: o protocolo devolvido ao cliente e o lançamento com o usuário do token
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PedidoIngestao {
+    private long protocolo;
+    private LancamentoDTO lancamento;
+}
@@ -0,0 +1,87 @@
+package com.gabs.minhasfinancias.services.validacao;
+
+import com.gabs.minhasfinancias.annotations.Description;
+import com.gabs.minhasfinancias.dto.LancamentoDTO;
+import com.gabs.minhasfinancias.exception.LancamentoInvalidoException;
+import com.gabs.minhasfinancias.model.entity.Lancamento;
+import com.gabs.minhasfinancias.model.enums.StatusLancamento;
+import com.gabs.minhasfinancias.model.enums.TipoLancamento;
+
+import java.math.BigDecimal;
+
+import static com.gabs.minhasfinancias.model.enums.ViolacaoLancamento.*;
+
+/*
+ VALIDACAO DE LANCAMENTOS SEM ALOCACAO NO CAMINHO FELIZ: AS REGRAS SAO VERIFICADAS TODAS DE UMA VEZ E
+ O RESULTADO E UM int COM UM BIT POR VIOLACAO (ViolacaoLancamento); SO UM LANCAMENTO INVALIDO CRIA A EXCECAO
+ BRANCO SEM trim, ANO POR FAIXA NUMERICA E TIPO/STATUS PELAS TABELAS porNome DOS ENUMS
+ */
+public final class ValidadorLancamento {
+
+    private static final int ANO_MINIMO = 1000;
+    private static final int ANO_MAXIMO = 9999;
+
+    private ValidadorLancamento() {
+    }
+
+    @Description(value = "Verifica todas as regras da entidade e devolve as violações encontradas")
+    public static int verificar(Lancamento lancamento) {
+        int violacoes = verificar(lancamento.getDescricao(), lancamento.getMes(), lancamento.getAno(), lancamento.getValor());
+        if(lancamento.getUsuario() == null || lancamento.getUsuario().getId() == null) {
+            violacoes |= USUARIO.bit();
+        }
+        if(lancamento.getTipo() == null) {
+            violacoes |= TIPO.bit();
+        }
+        return violacoes;
+    }
+
+    // o usuário do DTO é ignorado: o dono é sempre o usuário do token
+    @Description(value = "Verifica todas as regras do DTO recebido, incluindo os nomes de tipo e status")
+    public static int verificar(LancamentoDTO dto) {
+        int violacoes = verificar(dto.getDescricao(), dto.getMes(), dto.getAno(), dto.getValor());
+        if(TipoLancamento.porNome(dto.getTipo()) == null) {
+            violacoes |= TIPO.bit();
+        }
+        if(dto.getStatus() != null && StatusLancamento.porNome(dto.getStatus()) == null) {
+            violacoes |= STATUS.bit();
+        }
+        return violacoes;
+    }
+
+    public static void exigirValido(int violacoes) {
+        if(violacoes != 0) {
+            throw new LancamentoInvalidoException(violacoes);
+        }
+    }
+
+    private static int verificar(String descricao, Integer mes, Integer ano, BigDecimal valor) {
+        int violacoes = 0;
+        if(emBranco(descricao)) {
+            violacoes |= DESCRICAO.bit();
+        }
+        if(mes == null || mes < 1 || mes > 12) {
+            violacoes |= MES.bit();
+        }
+        if(ano == null || ano < ANO_MINIMO || ano > ANO_MAXIMO) {
+            violacoes |= ANO.bit();
+        }
+        if(valor == null || valor.signum() <= 0) {
+            violacoes |= VALOR.bit();
+        }
+        return violacoes;
+    }
+
+    // mesmo critério de trim(): só caracteres até o espaço contam como branco
+    private static boolean emBranco(String texto) {
+        if(texto == null) {
+            return true;
+        }
+        for(int i = 0; i < texto.length(); i++) {
+            if(texto.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
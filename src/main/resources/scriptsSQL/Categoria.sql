@@ -0,0 +1,46 @@
+-- Table: financas.categoria
+-- categorias de lançamento de cada usuário; executar depois de Lancamento.sql, que já traz a coluna id_categoria
+
+-- DROP TABLE IF EXISTS financas.total_categoria;
+-- DROP TABLE IF EXISTS financas.categoria;
+
+CREATE TABLE IF NOT EXISTS financas.categoria (
+    id BIGSERIAL NOT NULL PRIMARY KEY,
+    nome VARCHAR(100) NOT NULL,
+    id_usuario BIGINT NOT NULL REFERENCES financas.usuario(id),
+    CONSTRAINT uk_categoria_usuario_nome UNIQUE (id_usuario, nome)
+);
+
+-- a chave estrangeira na tabela particionada vale para todas as partições; ao apagar uma categoria o
+-- CategoriaService limpa id_categoria dos lançamentos antes, na mesma transação
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'fk_lancamento_categoria') THEN
+        ALTER TABLE financas.lancamento ADD CONSTRAINT fk_lancamento_categoria
+            FOREIGN KEY (id_categoria) REFERENCES financas.categoria(id);
+    END IF;
+END
+$$;
+
+-- Table: financas.total_categoria
+-- receitas e despesas efetivadas por usuário, categoria e mês, mantidas a cada escrita de lançamento
+-- pelo CategoriaService e conferidas pelo SaldoReconciliacaoJob
+
+CREATE TABLE IF NOT EXISTS financas.total_categoria (
+    id BIGSERIAL NOT NULL PRIMARY KEY,
+    id_usuario BIGINT NOT NULL REFERENCES financas.usuario(id),
+    id_categoria BIGINT NOT NULL REFERENCES financas.categoria(id),
+    ano INTEGER NOT NULL,
+    mes INTEGER NOT NULL,
+    receitas NUMERIC(16, 2) NOT NULL DEFAULT 0,
+    despesas NUMERIC(16, 2) NOT NULL DEFAULT 0,
+    -- uma linha por mês: duas escritas que tentem criá-la juntas fazem a segunda repetir e somar na linha existente
+    CONSTRAINT uk_total_categoria_periodo UNIQUE (id_usuario, id_categoria, ano, mes)
+);
+
+-- remoção dos totais de uma categoria apagada
+CREATE INDEX IF NOT EXISTS idx_total_categoria_categoria
+    ON financas.total_categoria (id_categoria);
+
+--ALTER TABLE IF EXISTS financas.categoria
+--OWNER to postgres;
@@ -1,10 +1,47 @@
 -- Table: financas.lancamento
+-- particionada por faixa de (ano, mes), uma partição por ano (financas.lancamento_<ano>) e a partição
+-- financas.lancamento_padrao para anos ainda sem partição. as partições do ano corrente e dos seguintes são
+-- criadas pelo ParticaoLancamentoJob (financas.garantir_particoes_lancamento) na subida e todo mês
 
 -- DROP TABLE IF EXISTS financas.lancamento;
 
 
+-- bases anteriores ao particionamento: completa as colunas antes da migração no fim do script
+-- versão para controle otimista de concorrência (@Version de Lancamento)
+ALTER TABLE IF EXISTS financas.lancamento ADD COLUMN IF NOT EXISTS versao BIGINT NOT NULL DEFAULT 0;
+-- protocolo dos lançamentos recebidos pela ingestão assíncrona (IngestaoService); nulo nos demais
+ALTER TABLE IF EXISTS financas.lancamento ADD COLUMN IF NOT EXISTS protocolo_ingestao BIGINT;
+-- recorrência que gerou o lançamento (scriptsSQL/Recorrencia.sql); nulo nos demais
+ALTER TABLE IF EXISTS financas.lancamento ADD COLUMN IF NOT EXISTS id_recorrencia BIGINT;
+-- categoria do usuário (scriptsSQL/Categoria.sql, que cria a chave estrangeira); nulo nos lançamentos sem categoria
+ALTER TABLE IF EXISTS financas.lancamento ADD COLUMN IF NOT EXISTS id_categoria BIGINT;
+
+-- a tabela sem partições é renomeada para lancamento_sem_particao e copiada para a particionada mais abaixo;
+-- os índices antigos saem para que os nomes fiquem livres para os índices da nova tabela
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace
+               WHERE n.nspname = 'financas' AND c.relname = 'lancamento' AND c.relkind = 'r') THEN
+        DROP INDEX IF EXISTS financas.idx_lancamento_protocolo_ingestao;
+        DROP INDEX IF EXISTS financas.idx_lancamento_usuario_periodo;
+        DROP INDEX IF EXISTS financas.idx_lancamento_usuario_id;
+        DROP INDEX IF EXISTS financas.idx_lancamento_usuario_tipo_status;
+        DROP INDEX IF EXISTS financas.idx_lancamento_descricao_trgm;
+        DROP INDEX IF EXISTS financas.idx_lancamento_usuario_categoria;
+        ALTER TABLE financas.lancamento RENAME CONSTRAINT lancamento_pkey TO lancamento_sem_particao_pkey;
+        ALTER TABLE financas.lancamento RENAME TO lancamento_sem_particao;
+        ALTER SEQUENCE IF EXISTS financas.lancamento_id_seq OWNED BY NONE;
+    END IF;
+END
+$$;
+
+-- o hibernate reserva ids em blocos de 50 (allocationSize de Lancamento) para agrupar inserts em lote
+CREATE SEQUENCE IF NOT EXISTS financas.lancamento_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS financas.lancamento_id_seq INCREMENT BY 50;
+
+-- a chave primária de uma tabela particionada precisa conter a chave de partição; o id continua único pela sequence
 CREATE TABLE IF NOT EXISTS financas.lancamento (
-    id BIGSERIAL NOT NULL PRIMARY KEY,
+    id BIGINT NOT NULL DEFAULT nextval('financas.lancamento_id_seq'),
     descricao VARCHAR(150) NOT NULL,
     mes INTEGER NOT NULL,
     ano INTEGER NOT NULL,
@@ -12,8 +49,121 @@ CREATE TABLE IF NOT EXISTS financas.lancamento (
     tipo VARCHAR(20) CHECK (tipo in ('RECEITA', 'DESPESA')) NOT NULL,
     status VARCHAR(20) CHECK (status in ('EFETIVADO', 'CANCELADO', 'PENDENTE')) NOT NULL,
     id_usuario BIGINT REFERENCES financas.usuario(id),
-    data_cadastro DATE DEFAULT NOW()
-);
+    data_cadastro DATE DEFAULT NOW(),
+    versao BIGINT NOT NULL DEFAULT 0,
+    protocolo_ingestao BIGINT,
+    id_recorrencia BIGINT,
+    id_categoria BIGINT,
+    PRIMARY KEY (id, ano, mes)
+) PARTITION BY RANGE (ano, mes);
+
+ALTER SEQUENCE financas.lancamento_id_seq OWNED BY financas.lancamento.id;
+
+CREATE TABLE IF NOT EXISTS financas.lancamento_padrao PARTITION OF financas.lancamento DEFAULT;
+
+-- os índices criados na tabela particionada são replicados em cada partição, inclusive nas criadas depois
+
+-- o índice único impede que um pedido reaplicado do log de ingestão após uma queda seja gravado duas vezes;
+-- ele inclui a chave de partição, o que basta porque o pedido reaplicado traz o mesmo ano e mês
+CREATE UNIQUE INDEX IF NOT EXISTS idx_lancamento_protocolo_ingestao
+    ON financas.lancamento (protocolo_ingestao, ano, mes);
+
+-- uma ocorrência por recorrência e período: duas execuções do RecorrenciaJob ao mesmo tempo não duplicam o lançamento
+CREATE UNIQUE INDEX IF NOT EXISTS idx_lancamento_recorrencia_periodo
+    ON financas.lancamento (id_recorrencia, ano, mes);
+
+-- índices compostos na ordem dos filtros de LancamentoRepositoryImpl: (usuario), (usuario, ano), (usuario, ano, mes)
+-- e a ordenação por período (ano, mes, id) usada na paginação por chave
+CREATE INDEX IF NOT EXISTS idx_lancamento_usuario_periodo
+    ON financas.lancamento (id_usuario, ano, mes, id);
+
+-- paginação por chave na ordem de id
+CREATE INDEX IF NOT EXISTS idx_lancamento_usuario_id
+    ON financas.lancamento (id_usuario, id);
+
+-- filtros por tipo/status e as somas de saldo por tipo e status
+CREATE INDEX IF NOT EXISTS idx_lancamento_usuario_tipo_status
+    ON financas.lancamento (id_usuario, tipo, status) INCLUDE (valor);
+
+-- filtro por categoria e a reconciliação dos totais por categoria; também atende a chave estrangeira
+CREATE INDEX IF NOT EXISTS idx_lancamento_usuario_categoria
+    ON financas.lancamento (id_usuario, id_categoria, ano, mes, id);
+
+-- busca por trecho da descrição: lower(descricao) like '%x%'
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_lancamento_descricao_trgm
+    ON financas.lancamento USING gin (lower(descricao) gin_trgm_ops);
+
+-- cria a partição do ano, movendo para ela as linhas desse ano que estiverem na partição padrão
+CREATE OR REPLACE FUNCTION financas.criar_particao_lancamento(p_ano INTEGER) RETURNS BOOLEAN AS $$
+DECLARE
+    v_particao TEXT := 'lancamento_' || p_ano;
+BEGIN
+    IF to_regclass('financas.' || v_particao) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+    -- a partição é montada fora da tabela: anexá-la com linhas do mesmo ano na partição padrão falharia
+    EXECUTE format('CREATE TABLE financas.%I (LIKE financas.lancamento INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', v_particao);
+    EXECUTE format('WITH movidas AS (DELETE FROM financas.lancamento_padrao WHERE ano = %s RETURNING *) '
+                   'INSERT INTO financas.%I SELECT * FROM movidas', p_ano, v_particao);
+    EXECUTE format('ALTER TABLE financas.lancamento ATTACH PARTITION financas.%I '
+                   'FOR VALUES FROM (%s, MINVALUE) TO (%s, MINVALUE)', v_particao, p_ano, p_ano + 1);
+    RETURN TRUE;
+END
+$$ LANGUAGE plpgsql;
+
+-- garante as partições de p_ano_inicial a p_ano_final e devolve quantas foram criadas;
+-- o lock consultivo serializa instâncias da aplicação que rodem o job ao mesmo tempo
+CREATE OR REPLACE FUNCTION financas.garantir_particoes_lancamento(p_ano_inicial INTEGER, p_ano_final INTEGER) RETURNS INTEGER AS $$
+DECLARE
+    v_criadas INTEGER := 0;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('financas.lancamento'));
+    FOR v_ano IN p_ano_inicial..p_ano_final LOOP
+        IF financas.criar_particao_lancamento(v_ano) THEN
+            v_criadas := v_criadas + 1;
+        END IF;
+    END LOOP;
+    RETURN v_criadas;
+END
+$$ LANGUAGE plpgsql;
+
+-- move a partição de um ano encerrado para um tablespace mais barato; ela continua anexada,
+-- então relatórios e a reconciliação de saldo seguem enxergando o ano, mas consultas de outros períodos não a tocam
+CREATE OR REPLACE FUNCTION financas.arquivar_particao_lancamento(p_ano INTEGER, p_tablespace TEXT) RETURNS VOID AS $$
+BEGIN
+    EXECUTE format('ALTER TABLE financas.%I SET TABLESPACE %I', 'lancamento_' || p_ano, p_tablespace);
+END
+$$ LANGUAGE plpgsql;
+
+-- retira o ano da tabela, mantendo os dados em financas.lancamento_<ano> para exportação ou descarte;
+-- depois disso o ano some das consultas e a reconciliação passa a calcular o saldo sem ele
+CREATE OR REPLACE FUNCTION financas.desanexar_particao_lancamento(p_ano INTEGER) RETURNS VOID AS $$
+BEGIN
+    EXECUTE format('ALTER TABLE financas.lancamento DETACH PARTITION financas.%I', 'lancamento_' || p_ano);
+END
+$$ LANGUAGE plpgsql;
+
+-- migração: copia a tabela antiga para as partições; lancamento_sem_particao fica para ser apagada após conferência
+DO $$
+DECLARE
+    v_ano_inicial INTEGER;
+    v_ano_final INTEGER;
+BEGIN
+    IF to_regclass('financas.lancamento_sem_particao') IS NOT NULL
+            AND NOT EXISTS (SELECT 1 FROM financas.lancamento) THEN
+        SELECT min(ano), max(ano) INTO v_ano_inicial, v_ano_final FROM financas.lancamento_sem_particao;
+        IF v_ano_inicial IS NOT NULL THEN
+            PERFORM financas.garantir_particoes_lancamento(v_ano_inicial, v_ano_final);
+        END IF;
+        INSERT INTO financas.lancamento (id, descricao, mes, ano, valor, tipo, status, id_usuario, data_cadastro, versao, protocolo_ingestao, id_recorrencia, id_categoria)
+            SELECT id, descricao, mes, ano, valor, tipo, status, id_usuario, data_cadastro, versao, protocolo_ingestao, id_recorrencia, id_categoria
+            FROM financas.lancamento_sem_particao;
+    END IF;
+END
+$$;
+
+SELECT financas.garantir_particoes_lancamento(extract(year FROM now())::INTEGER, extract(year FROM now())::INTEGER + 1);
 
 --ALTER TABLE IF EXISTS financas.lancamento
---OWNER to postgres;
\ No newline at end of file
+--OWNER to postgres;
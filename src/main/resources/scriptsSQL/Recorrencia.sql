@@ -0,0 +1,32 @@
+-- Table: financas.recorrencia
+-- lançamentos mensais ou anuais; as ocorrências são gravadas em financas.lancamento pelo RecorrenciaJob
+
+-- DROP TABLE IF EXISTS financas.recorrencia;
+
+CREATE TABLE IF NOT EXISTS financas.recorrencia (
+    id BIGSERIAL NOT NULL PRIMARY KEY,
+    descricao VARCHAR(150) NOT NULL,
+    id_usuario BIGINT NOT NULL REFERENCES financas.usuario(id),
+    valor NUMERIC(16, 2) NOT NULL,
+    tipo VARCHAR(20) CHECK (tipo in ('RECEITA', 'DESPESA')) NOT NULL,
+    periodicidade VARCHAR(20) CHECK (periodicidade in ('MENSAL', 'ANUAL')) NOT NULL,
+    ano_inicial INTEGER NOT NULL,
+    mes_inicial INTEGER NOT NULL,
+    ano_final INTEGER,
+    mes_final INTEGER,
+    -- próxima ocorrência ainda não gravada, avançada na mesma transação dos lançamentos; nula quando terminou
+    proximo_ano INTEGER,
+    proximo_mes INTEGER,
+    data_cadastro DATE DEFAULT NOW(),
+    versao BIGINT NOT NULL DEFAULT 0
+);
+
+-- recorrências com ocorrência pendente até o horizonte, percorridas em ordem de id por fatia de usuários
+CREATE INDEX IF NOT EXISTS idx_recorrencia_proxima
+    ON financas.recorrencia (proximo_ano, proximo_mes, id) WHERE proximo_ano IS NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_recorrencia_usuario
+    ON financas.recorrencia (id_usuario, id);
+
+--ALTER TABLE IF EXISTS financas.recorrencia
+--OWNER to postgres;
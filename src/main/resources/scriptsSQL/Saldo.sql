@@ -0,0 +1,22 @@
+-- Table: financas.saldo_usuario / financas.saldo_mensal
+-- projeção do saldo efetivado, mantida pelas escritas de lançamento
+
+-- DROP TABLE IF EXISTS financas.saldo_mensal;
+-- DROP TABLE IF EXISTS financas.saldo_usuario;
+
+CREATE TABLE IF NOT EXISTS financas.saldo_usuario (
+    id_usuario BIGINT NOT NULL PRIMARY KEY REFERENCES financas.usuario(id),
+    saldo NUMERIC(16, 2) NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS financas.saldo_mensal (
+    id BIGSERIAL NOT NULL PRIMARY KEY,
+    id_usuario BIGINT NOT NULL REFERENCES financas.usuario(id),
+    ano INTEGER NOT NULL,
+    mes INTEGER NOT NULL,
+    saldo NUMERIC(16, 2) NOT NULL DEFAULT 0,
+    UNIQUE (id_usuario, ano, mes)
+);
+
+--ALTER TABLE IF EXISTS financas.saldo_usuario
+--OWNER to postgres;
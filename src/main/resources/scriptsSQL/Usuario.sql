@@ -12,5 +12,8 @@ CREATE TABLE IF NOT EXISTS financas.usuario (
 
 TABLESPACE pg_default;
 
+-- a senha passa a guardar o hash com prefixo do algoritmo ({bcrypt}$2a$10$...)
+ALTER TABLE IF EXISTS financas.usuario ALTER COLUMN senha TYPE VARCHAR(255);
+
 --ALTER TABLE IF EXISTS financas.usuario
 --OWNER to postgres;
\ No newline at end of file
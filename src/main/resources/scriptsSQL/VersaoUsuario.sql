@@ -0,0 +1,12 @@
+-- Table: financas.versao_usuario
+-- versão dos dados de lançamento de cada usuário, incrementada a cada escrita; base das ETags das consultas
+
+-- DROP TABLE IF EXISTS financas.versao_usuario;
+
+CREATE TABLE IF NOT EXISTS financas.versao_usuario (
+    id_usuario BIGINT NOT NULL PRIMARY KEY REFERENCES financas.usuario(id),
+    versao BIGINT NOT NULL DEFAULT 0
+);
+
+--ALTER TABLE IF EXISTS financas.versao_usuario
+--OWNER to postgres;
@@ -0,0 +1,68 @@
+package com.gabs.minhasfinancias.config;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+public class ExecucaoRequisicoesTest {
+
+    @Test
+    public void deveExecutarNaPropriaThreadNoModoBloqueante() {
+        ExecucaoRequisicoes execucao = new ExecucaoRequisicoes(ExecucaoConfiguration.Modo.BLOQUEANTE, 1, 1);
+
+        CompletableFuture<String> resultado = execucao.executar(() -> Thread.currentThread().getName());
+
+        Assertions.assertThat(resultado).isCompletedWithValue(Thread.currentThread().getName());
+    }
+
+    @Test
+    public void deveExecutarNoPoolLimitadoNoModoAssincrono() throws Exception {
+        ExecucaoRequisicoes execucao = new ExecucaoRequisicoes(ExecucaoConfiguration.Modo.ASSINCRONO, 1, 1);
+        try {
+            Assertions.assertThat(execucao.executar(() -> Thread.currentThread().getName()).get()).startsWith("requisicao-");
+        } finally {
+            execucao.encerrar();
+        }
+    }
+
+    @Test
+    public void deveRecusarComServicoIndisponivelQuandoOPoolEstiverCheio() throws Exception {
+        ExecucaoRequisicoes execucao = new ExecucaoRequisicoes(ExecucaoConfiguration.Modo.ASSINCRONO, 1, 1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        try {
+            execucao.executar(() -> aguardar(liberar));
+            execucao.executar(() -> aguardar(liberar));
+
+            Assertions.assertThatThrownBy(() -> execucao.executar(() -> "recusada"))
+                    .isInstanceOf(ResponseStatusException.class)
+                    .extracting("status").isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        } finally {
+            liberar.countDown();
+            execucao.encerrar();
+        }
+    }
+
+    @Test
+    public void deveExigirJava21ParaOModoVirtual() {
+        if(Runtime.version().feature() >= 21) {
+            Assertions.assertThat(ExecucaoConfiguration.criarExecutorVirtual()).isNotNull();
+        } else {
+            Assertions.assertThatThrownBy(ExecucaoConfiguration::criarExecutorVirtual)
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("Java 21");
+        }
+    }
+
+    private static String aguardar(CountDownLatch liberar) {
+        try {
+            liberar.await();
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+        return "liberada";
+    }
+}
@@ -0,0 +1,119 @@
+package com.gabs.minhasfinancias.config;
+
+import com.gabs.minhasfinancias.dto.LancamentoFiltro;
+import com.gabs.minhasfinancias.model.entity.Lancamento;
+import com.gabs.minhasfinancias.model.entity.Usuario;
+import com.gabs.minhasfinancias.repositories.LancamentoRepositoryTest;
+import com.gabs.minhasfinancias.repositories.UsuarioRepository;
+import com.gabs.minhasfinancias.services.LancamentoService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/*
+ PRIMARIO E REPLICA APONTAM PARA O MESMO BANCO H2; O POOL QUE ATENDEU CADA LEITURA
+ E IDENTIFICADO PELO TIMER hikaricp.connections.usage DE CADA POOL
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + RoteamentoDataSourceTest.URL,
+        "minhasfinancas.datasource.replica.jdbc-url=" + RoteamentoDataSourceTest.URL,
+        "minhasfinancas.datasource.replica.username=sa",
+        "minhasfinancas.datasource.replica.password=sa",
+        "minhasfinancas.datasource.replica.maximum-pool-size=2",
+        "minhasfinancas.datasource.atraso.consulta=select 0",
+        "minhasfinancas.saldo.reconciliacao.habilitada=false"})
+@ActiveProfiles("test")
+public class RoteamentoDataSourceTest {
+
+    static final String URL = "jdbc:h2:mem:roteamento;DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS financas";
+
+    @Autowired
+    LancamentoService lancamentoService;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Autowired
+    ConsistenciaLeitura consistencia;
+
+    @Autowired
+    MeterRegistry registry;
+
+    Usuario usuario;
+
+    @BeforeEach
+    public void setUp() {
+        usuario = usuarioRepository.save(Usuario.builder().nome("usuario").email("roteamento" + System.nanoTime() + "@email.com").senha("senha").build());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        consistencia.atualizarAtraso(0);
+    }
+
+    private long usos(String pool) {
+        Timer timer = registry.find("hikaricp.connections.usage").tag("pool", pool).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private void buscar(Usuario usuario) {
+        lancamentoService.buscar(LancamentoFiltro.builder().usuario(usuario.getId()).build());
+    }
+
+    @Test
+    public void deveLerDaReplicaEmTransacaoSomenteLeitura() {
+        long replica = usos(RoteamentoDataSource.REPLICA);
+
+        lancamentoService.obterTotaisMensais(usuario.getId(), 2022, 2022);
+        buscar(usuario);
+
+        Assertions.assertThat(usos(RoteamentoDataSource.REPLICA)).isEqualTo(replica + 2);
+    }
+
+    @Test
+    public void deveLerDoPrimarioLogoAposSalvar() {
+        Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+        lancamento.setUsuario(usuario);
+        lancamentoService.salvar(lancamento);
+        Usuario outroUsuario = usuarioRepository.save(Usuario.builder().nome("outro").email("outro" + System.nanoTime() + "@email.com").senha("senha").build());
+
+        long replica = usos(RoteamentoDataSource.REPLICA);
+        long primario = usos(RoteamentoDataSource.PRIMARIO);
+        buscar(usuario);
+        Assertions.assertThat(usos(RoteamentoDataSource.REPLICA)).isEqualTo(replica);
+        Assertions.assertThat(usos(RoteamentoDataSource.PRIMARIO)).isEqualTo(primario + 1);
+
+        // a leitura própria não afeta os demais usuários
+        buscar(outroUsuario);
+        Assertions.assertThat(usos(RoteamentoDataSource.REPLICA)).isEqualTo(replica + 1);
+    }
+
+    @Test
+    public void deveLerDoPrimarioComAReplicaAtrasadaOuIndisponivel() {
+        long replica = usos(RoteamentoDataSource.REPLICA);
+
+        consistencia.atualizarAtraso(60000);
+        buscar(usuario);
+        consistencia.marcarReplicaIndisponivel();
+        buscar(usuario);
+
+        Assertions.assertThat(usos(RoteamentoDataSource.REPLICA)).isEqualTo(replica);
+    }
+
+    @Test
+    public void deveEscreverSempreNoPrimario() {
+        long replica = usos(RoteamentoDataSource.REPLICA);
+
+        Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+        lancamento.setUsuario(usuario);
+        lancamentoService.salvar(lancamento);
+
+        Assertions.assertThat(usos(RoteamentoDataSource.REPLICA)).isEqualTo(replica);
+    }
+}
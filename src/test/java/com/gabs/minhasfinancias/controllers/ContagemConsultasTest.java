@@ -0,0 +1,192 @@
+package com.gabs.minhasfinancias.controllers;
+
+import com.gabs.minhasfinancias.model.entity.Lancamento;
+import com.gabs.minhasfinancias.model.entity.Usuario;
+import com.gabs.minhasfinancias.model.entity.VersaoUsuario;
+import com.gabs.minhasfinancias.model.enums.StatusLancamento;
+import com.gabs.minhasfinancias.model.enums.TipoLancamento;
+import com.gabs.minhasfinancias.repositories.LancamentoRepository;
+import com.gabs.minhasfinancias.repositories.UsuarioRepository;
+import com.gabs.minhasfinancias.repositories.VersaoUsuarioRepository;
+import com.gabs.minhasfinancias.services.TokenService;
+import com.gabs.minhasfinancias.services.VersaoUsuarioService;
+import org.assertj.core.api.Assertions;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ CONTA AS INSTRUCOES SQL PREPARADAS POR ENDPOINT COM AS ESTATISTICAS DO HIBERNATE
+ UM N+1 OU UM RELACIONAMENTO EAGER QUE VOLTE A SER CARREGADO FAZ A CONTAGEM SUBIR E O TESTE FALHAR
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ContagemConsultasTest {
+
+    static final String API = "/api/lancamentos";
+    static final MediaType JSON = MediaType.APPLICATION_JSON;
+    static final int QUANTIDADE = 20;
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Autowired
+    LancamentoRepository lancamentoRepository;
+
+    @Autowired
+    TokenService tokenService;
+
+    @Autowired
+    VersaoUsuarioRepository versaoUsuarioRepository;
+
+    @Autowired
+    VersaoUsuarioService versaoUsuarioService;
+
+    Statistics estatisticas;
+    Usuario usuario;
+    List<Lancamento> lancamentos;
+
+    @BeforeEach
+    public void setUp() {
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        usuario = usuarioRepository.save(Usuario.builder().nome("usuario").email("contagem" + System.nanoTime() + "@email.com").senha("senha").build());
+
+        List<Lancamento> novos = new ArrayList<>();
+        for(int i = 0; i < QUANTIDADE; i++) {
+            novos.add(Lancamento.builder()
+                    .descricao("lancamento " + i)
+                    .ano(2022)
+                    .mes(1 + i % 12)
+                    .valor(BigDecimal.TEN)
+                    .tipo(TipoLancamento.RECEITA)
+                    .status(StatusLancamento.PENDENTE)
+                    .usuario(usuario)
+                    .build());
+        }
+        lancamentos = lancamentoRepository.saveAll(novos);
+
+        // regime permanente: a linha de versão já existe e a versão já está em cache
+        versaoUsuarioRepository.save(VersaoUsuario.builder().idUsuario(usuario.getId()).versao(0L).build());
+        versaoUsuarioService.obterVersao(usuario.getId());
+    }
+
+    private MockHttpServletRequestBuilder autenticado(MockHttpServletRequestBuilder request) {
+        return request.header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenService.emitir(usuario.getId())).accept(JSON);
+    }
+
+    private long contarInstrucoes(MockHttpServletRequestBuilder request) throws Exception {
+        this.executar(request);
+        return estatisticas.getPrepareStatementCount();
+    }
+
+    private MvcResult executar(MockHttpServletRequestBuilder request) throws Exception {
+        estatisticas.clear();
+        MvcResult resultado = mvc.perform(request).andReturn();
+        if(resultado.getRequest().isAsyncStarted()) {
+            resultado = mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado)).andReturn();
+        }
+        Assertions.assertThat(resultado.getResponse().getStatus()).isLessThan(400);
+        return resultado;
+    }
+
+    private long usuariosCarregados() {
+        return estatisticas.getEntityStatistics(Usuario.class.getName()).getLoadCount();
+    }
+
+    @Test
+    public void deveBuscarUmaPaginaComUmaUnicaConsultaSemCarregarUsuarios() throws Exception {
+        long instrucoes = contarInstrucoes(autenticado(MockMvcRequestBuilders.get(API)).param("limite", "50"));
+
+        Assertions.assertThat(instrucoes).isEqualTo(1);
+        Assertions.assertThat(usuariosCarregados()).isZero();
+        Assertions.assertThat(estatisticas.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    public void deveBuscarEmStreamComUmaUnicaConsultaSemCarregarUsuarios() throws Exception {
+        long instrucoes = contarInstrucoes(autenticado(MockMvcRequestBuilders.get(API.concat("/stream"))));
+
+        Assertions.assertThat(instrucoes).isEqualTo(1);
+        Assertions.assertThat(estatisticas.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    public void deveBuscarPorIdSemCarregarOUsuario() throws Exception {
+        long instrucoes = contarInstrucoes(autenticado(MockMvcRequestBuilders.get(API.concat("/" + lancamentos.get(0).getId()))));
+
+        Assertions.assertThat(instrucoes).isEqualTo(1);
+        Assertions.assertThat(usuariosCarregados()).isZero();
+    }
+
+    @Test
+    public void deveCarregarOUsuarioPeloGrafoNaAtualizacaoDeStatus() throws Exception {
+        long instrucoes = contarInstrucoes(autenticado(MockMvcRequestBuilders.put(API.concat("/" + lancamentos.get(0).getId() + "/atualiza-status")))
+                .contentType(JSON)
+                .content("{\"status\":\"CANCELADO\"}"));
+
+        // select com join do grafo, select do estado anterior, update do lançamento e da versão; CANCELADO não altera o saldo
+        Assertions.assertThat(instrucoes).isEqualTo(4);
+        Assertions.assertThat(usuariosCarregados()).isEqualTo(1);
+    }
+
+    @Test
+    public void deveAtualizarOStatusDoPeriodoComInstrucoesConstantes() throws Exception {
+        long instrucoes = contarInstrucoes(autenticado(MockMvcRequestBuilders.put(API.concat("/atualiza-status")))
+                .contentType(JSON)
+                .content("{\"status\":\"CANCELADO\",\"ano\":2022}"));
+
+        // leitura das versões, select for update das linhas ainda na versão lida, um único update e o update da versão
+        // do usuário, independente da quantidade de lançamentos
+        Assertions.assertThat(instrucoes).isEqualTo(4);
+        Assertions.assertThat(estatisticas.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    public void deveResponderNotModifiedSemNenhumaConsulta() throws Exception {
+        String etag = executar(autenticado(MockMvcRequestBuilders.get(API))).getResponse().getHeader(HttpHeaders.ETAG);
+
+        MvcResult resultado = executar(autenticado(MockMvcRequestBuilders.get(API)).header(HttpHeaders.IF_NONE_MATCH, etag));
+
+        Assertions.assertThat(resultado.getResponse().getStatus()).isEqualTo(304);
+        Assertions.assertThat(estatisticas.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    public void deveTrocarAEtagDepoisDeUmaEscrita() throws Exception {
+        String etag = executar(autenticado(MockMvcRequestBuilders.get(API))).getResponse().getHeader(HttpHeaders.ETAG);
+        executar(autenticado(MockMvcRequestBuilders.put(API.concat("/" + lancamentos.get(0).getId() + "/atualiza-status")))
+                .contentType(JSON)
+                .content("{\"status\":\"CANCELADO\"}"));
+
+        MvcResult resultado = executar(autenticado(MockMvcRequestBuilders.get(API)).header(HttpHeaders.IF_NONE_MATCH, etag));
+
+        Assertions.assertThat(resultado.getResponse().getStatus()).isEqualTo(200);
+        Assertions.assertThat(resultado.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+    }
+}
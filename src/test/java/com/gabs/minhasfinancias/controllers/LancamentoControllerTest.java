@@ -0,0 +1,410 @@
+package com.gabs.minhasfinancias.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.gabs.minhasfinancias.config.ExecucaoRequisicoes;
+import com.gabs.minhasfinancias.dto.LancamentoDTO;
+import com.gabs.minhasfinancias.dto.LancamentoFiltro;
+import com.gabs.minhasfinancias.dto.ResultadoStatusDTO;
+import com.gabs.minhasfinancias.dto.SituacaoIngestaoDTO;
+import com.gabs.minhasfinancias.exception.FilaCheiaException;
+import com.gabs.minhasfinancias.model.entity.Lancamento;
+import com.gabs.minhasfinancias.model.entity.Usuario;
+import com.gabs.minhasfinancias.model.enums.OrdemLancamento;
+import com.gabs.minhasfinancias.model.enums.ResultadoAtualizacao;
+import com.gabs.minhasfinancias.model.enums.SituacaoIngestao;
+import com.gabs.minhasfinancias.model.enums.StatusLancamento;
+import com.gabs.minhasfinancias.repositories.LancamentoRepositoryTest;
+import com.gabs.minhasfinancias.services.CategoriaService;
+import com.gabs.minhasfinancias.services.ImportacaoService;
+import com.gabs.minhasfinancias.services.IngestaoService;
+import com.gabs.minhasfinancias.services.LancamentoService;
+import com.gabs.minhasfinancias.services.TokenService;
+import com.gabs.minhasfinancias.services.UsuarioService;
+import com.gabs.minhasfinancias.services.VersaoUsuarioService;
+import com.gabs.minhasfinancias.services.impl.ExportacaoServiceImpl;
+import com.gabs.minhasfinancias.services.impl.TokenServiceImpl;
+import org.assertj.core.api.Assertions;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@WebMvcTest(controllers = LancamentoController.class)
+@Import({TokenServiceImpl.class, ExecucaoRequisicoes.class, ExportacaoServiceImpl.class})
+@AutoConfigureMockMvc
+@SuppressWarnings({"unused", "unchecked"})
+public class LancamentoControllerTest {
+
+    static final String API = "/api/lancamentos";
+    static final MediaType JSON = MediaType.APPLICATION_JSON;
+
+    @Autowired
+    MockMvc mvc;
+
+    @MockBean
+    LancamentoService service;
+
+    @MockBean
+    UsuarioService usuarioService;
+
+    @MockBean
+    ImportacaoService importacaoService;
+
+    @MockBean
+    VersaoUsuarioService versaoUsuarioService;
+
+    @MockBean
+    IngestaoService ingestaoService;
+
+    @MockBean
+    CategoriaService categoriaService;
+
+    @Autowired
+    TokenService tokenService;
+
+    private MockHttpServletRequestBuilder autenticado(MockHttpServletRequestBuilder request, Long idUsuario) {
+        return request.header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenService.emitir(idUsuario));
+    }
+
+    // as leituras devolvem CompletableFuture e completam num segundo dispatch
+    private ResultActions executarAssincrono(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult resultado = mvc.perform(request)
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        return mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado));
+    }
+
+    private Lancamento criarLancamento(Long id) {
+        Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+        lancamento.setId(id);
+        lancamento.setUsuario(Usuario.builder().id(1L).build());
+        return lancamento;
+    }
+
+    private LancamentoDTO criarLancamentoDTO(Long id) {
+        return LancamentoDTO.builder().id(id).descricao("lancamento").usuario(1L).tipo("RECEITA").status("PENDENTE").build();
+    }
+
+    @Test
+    public void deveRetornarUmaPaginaComOProximoCursor() throws Exception {
+        Mockito.when(service.buscar(Mockito.any(LancamentoFiltro.class), Mockito.any(), Mockito.eq(OrdemLancamento.ID), Mockito.eq(2)))
+                .thenReturn(List.of(criarLancamentoDTO(1L), criarLancamentoDTO(2L)));
+
+        MockHttpServletRequestBuilder request = autenticado(MockMvcRequestBuilders.get(API), 1L)
+                .param("limite", "2")
+                .accept(JSON);
+
+        executarAssincrono(request)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(LancamentoController.HEADER_PROXIMO_CURSOR, "2"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].usuario").value(1));
+
+        Mockito.verify(service).buscar(Mockito.argThat(filtro -> filtro.getUsuario() == 1L), Mockito.any(), Mockito.any(), Mockito.any());
+        Mockito.verifyNoInteractions(usuarioService);
+    }
+
+    @Test
+    public void deveRetornarAPaginaEmCborQuandoSolicitado() throws Exception {
+        Mockito.when(service.buscar(Mockito.any(LancamentoFiltro.class), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(List.of(criarLancamentoDTO(1L), criarLancamentoDTO(2L)));
+        MediaType cbor = MediaType.parseMediaType("application/cbor");
+
+        byte[] corpo = executarAssincrono(autenticado(MockMvcRequestBuilders.get(API), 1L).accept(cbor))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(cbor))
+                .andExpect(MockMvcResultMatchers.header().stringValues(HttpHeaders.VARY, Matchers.hasItem(HttpHeaders.ACCEPT)))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        LancamentoDTO[] lancamentos = new CBORMapper().readValue(corpo, LancamentoDTO[].class);
+        Assertions.assertThat(lancamentos).extracting(LancamentoDTO::getId).containsExactly(1L, 2L);
+        Assertions.assertThat(corpo.length).isLessThan(new ObjectMapper().writeValueAsBytes(lancamentos).length);
+    }
+
+    @Test
+    public void deveRetornarNotModifiedSemConsultarQuandoAVersaoNaoMudou() throws Exception {
+        Mockito.when(versaoUsuarioService.obterVersao(1L)).thenReturn(3L);
+
+        executarAssincrono(autenticado(MockMvcRequestBuilders.get(API), 1L).header(HttpHeaders.IF_NONE_MATCH, "W/\"1-3\""))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "W/\"1-3\""));
+        executarAssincrono(autenticado(MockMvcRequestBuilders.get(API.concat("/5")), 1L).header(HttpHeaders.IF_NONE_MATCH, "W/\"1-3\""))
+                .andExpect(MockMvcResultMatchers.status().isNotModified());
+        Mockito.verifyNoInteractions(service);
+
+        // outra versão: a consulta roda e a resposta traz a ETag nova
+        Mockito.when(versaoUsuarioService.obterVersao(1L)).thenReturn(4L);
+        executarAssincrono(autenticado(MockMvcRequestBuilders.get(API), 1L).header(HttpHeaders.IF_NONE_MATCH, "W/\"1-3\""))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "W/\"1-4\""));
+    }
+
+    @Test
+    public void deveRetornarUnauthorizedSemTokenOuComTokenInvalido() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get(API).param("usuario", "1").accept(JSON))
+                .andExpect(MockMvcResultMatchers.status().isUnauthorized())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.WWW_AUTHENTICATE, "Bearer"));
+
+        String token = tokenService.emitir(1L);
+        mvc.perform(MockMvcRequestBuilders.get(API).header(HttpHeaders.AUTHORIZATION, "Bearer " + token + "x").accept(JSON))
+                .andExpect(MockMvcResultMatchers.status().isUnauthorized());
+
+        Mockito.verifyNoInteractions(service, usuarioService);
+    }
+
+    @Test
+    public void naoDeveRetornarUmLancamentoDeOutroUsuario() throws Exception {
+        Mockito.when(service.buscarPorId(5L)).thenReturn(Optional.of(criarLancamento(5L)));
+
+        executarAssincrono(autenticado(MockMvcRequestBuilders.get(API.concat("/5")), 2L).accept(JSON))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+
+        executarAssincrono(autenticado(MockMvcRequestBuilders.get(API.concat("/5")), 1L).accept(JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("id").value(5));
+    }
+
+    @Test
+    public void deveRetornarBadRequestParaUmCursorInvalido() throws Exception {
+
+        MockHttpServletRequestBuilder request = autenticado(MockMvcRequestBuilders.get(API), 1L)
+                .param("cursor", "abc")
+                .accept(JSON);
+
+        executarAssincrono(request).andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    public void deveEscreverOsLancamentosEmStream() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            Consumer<LancamentoDTO> consumidor = invocation.getArgument(2);
+            consumidor.accept(criarLancamentoDTO(1L));
+            consumidor.accept(criarLancamentoDTO(2L));
+            return null;
+        }).when(service).percorrer(Mockito.any(LancamentoFiltro.class), Mockito.eq(OrdemLancamento.ID), Mockito.any());
+
+        MvcResult resultado = mvc.perform(autenticado(MockMvcRequestBuilders.get(API.concat("/stream")), 1L))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].id").value(2));
+    }
+
+    @Test
+    public void deveExportarOsLancamentosEmCsvComoAnexo() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            Consumer<LancamentoDTO> consumidor = invocation.getArgument(2);
+            consumidor.accept(new LancamentoDTO(1L, "salario", 1, 2022, new BigDecimal("1500.00"), 1L, "RECEITA", "EFETIVADO", 7L));
+            consumidor.accept(new LancamentoDTO(2L, "aluguel, janeiro", 1, 2022, new BigDecimal("800.00"), 1L, "DESPESA", "PENDENTE", null));
+            return null;
+        }).when(service).percorrer(Mockito.argThat(filtro -> filtro.getUsuario() == 1L && filtro.getAno() == 2022),
+                Mockito.eq(OrdemLancamento.PERIODO), Mockito.any());
+
+        MvcResult resultado = mvc.perform(autenticado(MockMvcRequestBuilders.get(API.concat("/exportacao")).param("ano", "2022"), 1L))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"lancamentos.csv\""))
+                .andExpect(MockMvcResultMatchers.content().string("id,descricao,mes,ano,valor,tipo,status,categoria\n" +
+                        "1,salario,1,2022,1500.00,RECEITA,EFETIVADO,7\n" +
+                        "2,\"aluguel, janeiro\",1,2022,800.00,DESPESA,PENDENTE,\n"));
+    }
+
+    @Test
+    public void deveSalvarUmLancamentoUsandoApenasAReferenciaDoUsuario() throws Exception {
+        Usuario referencia = Usuario.builder().id(1L).build();
+        Mockito.when(usuarioService.obterReferencia(1L)).thenReturn(referencia);
+        Mockito.when(service.salvar(Mockito.any(Lancamento.class))).thenAnswer(invocation -> {
+            Lancamento lancamento = invocation.getArgument(0);
+            lancamento.setId(10L);
+            return lancamento;
+        });
+
+        String json = "{\"descricao\":\"Aluguel\",\"mes\":10,\"ano\":2022,\"valor\":100,\"usuario\":2,\"tipo\":\"DESPESA\"}";
+        MockHttpServletRequestBuilder request = autenticado(MockMvcRequestBuilders.post(API), 1L)
+                .accept(JSON)
+                .contentType(JSON)
+                .content(json);
+
+        mvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.jsonPath("id").value(10))
+                .andExpect(MockMvcResultMatchers.jsonPath("usuario").value(1));
+
+        Mockito.verify(service).salvar(Mockito.argThat(lancamento -> lancamento.getUsuario() == referencia));
+        Mockito.verify(usuarioService, Mockito.never()).obterPorId(Mockito.anyLong());
+    }
+
+    @Test
+    public void deveRecusarUmLancamentoInvalidoInformandoTodasAsViolacoes() throws Exception {
+        String json = "{\"descricao\":\" \",\"mes\":10,\"ano\":22,\"valor\":100,\"tipo\":\"TRANSFERENCIA\"}";
+        MockHttpServletRequestBuilder request = autenticado(MockMvcRequestBuilders.post(API), 1L)
+                .contentType(JSON)
+                .content(json);
+
+        mvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("codigo").value("LANCAMENTO_INVALIDO"))
+                .andExpect(MockMvcResultMatchers.jsonPath("mensagem").value(
+                        "Informe uma Descrição válida; Informe um Ano válido; Informe um tipo de lançamento"))
+                .andExpect(MockMvcResultMatchers.jsonPath("detalhes").value(Matchers.contains("DESCRICAO", "ANO", "TIPO")));
+
+        Mockito.verify(service, Mockito.never()).salvar(Mockito.any(Lancamento.class));
+    }
+
+    @Test
+    public void deveRecusarUmLancamentoComCategoriaDeOutroUsuario() throws Exception {
+        Mockito.when(categoriaService.pertenceAo(5L, 1L)).thenReturn(false);
+
+        String json = "{\"descricao\":\"Aluguel\",\"mes\":10,\"ano\":2022,\"valor\":100,\"tipo\":\"DESPESA\",\"categoria\":5}";
+        MockHttpServletRequestBuilder request = autenticado(MockMvcRequestBuilders.post(API), 1L)
+                .contentType(JSON)
+                .content(json);
+
+        mvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isNotFound())
+                .andExpect(MockMvcResultMatchers.jsonPath("codigo").value("CATEGORIA_NAO_ENCONTRADA"));
+
+        Mockito.verify(service, Mockito.never()).salvar(Mockito.any(Lancamento.class));
+    }
+
+    @Test
+    public void deveAceitarOLancamentoParaGravacaoAssincronaQuandoSolicitado() throws Exception {
+        Mockito.when(ingestaoService.isHabilitada()).thenReturn(true);
+        Mockito.when(ingestaoService.enfileirar(Mockito.eq(1L), Mockito.any(LancamentoDTO.class)))
+                .thenReturn(SituacaoIngestaoDTO.builder().protocolo(77L).situacao(SituacaoIngestao.PENDENTE).build());
+
+        String json = "{\"descricao\":\"Aluguel\",\"mes\":10,\"ano\":2022,\"valor\":100,\"tipo\":\"DESPESA\"}";
+        MockHttpServletRequestBuilder request = autenticado(MockMvcRequestBuilders.post(API), 1L)
+                .header("Prefer", "respond-async")
+                .accept(JSON)
+                .contentType(JSON)
+                .content(json);
+
+        mvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isAccepted())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.LOCATION, API.concat("/ingestao/77")))
+                .andExpect(MockMvcResultMatchers.header().string("Preference-Applied", "respond-async"))
+                .andExpect(MockMvcResultMatchers.jsonPath("protocolo").value(77))
+                .andExpect(MockMvcResultMatchers.jsonPath("situacao").value("PENDENTE"));
+
+        Mockito.verify(service, Mockito.never()).salvar(Mockito.any(Lancamento.class));
+    }
+
+    @Test
+    public void deveResponderTooManyRequestsComAFilaDeIngestaoCheia() throws Exception {
+        Mockito.when(ingestaoService.isHabilitada()).thenReturn(true);
+        Mockito.when(ingestaoService.enfileirar(Mockito.eq(1L), Mockito.any(LancamentoDTO.class)))
+                .thenThrow(new FilaCheiaException("Fila de ingestão cheia, tente novamente"));
+
+        String json = "{\"descricao\":\"Aluguel\",\"mes\":10,\"ano\":2022,\"valor\":100,\"tipo\":\"DESPESA\"}";
+        MockHttpServletRequestBuilder request = autenticado(MockMvcRequestBuilders.post(API), 1L)
+                .header("Prefer", "respond-async")
+                .contentType(JSON)
+                .content(json);
+
+        mvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isTooManyRequests())
+                .andExpect(MockMvcResultMatchers.header().exists(HttpHeaders.RETRY_AFTER))
+                .andExpect(MockMvcResultMatchers.jsonPath("codigo").value("FILA_CHEIA"));
+    }
+
+    @Test
+    public void deveConsultarApenasOsPedidosDeIngestaoDoUsuario() throws Exception {
+        Mockito.when(ingestaoService.isHabilitada()).thenReturn(true);
+        Mockito.when(ingestaoService.obterSituacao(1L, 77L)).thenReturn(Optional.of(
+                SituacaoIngestaoDTO.builder().protocolo(77L).situacao(SituacaoIngestao.GRAVADO).idLancamento(10L).build()));
+        Mockito.when(ingestaoService.obterSituacao(2L, 77L)).thenReturn(Optional.empty());
+
+        mvc.perform(autenticado(MockMvcRequestBuilders.get(API.concat("/ingestao/77")), 1L).accept(JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("situacao").value("GRAVADO"))
+                .andExpect(MockMvcResultMatchers.jsonPath("idLancamento").value(10));
+        mvc.perform(autenticado(MockMvcRequestBuilders.get(API.concat("/ingestao/77")), 2L).accept(JSON))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    public void deveResponderODTOAoAtualizarOStatusDeUmLancamento() throws Exception {
+        Lancamento lancamento = criarLancamento(1L);
+        Lancamento atualizado = criarLancamento(1L);
+        atualizado.setStatus(StatusLancamento.EFETIVADO);
+        atualizado.setVersao(3L);
+        atualizado.setIdRecorrencia(9L);
+        Mockito.when(service.buscarPorIdComUsuario(1L)).thenReturn(Optional.of(lancamento));
+        Mockito.when(service.atualizarStatus(lancamento, StatusLancamento.EFETIVADO)).thenReturn(atualizado);
+
+        MockHttpServletRequestBuilder request = autenticado(MockMvcRequestBuilders.put(API.concat("/1/atualiza-status")), 1L)
+                .accept(JSON)
+                .contentType(JSON)
+                .content("{\"status\":\"EFETIVADO\"}");
+
+        mvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("status").value("EFETIVADO"))
+                .andExpect(MockMvcResultMatchers.jsonPath("usuario").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("versao").doesNotExist())
+                .andExpect(MockMvcResultMatchers.jsonPath("idRecorrencia").doesNotExist());
+    }
+
+    @Test
+    public void deveAtualizarOStatusEmLoteDosIdsDoUsuarioAutenticado() throws Exception {
+        Mockito.when(service.atualizarStatus(Mockito.eq(1L), Mockito.eq(List.of(3L, 4L)), Mockito.any(), Mockito.eq(StatusLancamento.EFETIVADO)))
+                .thenReturn(List.of(ResultadoStatusDTO.builder().id(3L).resultado(ResultadoAtualizacao.ATUALIZADO).versao(1L).build(),
+                        ResultadoStatusDTO.builder().id(4L).resultado(ResultadoAtualizacao.CONFLITO_VERSAO).versao(2L).build()));
+
+        String json = "{\"status\":\"EFETIVADO\",\"ids\":[3,4],\"versoes\":{\"4\":1}}";
+        MockHttpServletRequestBuilder request = autenticado(MockMvcRequestBuilders.put(API.concat("/atualiza-status")), 1L)
+                .accept(JSON)
+                .contentType(JSON)
+                .content(json);
+
+        mvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].resultado").value("ATUALIZADO"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].resultado").value("CONFLITO_VERSAO"));
+
+        Mockito.verify(service).atualizarStatus(Mockito.eq(1L), Mockito.eq(List.of(3L, 4L)),
+                Mockito.argThat(versoes -> versoes.get(4L) == 1L), Mockito.eq(StatusLancamento.EFETIVADO));
+    }
+
+    @Test
+    public void deveRetornarBadRequestParaUmStatusEmLoteInvalido() throws Exception {
+        MockHttpServletRequestBuilder request = autenticado(MockMvcRequestBuilders.put(API.concat("/atualiza-status")), 1L)
+                .accept(JSON)
+                .contentType(JSON)
+                .content("{\"status\":\"PAGO\",\"ano\":2022}");
+
+        mvc.perform(request).andExpect(MockMvcResultMatchers.status().isBadRequest());
+        Mockito.verifyNoInteractions(service);
+    }
+}
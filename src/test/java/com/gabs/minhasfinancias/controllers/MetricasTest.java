@@ -0,0 +1,48 @@
+package com.gabs.minhasfinancias.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gabs.minhasfinancias.dto.UsuarioDTO;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+@ActiveProfiles("test")
+public class MetricasTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Test
+    public void deveExporAsMetricasNoFormatoPrometheus() throws Exception {
+        // cenário: um login que falha passa pelo controller, pelo serviço e pelo repositório
+        String json = new ObjectMapper().writeValueAsString(UsuarioDTO.builder().email("inexistente@email.com").senha("senha").build());
+        mvc.perform(MockMvcRequestBuilders.post("/api/usuarios/autenticar").contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        // ação
+        String metricas = mvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // verificação
+        Assertions.assertThat(metricas)
+                .contains("http_server_requests_seconds_bucket{application=\"minhasfinancas\"")
+                .contains("uri=\"/api/usuarios/autenticar\"")
+                .contains("minhasfinancas_servico_seconds_bucket")
+                .contains("method=\"autenticar\"")
+                .contains("spring_data_repository_invocations_seconds_bucket")
+                .contains("hikaricp_connections_active")
+                .containsPattern("minhasfinancas_erros_total\\{application=\"minhasfinancas\",categoria=\"[^\"]+\",excecao=\"ErroAutenticacaoException\"");
+    }
+}
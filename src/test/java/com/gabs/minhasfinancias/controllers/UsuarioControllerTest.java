@@ -1,12 +1,15 @@
 package com.gabs.minhasfinancias.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gabs.minhasfinancias.config.ExecucaoRequisicoes;
 import com.gabs.minhasfinancias.dto.UsuarioDTO;
 import com.gabs.minhasfinancias.exception.ErroAutenticacaoException;
 import com.gabs.minhasfinancias.exception.RegraNegocioException;
 import com.gabs.minhasfinancias.model.entity.Usuario;
 import com.gabs.minhasfinancias.services.LancamentoService;
+import com.gabs.minhasfinancias.services.TokenService;
 import com.gabs.minhasfinancias.services.UsuarioService;
+import com.gabs.minhasfinancias.services.VersaoUsuarioService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
@@ -14,17 +17,24 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.math.BigDecimal;
+import java.util.Optional;
+
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
 @WebMvcTest(controllers = UsuarioController.class)
+@Import(ExecucaoRequisicoes.class)
 @AutoConfigureMockMvc
 @SuppressWarnings("unused")
 public class UsuarioControllerTest {
@@ -43,6 +53,18 @@ public class UsuarioControllerTest {
     @MockBean
     LancamentoService lancamentoService;
 
+    @MockBean
+    TokenService tokenService;
+
+    @MockBean
+    VersaoUsuarioService versaoUsuarioService;
+
+    // o TokenService é simulado: "token-<id>" é aceito como o token do usuário
+    private MockHttpServletRequestBuilder autenticado(MockHttpServletRequestBuilder request, Long idUsuario) {
+        Mockito.when(tokenService.verificar("token-" + idUsuario)).thenReturn(Optional.of(idUsuario));
+        return request.header(HttpHeaders.AUTHORIZATION, "Bearer token-" + idUsuario);
+    }
+
     private UsuarioDTO criarUsuarioDTO(){
         return UsuarioDTO.builder()
                 .email(email)
@@ -59,6 +81,8 @@ public class UsuarioControllerTest {
                 .senha(senha).build();
 
         Mockito.when(service.autenticar(email, senha)).thenReturn(usuarioAutenticado);
+        Mockito.when(tokenService.emitir(1L)).thenReturn("token");
+        Mockito.when(tokenService.getValidadeSegundos()).thenReturn(3600L);
 
         String json = new ObjectMapper().writeValueAsString(dto);
 
@@ -71,7 +95,10 @@ public class UsuarioControllerTest {
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("id").value(usuarioAutenticado.getId()))
                 .andExpect(MockMvcResultMatchers.jsonPath("nome").value(usuarioAutenticado.getNome()))
-                .andExpect(MockMvcResultMatchers.jsonPath("email").value(usuarioAutenticado.getEmail()));
+                .andExpect(MockMvcResultMatchers.jsonPath("email").value(usuarioAutenticado.getEmail()))
+                .andExpect(MockMvcResultMatchers.jsonPath("token").value("token"))
+                .andExpect(MockMvcResultMatchers.jsonPath("validadeSegundos").value(3600))
+                .andExpect(MockMvcResultMatchers.jsonPath("senha").doesNotExist());
     }
 
     @Test
@@ -91,6 +118,22 @@ public class UsuarioControllerTest {
                 .andExpect(MockMvcResultMatchers.status().isBadRequest());
     }
 
+    @Test
+    public void deveInformarOCodigoDoErroDeAutenticacao() throws Exception{
+        Mockito.when(service.autenticar(email, senha)).thenThrow(new ErroAutenticacaoException("Senha inválida"));
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(API.concat("/autenticar"))
+                .accept(JSON)
+                .contentType(JSON)
+                .content(new ObjectMapper().writeValueAsString(this.criarUsuarioDTO()));
+
+        mvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("codigo").value("CREDENCIAIS_INVALIDAS"))
+                .andExpect(MockMvcResultMatchers.jsonPath("mensagem").value("Senha inválida"))
+                .andExpect(MockMvcResultMatchers.jsonPath("detalhes").doesNotExist());
+    }
+
     @Test
     public void deveCriarUmUsuario() throws Exception{
         UsuarioDTO dto = this.criarUsuarioDTO();
@@ -134,4 +177,57 @@ public class UsuarioControllerTest {
         mvc.perform(request)
                 .andExpect(MockMvcResultMatchers.status().isBadRequest());
     }
+
+    @Test
+    public void deveRetornarOSaldoComEtagERespostaNotModifiedQuandoNadaMudou() throws Exception {
+        Mockito.when(versaoUsuarioService.obterVersao(1L)).thenReturn(7L);
+        Mockito.when(service.obterPorId(1L)).thenReturn(Optional.of(Usuario.builder().id(1L).build()));
+        Mockito.when(lancamentoService.obterSaldoPorUsuario(1L)).thenReturn(BigDecimal.TEN);
+
+        MvcResult resultado = mvc.perform(autenticado(MockMvcRequestBuilders.get(API.concat("/1/saldo")), 1L).accept(JSON)).andReturn();
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "W/\"1-7\""));
+
+        Mockito.clearInvocations(service, lancamentoService);
+        resultado = mvc.perform(autenticado(MockMvcRequestBuilders.get(API.concat("/1/saldo")), 1L)
+                .header(HttpHeaders.IF_NONE_MATCH, "W/\"1-7\"")).andReturn();
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+                .andExpect(MockMvcResultMatchers.status().isNotModified());
+
+        Mockito.verifyNoInteractions(service, lancamentoService);
+    }
+
+    @Test
+    public void deveRetornarNotFoundParaOSaldoDeUmUsuarioInexistente() throws Exception {
+        Mockito.when(service.obterPorId(1L)).thenReturn(Optional.empty());
+
+        MvcResult resultado = mvc.perform(autenticado(MockMvcRequestBuilders.get(API.concat("/1/saldo")), 1L).accept(JSON)).andReturn();
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+                .andExpect(MockMvcResultMatchers.status().isNotFound())
+                .andExpect(MockMvcResultMatchers.jsonPath("codigo").value("USUARIO_NAO_ENCONTRADO"));
+    }
+
+    @Test
+    public void deveRecusarOSaldoSemToken() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get(API.concat("/1/saldo")).accept(JSON))
+                .andExpect(MockMvcResultMatchers.status().isUnauthorized());
+        mvc.perform(MockMvcRequestBuilders.get(API.concat("/1/relatorio/mensal")).accept(JSON))
+                .andExpect(MockMvcResultMatchers.status().isUnauthorized());
+
+        Mockito.verifyNoInteractions(service, lancamentoService);
+    }
+
+    @Test
+    public void deveTratarOsDadosDeOutroUsuarioComoInexistentes() throws Exception {
+        Mockito.when(service.obterPorId(1L)).thenReturn(Optional.of(Usuario.builder().id(1L).build()));
+
+        mvc.perform(autenticado(MockMvcRequestBuilders.get(API.concat("/1/saldo")), 2L).accept(JSON))
+                .andExpect(MockMvcResultMatchers.status().isNotFound())
+                .andExpect(MockMvcResultMatchers.jsonPath("codigo").value("USUARIO_NAO_ENCONTRADO"));
+        mvc.perform(autenticado(MockMvcRequestBuilders.get(API.concat("/1/relatorio/anual")), 2L).accept(JSON))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+
+        Mockito.verifyNoInteractions(lancamentoService);
+    }
 }
@@ -0,0 +1,25 @@
+package com.gabs.minhasfinancias.jobs;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+public class ParticaoLancamentoJobTest {
+
+    @Test
+    public void deveGarantirAsParticoesDoAnoCorrenteAteOsAnosAdiante() {
+        JdbcTemplate jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        Mockito.when(jdbcTemplate.queryForObject(ParticaoLancamentoJob.GARANTIR_PARTICOES, Integer.class, 2024, 2026)).thenReturn(2);
+        Clock relogio = Clock.fixed(Instant.parse("2024-12-31T23:00:00Z"), ZoneOffset.UTC);
+
+        int criadas = new ParticaoLancamentoJob(jdbcTemplate, 2, relogio).garantir();
+
+        Assertions.assertThat(criadas).isEqualTo(2);
+        Mockito.verify(jdbcTemplate).queryForObject(ParticaoLancamentoJob.GARANTIR_PARTICOES, Integer.class, 2024, 2026);
+    }
+}
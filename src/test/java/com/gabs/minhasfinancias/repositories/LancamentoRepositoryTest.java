@@ -1,8 +1,15 @@
 package com.gabs.minhasfinancias.repositories;
 
+import com.gabs.minhasfinancias.dto.CursorLancamento;
+import com.gabs.minhasfinancias.dto.LancamentoDTO;
+import com.gabs.minhasfinancias.dto.LancamentoFiltro;
+import com.gabs.minhasfinancias.dto.TotalPeriodoDTO;
 import com.gabs.minhasfinancias.model.entity.Lancamento;
+import com.gabs.minhasfinancias.model.entity.Usuario;
+import com.gabs.minhasfinancias.model.enums.OrdemLancamento;
 import com.gabs.minhasfinancias.model.enums.StatusLancamento;
 import com.gabs.minhasfinancias.model.enums.TipoLancamento;
+import com.gabs.minhasfinancias.model.projections.LancamentoVersao;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,6 +22,8 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 @ExtendWith(SpringExtension.class)
@@ -97,4 +106,103 @@ public class LancamentoRepositoryTest {
         Assertions.assertThat(lancamentoSalvo.isPresent()).isTrue();
     }
 
+    @Test
+    public void deveBuscarAProximaPaginaAPartirDoCursor() {
+        Lancamento primeiro = this.criarEPersistirLancamento();
+        Lancamento segundo = this.criarEPersistirLancamento();
+        Lancamento terceiro = this.criarEPersistirLancamento();
+
+        List<LancamentoDTO> pagina = lancamentoRepository.buscarPagina(new LancamentoFiltro(),
+                new CursorLancamento(null, null, primeiro.getId()), OrdemLancamento.ID, 1);
+
+        Assertions.assertThat(pagina).extracting("id").containsExactly(segundo.getId());
+        Assertions.assertThat(pagina.get(0).getTipo()).isEqualTo(TipoLancamento.RECEITA.name());
+    }
+
+    @Test
+    public void devePercorrerOsLancamentosOrdenadosPorPeriodo() {
+        Lancamento recente = this.criarEPersistirLancamento();
+        Lancamento antigo = this.criarLancamento();
+        antigo.setAno(2021);
+        entityManager.persist(antigo);
+
+        List<Long> ids = new ArrayList<>();
+        lancamentoRepository.percorrer(new LancamentoFiltro(), OrdemLancamento.PERIODO, 10, lancamento -> ids.add(lancamento.getId()));
+
+        Assertions.assertThat(ids).containsExactly(antigo.getId(), recente.getId());
+    }
+
+    @Test
+    public void deveFiltrarPorDescricaoSemConsiderarCaixaNemCuringas() {
+        Lancamento aluguel = this.criarLancamento();
+        aluguel.setDescricao("Aluguel 100% pago");
+        entityManager.persist(aluguel);
+        this.criarEPersistirLancamento();
+
+        List<Lancamento> contendoTexto = lancamentoRepository.buscar(LancamentoFiltro.builder().descricao("ALUGUEL").build());
+        List<Lancamento> contendoCuringa = lancamentoRepository.buscar(LancamentoFiltro.builder().descricao("100%").build());
+        List<Lancamento> curingaLiteral = lancamentoRepository.buscar(LancamentoFiltro.builder().descricao("%").ano(2022).mes(10).build());
+
+        Assertions.assertThat(contendoTexto).containsExactly(aluguel);
+        Assertions.assertThat(contendoCuringa).containsExactly(aluguel);
+        Assertions.assertThat(curingaLiteral).containsExactly(aluguel);
+    }
+
+    @Test
+    public void deveAgruparOsTotaisPorMesEStatus() {
+        Usuario usuario = Usuario.builder().nome("usuario").email("usuario@email.com").senha("senha").build();
+        entityManager.persist(usuario);
+
+        Lancamento receita = this.criarLancamento();
+        receita.setUsuario(usuario);
+        entityManager.persist(receita);
+
+        Lancamento despesa = this.criarLancamento();
+        despesa.setUsuario(usuario);
+        despesa.setTipo(TipoLancamento.DESPESA);
+        despesa.setValor(BigDecimal.valueOf(4));
+        entityManager.persist(despesa);
+
+        Lancamento outroAno = this.criarLancamento();
+        outroAno.setUsuario(usuario);
+        outroAno.setAno(2021);
+        entityManager.persist(outroAno);
+
+        List<TotalPeriodoDTO> mensais = lancamentoRepository.obterTotaisMensais(usuario.getId(), 2022, 2022);
+        List<TotalPeriodoDTO> anuais = lancamentoRepository.obterTotaisAnuais(usuario.getId(), 0, 9999);
+
+        Assertions.assertThat(mensais).hasSize(1);
+        Assertions.assertThat(mensais.get(0).getMes()).isEqualTo(10);
+        Assertions.assertThat(mensais.get(0).getStatus()).isEqualTo(StatusLancamento.PENDENTE);
+        Assertions.assertThat(mensais.get(0).getReceitas()).isEqualByComparingTo("10");
+        Assertions.assertThat(mensais.get(0).getDespesas()).isEqualByComparingTo("4");
+        Assertions.assertThat(anuais).extracting("ano").containsExactly(2021, 2022);
+        Assertions.assertThat(anuais.get(0).getDespesas()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    public void deveAtualizarOStatusApenasDasLinhasComAVersaoLida() {
+        Usuario usuario = Usuario.builder().nome("usuario").email("versao@email.com").senha("senha").build();
+        entityManager.persist(usuario);
+
+        Lancamento lido = this.criarLancamento();
+        lido.setUsuario(usuario);
+        entityManager.persist(lido);
+
+        Lancamento alterado = this.criarLancamento();
+        alterado.setUsuario(usuario);
+        entityManager.persist(alterado);
+        alterado.setDescricao("alterado por outra escrita");
+        entityManager.flush();
+
+        int atualizados = lancamentoRepository.atualizarStatus(List.of(lido.getId(), alterado.getId()),
+                lido.getAno(), lido.getAno(), 0L, StatusLancamento.EFETIVADO);
+        List<LancamentoVersao> versoes = lancamentoRepository.obterVersoes(usuario.getId(), List.of(lido.getId(), alterado.getId()));
+
+        Assertions.assertThat(atualizados).isEqualTo(1);
+        Assertions.assertThat(versoes).filteredOn(versao -> versao.getId().equals(lido.getId()))
+                .extracting("status", "versao").containsExactly(Assertions.tuple(StatusLancamento.EFETIVADO, 1L));
+        Assertions.assertThat(versoes).filteredOn(versao -> versao.getId().equals(alterado.getId()))
+                .extracting("status", "versao").containsExactly(Assertions.tuple(StatusLancamento.PENDENTE, 1L));
+    }
 }
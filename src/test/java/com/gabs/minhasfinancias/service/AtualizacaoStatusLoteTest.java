@@ -0,0 +1,142 @@
+package com.gabs.minhasfinancias.service;
+
+import com.gabs.minhasfinancias.dto.ResultadoStatusDTO;
+import com.gabs.minhasfinancias.model.entity.Lancamento;
+import com.gabs.minhasfinancias.model.entity.Usuario;
+import com.gabs.minhasfinancias.model.enums.ResultadoAtualizacao;
+import com.gabs.minhasfinancias.model.enums.StatusLancamento;
+import com.gabs.minhasfinancias.model.enums.TipoLancamento;
+import com.gabs.minhasfinancias.repositories.UsuarioRepository;
+import com.gabs.minhasfinancias.services.LancamentoService;
+import com.gabs.minhasfinancias.services.SaldoService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class AtualizacaoStatusLoteTest {
+
+    @Autowired
+    LancamentoService lancamentoService;
+
+    @Autowired
+    SaldoService saldoService;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    private Usuario criarUsuario(String email) {
+        return usuarioRepository.save(Usuario.builder().nome("usuario").email(email).senha("senha").build());
+    }
+
+    private Lancamento salvarLancamento(Usuario usuario, TipoLancamento tipo, int valor) {
+        return lancamentoService.salvar(Lancamento.builder()
+                .descricao("lancamento")
+                .ano(2022)
+                .mes(10)
+                .valor(BigDecimal.valueOf(valor))
+                .tipo(tipo)
+                .usuario(usuario)
+                .build());
+    }
+
+    @Test
+    public void deveAtualizarOsIdsInformadosRelatandoOResultadoDeCadaUm() {
+        // cenário
+        Usuario usuario = criarUsuario("lote-ids@email.com");
+        Usuario outroUsuario = criarUsuario("lote-ids-outro@email.com");
+        Lancamento receita = salvarLancamento(usuario, TipoLancamento.RECEITA, 100);
+        Lancamento despesa = salvarLancamento(usuario, TipoLancamento.DESPESA, 30);
+        Lancamento efetivada = salvarLancamento(usuario, TipoLancamento.RECEITA, 5);
+        lancamentoService.atualizarStatus(efetivada, StatusLancamento.EFETIVADO);
+        Lancamento deOutroUsuario = salvarLancamento(outroUsuario, TipoLancamento.RECEITA, 50);
+
+        // ação
+        List<ResultadoStatusDTO> resultados = lancamentoService.atualizarStatus(usuario.getId(),
+                List.of(receita.getId(), despesa.getId(), efetivada.getId(), deOutroUsuario.getId(), -1L),
+                Map.of(despesa.getId(), 7L), StatusLancamento.EFETIVADO);
+
+        // verificação
+        Assertions.assertThat(resultados).extracting("id").containsExactly(receita.getId(), despesa.getId(),
+                efetivada.getId(), deOutroUsuario.getId(), -1L);
+        Assertions.assertThat(resultados).extracting("resultado").containsExactly(ResultadoAtualizacao.ATUALIZADO,
+                ResultadoAtualizacao.CONFLITO_VERSAO, ResultadoAtualizacao.INALTERADO,
+                ResultadoAtualizacao.NAO_ENCONTRADO, ResultadoAtualizacao.NAO_ENCONTRADO);
+        Assertions.assertThat(resultados.get(0).getVersao()).isEqualTo(1L);
+        Assertions.assertThat(lancamentoService.buscarPorId(receita.getId()).get().getStatus()).isEqualTo(StatusLancamento.EFETIVADO);
+        Assertions.assertThat(lancamentoService.buscarPorId(despesa.getId()).get().getStatus()).isEqualTo(StatusLancamento.PENDENTE);
+        Assertions.assertThat(lancamentoService.buscarPorId(deOutroUsuario.getId()).get().getStatus()).isEqualTo(StatusLancamento.PENDENTE);
+        Assertions.assertThat(saldoService.obterSaldo(usuario.getId())).isEqualByComparingTo("105");
+        Assertions.assertThat(saldoService.obterSaldo(usuario.getId(), 2022, 10)).isEqualByComparingTo("105");
+    }
+
+    @Test
+    public void deveAtualizarOsLancamentosDoPeriodoMantendoOSaldoConsistente() {
+        // cenário
+        Usuario usuario = criarUsuario("lote-periodo@email.com");
+        salvarLancamento(usuario, TipoLancamento.RECEITA, 100);
+        salvarLancamento(usuario, TipoLancamento.DESPESA, 30);
+
+        // ação
+        List<ResultadoStatusDTO> efetivados = lancamentoService.atualizarStatus(usuario.getId(), 2022, 10, StatusLancamento.EFETIVADO);
+        List<ResultadoStatusDTO> repetidos = lancamentoService.atualizarStatus(usuario.getId(), 2022, 10, StatusLancamento.EFETIVADO);
+        List<ResultadoStatusDTO> outroMes = lancamentoService.atualizarStatus(usuario.getId(), 2022, 11, StatusLancamento.EFETIVADO);
+
+        // verificação
+        Assertions.assertThat(efetivados).extracting("resultado").containsOnly(ResultadoAtualizacao.ATUALIZADO).hasSize(2);
+        Assertions.assertThat(repetidos).extracting("resultado").containsOnly(ResultadoAtualizacao.INALTERADO).hasSize(2);
+        Assertions.assertThat(outroMes).isEqualTo(Collections.emptyList());
+        Assertions.assertThat(saldoService.obterSaldo(usuario.getId())).isEqualByComparingTo("70");
+        Assertions.assertThat(saldoService.reconciliar(usuario.getId())).isTrue();
+    }
+
+    @Test
+    public void deveAplicarOSaldoUmaVezQuandoOMesmoLoteChegarDuasVezesAoMesmoTempo() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for(int rodada = 0; rodada < 10; rodada++) {
+                // cenário: o mesmo fechamento de mês enviado duas vezes
+                Usuario usuario = criarUsuario("lote-duplicado-" + rodada + "@email.com");
+                salvarLancamento(usuario, TipoLancamento.RECEITA, 100);
+                salvarLancamento(usuario, TipoLancamento.DESPESA, 30);
+                CountDownLatch largada = new CountDownLatch(1);
+                List<Future<List<ResultadoStatusDTO>>> envios = new ArrayList<>();
+                for(int envio = 0; envio < 2; envio++) {
+                    envios.add(executor.submit(() -> {
+                        largada.await();
+                        return lancamentoService.atualizarStatus(usuario.getId(), 2022, 10, StatusLancamento.EFETIVADO);
+                    }));
+                }
+
+                // ação
+                largada.countDown();
+                List<ResultadoStatusDTO> resultados = new ArrayList<>();
+                for(Future<List<ResultadoStatusDTO>> envio : envios) {
+                    resultados.addAll(envio.get(30, TimeUnit.SECONDS));
+                }
+
+                // verificação: cada lançamento é atualizado por um único envio e o saldo muda uma vez
+                Assertions.assertThat(resultados).filteredOn("resultado", ResultadoAtualizacao.ATUALIZADO).hasSize(2);
+                Assertions.assertThat(saldoService.obterSaldo(usuario.getId())).isEqualByComparingTo("70");
+                Assertions.assertThat(saldoService.obterSaldo(usuario.getId(), 2022, 10)).isEqualByComparingTo("70");
+                Assertions.assertThat(saldoService.reconciliar(usuario.getId())).isTrue();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
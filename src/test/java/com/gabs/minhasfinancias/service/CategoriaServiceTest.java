@@ -0,0 +1,226 @@
+package com.gabs.minhasfinancias.service;
+
+import com.gabs.minhasfinancias.dto.LancamentoFiltro;
+import com.gabs.minhasfinancias.dto.TotalCategoriaDTO;
+import com.gabs.minhasfinancias.exception.RegraNegocioException;
+import com.gabs.minhasfinancias.model.entity.Categoria;
+import com.gabs.minhasfinancias.model.entity.Lancamento;
+import com.gabs.minhasfinancias.model.entity.TotalCategoria;
+import com.gabs.minhasfinancias.model.entity.Usuario;
+import com.gabs.minhasfinancias.model.enums.StatusLancamento;
+import com.gabs.minhasfinancias.model.enums.TipoLancamento;
+import com.gabs.minhasfinancias.repositories.TotalCategoriaRepository;
+import com.gabs.minhasfinancias.repositories.UsuarioRepository;
+import com.gabs.minhasfinancias.services.CategoriaService;
+import com.gabs.minhasfinancias.services.LancamentoService;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.recursive.comparison.RecursiveComparisonConfiguration;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class CategoriaServiceTest {
+
+    static final RecursiveComparisonConfiguration VALORES = RecursiveComparisonConfiguration.builder()
+            .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+            .build();
+
+    @Autowired
+    CategoriaService categoriaService;
+
+    @Autowired
+    LancamentoService lancamentoService;
+
+    @Autowired
+    TotalCategoriaRepository totalCategoriaRepository;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    private Usuario criarUsuario(String email) {
+        return usuarioRepository.save(Usuario.builder().nome("usuario").email(email + System.nanoTime() + "@email.com").senha("senha").build());
+    }
+
+    private Categoria criarCategoria(Usuario usuario, String nome) {
+        return categoriaService.salvar(Categoria.builder().nome(nome).usuario(usuario).build());
+    }
+
+    private Lancamento salvarLancamento(Usuario usuario, Categoria categoria, TipoLancamento tipo, int mes, int valor) {
+        return lancamentoService.salvar(Lancamento.builder()
+                .descricao("lancamento")
+                .ano(2022)
+                .mes(mes)
+                .valor(BigDecimal.valueOf(valor))
+                .tipo(tipo)
+                .usuario(usuario)
+                .idCategoria(categoria == null ? null : categoria.getId())
+                .build());
+    }
+
+    private Lancamento efetivar(Lancamento lancamento) {
+        return lancamentoService.atualizarStatus(lancamento, StatusLancamento.EFETIVADO);
+    }
+
+    private List<TotalCategoriaDTO> totais(Usuario usuario, Categoria categoria) {
+        return categoriaService.obterTotais(usuario.getId(), categoria.getId(), 2022, 2022);
+    }
+
+    private static TotalCategoriaDTO total(Categoria categoria, int mes, int receitas, int despesas) {
+        return new TotalCategoriaDTO(categoria.getId(), 2022, mes, BigDecimal.valueOf(receitas), BigDecimal.valueOf(despesas));
+    }
+
+    @Test
+    public void deveSomarOsLancamentosEfetivadosNoTotalDaCategoriaPorMes() {
+        // cenário
+        Usuario usuario = criarUsuario("categoria");
+        Categoria mercado = criarCategoria(usuario, "mercado");
+        efetivar(salvarLancamento(usuario, mercado, TipoLancamento.DESPESA, 1, 100));
+        efetivar(salvarLancamento(usuario, mercado, TipoLancamento.DESPESA, 1, 50));
+        efetivar(salvarLancamento(usuario, mercado, TipoLancamento.RECEITA, 2, 20));
+        salvarLancamento(usuario, mercado, TipoLancamento.DESPESA, 2, 999);
+        efetivar(salvarLancamento(usuario, null, TipoLancamento.DESPESA, 1, 70));
+
+        // verificação: pendentes e lançamentos sem categoria não entram
+        Assertions.assertThat(totais(usuario, mercado))
+                .usingRecursiveFieldByFieldElementComparator(VALORES)
+                .containsExactly(total(mercado, 1, 0, 150), total(mercado, 2, 20, 0));
+        Assertions.assertThat(categoriaService.reconciliar(usuario.getId())).isTrue();
+    }
+
+    @Test
+    public void deveMoverOValorAoTrocarACategoriaECancelarOLancamento() {
+        // cenário
+        Usuario usuario = criarUsuario("categoria-troca");
+        Categoria mercado = criarCategoria(usuario, "mercado");
+        Categoria lazer = criarCategoria(usuario, "lazer");
+        Lancamento lancamento = efetivar(salvarLancamento(usuario, mercado, TipoLancamento.DESPESA, 3, 80));
+
+        // ação
+        Lancamento lido = lancamentoService.buscarPorId(lancamento.getId()).get();
+        lido.setIdCategoria(lazer.getId());
+        lancamentoService.atualizar(lido);
+
+        // verificação
+        Assertions.assertThat(totais(usuario, mercado)).extracting(TotalCategoriaDTO::getDespesas)
+                .usingComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .containsExactly(BigDecimal.ZERO);
+        Assertions.assertThat(totais(usuario, lazer)).extracting(TotalCategoriaDTO::getDespesas)
+                .usingComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .containsExactly(BigDecimal.valueOf(80));
+
+        // ação: cancelar em lote retira o valor da categoria
+        lancamentoService.atualizarStatus(usuario.getId(), 2022, 3, StatusLancamento.CANCELADO);
+
+        Assertions.assertThat(totais(usuario, lazer)).extracting(TotalCategoriaDTO::getDespesas)
+                .usingComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .containsExactly(BigDecimal.ZERO);
+        Assertions.assertThat(categoriaService.reconciliar(usuario.getId())).isTrue();
+    }
+
+    @Test
+    public void deveAplicarUmMovimentoPorCategoriaAoEfetivarEmLote() {
+        // cenário
+        Usuario usuario = criarUsuario("categoria-lote");
+        Categoria mercado = criarCategoria(usuario, "mercado");
+        Categoria salario = criarCategoria(usuario, "salario");
+        List<Long> ids = List.of(
+                salvarLancamento(usuario, mercado, TipoLancamento.DESPESA, 4, 10).getId(),
+                salvarLancamento(usuario, mercado, TipoLancamento.DESPESA, 4, 15).getId(),
+                salvarLancamento(usuario, salario, TipoLancamento.RECEITA, 4, 1000).getId());
+
+        // ação
+        lancamentoService.atualizarStatus(usuario.getId(), ids, null, StatusLancamento.EFETIVADO);
+
+        // verificação
+        Assertions.assertThat(categoriaService.obterTotais(usuario.getId(), null, 2022, 2022))
+                .usingRecursiveFieldByFieldElementComparator(VALORES)
+                .containsExactlyInAnyOrder(total(mercado, 4, 0, 25), total(salario, 4, 1000, 0));
+    }
+
+    @Test
+    public void deveMoverAsCategoriasMesmoQuandoOSaldoDoMesSeAnula() {
+        // cenário: a receita e a despesa do mês se anulam no saldo, mas não nas categorias
+        Usuario usuario = criarUsuario("categoria-anulada");
+        Categoria mercado = criarCategoria(usuario, "mercado");
+        Categoria salario = criarCategoria(usuario, "salario");
+        List<Long> ids = List.of(
+                salvarLancamento(usuario, mercado, TipoLancamento.DESPESA, 8, 50).getId(),
+                salvarLancamento(usuario, salario, TipoLancamento.RECEITA, 8, 50).getId());
+
+        // ação
+        lancamentoService.atualizarStatus(usuario.getId(), ids, null, StatusLancamento.EFETIVADO);
+
+        // verificação
+        Assertions.assertThat(categoriaService.obterTotais(usuario.getId(), null, 2022, 2022))
+                .usingRecursiveFieldByFieldElementComparator(VALORES)
+                .containsExactlyInAnyOrder(total(mercado, 8, 0, 50), total(salario, 8, 50, 0));
+        Assertions.assertThat(categoriaService.reconciliar(usuario.getId())).isTrue();
+    }
+
+    @Test
+    public void deveFiltrarLancamentosPelaCategoria() {
+        Usuario usuario = criarUsuario("categoria-filtro");
+        Categoria mercado = criarCategoria(usuario, "mercado");
+        Lancamento doMercado = salvarLancamento(usuario, mercado, TipoLancamento.DESPESA, 5, 10);
+        salvarLancamento(usuario, null, TipoLancamento.DESPESA, 5, 20);
+
+        List<Long> encontrados = lancamentoService.buscar(LancamentoFiltro.builder()
+                        .usuario(usuario.getId()).categoria(mercado.getId()).build()).stream()
+                .map(Lancamento::getId)
+                .collect(Collectors.toList());
+
+        Assertions.assertThat(encontrados).containsExactly(doMercado.getId());
+    }
+
+    @Test
+    public void deveDeixarOsLancamentosSemCategoriaEApagarOsTotaisAoDeletar() {
+        // cenário
+        Usuario usuario = criarUsuario("categoria-delete");
+        Categoria mercado = criarCategoria(usuario, "mercado");
+        Lancamento lancamento = efetivar(salvarLancamento(usuario, mercado, TipoLancamento.DESPESA, 6, 40));
+
+        // ação
+        categoriaService.deletar(mercado);
+
+        // verificação
+        Assertions.assertThat(lancamentoService.buscarPorId(lancamento.getId()).get().getIdCategoria()).isNull();
+        Assertions.assertThat(totalCategoriaRepository.findByIdUsuario(usuario.getId())).isEmpty();
+        Assertions.assertThat(categoriaService.buscar(usuario.getId())).isEmpty();
+    }
+
+    @Test
+    public void deveCorrigirOTotalDivergenteNaReconciliacao() {
+        // cenário
+        Usuario usuario = criarUsuario("categoria-reconciliacao");
+        Categoria mercado = criarCategoria(usuario, "mercado");
+        efetivar(salvarLancamento(usuario, mercado, TipoLancamento.DESPESA, 7, 60));
+        TotalCategoria total = totalCategoriaRepository.findByIdUsuario(usuario.getId()).get(0);
+        total.setDespesas(BigDecimal.valueOf(1));
+        totalCategoriaRepository.save(total);
+
+        // ação e verificação
+        Assertions.assertThat(categoriaService.reconciliar(usuario.getId())).isFalse();
+        Assertions.assertThat(totais(usuario, mercado)).extracting(TotalCategoriaDTO::getDespesas)
+                .usingComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .containsExactly(BigDecimal.valueOf(60));
+        Assertions.assertThat(categoriaService.reconciliar(usuario.getId())).isTrue();
+    }
+
+    @Test
+    public void deveRecusarCategoriaSemNomeOuRepetida() {
+        Usuario usuario = criarUsuario("categoria-invalida");
+        criarCategoria(usuario, "mercado");
+
+        Assertions.assertThatThrownBy(() -> criarCategoria(usuario, "  "))
+                .isInstanceOf(RegraNegocioException.class);
+        Assertions.assertThatThrownBy(() -> criarCategoria(usuario, " mercado "))
+                .isInstanceOf(RegraNegocioException.class);
+    }
+}
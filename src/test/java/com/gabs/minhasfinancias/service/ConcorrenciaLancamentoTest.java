@@ -0,0 +1,150 @@
+package com.gabs.minhasfinancias.service;
+
+import com.gabs.minhasfinancias.model.entity.Lancamento;
+import com.gabs.minhasfinancias.model.entity.Usuario;
+import com.gabs.minhasfinancias.model.enums.StatusLancamento;
+import com.gabs.minhasfinancias.model.enums.TipoLancamento;
+import com.gabs.minhasfinancias.repositories.UsuarioRepository;
+import com.gabs.minhasfinancias.services.LancamentoService;
+import com.gabs.minhasfinancias.services.SaldoService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/*
+ VARIAS THREADS ALTERANDO OS MESMOS LANCAMENTOS: CADA ESCRITA MUDA A DESCRICAO, ENTAO A VERSAO FINAL CONTA AS ESCRITAS
+ QUE REALMENTE CHEGARAM AO BANCO; O SALDO PROJETADO PRECISA BATER COM A SOMA DOS LANCAMENTOS EFETIVADOS
+ */
+@SpringBootTest(properties = {
+        "minhasfinancas.concorrencia.tentativas=100",
+        "minhasfinancas.concorrencia.espera-maxima-ms=20",
+        "minhasfinancas.saldo.reconciliacao.habilitada=false"})
+@ActiveProfiles("test")
+public class ConcorrenciaLancamentoTest {
+
+    static final int THREADS = 8;
+    static final int ESCRITAS_POR_THREAD = 25;
+    static final StatusLancamento[] STATUS = {StatusLancamento.EFETIVADO, StatusLancamento.CANCELADO, StatusLancamento.PENDENTE};
+
+    @Autowired
+    LancamentoService lancamentoService;
+
+    @Autowired
+    SaldoService saldoService;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Autowired
+    MeterRegistry registry;
+
+    private Usuario criarUsuario(String email) {
+        return usuarioRepository.save(Usuario.builder().nome("usuario").email(email + System.nanoTime() + "@email.com").senha("senha").build());
+    }
+
+    private Lancamento salvarLancamento(Usuario usuario, TipoLancamento tipo, int valor) {
+        return lancamentoService.salvar(Lancamento.builder()
+                .descricao("lancamento")
+                .ano(2022)
+                .mes(10)
+                .valor(BigDecimal.valueOf(valor))
+                .tipo(tipo)
+                .usuario(usuario)
+                .build());
+    }
+
+    private double novasTentativas() {
+        return registry.counter("minhasfinancas.concorrencia.novas.tentativas").count();
+    }
+
+    // as threads começam juntas e cada uma alterna entre os seus lançamentos e os status
+    private void executar(List<List<Lancamento>> lancamentosPorThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<?>> tarefas = new ArrayList<>();
+        for(int thread = 0; thread < THREADS; thread++) {
+            int numero = thread;
+            List<Lancamento> lancamentos = lancamentosPorThread.get(thread);
+            tarefas.add(executor.submit(() -> {
+                largada.await();
+                for(int escrita = 0; escrita < ESCRITAS_POR_THREAD; escrita++) {
+                    Lancamento lancamento = lancamentos.get(escrita % lancamentos.size());
+                    Lancamento lido = lancamentoService.buscarPorId(lancamento.getId()).get();
+                    lido.setDescricao("thread " + numero + " escrita " + escrita);
+                    lido.setStatus(STATUS[(numero + escrita) % STATUS.length]);
+                    lancamentoService.atualizar(lido);
+                }
+                return null;
+            }));
+        }
+
+        largada.countDown();
+        try {
+            for(Future<?> tarefa : tarefas) {
+                tarefa.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void naoDevePerderNenhumaEscritaConcorrenteNosMesmosLancamentos() throws Exception {
+        Usuario usuario = criarUsuario("concorrencia");
+        List<Lancamento> lancamentos = List.of(
+                salvarLancamento(usuario, TipoLancamento.RECEITA, 100),
+                salvarLancamento(usuario, TipoLancamento.DESPESA, 30));
+        double novasTentativasAntes = novasTentativas();
+
+        List<List<Lancamento>> mesmosLancamentos = new ArrayList<>();
+        for(int thread = 0; thread < THREADS; thread++) {
+            mesmosLancamentos.add(lancamentos);
+        }
+        executar(mesmosLancamentos);
+
+        long versoes = 0;
+        BigDecimal saldoEsperado = BigDecimal.ZERO;
+        for(Lancamento lancamento : lancamentos) {
+            Lancamento gravado = lancamentoService.buscarPorId(lancamento.getId()).get();
+            versoes += gravado.getVersao();
+            saldoEsperado = saldoEsperado.add(SaldoService.contribuicao(gravado.getTipo(), gravado.getStatus(), gravado.getValor()));
+        }
+
+        Assertions.assertThat(versoes).isEqualTo(THREADS * ESCRITAS_POR_THREAD);
+        Assertions.assertThat(novasTentativas()).isGreaterThan(novasTentativasAntes);
+        Assertions.assertThat(saldoService.obterSaldo(usuario.getId())).isEqualByComparingTo(saldoEsperado);
+        Assertions.assertThat(saldoService.obterSaldo(usuario.getId(), 2022, 10)).isEqualByComparingTo(saldoEsperado);
+        Assertions.assertThat(saldoService.reconciliar(usuario.getId())).isTrue();
+    }
+
+    @Test
+    public void naoDeveSerializarEscritasEmLancamentosDiferentes() throws Exception {
+        List<List<Lancamento>> lancamentosSeparados = new ArrayList<>();
+        for(int thread = 0; thread < THREADS; thread++) {
+            Usuario usuario = criarUsuario("separados" + thread);
+            lancamentosSeparados.add(List.of(salvarLancamento(usuario, TipoLancamento.RECEITA, 10)));
+        }
+        double novasTentativasAntes = novasTentativas();
+
+        executar(lancamentosSeparados);
+
+        // sem lock pessimista, quem não disputa a mesma linha nunca espera nem repete
+        Assertions.assertThat(novasTentativas()).isEqualTo(novasTentativasAntes);
+        for(List<Lancamento> lancamentos : lancamentosSeparados) {
+            Assertions.assertThat(lancamentoService.buscarPorId(lancamentos.get(0).getId()).get().getVersao())
+                    .isEqualTo(ESCRITAS_POR_THREAD);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.gabs.minhasfinancias.service;
+
+import com.gabs.minhasfinancias.dto.LancamentoDTO;
+import com.gabs.minhasfinancias.dto.LancamentoFiltro;
+import com.gabs.minhasfinancias.model.enums.FormatoExportacao;
+import com.gabs.minhasfinancias.model.enums.OrdemLancamento;
+import com.gabs.minhasfinancias.services.LancamentoService;
+import com.gabs.minhasfinancias.services.importacao.LeitorCsv;
+import com.gabs.minhasfinancias.services.importacao.LinhaImportada;
+import com.gabs.minhasfinancias.services.impl.ExportacaoServiceImpl;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class ExportacaoServiceTest {
+
+    static final int QUANTIDADE = 1000;
+
+    private final LancamentoService lancamentoService = Mockito.mock(LancamentoService.class);
+    private final ExportacaoServiceImpl service = new ExportacaoServiceImpl(lancamentoService);
+    private final LancamentoFiltro filtro = LancamentoFiltro.builder().usuario(1L).build();
+
+    // a consulta entrega um lançamento por vez, como o cursor do repositório
+    private void percorrerLancamentos() {
+        Mockito.doAnswer(invocation -> {
+            Consumer<LancamentoDTO> consumidor = invocation.getArgument(2);
+            for(long id = 1; id <= QUANTIDADE; id++) {
+                consumidor.accept(new LancamentoDTO(id, id == 1 ? "padaria \"do zé\", centro" : "lancamento " + id,
+                        (int) (id % 12) + 1, 2022, new BigDecimal("12.50"), 1L, "DESPESA", "PENDENTE", id == 1 ? 7L : null));
+            }
+            return null;
+        }).when(lancamentoService).percorrer(Mockito.eq(filtro), Mockito.eq(OrdemLancamento.PERIODO), Mockito.any());
+    }
+
+    @Test
+    public void deveExportarUmCsvQueAImportacaoConsegueLer() throws Exception {
+        percorrerLancamentos();
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        long exportados = service.exportar(filtro, FormatoExportacao.CSV, saida);
+
+        List<LinhaImportada> linhas = new ArrayList<>();
+        new LeitorCsv().ler(new InputStreamReader(new ByteArrayInputStream(saida.toByteArray()), StandardCharsets.UTF_8), linhas::add);
+        Assertions.assertThat(exportados).isEqualTo(QUANTIDADE);
+        Assertions.assertThat(linhas).hasSize(QUANTIDADE);
+        Assertions.assertThat(linhas).allMatch(linha -> linha.getErro() == null);
+        Assertions.assertThat(linhas.get(0).getLancamento().getDescricao()).isEqualTo("padaria \"do zé\", centro");
+        Assertions.assertThat(linhas.get(0).getLancamento().getValor()).isEqualByComparingTo("12.50");
+    }
+
+    @Test
+    public void deveExportarUmaPlanilhaXlsx() throws Exception {
+        percorrerLancamentos();
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        long exportados = service.exportar(filtro, FormatoExportacao.XLSX, saida);
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(saida.toByteArray()))) {
+            Sheet planilha = workbook.getSheetAt(0);
+            Row primeira = planilha.getRow(1);
+            Assertions.assertThat(exportados).isEqualTo(QUANTIDADE);
+            Assertions.assertThat(planilha.getLastRowNum()).isEqualTo(QUANTIDADE);
+            Assertions.assertThat(planilha.getRow(0).getCell(1).getStringCellValue()).isEqualTo("descricao");
+            Assertions.assertThat(primeira.getCell(1).getStringCellValue()).isEqualTo("padaria \"do zé\", centro");
+            Assertions.assertThat(primeira.getCell(4).getNumericCellValue()).isEqualTo(12.5);
+            Assertions.assertThat(planilha.getRow(0).getCell(7).getStringCellValue()).isEqualTo("categoria");
+            Assertions.assertThat(primeira.getCell(7).getNumericCellValue()).isEqualTo(7);
+            Assertions.assertThat(planilha.getRow(2).getCell(7)).isNull();
+            Assertions.assertThat(planilha.getRow(QUANTIDADE).getCell(0).getNumericCellValue()).isEqualTo(QUANTIDADE);
+        }
+    }
+
+    @Test
+    public void deveNeutralizarDescricoesQueAPlanilhaLeriaComoFormula() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            Consumer<LancamentoDTO> consumidor = invocation.getArgument(2);
+            String[] descricoes = {"=HYPERLINK(\"http://x\")", "+1", "-1", "@SUM(A1)", "\tsaque", "\rsaque", "troco -1"};
+            for(int i = 0; i < descricoes.length; i++) {
+                consumidor.accept(new LancamentoDTO((long) i + 1, descricoes[i], 1, 2022, BigDecimal.ONE, 1L, "DESPESA", "PENDENTE", 3L));
+            }
+            return null;
+        }).when(lancamentoService).percorrer(Mockito.eq(filtro), Mockito.eq(OrdemLancamento.PERIODO), Mockito.any());
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        service.exportar(filtro, FormatoExportacao.CSV, saida);
+
+        Assertions.assertThat(saida.toString(StandardCharsets.UTF_8)).isEqualTo("id,descricao,mes,ano,valor,tipo,status,categoria\n" +
+                "1,\"'=HYPERLINK(\"\"http://x\"\")\",1,2022,1,DESPESA,PENDENTE,3\n" +
+                "2,'+1,1,2022,1,DESPESA,PENDENTE,3\n" +
+                "3,'-1,1,2022,1,DESPESA,PENDENTE,3\n" +
+                "4,'@SUM(A1),1,2022,1,DESPESA,PENDENTE,3\n" +
+                "5,'\tsaque,1,2022,1,DESPESA,PENDENTE,3\n" +
+                "6,\"'\rsaque\",1,2022,1,DESPESA,PENDENTE,3\n" +
+                "7,troco -1,1,2022,1,DESPESA,PENDENTE,3\n");
+    }
+
+    @Test
+    public void deveInterromperAExportacaoQuandoASaidaFalhar() {
+        percorrerLancamentos();
+        OutputStream saidaFechada = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("conexão encerrada");
+            }
+        };
+
+        Assertions.assertThatThrownBy(() -> service.exportar(filtro, FormatoExportacao.CSV, saidaFechada))
+                .isInstanceOf(IOException.class);
+    }
+}
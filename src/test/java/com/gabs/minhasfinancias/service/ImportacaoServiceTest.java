@@ -0,0 +1,91 @@
+package com.gabs.minhasfinancias.service;
+
+import com.gabs.minhasfinancias.dto.LancamentoFiltro;
+import com.gabs.minhasfinancias.dto.RelatorioImportacaoDTO;
+import com.gabs.minhasfinancias.model.entity.Lancamento;
+import com.gabs.minhasfinancias.model.entity.Usuario;
+import com.gabs.minhasfinancias.model.enums.FormatoImportacao;
+import com.gabs.minhasfinancias.model.enums.StatusLancamento;
+import com.gabs.minhasfinancias.model.enums.TipoLancamento;
+import com.gabs.minhasfinancias.repositories.LancamentoRepository;
+import com.gabs.minhasfinancias.repositories.UsuarioRepository;
+import com.gabs.minhasfinancias.services.ImportacaoService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ImportacaoServiceTest {
+
+    @Autowired
+    ImportacaoService importacaoService;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Autowired
+    LancamentoRepository lancamentoRepository;
+
+    private Usuario criarUsuario(String email) {
+        return usuarioRepository.save(Usuario.builder().nome("usuario").email(email).senha("senha").build());
+    }
+
+    @Test
+    public void deveImportarUmCsvRelatandoAsLinhasInvalidas() throws Exception {
+        // cenário
+        Usuario usuario = criarUsuario("csv@email.com");
+        String csv = "descricao;mes;ano;valor;tipo\n" +
+                "Salario;1;2022;1.500,00;receita\n" +
+                "Aluguel;13;2022;800,00;DESPESA\n" +
+                ";2;2022;10,00;DESPESA\n" +
+                "Mercado;2;2022;abc;DESPESA\n" +
+                "\"Padaria; pão\";2;2022;12,50;DESPESA\n";
+
+        // ação
+        RelatorioImportacaoDTO relatorio = importacaoService.importar(usuario, FormatoImportacao.CSV,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        // verificação
+        Assertions.assertThat(relatorio.getImportados()).isEqualTo(2);
+        Assertions.assertThat(relatorio.getRejeitados()).isEqualTo(3);
+        Assertions.assertThat(relatorio.getErros()).extracting("linha").containsExactly(3L, 4L, 5L);
+        Assertions.assertThat(relatorio.getErros()).extracting("mensagem")
+                .containsExactly("Informe um Mês válido", "Informe uma Descrição válida", "Informe um valor válido");
+
+        List<Lancamento> importados = lancamentoRepository.buscar(LancamentoFiltro.builder().usuario(usuario.getId()).build());
+        Assertions.assertThat(importados).extracting("descricao").containsExactly("Salario", "Padaria; pão");
+        Assertions.assertThat(importados.get(0).getValor()).isEqualByComparingTo(BigDecimal.valueOf(1500));
+        Assertions.assertThat(importados).allMatch(l -> l.getStatus() == StatusLancamento.PENDENTE);
+    }
+
+    @Test
+    public void deveImportarUmExtratoOfx() throws Exception {
+        // cenário
+        Usuario usuario = criarUsuario("ofx@email.com");
+        String ofx = "OFXHEADER:100\nDATA:OFXSGML\nCHARSET:1252\n\n<OFX>\n<BANKTRANLIST>\n" +
+                "<STMTTRN>\n<TRNTYPE>DEBIT\n<DTPOSTED>20220315120000[-3:BRT]\n<TRNAMT>-45.90\n<MEMO>Farmacia\n</STMTTRN>\n" +
+                "<STMTTRN><TRNTYPE>CREDIT</TRNTYPE><DTPOSTED>20220405</DTPOSTED><TRNAMT>3000.00</TRNAMT><NAME>Salario</NAME></STMTTRN>\n" +
+                "</BANKTRANLIST>\n</OFX>\n";
+
+        // ação
+        RelatorioImportacaoDTO relatorio = importacaoService.importar(usuario, FormatoImportacao.OFX,
+                new ByteArrayInputStream(ofx.getBytes(StandardCharsets.ISO_8859_1)));
+
+        // verificação
+        Assertions.assertThat(relatorio.getImportados()).isEqualTo(2);
+        Assertions.assertThat(relatorio.getRejeitados()).isZero();
+
+        List<Lancamento> importados = lancamentoRepository.buscar(LancamentoFiltro.builder().usuario(usuario.getId()).build());
+        Assertions.assertThat(importados).extracting("tipo").containsExactly(TipoLancamento.DESPESA, TipoLancamento.RECEITA);
+        Assertions.assertThat(importados).extracting("mes").containsExactly(3, 4);
+        Assertions.assertThat(importados.get(0).getValor()).isEqualByComparingTo("45.90");
+    }
+}
@@ -0,0 +1,141 @@
+package com.gabs.minhasfinancias.service;
+
+import com.gabs.minhasfinancias.dto.LancamentoDTO;
+import com.gabs.minhasfinancias.dto.SituacaoIngestaoDTO;
+import com.gabs.minhasfinancias.exception.RegraNegocioException;
+import com.gabs.minhasfinancias.model.entity.Lancamento;
+import com.gabs.minhasfinancias.model.entity.Usuario;
+import com.gabs.minhasfinancias.model.enums.SituacaoIngestao;
+import com.gabs.minhasfinancias.model.enums.StatusLancamento;
+import com.gabs.minhasfinancias.model.enums.TipoLancamento;
+import com.gabs.minhasfinancias.repositories.LancamentoRepository;
+import com.gabs.minhasfinancias.repositories.UsuarioRepository;
+import com.gabs.minhasfinancias.services.IngestaoService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class IngestaoServiceTest {
+
+    private static final long ESPERA_MAXIMA_MS = 10000;
+
+    @DynamicPropertySource
+    static void ingestao(DynamicPropertyRegistry registry) throws IOException {
+        String diretorio = Files.createTempDirectory("ingestao").toString();
+        registry.add("minhasfinancas.ingestao.habilitada", () -> "true");
+        registry.add("minhasfinancas.ingestao.diretorio", () -> diretorio);
+        registry.add("minhasfinancas.ingestao.tamanho-lote", () -> "10");
+    }
+
+    @Autowired
+    IngestaoService ingestaoService;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Autowired
+    LancamentoRepository lancamentoRepository;
+
+    @Autowired
+    MeterRegistry registry;
+
+    private Usuario criarUsuario(String email) {
+        return usuarioRepository.save(Usuario.builder().nome("usuario").email(email).senha("senha").build());
+    }
+
+    private static LancamentoDTO criarLancamentoDTO(String descricao) {
+        return LancamentoDTO.builder().descricao(descricao).mes(1).ano(2022).valor(BigDecimal.TEN).tipo("RECEITA").build();
+    }
+
+    private SituacaoIngestaoDTO aguardarConclusao(Long idUsuario, long protocolo) throws InterruptedException {
+        long limite = System.currentTimeMillis() + ESPERA_MAXIMA_MS;
+        while(System.currentTimeMillis() < limite) {
+            Optional<SituacaoIngestaoDTO> situacao = ingestaoService.obterSituacao(idUsuario, protocolo);
+            if(situacao.isPresent() && situacao.get().getSituacao() != SituacaoIngestao.PENDENTE) {
+                return situacao.get();
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("pedido " + protocolo + " não foi concluído");
+    }
+
+    @Test
+    public void deveGravarEmLoteOsLancamentosEnfileirados() throws Exception {
+        Usuario usuario = criarUsuario("ingestao@email.com");
+        List<SituacaoIngestaoDTO> aceitos = new ArrayList<>();
+        for(int i = 0; i < 25; i++) {
+            aceitos.add(ingestaoService.enfileirar(usuario.getId(), criarLancamentoDTO("lancamento " + i)));
+        }
+        Assertions.assertThat(aceitos).allMatch(situacao -> situacao.getSituacao() == SituacaoIngestao.PENDENTE);
+        Assertions.assertThat(aceitos).extracting(SituacaoIngestaoDTO::getProtocolo).doesNotHaveDuplicates();
+
+        for(SituacaoIngestaoDTO aceito : aceitos) {
+            SituacaoIngestaoDTO concluido = aguardarConclusao(usuario.getId(), aceito.getProtocolo());
+            Assertions.assertThat(concluido.getSituacao()).as(concluido.getMensagem()).isEqualTo(SituacaoIngestao.GRAVADO);
+            Lancamento gravado = lancamentoRepository.findById(concluido.getIdLancamento()).orElseThrow();
+            Assertions.assertThat(gravado.getProtocoloIngestao()).isEqualTo(aceito.getProtocolo());
+            Assertions.assertThat(gravado.getStatus()).isEqualTo(StatusLancamento.PENDENTE);
+        }
+        Assertions.assertThat(ingestaoService.obterPendentes(usuario.getId())).isEmpty();
+    }
+
+    @Test
+    public void naoDeveMostrarOPedidoParaOutroUsuario() throws Exception {
+        Usuario usuario = criarUsuario("ingestao-dono@email.com");
+        Usuario outroUsuario = criarUsuario("ingestao-outro@email.com");
+
+        SituacaoIngestaoDTO aceito = ingestaoService.enfileirar(usuario.getId(), criarLancamentoDTO("aluguel"));
+        aguardarConclusao(usuario.getId(), aceito.getProtocolo());
+
+        Assertions.assertThat(ingestaoService.obterSituacao(outroUsuario.getId(), aceito.getProtocolo())).isEmpty();
+    }
+
+    @Test
+    public void deveRecusarNaHoraUmLancamentoInvalido() {
+        Usuario usuario = criarUsuario("ingestao-invalido@email.com");
+        LancamentoDTO semValor = criarLancamentoDTO("sem valor");
+        semValor.setValor(null);
+
+        Assertions.assertThatThrownBy(() -> ingestaoService.enfileirar(usuario.getId(), semValor))
+                .isInstanceOf(RegraNegocioException.class)
+                .hasMessage("Informe um valor válido");
+        Assertions.assertThat(ingestaoService.obterPendentes(usuario.getId())).isEmpty();
+    }
+
+    @Test
+    public void deveConcluirSemRepetirOPedidoCujoProtocoloJaFoiGravado() throws Exception {
+        Usuario usuario = criarUsuario("ingestao-reaplicado@email.com");
+        SituacaoIngestaoDTO anterior = ingestaoService.enfileirar(usuario.getId(), criarLancamentoDTO("anterior"));
+        aguardarConclusao(usuario.getId(), anterior.getProtocolo());
+
+        // cenário: o próximo protocolo já está no banco, como um pedido do log gravado antes de registrar a conclusão
+        Lancamento jaGravado = lancamentoRepository.save(Lancamento.builder()
+                .descricao("reaplicado").ano(2022).mes(1).valor(BigDecimal.TEN).tipo(TipoLancamento.RECEITA)
+                .status(StatusLancamento.PENDENTE).dataCadastro(LocalDate.now()).usuario(usuario)
+                .protocoloIngestao(anterior.getProtocolo() + 1).build());
+        double novasTentativas = registry.counter("minhasfinancas.concorrencia.novas.tentativas").count();
+
+        SituacaoIngestaoDTO aceito = ingestaoService.enfileirar(usuario.getId(), criarLancamentoDTO("reaplicado"));
+        SituacaoIngestaoDTO concluido = aguardarConclusao(usuario.getId(), aceito.getProtocolo());
+
+        Assertions.assertThat(aceito.getProtocolo()).isEqualTo(jaGravado.getProtocoloIngestao());
+        Assertions.assertThat(concluido.getSituacao()).isEqualTo(SituacaoIngestao.GRAVADO);
+        Assertions.assertThat(concluido.getIdLancamento()).isEqualTo(jaGravado.getId());
+        Assertions.assertThat(registry.counter("minhasfinancas.concorrencia.novas.tentativas").count()).isEqualTo(novasTentativas);
+    }
+}
@@ -1,12 +1,21 @@
 package com.gabs.minhasfinancias.service;
 
+import com.gabs.minhasfinancias.config.ConsistenciaLeitura;
 import com.gabs.minhasfinancias.annotations.Description;
+import com.gabs.minhasfinancias.dto.LancamentoFiltro;
+import com.gabs.minhasfinancias.exception.LancamentoInvalidoException;
 import com.gabs.minhasfinancias.exception.RegraNegocioException;
 import com.gabs.minhasfinancias.model.entity.Lancamento;
 import com.gabs.minhasfinancias.model.entity.Usuario;
 import com.gabs.minhasfinancias.model.enums.StatusLancamento;
+import com.gabs.minhasfinancias.model.enums.TipoLancamento;
+import com.gabs.minhasfinancias.model.enums.ViolacaoLancamento;
+import com.gabs.minhasfinancias.model.projections.LancamentoResumo;
 import com.gabs.minhasfinancias.repositories.LancamentoRepository;
 import com.gabs.minhasfinancias.repositories.LancamentoRepositoryTest;
+import com.gabs.minhasfinancias.services.CategoriaService;
+import com.gabs.minhasfinancias.services.SaldoService;
+import com.gabs.minhasfinancias.services.VersaoUsuarioService;
 import com.gabs.minhasfinancias.services.impl.LancamentoServiceImpl;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -14,16 +23,18 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
-import org.springframework.data.domain.Example;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
+@Import(ConsistenciaLeitura.class)
 public class LancamentoServiceTest {
 
     @SpyBean
@@ -32,6 +43,15 @@ public class LancamentoServiceTest {
     @MockBean
     LancamentoRepository repository;
 
+    @MockBean
+    SaldoService saldoService;
+
+    @MockBean
+    VersaoUsuarioService versaoUsuarioService;
+
+    @MockBean
+    CategoriaService categoriaService;
+
     @Test
     public void deveSalvarUmLancamento(){
         Lancamento lancamentoParaSerSalvo = LancamentoRepositoryTest.criarLancamento();
@@ -108,9 +128,10 @@ public class LancamentoServiceTest {
         lancamento.setId(1L);
 
         List<Lancamento> lista = List.of(lancamento);
-        Mockito.when(repository.findAll(Mockito.any(Example.class))).thenReturn(lista);
+        LancamentoFiltro filtro = LancamentoFiltro.builder().usuario(1L).descricao("lanc").build();
+        Mockito.when(repository.buscar(filtro)).thenReturn(lista);
 
-        List<Lancamento> resultadoDaBusca = service.buscar(lancamento);
+        List<Lancamento> resultadoDaBusca = service.buscar(filtro);
 
         Assertions.assertThat(resultadoDaBusca)
                 .isNotEmpty()
@@ -125,6 +146,7 @@ public class LancamentoServiceTest {
         lancamento.setStatus(StatusLancamento.PENDENTE);
 
         StatusLancamento statusLancamento = StatusLancamento.EFETIVADO;
+        Mockito.when(repository.findById(1L)).thenReturn(Optional.of(lancamento));
         Mockito.doReturn(lancamento).when(service).atualizar(lancamento);
 
         service.atualizarStatus(lancamento, statusLancamento);
@@ -162,67 +184,162 @@ public class LancamentoServiceTest {
         Assertions.assertThat(resultado.isPresent()).isFalse();
     }
 
+    private static Lancamento criarLancamentoValido() {
+        Lancamento lancamento = new Lancamento();
+        lancamento.setDescricao("descricao");
+        lancamento.setMes(7);
+        lancamento.setAno(2022);
+        lancamento.setUsuario(Usuario.builder().id(1L).build());
+        lancamento.setValor(BigDecimal.valueOf(1));
+        lancamento.setTipo(TipoLancamento.RECEITA);
+        return lancamento;
+    }
+
+    private Throwable validar(Consumer<Lancamento> alteracao) {
+        Lancamento lancamento = criarLancamentoValido();
+        alteracao.accept(lancamento);
+        return Assertions.catchThrowable(() -> service.validar(lancamento));
+    }
+
     @Test
     public void deveLancarErrosAoValidarUmLancamento(){
-        Lancamento lancamento = new Lancamento();
+        Assertions.assertThatCode(() -> service.validar(criarLancamentoValido())).doesNotThrowAnyException();
 
         @Description("deve lancar uma exception pois a descricao está incorreta")
-        Throwable erroDescricao = Assertions.catchThrowable(() -> service.validar(lancamento));
+        Throwable erroDescricao = validar(lancamento -> lancamento.setDescricao(" \t "));
         Assertions.assertThat(erroDescricao).isInstanceOf(RegraNegocioException.class).hasMessage("Informe uma Descrição válida");
 
-        lancamento.setDescricao("descricao");
-
         @Description("deve lancar uma exception pois o mês está incorreto")
-        Throwable erroMesNaoInformado = Assertions.catchThrowable(() -> service.validar(lancamento));
+        Throwable erroMesNaoInformado = validar(lancamento -> lancamento.setMes(null));
         Assertions.assertThat(erroMesNaoInformado).isInstanceOf(RegraNegocioException.class).hasMessage("Informe um Mês válido");
 
-        lancamento.setMes(13);
-
         @Description("deve lancar uma exception pois o mês está incorreto")
-        Throwable erroMesInvalido = Assertions.catchThrowable(() -> service.validar(lancamento));
+        Throwable erroMesInvalido = validar(lancamento -> lancamento.setMes(13));
         Assertions.assertThat(erroMesInvalido).isInstanceOf(RegraNegocioException.class).hasMessage("Informe um Mês válido");
 
-        lancamento.setMes(7);
-
         @Description("deve lancar uma exception pois o ano não foi informado")
-        Throwable erroAnoNaoInformado = Assertions.catchThrowable(() -> service.validar(lancamento));
+        Throwable erroAnoNaoInformado = validar(lancamento -> lancamento.setAno(null));
         Assertions.assertThat(erroAnoNaoInformado).isInstanceOf(RegraNegocioException.class).hasMessage("Informe um Ano válido");
 
-        lancamento.setAno(202);
-
         @Description("deve lancar uma exception pois o ano informado não atende ao formato")
-        Throwable erroAnoNaoTeMQuatroDigitos = Assertions.catchThrowable(() -> service.validar(lancamento));
+        Throwable erroAnoNaoTeMQuatroDigitos = validar(lancamento -> lancamento.setAno(202));
         Assertions.assertThat(erroAnoNaoTeMQuatroDigitos).isInstanceOf(RegraNegocioException.class).hasMessage("Informe um Ano válido");
 
-        lancamento.setAno(2022);
-
         @Description("deve lancar uma exception pois o lançamento nao possui usuario")
-        Throwable erroSemUsuario = Assertions.catchThrowable(() -> service.validar(lancamento));
+        Throwable erroSemUsuario = validar(lancamento -> lancamento.setUsuario(null));
         Assertions.assertThat(erroSemUsuario).isInstanceOf(RegraNegocioException.class).hasMessage("Informe um usuário");
 
-        lancamento.setUsuario(new Usuario());
-
         @Description("deve lancar uma exception pois o lançamento nao possui usuario cadastrado")
-        Throwable erroSemUsuarioCadastrado = Assertions.catchThrowable(() -> service.validar(lancamento));
+        Throwable erroSemUsuarioCadastrado = validar(lancamento -> lancamento.setUsuario(new Usuario()));
         Assertions.assertThat(erroSemUsuarioCadastrado).isInstanceOf(RegraNegocioException.class).hasMessage("Informe um usuário");
 
-        lancamento.getUsuario().setId(1L);
-
         @Description("deve lancar uma exception pois o lançamento nao possui valor")
-        Throwable erroSemValorInformado = Assertions.catchThrowable(() -> service.validar(lancamento));
+        Throwable erroSemValorInformado = validar(lancamento -> lancamento.setValor(null));
         Assertions.assertThat(erroSemValorInformado).isInstanceOf(RegraNegocioException.class).hasMessage("Informe um valor válido");
 
-        lancamento.setValor(BigDecimal.ZERO);
-
         @Description("deve lancar uma exception pois o lançamento nao possui valor válido")
-        Throwable erroSemValorValido = Assertions.catchThrowable(() -> service.validar(lancamento));
+        Throwable erroSemValorValido = validar(lancamento -> lancamento.setValor(BigDecimal.ZERO));
         Assertions.assertThat(erroSemValorValido).isInstanceOf(RegraNegocioException.class).hasMessage("Informe um valor válido");
 
-        lancamento.setValor(BigDecimal.valueOf(1));
-
         @Description("deve lancar uma exception pois o lançamento nao possui um tipo")
-        Throwable erroTipoNaoInformado = Assertions.catchThrowable(() -> service.validar(lancamento));
+        Throwable erroTipoNaoInformado = validar(lancamento -> lancamento.setTipo(null));
         Assertions.assertThat(erroTipoNaoInformado).isInstanceOf(RegraNegocioException.class).hasMessage("Informe um tipo de lançamento");
     }
 
+    @Test
+    public void deveInformarTodasAsViolacoesDeUmaVez(){
+        Throwable erro = Assertions.catchThrowable(() -> service.validar(new Lancamento()));
+
+        Assertions.assertThat(erro).isInstanceOf(LancamentoInvalidoException.class)
+                .hasMessage("Informe uma Descrição válida; Informe um Mês válido; Informe um Ano válido; " +
+                        "Informe um usuário; Informe um valor válido; Informe um tipo de lançamento");
+        Assertions.assertThat(((LancamentoInvalidoException) erro).getViolacoes()).containsExactly(
+                ViolacaoLancamento.DESCRICAO, ViolacaoLancamento.MES, ViolacaoLancamento.ANO,
+                ViolacaoLancamento.USUARIO, ViolacaoLancamento.VALOR, ViolacaoLancamento.TIPO);
+    }
+
+    @Test
+    public void deveSomarAoSaldoAoEfetivarUmLancamento(){
+        Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+        lancamento.setId(1L);
+        lancamento.setUsuario(Usuario.builder().id(1L).build());
+        lancamento.setStatus(StatusLancamento.EFETIVADO);
+
+        Mockito.doNothing().when(service).validar(lancamento);
+        Mockito.when(repository.save(lancamento)).thenReturn(lancamento);
+
+        service.atualizar(lancamento);
+
+        Mockito.verify(saldoService).registrarMovimento(1L, 2022, 10, BigDecimal.valueOf(10));
+    }
+
+    @Test
+    public void deveSubtrairDoSaldoAoDeletarUmLancamentoEfetivado(){
+        Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+        lancamento.setId(1L);
+        lancamento.setTipo(TipoLancamento.DESPESA);
+
+        LancamentoResumo resumo = Mockito.mock(LancamentoResumo.class);
+        Mockito.when(resumo.getIdUsuario()).thenReturn(1L);
+        Mockito.when(resumo.getAno()).thenReturn(2022);
+        Mockito.when(resumo.getMes()).thenReturn(10);
+        Mockito.when(resumo.getValor()).thenReturn(BigDecimal.valueOf(10));
+        Mockito.when(resumo.getTipo()).thenReturn(TipoLancamento.DESPESA);
+        Mockito.when(resumo.getStatus()).thenReturn(StatusLancamento.EFETIVADO);
+        Mockito.when(repository.obterResumo(1L)).thenReturn(Optional.of(resumo));
+
+        service.deletar(lancamento);
+
+        Mockito.verify(saldoService).registrarMovimento(1L, 2022, 10, BigDecimal.valueOf(10));
+    }
+
+    @Test
+    public void deveMoverOTotalEntreCategoriasAoTrocarACategoriaDeUmLancamentoEfetivado(){
+        Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+        lancamento.setId(1L);
+        lancamento.setUsuario(Usuario.builder().id(1L).build());
+        lancamento.setStatus(StatusLancamento.EFETIVADO);
+        lancamento.setIdCategoria(7L);
+
+        LancamentoResumo resumo = Mockito.mock(LancamentoResumo.class);
+        Mockito.when(resumo.getIdUsuario()).thenReturn(1L);
+        Mockito.when(resumo.getAno()).thenReturn(2022);
+        Mockito.when(resumo.getMes()).thenReturn(10);
+        Mockito.when(resumo.getValor()).thenReturn(BigDecimal.valueOf(10));
+        Mockito.when(resumo.getTipo()).thenReturn(TipoLancamento.RECEITA);
+        Mockito.when(resumo.getStatus()).thenReturn(StatusLancamento.EFETIVADO);
+        Mockito.when(resumo.getIdCategoria()).thenReturn(5L);
+        Mockito.when(repository.obterResumo(1L)).thenReturn(Optional.of(resumo));
+        Mockito.doNothing().when(service).validar(lancamento);
+        Mockito.when(repository.save(lancamento)).thenReturn(lancamento);
+
+        service.atualizar(lancamento);
+
+        Mockito.verify(categoriaService).registrarMovimento(1L, 5L, 2022, 10, TipoLancamento.RECEITA, BigDecimal.valueOf(-10));
+        Mockito.verify(categoriaService).registrarMovimento(1L, 7L, 2022, 10, TipoLancamento.RECEITA, BigDecimal.valueOf(10));
+    }
+
+    @Test
+    public void naoDeveAlterarOSaldoAoSalvarUmLancamentoPendente(){
+        Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+        Mockito.doNothing().when(service).validar(lancamento);
+        Mockito.when(repository.save(lancamento)).thenReturn(lancamento);
+
+        service.salvar(lancamento);
+
+        Mockito.verify(saldoService, Mockito.never())
+                .registrarMovimento(Mockito.anyLong(), Mockito.anyInt(), Mockito.anyInt(), Mockito.any());
+    }
+
+    @Test
+    public void deveObterOSaldoPelaProjecao(){
+        Mockito.when(saldoService.obterSaldo(1L)).thenReturn(BigDecimal.valueOf(100));
+
+        BigDecimal saldo = service.obterSaldoPorUsuario(1L);
+
+        Assertions.assertThat(saldo).isEqualTo(BigDecimal.valueOf(100));
+        Mockito.verify(repository, Mockito.never())
+                .obterSaldoPorTipoLancamentoEUsuarioEStatus(Mockito.anyLong(), Mockito.any(), Mockito.any());
+    }
+
 }
@@ -0,0 +1,83 @@
+package com.gabs.minhasfinancias.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gabs.minhasfinancias.dto.LancamentoDTO;
+import com.gabs.minhasfinancias.services.ingestao.LogIngestao;
+import com.gabs.minhasfinancias.services.ingestao.PedidoIngestao;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class LogIngestaoTest {
+
+    @TempDir
+    Path diretorio;
+
+    private LogIngestao criarLog(long tamanhoSegmento) {
+        return new LogIngestao(diretorio, tamanhoSegmento, true, new ObjectMapper());
+    }
+
+    private static PedidoIngestao pedido(long protocolo) {
+        return new PedidoIngestao(protocolo, LancamentoDTO.builder().descricao("lancamento " + protocolo)
+                .mes(1).ano(2022).valor(BigDecimal.TEN).usuario(1L).tipo("RECEITA").build());
+    }
+
+    private List<String> segmentos() throws Exception {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.map(arquivo -> arquivo.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void deveDevolverAoReabrirApenasOsPedidosNaoConcluidos() throws Exception {
+        LogIngestao log = criarLog(1024 * 1024);
+        Assertions.assertThat(log.abrir()).isEmpty();
+        log.registrar(pedido(1));
+        log.registrar(pedido(2));
+        log.registrar(pedido(3));
+        log.concluir(2);
+        // queda sem close: tudo o que foi registrado já está no disco
+        // e uma linha pela metade no fim do segmento é descartada
+        Files.write(diretorio.resolve("ingestao-1.log"), "A\t{\"protocolo\":4,\"lanc".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        LogIngestao reaberto = criarLog(1024 * 1024);
+        List<PedidoIngestao> pendentes = reaberto.abrir();
+
+        Assertions.assertThat(pendentes).extracting(PedidoIngestao::getProtocolo).containsExactly(1L, 3L);
+        Assertions.assertThat(pendentes.get(0).getLancamento().getDescricao()).isEqualTo("lancamento 1");
+        Assertions.assertThat(reaberto.getMaiorProtocolo()).isEqualTo(3);
+        reaberto.close();
+    }
+
+    @Test
+    public void deveApagarOSegmentoQuandoTodosOsPedidosForemConcluidos() throws Exception {
+        // segmentos mínimos: cada pedido abre um segmento novo
+        LogIngestao log = criarLog(1);
+        log.abrir();
+        log.registrar(pedido(1));
+        log.registrar(pedido(2));
+        log.registrar(pedido(3));
+        Assertions.assertThat(segmentos()).containsExactly("ingestao-1.log", "ingestao-2.log", "ingestao-3.log");
+
+        log.concluir(1);
+        log.concluir(2);
+
+        Assertions.assertThat(segmentos()).containsExactly("ingestao-3.log");
+        log.close();
+
+        LogIngestao reaberto = criarLog(1);
+        Assertions.assertThat(reaberto.abrir()).extracting(PedidoIngestao::getProtocolo).containsExactly(3L);
+        Assertions.assertThat(segmentos()).containsExactly("ingestao-3.log", "ingestao-4.log");
+        reaberto.close();
+    }
+}
@@ -0,0 +1,171 @@
+package com.gabs.minhasfinancias.service;
+
+import com.gabs.minhasfinancias.dto.LancamentoFiltro;
+import com.gabs.minhasfinancias.exception.RegraNegocioException;
+import com.gabs.minhasfinancias.jobs.RecorrenciaJob;
+import com.gabs.minhasfinancias.model.entity.Lancamento;
+import com.gabs.minhasfinancias.model.entity.Recorrencia;
+import com.gabs.minhasfinancias.model.entity.Usuario;
+import com.gabs.minhasfinancias.model.enums.Periodicidade;
+import com.gabs.minhasfinancias.model.enums.StatusLancamento;
+import com.gabs.minhasfinancias.model.enums.TipoLancamento;
+import com.gabs.minhasfinancias.repositories.UsuarioRepository;
+import com.gabs.minhasfinancias.services.LancamentoService;
+import com.gabs.minhasfinancias.services.RecorrenciaService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class RecorrenciaServiceTest {
+
+    @Autowired
+    RecorrenciaService recorrenciaService;
+
+    @Autowired
+    RecorrenciaJob recorrenciaJob;
+
+    @Autowired
+    LancamentoService lancamentoService;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    private Usuario criarUsuario(String email) {
+        return usuarioRepository.save(Usuario.builder().nome("usuario").email(email + System.nanoTime() + "@email.com").senha("senha").build());
+    }
+
+    private Recorrencia criarRecorrencia(Usuario usuario, Periodicidade periodicidade, YearMonth inicio, YearMonth fim) {
+        return recorrenciaService.salvar(Recorrencia.builder()
+                .descricao("aluguel")
+                .valor(BigDecimal.valueOf(1500))
+                .tipo(TipoLancamento.DESPESA)
+                .periodicidade(periodicidade)
+                .anoInicial(inicio.getYear())
+                .mesInicial(inicio.getMonthValue())
+                .anoFinal(fim == null ? null : fim.getYear())
+                .mesFinal(fim == null ? null : fim.getMonthValue())
+                .usuario(usuario)
+                .build());
+    }
+
+    private List<YearMonth> periodosLancados(Usuario usuario) {
+        return lancamentoService.buscar(LancamentoFiltro.builder().usuario(usuario.getId()).build()).stream()
+                .map(lancamento -> YearMonth.of(lancamento.getAno(), lancamento.getMes()))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private static List<YearMonth> periodos(YearMonth inicio, YearMonth fim, int meses) {
+        List<YearMonth> periodos = new ArrayList<>();
+        for(YearMonth periodo = inicio; !periodo.isAfter(fim); periodo = periodo.plusMonths(meses)) {
+            periodos.add(periodo);
+        }
+        return periodos;
+    }
+
+    @Test
+    public void deveMaterializarAsOcorrenciasAteOHorizonteAoSalvar() {
+        // cenário
+        Usuario usuario = criarUsuario("recorrencia");
+        YearMonth inicio = YearMonth.now().minusMonths(3);
+
+        // ação
+        Recorrencia recorrencia = criarRecorrencia(usuario, Periodicidade.MENSAL, inicio, null);
+
+        // verificação
+        YearMonth horizonte = recorrenciaService.horizonte();
+        Assertions.assertThat(periodosLancados(usuario)).isEqualTo(periodos(inicio, horizonte, 1));
+        Assertions.assertThat(recorrencia.getProximoAno()).isEqualTo(horizonte.plusMonths(1).getYear());
+        Assertions.assertThat(recorrencia.getProximoMes()).isEqualTo(horizonte.plusMonths(1).getMonthValue());
+        List<Lancamento> lancamentos = lancamentoService.buscar(LancamentoFiltro.builder().usuario(usuario.getId()).build());
+        Assertions.assertThat(lancamentos).allSatisfy(lancamento -> {
+            Assertions.assertThat(lancamento.getStatus()).isEqualTo(StatusLancamento.PENDENTE);
+            Assertions.assertThat(lancamento.getIdRecorrencia()).isEqualTo(recorrencia.getId());
+        });
+    }
+
+    @Test
+    public void naoDeveDuplicarOcorrenciasAoExecutarOJobNovamente() {
+        // cenário
+        Usuario usuario = criarUsuario("recorrencia-idempotente");
+        YearMonth inicio = YearMonth.now().minusMonths(2);
+        criarRecorrencia(usuario, Periodicidade.MENSAL, inicio, null);
+        List<YearMonth> antes = periodosLancados(usuario);
+
+        // ação
+        recorrenciaJob.materializar();
+        recorrenciaJob.materializar();
+
+        // verificação
+        Assertions.assertThat(periodosLancados(usuario)).isEqualTo(antes);
+    }
+
+    @Test
+    public void deveAvancarCadaFatiaDeUsuariosSemDuplicarEntreExecucoes() {
+        // cenário
+        YearMonth inicio = YearMonth.now();
+        List<Usuario> usuarios = new ArrayList<>();
+        for(int i = 0; i < 7; i++) {
+            Usuario usuario = criarUsuario("recorrencia-fatia" + i);
+            criarRecorrencia(usuario, Periodicidade.MENSAL, inicio, null);
+            usuarios.add(usuario);
+        }
+        YearMonth ate = recorrenciaService.horizonte().plusMonths(4);
+
+        // ação: as três fatias cobrem todos os usuários; a segunda rodada não encontra nada pendente
+        int gravados = 0;
+        int regravados = 0;
+        for(int particao = 0; particao < 3; particao++) {
+            gravados += recorrenciaService.materializar(3, particao, ate);
+        }
+        for(int particao = 0; particao < 3; particao++) {
+            regravados += recorrenciaService.materializar(3, particao, ate);
+        }
+
+        // verificação
+        Assertions.assertThat(gravados).isGreaterThanOrEqualTo(usuarios.size() * 4);
+        Assertions.assertThat(regravados).isZero();
+        for(Usuario usuario : usuarios) {
+            Assertions.assertThat(periodosLancados(usuario)).isEqualTo(periodos(inicio, ate, 1));
+        }
+    }
+
+    @Test
+    public void deveRespeitarAPeriodicidadeAnualEOPeriodoFinal() {
+        // cenário
+        Usuario usuario = criarUsuario("recorrencia-anual");
+        YearMonth inicio = YearMonth.now().minusYears(3);
+        YearMonth fim = YearMonth.now().minusYears(1);
+
+        // ação
+        Recorrencia recorrencia = criarRecorrencia(usuario, Periodicidade.ANUAL, inicio, fim);
+        recorrenciaJob.materializar();
+
+        // verificação
+        Assertions.assertThat(periodosLancados(usuario)).containsExactly(inicio, inicio.plusYears(1), fim);
+        Assertions.assertThat(recorrencia.getProximoAno()).isNull();
+        Assertions.assertThat(recorrencia.getProximoMes()).isNull();
+    }
+
+    @Test
+    public void deveRecusarRecorrenciaSemPeriodicidadeOuComFimAntesDoInicio() {
+        Usuario usuario = criarUsuario("recorrencia-invalida");
+        YearMonth inicio = YearMonth.now();
+
+        Assertions.assertThatThrownBy(() -> criarRecorrencia(usuario, null, inicio, null))
+                .isInstanceOf(RegraNegocioException.class);
+        Assertions.assertThatThrownBy(() -> criarRecorrencia(usuario, Periodicidade.MENSAL, inicio, inicio.minusMonths(1)))
+                .isInstanceOf(RegraNegocioException.class);
+        Assertions.assertThat(periodosLancados(usuario)).isEmpty();
+    }
+}
@@ -0,0 +1,128 @@
+package com.gabs.minhasfinancias.service;
+
+import com.gabs.minhasfinancias.config.CacheConfiguration;
+import com.gabs.minhasfinancias.model.entity.Lancamento;
+import com.gabs.minhasfinancias.model.entity.Usuario;
+import com.gabs.minhasfinancias.model.enums.StatusLancamento;
+import com.gabs.minhasfinancias.repositories.LancamentoRepositoryTest;
+import com.gabs.minhasfinancias.repositories.UsuarioRepository;
+import com.gabs.minhasfinancias.services.LancamentoService;
+import com.gabs.minhasfinancias.services.SaldoService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+@SpringBootTest(properties = "minhasfinancas.saldo.reconciliacao.habilitada=false")
+@ActiveProfiles("test")
+public class SaldoCacheTest {
+
+    @Autowired
+    LancamentoService lancamentoService;
+
+    @Autowired
+    SaldoService saldoService;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    Usuario usuario;
+    Cache saldos;
+    Cache saldosMensais;
+
+    @BeforeEach
+    public void setUp() {
+        usuario = usuarioRepository.save(Usuario.builder().nome("saldo").email("saldo" + System.nanoTime() + "@email.com").senha("senha").build());
+        saldos = cacheManager.getCache(CacheConfiguration.SALDOS);
+        saldosMensais = cacheManager.getCache(CacheConfiguration.SALDOS_MENSAIS);
+    }
+
+    private Lancamento salvarLancamento(int mes) {
+        Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+        lancamento.setMes(mes);
+        lancamento.setUsuario(usuario);
+        return lancamentoService.salvar(lancamento);
+    }
+
+    @Test
+    public void deveGuardarOSaldoNoCache() {
+        // ação
+        BigDecimal saldo = lancamentoService.obterSaldoPorUsuario(usuario.getId());
+
+        // verificação
+        Assertions.assertThat(saldo).isEqualByComparingTo(BigDecimal.ZERO);
+        Assertions.assertThat(saldos.get(usuario.getId())).isNotNull();
+    }
+
+    @Test
+    public void deveInvalidarOSaldoAoEfetivarUmLancamento() {
+        // cenário
+        Lancamento lancamento = salvarLancamento(10);
+        Assertions.assertThat(lancamentoService.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo(BigDecimal.ZERO);
+
+        // ação
+        lancamentoService.atualizarStatus(lancamento, StatusLancamento.EFETIVADO);
+
+        // verificação
+        Assertions.assertThat(saldos.get(usuario.getId())).isNull();
+        Assertions.assertThat(lancamentoService.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo(BigDecimal.TEN);
+    }
+
+    @Test
+    public void deveManterOSaldoEmCacheQuandoAEscritaNaoAlteraOSaldo() {
+        // cenário
+        lancamentoService.obterSaldoPorUsuario(usuario.getId());
+
+        // ação: lançamento pendente não altera o saldo
+        salvarLancamento(10);
+
+        // verificação
+        Assertions.assertThat(saldos.get(usuario.getId())).isNotNull();
+    }
+
+    @Test
+    public void deveInvalidarSomenteOMesAfetado() {
+        // cenário
+        Lancamento lancamento = salvarLancamento(10);
+        lancamentoService.obterSaldoPorUsuario(usuario.getId(), 2022, 10);
+        lancamentoService.obterSaldoPorUsuario(usuario.getId(), 2022, 11);
+
+        // ação
+        lancamentoService.atualizarStatus(lancamento, StatusLancamento.EFETIVADO);
+
+        // verificação
+        Assertions.assertThat(saldosMensais.get(new SimpleKey(usuario.getId(), 2022, 10))).isNull();
+        Assertions.assertThat(saldosMensais.get(new SimpleKey(usuario.getId(), 2022, 11))).isNotNull();
+        Assertions.assertThat(lancamentoService.obterSaldoPorUsuario(usuario.getId(), 2022, 10)).isEqualByComparingTo(BigDecimal.TEN);
+    }
+
+    @Test
+    public void naoDeveInvalidarQuandoATransacaoForDesfeita() {
+        // cenário
+        lancamentoService.obterSaldoPorUsuario(usuario.getId());
+
+        // ação
+        transactionTemplate.executeWithoutResult(status -> {
+            saldoService.registrarMovimento(usuario.getId(), 2022, 10, BigDecimal.TEN);
+            status.setRollbackOnly();
+        });
+
+        // verificação
+        Assertions.assertThat(saldos.get(usuario.getId())).isNotNull();
+        Assertions.assertThat(lancamentoService.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+}
@@ -0,0 +1,122 @@
+package com.gabs.minhasfinancias.service;
+
+import com.gabs.minhasfinancias.model.entity.SaldoMensal;
+import com.gabs.minhasfinancias.model.entity.SaldoUsuario;
+import com.gabs.minhasfinancias.model.enums.StatusLancamento;
+import com.gabs.minhasfinancias.model.enums.TipoLancamento;
+import com.gabs.minhasfinancias.repositories.LancamentoRepository;
+import com.gabs.minhasfinancias.repositories.SaldoMensalRepository;
+import com.gabs.minhasfinancias.repositories.SaldoUsuarioRepository;
+import com.gabs.minhasfinancias.services.VersaoUsuarioService;
+import com.gabs.minhasfinancias.services.impl.SaldoServiceImpl;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class SaldoServiceTest {
+
+    @SpyBean
+    SaldoServiceImpl service;
+
+    @MockBean
+    SaldoUsuarioRepository saldoUsuarioRepository;
+
+    @MockBean
+    SaldoMensalRepository saldoMensalRepository;
+
+    @MockBean
+    LancamentoRepository lancamentoRepository;
+
+    @MockBean
+    VersaoUsuarioService versaoUsuarioService;
+
+    @Test
+    public void deveCriarAProjecaoNoPrimeiroMovimento() {
+        // cenário
+        Mockito.when(saldoUsuarioRepository.somar(1L, BigDecimal.TEN)).thenReturn(0);
+        Mockito.when(saldoMensalRepository.somar(1L, 2022, 10, BigDecimal.TEN)).thenReturn(0);
+
+        // ação
+        service.registrarMovimento(1L, 2022, 10, BigDecimal.TEN);
+
+        // verificação
+        Mockito.verify(saldoUsuarioRepository).inserir(1L, BigDecimal.TEN);
+        Mockito.verify(saldoMensalRepository).save(Mockito.any(SaldoMensal.class));
+    }
+
+    @Test
+    public void deveSomarAProjecaoExistente() {
+        // cenário
+        Mockito.when(saldoUsuarioRepository.somar(1L, BigDecimal.TEN)).thenReturn(1);
+        Mockito.when(saldoMensalRepository.somar(1L, 2022, 10, BigDecimal.TEN)).thenReturn(1);
+
+        // ação
+        service.registrarMovimento(1L, 2022, 10, BigDecimal.TEN);
+
+        // verificação
+        Mockito.verify(saldoUsuarioRepository, Mockito.never()).inserir(Mockito.anyLong(), Mockito.any());
+        Mockito.verify(saldoMensalRepository, Mockito.never()).save(Mockito.any(SaldoMensal.class));
+    }
+
+    @Test
+    public void deveRetornarZeroQuandoNaoHouverProjecao() {
+        Mockito.when(saldoUsuarioRepository.obterSaldo(1L)).thenReturn(Optional.empty());
+
+        Assertions.assertThat(service.obterSaldo(1L)).isEqualTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    public void deveCorrigirAProjecaoDivergenteAoReconciliar() {
+        // cenário
+        Mockito.when(lancamentoRepository.obterSaldoPorTipoLancamentoEUsuarioEStatus(1L, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO))
+                .thenReturn(BigDecimal.valueOf(100));
+        Mockito.when(lancamentoRepository.obterSaldoPorTipoLancamentoEUsuarioEStatus(1L, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO))
+                .thenReturn(BigDecimal.valueOf(30));
+        Mockito.when(saldoUsuarioRepository.bloquear(1L))
+                .thenReturn(Optional.of(SaldoUsuario.builder().idUsuario(1L).saldo(BigDecimal.valueOf(50)).build()));
+        Mockito.when(lancamentoRepository.obterTotaisMensaisPorUsuarioEStatus(1L, StatusLancamento.EFETIVADO))
+                .thenReturn(Collections.emptyList());
+        Mockito.when(saldoMensalRepository.findByIdUsuario(1L)).thenReturn(List.of());
+
+        // ação
+        boolean consistente = service.reconciliar(1L);
+
+        // verificação
+        Assertions.assertThat(consistente).isFalse();
+        Mockito.verify(saldoUsuarioRepository).save(Mockito.argThat(s -> s.getSaldo().compareTo(BigDecimal.valueOf(70)) == 0));
+    }
+
+    @Test
+    public void deveTravarAProjecaoAntesDeSomarOsLancamentosAoReconciliar() {
+        // cenário
+        Mockito.when(saldoUsuarioRepository.bloquear(1L)).thenReturn(Optional.empty());
+        Mockito.when(lancamentoRepository.obterSaldoPorTipoLancamentoEUsuarioEStatus(1L, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO))
+                .thenReturn(BigDecimal.valueOf(40));
+        Mockito.when(lancamentoRepository.obterTotaisMensaisPorUsuarioEStatus(1L, StatusLancamento.EFETIVADO))
+                .thenReturn(Collections.emptyList());
+        Mockito.when(saldoMensalRepository.findByIdUsuario(1L)).thenReturn(List.of());
+
+        // ação
+        service.reconciliar(1L);
+
+        // verificação: sem linha projetada, a correção é um insert puro, que não sobrescreve uma linha criada ao mesmo tempo
+        InOrder ordem = Mockito.inOrder(saldoUsuarioRepository, lancamentoRepository);
+        ordem.verify(saldoUsuarioRepository).bloquear(1L);
+        ordem.verify(lancamentoRepository).obterSaldoPorTipoLancamentoEUsuarioEStatus(1L, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO);
+        ordem.verify(saldoUsuarioRepository).inserir(1L, BigDecimal.valueOf(40));
+        Mockito.verify(saldoUsuarioRepository, Mockito.never()).save(Mockito.any(SaldoUsuario.class));
+    }
+}
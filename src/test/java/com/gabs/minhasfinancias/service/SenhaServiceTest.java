@@ -0,0 +1,43 @@
+package com.gabs.minhasfinancias.service;
+
+import com.gabs.minhasfinancias.config.SenhaConfiguration;
+import com.gabs.minhasfinancias.services.impl.SenhaServiceImpl;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+public class SenhaServiceTest {
+
+    private final PasswordEncoder encoder = new SenhaConfiguration().passwordEncoder("bcrypt", 4, 1000);
+    private final SenhaServiceImpl service = new SenhaServiceImpl(encoder, 1, 4, 5000);
+
+    @Test
+    public void deveConferirUmaSenhaCodificada() {
+        String hash = service.codificar("senha");
+
+        Assertions.assertThat(hash).startsWith("{bcrypt}").doesNotContain("senha");
+        Assertions.assertThat(service.confere("senha", hash)).isTrue();
+        Assertions.assertThat(service.confere("outra", hash)).isFalse();
+        Assertions.assertThat(service.precisaAtualizar(hash)).isFalse();
+    }
+
+    @Test
+    public void deveConferirASenhaLegadaEPedirAtualizacao() {
+        Assertions.assertThat(service.confere("senha", "senha")).isTrue();
+        Assertions.assertThat(service.confere("senhaerrada", "senha")).isFalse();
+        Assertions.assertThat(service.precisaAtualizar("senha")).isTrue();
+    }
+
+    @Test
+    public void devePedirAtualizacaoQuandoOCustoAumentar() {
+        String hash = service.codificar("senha");
+        PasswordEncoder encoderMaisCaro = new SenhaConfiguration().passwordEncoder("bcrypt", 5, 1000);
+
+        Assertions.assertThat(encoderMaisCaro.upgradeEncoding(hash)).isTrue();
+    }
+
+    @Test
+    public void naoDeveConferirSenhaNula() {
+        Assertions.assertThat(service.confere(null, null)).isFalse();
+    }
+}
@@ -0,0 +1,44 @@
+package com.gabs.minhasfinancias.service;
+
+import com.gabs.minhasfinancias.services.TokenService;
+import com.gabs.minhasfinancias.services.impl.TokenServiceImpl;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TokenServiceTest {
+
+    private final TokenService service = new TokenServiceImpl("segredo-de-teste", 60);
+
+    @Test
+    public void deveVerificarUmTokenEmitido() {
+        String token = service.emitir(42L);
+
+        Assertions.assertThat(service.verificar(token)).contains(42L);
+    }
+
+    @Test
+    public void deveRecusarUmTokenAdulterado() {
+        String token = service.emitir(42L);
+        String outroUsuario = new TokenServiceImpl("segredo-de-teste", 60).emitir(7L);
+        String adulterado = outroUsuario.substring(0, outroUsuario.indexOf('.')) + token.substring(token.indexOf('.'));
+
+        Assertions.assertThat(service.verificar(adulterado)).isEmpty();
+        Assertions.assertThat(service.verificar("abc")).isEmpty();
+        Assertions.assertThat(service.verificar("a.%%%")).isEmpty();
+        Assertions.assertThat(service.verificar(null)).isEmpty();
+    }
+
+    @Test
+    public void deveRecusarUmTokenAssinadoComOutroSegredo() {
+        String token = new TokenServiceImpl("outro-segredo", 60).emitir(42L);
+
+        Assertions.assertThat(service.verificar(token)).isEmpty();
+    }
+
+    @Test
+    public void deveRecusarUmTokenExpirado() {
+        TokenService semValidade = new TokenServiceImpl("segredo-de-teste", 0);
+
+        Assertions.assertThat(semValidade.verificar(semValidade.emitir(42L))).isEmpty();
+    }
+}
@@ -0,0 +1,61 @@
+package com.gabs.minhasfinancias.service;
+
+import com.gabs.minhasfinancias.config.CacheConfiguration;
+import com.gabs.minhasfinancias.model.entity.Usuario;
+import com.gabs.minhasfinancias.repositories.UsuarioRepository;
+import com.gabs.minhasfinancias.services.UsuarioService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class UsuarioCacheTest {
+
+    @Autowired
+    UsuarioService usuarioService;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Test
+    public void deveGuardarOUsuarioNoCacheAoSalvar() {
+        // ação
+        Usuario usuario = usuarioService.salvarUsuario(Usuario.builder().nome("cache").email("cache@email.com").senha("senha").build());
+
+        // verificação
+        Assertions.assertThat(cacheManager.getCache(CacheConfiguration.USUARIOS).get(usuario.getId())).isNotNull();
+        Assertions.assertThat(usuarioService.obterPorId(usuario.getId())).contains(usuario);
+    }
+
+    @Test
+    public void naoDeveGuardarNoCacheUmUsuarioInexistente() {
+        // ação
+        boolean presente = usuarioService.obterPorId(-1L).isPresent();
+
+        // verificação
+        Assertions.assertThat(presente).isFalse();
+        Assertions.assertThat(cacheManager.getCache(CacheConfiguration.USUARIOS).get(-1L)).isNull();
+    }
+
+    @Test
+    public void deveInvalidarOEmailEmCacheAoCadastrarUmUsuario() {
+        // cenário
+        String email = "novo@email.com";
+        Assertions.assertThat(usuarioRepository.existsByEmail(email)).isFalse();
+        Assertions.assertThat(cacheManager.getCache(CacheConfiguration.EMAILS_CADASTRADOS).get(email)).isNotNull();
+
+        // ação
+        usuarioService.salvarUsuario(Usuario.builder().nome("novo").email(email).senha("senha").build());
+
+        // verificação
+        Assertions.assertThat(cacheManager.getCache(CacheConfiguration.EMAILS_CADASTRADOS).get(email)).isNull();
+        Assertions.assertThat(usuarioRepository.existsByEmail(email)).isTrue();
+    }
+}
@@ -4,6 +4,7 @@ import com.gabs.minhasfinancias.exception.ErroAutenticacaoException;
 import com.gabs.minhasfinancias.exception.RegraNegocioException;
 import com.gabs.minhasfinancias.model.entity.Usuario;
 import com.gabs.minhasfinancias.repositories.UsuarioRepository;
+import com.gabs.minhasfinancias.services.SenhaService;
 import com.gabs.minhasfinancias.services.impl.UsuarioServiceImpl;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -23,6 +24,9 @@ public class UsuarioServiceTest {
     @MockBean
     UsuarioRepository usuarioRepositoryMock;
 
+    @MockBean
+    SenhaService senhaService;
+
     @SpyBean
     UsuarioServiceImpl usuarioService;
 
@@ -98,6 +102,7 @@ public class UsuarioServiceTest {
         Usuario usuario = Usuario.builder().email(email).senha(senha).id(1l).build();
 
         Mockito.when(usuarioRepositoryMock.findByEmail(email)).thenReturn(Optional.of(usuario));
+        Mockito.when(senhaService.confere(senha, senha)).thenReturn(true);
 
         // ação
         Usuario resultado = usuarioService.autenticar(email, senha);
@@ -132,6 +137,19 @@ public class UsuarioServiceTest {
                 .hasMessage("Usuário não encontrado para o email informado");
     }
 
+    @Test
+    public void deveConferirASenhaMesmoQuandoOEmailNaoExistir() {
+        // cenário
+        Mockito.when(usuarioRepositoryMock.findByEmail(Mockito.anyString())).thenReturn(Optional.empty());
+        Mockito.when(senhaService.hashFicticio()).thenReturn("{bcrypt}ficticio");
+
+        // ação
+        Assertions.catchThrowable(() -> usuarioService.autenticar("inexistente@email.com", "senha"));
+
+        // verificação: o hash é calculado como no email cadastrado, sem diferença no tempo de resposta
+        Mockito.verify(senhaService).confere("senha", "{bcrypt}ficticio");
+    }
+
     @Test
     public void deveLancarErroQuandoAsSenhasNaoForemIguais() {
         // cenário
@@ -157,4 +175,36 @@ public class UsuarioServiceTest {
 
     }
 
+    @Test
+    public void deveGravarOHashDaSenhaAoSalvarUmUsuario() {
+        // cenário
+        Mockito.doNothing().when(usuarioService).validarEmail(Mockito.anyString());
+        Mockito.when(senhaService.codificar("senha")).thenReturn("{bcrypt}hash");
+        Usuario usuario = Usuario.builder().nome("nome").email("usuario@email.com").senha("senha").build();
+
+        // ação
+        usuarioService.salvarUsuario(usuario);
+
+        // verificação
+        Mockito.verify(usuarioRepositoryMock).save(Mockito.argThat(u -> u.getSenha().equals("{bcrypt}hash")));
+    }
+
+    @Test
+    public void deveRecodificarASenhaLegadaAoAutenticar() {
+        // cenário
+        String email = "usuario@email.com", senha = "senha";
+        Usuario usuario = Usuario.builder().email(email).senha(senha).id(1l).build();
+
+        Mockito.when(usuarioRepositoryMock.findByEmail(email)).thenReturn(Optional.of(usuario));
+        Mockito.when(senhaService.confere(senha, senha)).thenReturn(true);
+        Mockito.when(senhaService.precisaAtualizar(senha)).thenReturn(true);
+        Mockito.when(senhaService.codificar(senha)).thenReturn("{bcrypt}hash");
+
+        // ação
+        usuarioService.autenticar(email, senha);
+
+        // verificação
+        Mockito.verify(usuarioRepositoryMock).atualizarSenha(1l, email, "{bcrypt}hash");
+    }
+
 }
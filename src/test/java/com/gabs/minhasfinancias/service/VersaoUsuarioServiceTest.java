@@ -0,0 +1,75 @@
+package com.gabs.minhasfinancias.service;
+
+import com.gabs.minhasfinancias.model.entity.Usuario;
+import com.gabs.minhasfinancias.repositories.UsuarioRepository;
+import com.gabs.minhasfinancias.repositories.VersaoUsuarioRepository;
+import com.gabs.minhasfinancias.services.VersaoUsuarioService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class VersaoUsuarioServiceTest {
+
+    @Autowired
+    VersaoUsuarioService versaoUsuarioService;
+
+    @Autowired
+    VersaoUsuarioRepository repository;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    private Usuario criarUsuario(String email) {
+        return usuarioRepository.save(Usuario.builder().nome("usuario").email(email + System.nanoTime() + "@email.com").senha("senha").build());
+    }
+
+    private void registrarAlteracao(Long idUsuario) {
+        transactionTemplate.executeWithoutResult(status -> versaoUsuarioService.registrarAlteracao(idUsuario));
+    }
+
+    @Test
+    public void deveCriarAVersaoNaPrimeiraEscritaEIncrementarNasSeguintes() {
+        Usuario usuario = criarUsuario("versao");
+
+        registrarAlteracao(usuario.getId());
+        registrarAlteracao(usuario.getId());
+
+        Assertions.assertThat(repository.obterVersao(usuario.getId())).contains(2L);
+    }
+
+    @Test
+    public void naoDeveSobrescreverAVersaoCriadaPorOutraTransacao() {
+        Usuario usuario = criarUsuario("versao-corrida");
+        registrarAlteracao(usuario.getId());
+        registrarAlteracao(usuario.getId());
+
+        // o insert de quem perdeu a corrida falha pela chave única em vez de voltar a versão para 1
+        Assertions.assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(
+                        status -> repository.inserir(usuario.getId(), 1L)))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        Assertions.assertThat(repository.obterVersao(usuario.getId())).contains(2L);
+    }
+
+    @Test
+    public void deveInicializarAVersaoSemAlterarAETag() {
+        Usuario usuario = criarUsuario("versao-inicial");
+        Usuario comEscritas = criarUsuario("versao-existente");
+        registrarAlteracao(comEscritas.getId());
+
+        versaoUsuarioService.inicializar(usuario.getId());
+        versaoUsuarioService.inicializar(comEscritas.getId());
+        registrarAlteracao(usuario.getId());
+
+        Assertions.assertThat(repository.obterVersao(usuario.getId())).contains(1L);
+        Assertions.assertThat(repository.obterVersao(comEscritas.getId())).contains(1L);
+    }
+}